@@ -0,0 +1,105 @@
+package tw.com.tymbackend.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import tw.com.tymbackend.module.people.domain.dto.BatchDamageRequestDTO;
+import tw.com.tymbackend.module.people.domain.dto.BatchDamageResponseDTO;
+import tw.com.tymbackend.module.people.domain.vo.People;
+import tw.com.tymbackend.module.people.service.PeopleService;
+import tw.com.tymbackend.module.people.service.WeaponDamageService;
+import tw.com.tymbackend.module.people.service.cache.DamageResultCache;
+import tw.com.tymbackend.module.people.service.snapshot.PeopleCombatSnapshot;
+import tw.com.tymbackend.module.people.service.strategy.BonusAttributeDamageDecorator;
+import tw.com.tymbackend.module.people.service.strategy.CompiledDamageStrategy;
+import tw.com.tymbackend.module.people.service.strategy.DamageStrategy;
+import tw.com.tymbackend.module.people.service.strategy.DefaultDamageStrategy;
+import tw.com.tymbackend.module.people.service.strategy.StateEffectDamageDecorator;
+import tw.com.tymbackend.module.weapon.domain.vo.Weapon;
+import tw.com.tymbackend.module.weapon.service.WeaponService;
+
+/**
+ * 批量傷害計算基準測試
+ *
+ * 以記憶體內的合成資料取代資料庫查詢，只量測
+ * {@link WeaponDamageService#calculateBatchDamageWithWeapon(BatchDamageRequestDTO)}
+ * 的分組、計算與排序成本。
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchDamageBenchmark {
+
+    @Param({"10", "1000", "10000", "100000"})
+    public int characters;
+
+    @Param({"3"})
+    public int weaponsPerCharacter;
+
+    /** {@code decorators} 使用原裝飾器鏈，{@code compiled} 使用編譯後管線 */
+    @Param({"decorators", "compiled"})
+    public String strategy;
+
+    private WeaponDamageService weaponDamageService;
+    private BatchDamageRequestDTO request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<People> roster = DamageFixtures.people(characters, 42L);
+        List<Weapon> allWeapons = new ArrayList<>();
+        DamageFixtures.weapons(roster, weaponsPerCharacter, 7L).forEach(allWeapons::addAll);
+
+        List<String> names = new ArrayList<>(characters);
+        for (People people : roster) {
+            names.add(people.getName());
+        }
+        request = new BatchDamageRequestDTO(names);
+
+        PeopleService peopleService = new PeopleService(null, null, null) {
+            @Override
+            public List<People> findByNames(List<String> requested) {
+                return roster;
+            }
+        };
+        WeaponService weaponService = new WeaponService(null, null) {
+            @Override
+            public List<Weapon> getWeaponsByOwners(List<String> owners) {
+                return allWeapons;
+            }
+        };
+
+        StateEffectDamageDecorator chain = new StateEffectDamageDecorator(
+                new BonusAttributeDamageDecorator(new DefaultDamageStrategy()));
+        DamageStrategy damageStrategy = "compiled".equals(strategy) ? new CompiledDamageStrategy(chain) : chain;
+        // 不使用快照、結果快取、平行計算與分批查詢執行器，只量測循序計算路徑
+        StaticListableBeanFactory none = new StaticListableBeanFactory();
+        weaponDamageService = new WeaponDamageService(weaponService, peopleService, damageStrategy,
+                none.getBeanProvider(PeopleCombatSnapshot.class), none.getBeanProvider(DamageResultCache.class),
+                none.getBeanProvider(ForkJoinPool.class), none.getBeanProvider(Executor.class));
+    }
+
+    @Benchmark
+    public BatchDamageResponseDTO calculateBatchDamageWithWeapon() {
+        return weaponDamageService.calculateBatchDamageWithWeapon(request);
+    }
+}
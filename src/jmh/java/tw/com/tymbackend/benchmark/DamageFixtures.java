@@ -0,0 +1,95 @@
+package tw.com.tymbackend.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import tw.com.tymbackend.module.people.domain.vo.People;
+import tw.com.tymbackend.module.weapon.domain.vo.Weapon;
+
+/**
+ * 基準測試用的合成角色與武器資料
+ *
+ * 以固定亂數種子產生，確保每次執行的資料分佈一致。
+ */
+public final class DamageFixtures {
+
+    private static final String[] ATTRIBUTES = {"Strength", "Agility", "Fire", "Ice", "Dark", "Light"};
+    private static final String[] STATES = {"Normal", "Burn", "Freeze", "Poison", "Stun"};
+
+    private DamageFixtures() {
+    }
+
+    /**
+     * 產生指定數量的角色
+     *
+     * @param count 角色數量
+     * @param seed 亂數種子
+     * @return 角色列表，名稱為 {@code character-<index>}
+     */
+    public static List<People> people(int count, long seed) {
+        Random random = new Random(seed);
+        List<People> roster = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            People people = new People();
+            people.setName(name(i));
+            people.setCodeName("CODE" + i);
+            people.setPhysicPower(random.nextInt(500));
+            people.setMagicPower(random.nextInt(500));
+            people.setUtilityPower(random.nextInt(500));
+            people.setAttributes(ATTRIBUTES[random.nextInt(ATTRIBUTES.length)]);
+            people.setStateAttributes(STATES[random.nextInt(STATES.length)]);
+            roster.add(people);
+        }
+        return roster;
+    }
+
+    /**
+     * 為每個角色產生固定數量的武器
+     *
+     * @param roster 角色列表
+     * @param weaponsPerCharacter 每個角色的武器數量
+     * @param seed 亂數種子
+     * @return 與 roster 索引對應的武器列表
+     */
+    public static List<List<Weapon>> weapons(List<People> roster, int weaponsPerCharacter, long seed) {
+        Random random = new Random(seed);
+        List<List<Weapon>> result = new ArrayList<>(roster.size());
+        for (People people : roster) {
+            List<Weapon> weapons = new ArrayList<>(weaponsPerCharacter);
+            for (int j = 0; j < weaponsPerCharacter; j++) {
+                Weapon weapon = new Weapon();
+                weapon.setName(people.getName() + "-weapon-" + j);
+                weapon.setOwner(people.getName());
+                weapon.setBaseDamage(random.nextInt(1000));
+                weapon.setBonusDamage(random.nextInt(200));
+                weapon.setBonusAttributes(pick(random, ATTRIBUTES));
+                weapon.setStateAttributes(pick(random, STATES));
+                weapons.add(weapon);
+            }
+            result.add(weapons);
+        }
+        return result;
+    }
+
+    /**
+     * 取得第 index 個角色的名稱
+     *
+     * @param index 角色索引
+     * @return 角色名稱
+     */
+    public static String name(int index) {
+        return "character-" + index;
+    }
+
+    private static List<String> pick(Random random, String[] values) {
+        List<String> picked = new ArrayList<>();
+        for (String value : values) {
+            if (random.nextInt(3) == 0) {
+                picked.add(value);
+            }
+        }
+        return picked.isEmpty() ? Arrays.asList(values[random.nextInt(values.length)]) : picked;
+    }
+}
@@ -0,0 +1,93 @@
+package tw.com.tymbackend.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tw.com.tymbackend.module.people.domain.vo.People;
+import tw.com.tymbackend.module.people.service.strategy.BonusAttributeDamageDecorator;
+import tw.com.tymbackend.module.people.service.strategy.CompiledDamageStrategy;
+import tw.com.tymbackend.module.people.service.strategy.DamageStrategy;
+import tw.com.tymbackend.module.people.service.strategy.DefaultDamageStrategy;
+import tw.com.tymbackend.module.people.service.strategy.StateEffectDamageDecorator;
+import tw.com.tymbackend.module.weapon.domain.vo.Weapon;
+
+/**
+ * 傷害計算策略基準測試
+ *
+ * 每次呼叫對整個合成角色名冊計算一次傷害，
+ * 比較各層裝飾器與編譯後管線的吞吐量、延遲分佈與配置率（搭配 {@code -prof gc}）。
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DamageStrategyBenchmark {
+
+    @Param({"10", "1000", "10000", "100000"})
+    public int characters;
+
+    @Param({"3"})
+    public int weaponsPerCharacter;
+
+    private List<People> roster;
+    private List<List<Weapon>> weapons;
+
+    private DefaultDamageStrategy defaultStrategy;
+    private BonusAttributeDamageDecorator bonusDecorator;
+    private StateEffectDamageDecorator stateDecorator;
+    private CompiledDamageStrategy compiledStrategy;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        roster = DamageFixtures.people(characters, 42L);
+        weapons = DamageFixtures.weapons(roster, weaponsPerCharacter, 7L);
+
+        defaultStrategy = new DefaultDamageStrategy();
+        bonusDecorator = new BonusAttributeDamageDecorator(defaultStrategy);
+        stateDecorator = new StateEffectDamageDecorator(bonusDecorator);
+        compiledStrategy = new CompiledDamageStrategy(stateDecorator);
+    }
+
+    @Benchmark
+    public long defaultDamageStrategy() {
+        return calculateRoster(defaultStrategy);
+    }
+
+    @Benchmark
+    public long bonusAttributeDamageDecorator() {
+        return calculateRoster(bonusDecorator);
+    }
+
+    @Benchmark
+    public long stateEffectDamageDecorator() {
+        return calculateRoster(stateDecorator);
+    }
+
+    @Benchmark
+    public long compiledDamageStrategy() {
+        return calculateRoster(compiledStrategy);
+    }
+
+    private long calculateRoster(DamageStrategy strategy) {
+        long total = 0;
+        for (int i = 0, size = roster.size(); i < size; i++) {
+            total += strategy.calculateDamage(roster.get(i), weapons.get(i));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,234 @@
+package tw.com.tymbackend.core.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * RabbitMQ 監聽器的自適應並發與預取控制
+ *
+ * <p>定期觀察監聽容器的隊列深度與消息處理延遲（Spring AMQP 的
+ * {@code spring.rabbitmq.listener} 計時器），在設定的上下限內逐步調整消費者數量與預取數：</p>
+ * <ul>
+ *   <li>處理延遲超過目標：減少消費者並減半預取</li>
+ *   <li>隊列積壓超過每個消費者可承擔的量：增加一個消費者並加倍預取</li>
+ *   <li>隊列清空：逐步退回下限</li>
+ * </ul>
+ *
+ * <p>只調整 {@link RabbitMQConfig#ADAPTIVE_LISTENER_IDS} 列出的監聽器，這些監聽器都由
+ * rabbitListenerContainerFactory 建立，起始狀態即該 factory 設定的並發與預取。
+ * 其他 factory 建立的監聽器（例如死信分派）維持各自的固定設定。
+ * 工作隊列由外部 Consumer 消費，本服務的監聽器只寫入異步結果與轉送死信，不使用資料庫連線，
+ * 因此不以連線池狀態作為訊號。</p>
+ *
+ * <p>調整時讓 concurrentConsumers 與 maxConcurrentConsumers 保持一致，停用容器內建的擴縮，
+ * 由這裡統一決定。預取數變更只會套用到之後啟動的消費者。
+ * 每次決策以 {@code rabbit.listener.adaptive.*} 指標公開。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+@ConditionalOnProperty(name = "app.messaging.listener.adaptive.enabled", havingValue = "true", matchIfMissing = true)
+public class AdaptiveListenerScaler {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveListenerScaler.class);
+
+    private static final String LISTENER_TIMER = "spring.rabbitmq.listener";
+
+    private final RabbitListenerEndpointRegistry endpointRegistry;
+    private final RabbitAdmin rabbitAdmin;
+    private final MeterRegistry meterRegistry;
+    private final Settings settings;
+    private final Map<String, ListenerState> states = new ConcurrentHashMap<>();
+
+    public AdaptiveListenerScaler(RabbitListenerEndpointRegistry endpointRegistry, RabbitAdmin rabbitAdmin,
+            MeterRegistry meterRegistry,
+            @Value("${app.messaging.listener.adaptive.min-consumers:1}") int minConsumers,
+            @Value("${app.messaging.listener.adaptive.max-consumers:4}") int maxConsumers,
+            @Value("${app.messaging.listener.adaptive.min-prefetch:1}") int minPrefetch,
+            @Value("${app.messaging.listener.adaptive.max-prefetch:20}") int maxPrefetch,
+            @Value("${app.messaging.listener.adaptive.backlog-per-consumer:10}") int backlogPerConsumer,
+            @Value("${app.messaging.listener.adaptive.latency-target-ms:500}") double latencyTargetMs) {
+        this.endpointRegistry = endpointRegistry;
+        this.rabbitAdmin = rabbitAdmin;
+        this.meterRegistry = meterRegistry;
+        this.settings = new Settings(Math.max(1, minConsumers), Math.max(minConsumers, maxConsumers),
+                Math.max(1, minPrefetch), Math.max(minPrefetch, maxPrefetch), Math.max(1, backlogPerConsumer),
+                latencyTargetMs);
+    }
+
+    /**
+     * 定期評估並調整所有監聽容器
+     */
+    @Scheduled(fixedDelayString = "${app.messaging.listener.adaptive.interval-ms:5000}")
+    public void adjust() {
+        for (MessageListenerContainer container : endpointRegistry.getListenerContainers()) {
+            if (container instanceof SimpleMessageListenerContainer simple && simple.isRunning()
+                    && RabbitMQConfig.ADAPTIVE_LISTENER_IDS.contains(simple.getListenerId())) {
+                try {
+                    adjust(simple);
+                } catch (RuntimeException e) {
+                    logger.warn("調整監聽器並發失敗: listener={}, error={}", simple.getListenerId(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void adjust(SimpleMessageListenerContainer container) {
+        String listenerId = container.getListenerId();
+        ListenerState state = states.computeIfAbsent(listenerId, this::register);
+
+        long depth = queueDepth(container);
+        double latencyMs = sampleLatency(listenerId, state);
+        state.depth.set(depth);
+
+        Decision decision = decide(state.consumers.get(), state.prefetch.get(),
+                new Sample(depth, latencyMs), settings);
+        meterRegistry.counter("rabbit.listener.adaptive.decisions",
+                "listener", listenerId, "action", decision.action(), "reason", decision.reason()).increment();
+        if ("hold".equals(decision.action())) {
+            return;
+        }
+
+        int consumers = state.consumers.get();
+        if (decision.consumers() > consumers) {
+            container.setMaxConcurrentConsumers(decision.consumers());
+            container.setConcurrentConsumers(decision.consumers());
+        } else if (decision.consumers() < consumers) {
+            container.setConcurrentConsumers(decision.consumers());
+            container.setMaxConcurrentConsumers(decision.consumers());
+        }
+        if (decision.prefetch() != state.prefetch.get()) {
+            container.setPrefetchCount(decision.prefetch());
+        }
+        state.consumers.set(decision.consumers());
+        state.prefetch.set(decision.prefetch());
+
+        logger.info("調整監聽器並發: listener={}, consumers={}, prefetch={}, reason={}, depth={}, latencyMs={}",
+                listenerId, decision.consumers(), decision.prefetch(), decision.reason(), depth,
+                String.format("%.1f", latencyMs));
+    }
+
+    /**
+     * 依觀察結果決定下一步的消費者與預取數
+     *
+     * @param consumers 目前消費者數量
+     * @param prefetch 目前預取數
+     * @param sample 本次觀察結果
+     * @param settings 上下限與目標
+     * @return 調整決策
+     */
+    static Decision decide(int consumers, int prefetch, Sample sample, Settings settings) {
+        if (sample.latencyMs() > settings.latencyTargetMs()) {
+            return scaleDown(consumers, prefetch, settings, "latency");
+        }
+        if (sample.depth() > (long) consumers * settings.backlogPerConsumer()) {
+            int nextConsumers = Math.min(settings.maxConsumers(), consumers + 1);
+            int nextPrefetch = Math.min(settings.maxPrefetch(), prefetch * 2);
+            if (nextConsumers == consumers && nextPrefetch == prefetch) {
+                return new Decision(consumers, prefetch, "hold", "at_max");
+            }
+            return new Decision(nextConsumers, nextPrefetch, "scale_up", "backlog");
+        }
+        if (sample.depth() == 0) {
+            return scaleDown(consumers, prefetch, settings, "idle");
+        }
+        return new Decision(consumers, prefetch, "hold", "steady");
+    }
+
+    private static Decision scaleDown(int consumers, int prefetch, Settings settings, String reason) {
+        int nextConsumers = Math.max(settings.minConsumers(), consumers - 1);
+        int nextPrefetch = Math.max(settings.minPrefetch(), prefetch / 2);
+        if (nextConsumers == consumers && nextPrefetch == prefetch) {
+            return new Decision(consumers, prefetch, "hold", reason);
+        }
+        return new Decision(nextConsumers, nextPrefetch, "scale_down", reason);
+    }
+
+    private ListenerState register(String listenerId) {
+        ListenerState state = new ListenerState(RabbitMQConfig.LISTENER_INITIAL_CONSUMERS,
+                RabbitMQConfig.LISTENER_INITIAL_PREFETCH);
+        Gauge.builder("rabbit.listener.adaptive.consumers", state.consumers, AtomicInteger::get)
+                .tag("listener", listenerId).description("Consumers chosen by the adaptive controller")
+                .register(meterRegistry);
+        Gauge.builder("rabbit.listener.adaptive.prefetch", state.prefetch, AtomicInteger::get)
+                .tag("listener", listenerId).description("Prefetch chosen by the adaptive controller")
+                .register(meterRegistry);
+        Gauge.builder("rabbit.listener.adaptive.queue.depth", state.depth, AtomicLong::get)
+                .tag("listener", listenerId).description("Ready messages observed on the listener queues")
+                .register(meterRegistry);
+        return state;
+    }
+
+    private long queueDepth(SimpleMessageListenerContainer container) {
+        long depth = 0;
+        for (String queueName : container.getQueueNames()) {
+            QueueInformation info = rabbitAdmin.getQueueInfo(queueName);
+            if (info != null) {
+                depth += info.getMessageCount();
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * 以上次觀察後新增的處理次數與時間計算平均延遲
+     */
+    private double sampleLatency(String listenerId, ListenerState state) {
+        long count = 0;
+        double totalMs = 0;
+        for (Timer timer : meterRegistry.find(LISTENER_TIMER).tag("listener.id", listenerId).timers()) {
+            count += timer.count();
+            totalMs += timer.totalTime(TimeUnit.MILLISECONDS);
+        }
+        long deltaCount = count - state.lastCount;
+        double deltaMs = totalMs - state.lastTotalMs;
+        state.lastCount = count;
+        state.lastTotalMs = totalMs;
+        return deltaCount > 0 ? deltaMs / deltaCount : 0;
+    }
+
+    record Settings(int minConsumers, int maxConsumers, int minPrefetch, int maxPrefetch,
+            int backlogPerConsumer, double latencyTargetMs) {
+    }
+
+    record Sample(long depth, double latencyMs) {
+    }
+
+    record Decision(int consumers, int prefetch, String action, String reason) {
+    }
+
+    private static final class ListenerState {
+
+        private final AtomicInteger consumers;
+        private final AtomicInteger prefetch;
+        private final AtomicLong depth = new AtomicLong();
+        private long lastCount;
+        private double lastTotalMs;
+
+        private ListenerState(int consumers, int prefetch) {
+            this.consumers = new AtomicInteger(consumers);
+            this.prefetch = new AtomicInteger(prefetch);
+        }
+    }
+}
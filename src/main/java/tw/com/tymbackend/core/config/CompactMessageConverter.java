@@ -0,0 +1,161 @@
+package tw.com.tymbackend.core.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.amqp.support.postprocessor.AbstractCompressingPostProcessor;
+import org.springframework.amqp.support.postprocessor.AbstractDecompressingPostProcessor;
+import org.springframework.amqp.support.postprocessor.DelegatingDecompressingPostProcessor;
+import org.springframework.amqp.support.postprocessor.GZipPostProcessor;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import tw.com.tymbackend.core.message.AsyncMessageDTO;
+
+/**
+ * 壓縮與精簡編碼的消息轉換器
+ *
+ * <p>以 {@link Jackson2JsonMessageConverter} 產生 JSON，消息本文超過門檻時再壓縮，
+ * 並依 Spring AMQP 的慣例在 content-encoding 標記演算法（例如 {@code gzip:UTF-8}），
+ * 使用 {@link DelegatingDecompressingPostProcessor} 的 Consumer 可以直接解壓。
+ * 小於門檻的消息與原本的 JSON 完全相同。</p>
+ *
+ * <p>啟用二進位編碼時，payload 為集合的 {@link AsyncMessageDTO}（批量寫入）改以 Smile 編碼，
+ * content-type 為 {@value #SMILE_CONTENT_TYPE}，型別標頭與 JSON 相同。
+ * 需確認 Consumer 支援後再啟用。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+public class CompactMessageConverter implements MessageConverter {
+
+    public static final String SMILE_CONTENT_TYPE = "application/x-jackson-smile";
+
+    private final Jackson2JsonMessageConverter jsonConverter;
+    private final ObjectMapper smileMapper;
+    private final MessagePostProcessor compressor;
+    private final int compressionThreshold;
+    private final boolean binaryPayloads;
+    private final DelegatingDecompressingPostProcessor decompressor = decompressor();
+
+    /**
+     * @param jsonConverter JSON 轉換器
+     * @param algorithm 壓縮演算法：gzip、lz4 或 none
+     * @param compressionThreshold 超過此位元組數才壓縮
+     * @param binaryPayloads 批量 payload 是否改用 Smile 編碼
+     */
+    public CompactMessageConverter(Jackson2JsonMessageConverter jsonConverter, String algorithm,
+            int compressionThreshold, boolean binaryPayloads) {
+        this.jsonConverter = jsonConverter;
+        this.smileMapper = new ObjectMapper(new SmileFactory()).findAndRegisterModules();
+        this.compressor = switch (algorithm == null ? "none" : algorithm.toLowerCase()) {
+            case "gzip" -> new GZipPostProcessor();
+            case "lz4" -> new Lz4CompressingPostProcessor();
+            case "none" -> null;
+            default -> throw new IllegalArgumentException("不支援的壓縮演算法: " + algorithm);
+        };
+        this.compressionThreshold = compressionThreshold;
+        this.binaryPayloads = binaryPayloads;
+    }
+
+    /**
+     * 依 content-encoding 解壓 gzip、deflate、zip 與 lz4 消息，未壓縮的消息原樣傳回
+     *
+     * @return 解壓用的 MessagePostProcessor，可設定於 Listener Container
+     */
+    public static DelegatingDecompressingPostProcessor decompressor() {
+        DelegatingDecompressingPostProcessor decompressor = new DelegatingDecompressingPostProcessor();
+        decompressor.addDecompressor(Lz4CompressingPostProcessor.ENCODING, new Lz4DecompressingPostProcessor());
+        return decompressor;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) throws MessageConversionException {
+        Message message = binaryPayloads && isBulkPayload(object)
+                ? toSmileMessage(object, messageProperties)
+                : jsonConverter.toMessage(object, messageProperties);
+        if (compressor != null && message.getBody().length > compressionThreshold) {
+            return compressor.postProcessMessage(message);
+        }
+        return message;
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws MessageConversionException {
+        Message decoded = decompressor.postProcessMessage(message);
+        MessageProperties properties = decoded.getMessageProperties();
+        if (SMILE_CONTENT_TYPE.equals(properties.getContentType())) {
+            try {
+                JavaType type = jsonConverter.getJavaTypeMapper().toJavaType(properties);
+                return smileMapper.readValue(decoded.getBody(), type);
+            } catch (IOException e) {
+                throw new MessageConversionException("Failed to convert Smile message content", e);
+            }
+        }
+        return jsonConverter.fromMessage(decoded);
+    }
+
+    private Message toSmileMessage(Object object, MessageProperties messageProperties) {
+        try {
+            byte[] body = smileMapper.writeValueAsBytes(object);
+            messageProperties.setContentType(SMILE_CONTENT_TYPE);
+            messageProperties.setContentLength(body.length);
+            jsonConverter.getJavaTypeMapper().fromJavaType(smileMapper.constructType(object.getClass()),
+                    messageProperties);
+            return new Message(body, messageProperties);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to convert message content to Smile", e);
+        }
+    }
+
+    private static boolean isBulkPayload(Object object) {
+        return object instanceof AsyncMessageDTO message && message.getPayload() instanceof Collection;
+    }
+
+    /**
+     * LZ4 Frame 壓縮，content-encoding 為 {@code lz4}
+     */
+    static class Lz4CompressingPostProcessor extends AbstractCompressingPostProcessor {
+
+        static final String ENCODING = "lz4";
+
+        @Override
+        protected OutputStream getCompressorStream(OutputStream stream) throws IOException {
+            return new LZ4FrameOutputStream(stream);
+        }
+
+        @Override
+        protected String getEncoding() {
+            return ENCODING;
+        }
+    }
+
+    /**
+     * LZ4 Frame 解壓
+     */
+    static class Lz4DecompressingPostProcessor extends AbstractDecompressingPostProcessor {
+
+        @Override
+        protected InputStream getDecompressorStream(InputStream stream) throws IOException {
+            return new LZ4FrameInputStream(stream);
+        }
+
+        @Override
+        protected String getEncoding() {
+            return Lz4CompressingPostProcessor.ENCODING;
+        }
+    }
+}
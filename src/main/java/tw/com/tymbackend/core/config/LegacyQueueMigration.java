@@ -0,0 +1,69 @@
+package tw.com.tymbackend.core.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 舊版工作隊列的遷移
+ *
+ * <p>只在啟用 {@link RabbitMQConfig#QUEUES_V2_PROPERTY} 時建立。工作隊列改以
+ * {@link RabbitMQConfig#QUEUE_VERSION_SUFFIX} 的新名稱宣告後，Broker 上舊名稱的隊列仍綁定相同的路由鍵，
+ * 新消息會同時複製一份過去。啟動完成後解除舊隊列與 tymb-exchange 的綁定，新消息只進入新隊列；
+ * 舊隊列不刪除，讓 Consumer 處理完既有的消息，清空後再由維運手動刪除。</p>
+ *
+ * <p>解除綁定後只有監聽新名稱的 Consumer 收得到消息，因此必須在外部 Consumer
+ * 已監聽 v2 隊列之後才啟用，切換順序見 mq/README.md。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+@ConditionalOnProperty(name = RabbitMQConfig.QUEUES_V2_PROPERTY, havingValue = "true")
+public class LegacyQueueMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(LegacyQueueMigration.class);
+
+    private final RabbitAdmin rabbitAdmin;
+
+    public LegacyQueueMigration(RabbitAdmin rabbitAdmin) {
+        this.rabbitAdmin = rabbitAdmin;
+    }
+
+    /**
+     * 解除所有舊版工作隊列的綁定
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void unbindLegacyQueues() {
+        for (MessageRoute route : MessageRoute.values()) {
+            if (route.isSharedWithGateway()) {
+                continue;
+            }
+            String legacyQueue = route.getQueueName();
+            try {
+                QueueInformation info = rabbitAdmin.getQueueInfo(legacyQueue);
+                if (info == null) {
+                    continue;
+                }
+                rabbitAdmin.removeBinding(new Binding(legacyQueue, Binding.DestinationType.QUEUE,
+                        RabbitMQConfig.TYMB_EXCHANGE, route.getRoutingKey(), null));
+                logger.info("已解除舊隊列綁定: queue={}, routingKey={}, remaining={}, consumers={}",
+                        legacyQueue, route.getRoutingKey(), info.getMessageCount(), info.getConsumerCount());
+            } catch (AmqpConnectException e) {
+                logger.warn("無法連線 RabbitMQ，略過舊隊列遷移: {}", e.getMessage());
+                return;
+            } catch (AmqpException e) {
+                logger.warn("解除舊隊列綁定失敗: queue={}, error={}", legacyQueue, e.getMessage());
+            }
+        }
+    }
+}
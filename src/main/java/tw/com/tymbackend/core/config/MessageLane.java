@@ -0,0 +1,56 @@
+package tw.com.tymbackend.core.config;
+
+import org.springframework.amqp.core.MessagePostProcessor;
+
+/**
+ * 消息優先通道
+ *
+ * <p>使用者正在等待的請求走 {@link #INTERACTIVE}，大量寫入走 {@link #BULK}。
+ * 互動通道以高優先權發送，啟用 v2 隊列後另宣告為優先隊列；批量通道在發佈端受到節流，
+ * 避免大量匯入或全部刪除拖慢互動查詢。</p>
+ *
+ * <p>路由隊列都由外部 Consumer 消費，本服務沒有各通道專屬的消費者；
+ * 消費端的並發與 prefetch 由 Consumer 自行決定。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+public enum MessageLane {
+
+    /** 互動請求：查詢與單筆寫入 */
+    INTERACTIVE(9),
+
+    /** 批量請求：批量新增與全部刪除 */
+    BULK(1);
+
+    /** 優先隊列的 x-max-priority */
+    public static final int MAX_PRIORITY = 10;
+
+    private final int priority;
+
+    MessageLane(int priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * 發送時附帶的消息優先權
+     *
+     * @return 消息優先權
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * 發送前設定消息優先權
+     *
+     * @return 設定優先權的 MessagePostProcessor
+     */
+    public MessagePostProcessor withPriority() {
+        return message -> {
+            message.getMessageProperties().setPriority(priority);
+            return message;
+        };
+    }
+}
@@ -0,0 +1,155 @@
+package tw.com.tymbackend.core.config;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * tymb-exchange 的路由表
+ *
+ * <p>每個隊列的路由鍵與所屬 {@link MessageLane} 集中在這裡定義，
+ * {@link RabbitMQConfig} 依此宣告隊列與綁定，發送端依此取得路由鍵與消息優先權。
+ * 新增隊列或調整通道只需修改這個列舉。</p>
+ *
+ * <p>Gateway 也會宣告的隊列標記為共用，維持原本的名稱與參數；
+ * 其餘隊列在啟用 v2 遷移（{@link RabbitMQConfig#QUEUES_V2_PROPERTY}）後
+ * 以 {@link RabbitMQConfig#QUEUE_VERSION_SUFFIX} 的新名稱宣告。兩種名稱都可用來查詢路由。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+public enum MessageRoute {
+
+    DAMAGE_CALCULATION(RabbitMQConfig.DAMAGE_CALCULATION_QUEUE, "damage.calculation", MessageLane.INTERACTIVE),
+    PEOPLE_GET_ALL(RabbitMQConfig.PEOPLE_GET_ALL_QUEUE, "people.get.all", MessageLane.INTERACTIVE),
+    PEOPLE_GET_BY_NAME(RabbitMQConfig.PEOPLE_GET_BY_NAME_QUEUE, "people.get.by.name", MessageLane.INTERACTIVE),
+    PEOPLE_GET_NAMES(RabbitMQConfig.PEOPLE_GET_NAMES_QUEUE, "people.get.names", MessageLane.INTERACTIVE),
+    PEOPLE_INSERT(RabbitMQConfig.PEOPLE_INSERT_QUEUE, "people.insert", MessageLane.INTERACTIVE),
+    PEOPLE_INSERT_MULTIPLE(RabbitMQConfig.PEOPLE_INSERT_MULTIPLE_QUEUE, "people.insert.multiple", MessageLane.BULK),
+    PEOPLE_UPDATE(RabbitMQConfig.PEOPLE_UPDATE_QUEUE, "people.update", MessageLane.INTERACTIVE),
+    PEOPLE_DELETE_ALL(RabbitMQConfig.PEOPLE_DELETE_ALL_QUEUE, "people.delete.all", MessageLane.BULK),
+    PEOPLE_BATCH_DAMAGE(RabbitMQConfig.PEOPLE_BATCH_DAMAGE_QUEUE, "people.batch.damage", MessageLane.INTERACTIVE),
+    WEAPON_GET_ALL(RabbitMQConfig.WEAPON_GET_ALL_QUEUE, "weapon.get.all", MessageLane.INTERACTIVE),
+    WEAPON_GET_BY_NAME(RabbitMQConfig.WEAPON_GET_BY_NAME_QUEUE, "weapon.get.by.name", MessageLane.INTERACTIVE),
+    WEAPON_GET_BY_OWNER(RabbitMQConfig.WEAPON_GET_BY_OWNER_QUEUE, "weapon.get.by.owner", MessageLane.INTERACTIVE),
+    WEAPON_SAVE(RabbitMQConfig.WEAPON_SAVE_QUEUE, "weapon.save", MessageLane.INTERACTIVE),
+    WEAPON_DELETE(RabbitMQConfig.WEAPON_DELETE_QUEUE, "weapon.delete", MessageLane.INTERACTIVE),
+    WEAPON_DELETE_ALL(RabbitMQConfig.WEAPON_DELETE_ALL_QUEUE, "weapon.delete.all", MessageLane.BULK),
+    WEAPON_EXISTS(RabbitMQConfig.WEAPON_EXISTS_QUEUE, "weapon.exists", MessageLane.INTERACTIVE),
+    DECKOFCARDS(RabbitMQConfig.DECKOFCARDS_QUEUE, "deckofcards", MessageLane.INTERACTIVE, true),
+    ASYNC_RESULT(RabbitMQConfig.ASYNC_RESULT_QUEUE, "async.result", MessageLane.INTERACTIVE, true);
+
+    private static final Map<String, MessageRoute> BY_QUEUE = Arrays.stream(values())
+            .flatMap(route -> Stream.of(route.getQueueName(), route.getVersionedQueueName()).distinct()
+                    .map(name -> Map.entry(name, route)))
+            .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, Map.Entry::getValue));
+    private static final Map<String, MessageRoute> BY_ROUTING_KEY = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(MessageRoute::getRoutingKey, Function.identity()));
+
+    private final String queueName;
+    private final String routingKey;
+    private final MessageLane lane;
+    private final boolean sharedWithGateway;
+
+    MessageRoute(String queueName, String routingKey, MessageLane lane) {
+        this(queueName, routingKey, lane, false);
+    }
+
+    MessageRoute(String queueName, String routingKey, MessageLane lane, boolean sharedWithGateway) {
+        this.queueName = queueName;
+        this.routingKey = routingKey;
+        this.lane = lane;
+        this.sharedWithGateway = sharedWithGateway;
+    }
+
+    public String getQueueName() {
+        return queueName;
+    }
+
+    public String getRoutingKey() {
+        return routingKey;
+    }
+
+    public MessageLane getLane() {
+        return lane;
+    }
+
+    /**
+     * Gateway 也會宣告的隊列，參數必須與 Gateway 一致，不加上優先權與死信設定
+     *
+     * @return 與 Gateway 共用時為 true
+     */
+    public boolean isSharedWithGateway() {
+        return sharedWithGateway;
+    }
+
+    /**
+     * v2 遷移後的隊列名稱，與 Gateway 共用的隊列不改名
+     *
+     * @return 加上版本後綴的名稱，共用隊列為原名稱
+     */
+    public String getVersionedQueueName() {
+        return sharedWithGateway ? queueName : queueName + RabbitMQConfig.QUEUE_VERSION_SUFFIX;
+    }
+
+    /**
+     * Broker 上實際宣告的隊列名稱
+     *
+     * @param queuesV2 是否已啟用 v2 遷移
+     * @return 啟用時為 {@link #getVersionedQueueName()}，否則為原名稱
+     */
+    public String getDeclaredQueueName(boolean queuesV2) {
+        return queuesV2 ? getVersionedQueueName() : queueName;
+    }
+
+    /**
+     * 依隊列名稱查詢路由
+     *
+     * @param queueName 隊列名稱
+     * @return 路由
+     * @throws IllegalArgumentException 未定義的隊列名稱
+     */
+    public static MessageRoute forQueue(String queueName) {
+        MessageRoute route = BY_QUEUE.get(queueName);
+        if (route == null) {
+            throw new IllegalArgumentException("未知的隊列名稱: " + queueName);
+        }
+        return route;
+    }
+
+    /**
+     * 依隊列名稱查詢路由，未定義時為空
+     *
+     * @param queueName 隊列名稱
+     * @return 路由
+     */
+    public static Optional<MessageRoute> findByQueue(String queueName) {
+        return Optional.ofNullable(queueName).map(BY_QUEUE::get);
+    }
+
+    /**
+     * 依路由鍵取得所屬通道，未定義的路由鍵視為互動請求
+     *
+     * @param routingKey 路由鍵
+     * @return 所屬通道
+     */
+    public static MessageLane laneOf(String routingKey) {
+        MessageRoute route = BY_ROUTING_KEY.get(routingKey);
+        return route != null ? route.getLane() : MessageLane.INTERACTIVE;
+    }
+
+    /**
+     * 判斷隊列是否屬於批量通道
+     *
+     * @param queueName 隊列名稱
+     * @return 已定義且屬於批量通道時為 true
+     */
+    public static boolean isBulkQueue(String queueName) {
+        MessageRoute route = BY_QUEUE.get(queueName);
+        return route != null && route.getLane() == MessageLane.BULK;
+    }
+}
@@ -1,5 +1,9 @@
 package tw.com.tymbackend.core.config;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.core.RabbitAdmin;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
@@ -10,6 +14,7 @@ import org.springframework.amqp.support.converter.MessageConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -40,7 +45,15 @@ public class RabbitMQConfig {
         logger.info("RabbitMQ 配置已啟用");
     }
 
-    // 隊列名稱定義
+    // 工作隊列的參數版本：v2 起宣告死信交換機，互動通道另宣告 x-max-priority。
+    // Broker 上既有隊列的參數無法就地修改，因此 v2 以新名稱宣告；
+    // 外部 Consumer 改為監聽新名稱之前不可啟用，切換順序見 mq/README.md
+    public static final String QUEUE_VERSION_SUFFIX = ".v2";
+
+    // 啟用 v2 工作隊列的設定，預設關閉：維持舊名稱與舊參數，外部 Consumer 不需任何變更
+    public static final String QUEUES_V2_PROPERTY = "app.messaging.queues.v2-migration.enabled";
+
+    // 隊列名稱定義（路由表的識別名稱，也是 v2 遷移前 Broker 上的實際名稱）
     public static final String DAMAGE_CALCULATION_QUEUE = "damage-calculation";
     public static final String PEOPLE_GET_ALL_QUEUE = "people-get-all";
     public static final String PEOPLE_GET_BY_NAME_QUEUE = "people-get-by-name";
@@ -56,22 +69,32 @@ public class RabbitMQConfig {
     public static final String WEAPON_DELETE_QUEUE = "weapon-delete";
     public static final String WEAPON_DELETE_ALL_QUEUE = "weapon-delete-all";
     public static final String WEAPON_EXISTS_QUEUE = "weapon-exists";
-    public static final String DECKOFCARDS_QUEUE = "deckofcards";
     public static final String PEOPLE_BATCH_DAMAGE_QUEUE = "people-batch-damage";
+    // 與 Gateway 共用的隊列，名稱與參數必須與 Gateway 的宣告一致
+    public static final String DECKOFCARDS_QUEUE = "deckofcards";
     public static final String ASYNC_RESULT_QUEUE = "async-result";
 
     // 交換機名稱
     public static final String TYMB_EXCHANGE = "tymb-exchange";
+    public static final String RETRY_EXCHANGE = "tymb-retry-exchange";
+    public static final String DEAD_LETTER_EXCHANGE = "tymb-dlx";
 
-    /**
-     * 創建角色批量傷害計算隊列
-     */
-    @Bean
-    public Queue peopleBatchDamageQueue() {
-        return QueueBuilder.durable(PEOPLE_BATCH_DAMAGE_QUEUE)
-                .withArgument("x-message-ttl", MESSAGE_TTL) // 5分鐘 TTL
-                .build();
-    }
+    // 死信處理隊列：DEAD_LETTER_QUEUE 由 DeadLetterRouter 分派，PARKING_LOT_QUEUE 保留無法自動恢復的消息
+    public static final String DEAD_LETTER_QUEUE = "tymb-dead-letter";
+    public static final String PARKING_LOT_QUEUE = "tymb-parking-lot";
+
+    // 延遲重試層級的標頭名稱，值為延遲毫秒數
+    public static final String RETRY_TIER_HEADER = "x-retry-tier";
+
+    // 異步結果監聽器的 ID，見 AsyncResultListener
+    public static final String ASYNC_RESULT_LISTENER_ID = "tymb-async-result";
+
+    // 由 AdaptiveListenerScaler 調整的監聽器，必須由 rabbitListenerContainerFactory 建立
+    public static final Set<String> ADAPTIVE_LISTENER_IDS = Set.of(ASYNC_RESULT_LISTENER_ID);
+
+    // rabbitListenerContainerFactory 的起始並發與預取，也是 AdaptiveListenerScaler 的起始狀態
+    public static final int LISTENER_INITIAL_CONSUMERS = 1;
+    public static final int LISTENER_INITIAL_PREFETCH = 1;
 
     /**
      * 創建 RabbitMQ 交換機
@@ -94,364 +117,95 @@ public class RabbitMQConfig {
     }
 
     // TTL 設定（5分鐘 = 300000毫秒）
-    private static final long MESSAGE_TTL = 300000;
-
-    /**
-     * 創建傷害計算隊列
-     */
-    @Bean
-    public Queue damageCalculationQueue() {
-        return QueueBuilder.durable(DAMAGE_CALCULATION_QUEUE)
-                .withArgument("x-message-ttl", MESSAGE_TTL) // 5分鐘 TTL
-                .build();
-    }
-
-    /**
-     * 創建角色列表獲取隊列
-     */
-    @Bean
-    public Queue peopleGetAllQueue() {
-        return QueueBuilder.durable(PEOPLE_GET_ALL_QUEUE)
-                .withArgument("x-message-ttl", MESSAGE_TTL) // 5分鐘 TTL
-                .build();
-    }
-
-    /**
-     * 創建角色按名稱獲取隊列
-     */
-    @Bean
-    public Queue peopleGetByNameQueue() {
-        return QueueBuilder.durable(PEOPLE_GET_BY_NAME_QUEUE)
-                .withArgument("x-message-ttl", MESSAGE_TTL) // 5分鐘 TTL
-                .build();
-    }
-
-    /**
-     * 創建角色獲取名稱隊列
-     */
-    @Bean
-    public Queue peopleGetNamesQueue() {
-        return QueueBuilder.durable(PEOPLE_GET_NAMES_QUEUE)
-                .withArgument("x-message-ttl", MESSAGE_TTL) // 5分鐘 TTL
-                .build();
-    }
-
-    /**
-     * 創建角色新增隊列
-     */
-    @Bean
-    public Queue peopleInsertQueue() {
-        return QueueBuilder.durable(PEOPLE_INSERT_QUEUE)
-                .withArgument("x-message-ttl", MESSAGE_TTL) // 5分鐘 TTL
-                .build();
-    }
-
-    /**
-     * 創建角色更新隊列
-     */
-    @Bean
-    public Queue peopleUpdateQueue() {
-        return QueueBuilder.durable(PEOPLE_UPDATE_QUEUE)
-                .withArgument("x-message-ttl", MESSAGE_TTL) // 5分鐘 TTL
-                .build();
-    }
-
-    /**
-     * 創建角色批量新增隊列
-     */
-    @Bean
-    public Queue peopleInsertMultipleQueue() {
-        return QueueBuilder.durable(PEOPLE_INSERT_MULTIPLE_QUEUE)
-                .withArgument("x-message-ttl", MESSAGE_TTL) // 5分鐘 TTL
-                .build();
-    }
-
-    /**
-     * 創建角色刪除全部隊列
-     */
-    @Bean
-    public Queue peopleDeleteAllQueue() {
-        return QueueBuilder.durable(PEOPLE_DELETE_ALL_QUEUE)
-                .withArgument("x-message-ttl", MESSAGE_TTL) // 5分鐘 TTL
-                .build();
-    }
-
-    /**
-     * 創建武器獲取全部隊列
-     */
-    @Bean
-    public Queue weaponGetAllQueue() {
-        return QueueBuilder.durable(WEAPON_GET_ALL_QUEUE)
-                .withArgument("x-message-ttl", MESSAGE_TTL) // 5分鐘 TTL
-                .build();
-    }
-
-    /**
-     * 創建武器按名稱獲取隊列
-     */
-    @Bean
-    public Queue weaponGetByNameQueue() {
-        return QueueBuilder.durable(WEAPON_GET_BY_NAME_QUEUE)
-                .withArgument("x-message-ttl", MESSAGE_TTL) // 5分鐘 TTL
-                .build();
-    }
-
-    /**
-     * 創建武器按擁有者獲取隊列
-     */
-    @Bean
-    public Queue weaponGetByOwnerQueue() {
-        return QueueBuilder.durable(WEAPON_GET_BY_OWNER_QUEUE)
-                .withArgument("x-message-ttl", MESSAGE_TTL) // 5分鐘 TTL
-                .build();
-    }
-
-    /**
-     * 創建武器保存隊列
-     */
-    @Bean
-    public Queue weaponSaveQueue() {
-        return QueueBuilder.durable(WEAPON_SAVE_QUEUE)
-                .withArgument("x-message-ttl", MESSAGE_TTL) // 5分鐘 TTL
-                .build();
-    }
-
-    /**
-     * 創建武器刪除隊列
-     */
-    @Bean
-    public Queue weaponDeleteQueue() {
-        return QueueBuilder.durable(WEAPON_DELETE_QUEUE)
-                .withArgument("x-message-ttl", MESSAGE_TTL) // 5分鐘 TTL
-                .build();
-    }
-
-    /**
-     * 創建武器刪除全部隊列
-     */
-    @Bean
-    public Queue weaponDeleteAllQueue() {
-        return QueueBuilder.durable(WEAPON_DELETE_ALL_QUEUE)
-                .withArgument("x-message-ttl", MESSAGE_TTL) // 5分鐘 TTL
-                .build();
-    }
-
-    /**
-     * 創建武器存在檢查隊列
-     */
-    @Bean
-    public Queue weaponExistsQueue() {
-        return QueueBuilder.durable(WEAPON_EXISTS_QUEUE)
-                .withArgument("x-message-ttl", MESSAGE_TTL) // 5分鐘 TTL
-                .build();
-    }
-
-    /**
-     * 綁定傷害計算隊列到交換機
-     */
-    @Bean
-    public Binding damageCalculationBinding(Queue damageCalculationQueue, DirectExchange tymbExchange) {
-        return BindingBuilder.bind(damageCalculationQueue)
-                .to(tymbExchange)
-                .with("damage.calculation");
-    }
-
-    /**
-     * 綁定角色列表隊列到交換機
-     */
-    @Bean
-    public Binding peopleGetAllBinding(Queue peopleGetAllQueue, DirectExchange tymbExchange) {
-        return BindingBuilder.bind(peopleGetAllQueue)
-                .to(tymbExchange)
-                .with("people.get.all");
-    }
-
-    /**
-     * 綁定角色按名稱獲取隊列到交換機
-     */
-    @Bean
-    public Binding peopleGetByNameBinding(Queue peopleGetByNameQueue, DirectExchange tymbExchange) {
-        return BindingBuilder.bind(peopleGetByNameQueue)
-                .to(tymbExchange)
-                .with("people.get.by.name");
-    }
-
-    /**
-     * 綁定角色插入隊列到交換機
-     */
-    @Bean
-    public Binding peopleInsertBinding(Queue peopleInsertQueue, DirectExchange tymbExchange) {
-        return BindingBuilder.bind(peopleInsertQueue)
-                .to(tymbExchange)
-                .with("people.insert");
-    }
-
-    /**
-     * 綁定角色更新隊列到交換機
-     */
-    @Bean
-    public Binding peopleUpdateBinding(Queue peopleUpdateQueue, DirectExchange tymbExchange) {
-        return BindingBuilder.bind(peopleUpdateQueue)
-                .to(tymbExchange)
-                .with("people.update");
-    }
-
-    /**
-     * 綁定角色批量新增隊列到交換機
-     */
-    @Bean
-    public Binding peopleInsertMultipleBinding(Queue peopleInsertMultipleQueue, DirectExchange tymbExchange) {
-        return BindingBuilder.bind(peopleInsertMultipleQueue)
-                .to(tymbExchange)
-                .with("people.insert.multiple");
-    }
-
-    /**
-     * 綁定角色獲取名字隊列到交換機
-     */
-    @Bean
-    public Binding peopleGetNamesBinding(Queue peopleGetNamesQueue, DirectExchange tymbExchange) {
-        return BindingBuilder.bind(peopleGetNamesQueue)
-                .to(tymbExchange)
-                .with("people.get.names");
-    }
-
-    /**
-     * 綁定角色刪除全部隊列到交換機
-     */
-    @Bean
-    public Binding peopleDeleteAllBinding(Queue peopleDeleteAllQueue, DirectExchange tymbExchange) {
-        return BindingBuilder.bind(peopleDeleteAllQueue)
-                .to(tymbExchange)
-                .with("people.delete.all");
-    }
-
-    /**
-     * 綁定武器獲取全部隊列到交換機
-     */
-    @Bean
-    public Binding weaponGetAllBinding(Queue weaponGetAllQueue, DirectExchange tymbExchange) {
-        return BindingBuilder.bind(weaponGetAllQueue)
-                .to(tymbExchange)
-                .with("weapon.get.all");
-    }
-
-    /**
-     * 綁定武器按名稱獲取隊列到交換機
-     */
-    @Bean
-    public Binding weaponGetByNameBinding(Queue weaponGetByNameQueue, DirectExchange tymbExchange) {
-        return BindingBuilder.bind(weaponGetByNameQueue)
-                .to(tymbExchange)
-                .with("weapon.get.by.name");
-    }
-
-    /**
-     * 綁定武器按擁有者獲取隊列到交換機
-     */
-    @Bean
-    public Binding weaponGetByOwnerBinding(Queue weaponGetByOwnerQueue, DirectExchange tymbExchange) {
-        return BindingBuilder.bind(weaponGetByOwnerQueue)
-                .to(tymbExchange)
-                .with("weapon.get.by.owner");
-    }
-
-    /**
-     * 綁定武器保存隊列到交換機
-     */
-    @Bean
-    public Binding weaponSaveBinding(Queue weaponSaveQueue, DirectExchange tymbExchange) {
-        return BindingBuilder.bind(weaponSaveQueue)
-                .to(tymbExchange)
-                .with("weapon.save");
-    }
-
-    /**
-     * 綁定武器刪除隊列到交換機
-     */
-    @Bean
-    public Binding weaponDeleteBinding(Queue weaponDeleteQueue, DirectExchange tymbExchange) {
-        return BindingBuilder.bind(weaponDeleteQueue)
-                .to(tymbExchange)
-                .with("weapon.delete");
-    }
-
-    /**
-     * 綁定武器刪除全部隊列到交換機
-     */
-    @Bean
-    public Binding weaponDeleteAllBinding(Queue weaponDeleteAllQueue, DirectExchange tymbExchange) {
-        return BindingBuilder.bind(weaponDeleteAllQueue)
-                .to(tymbExchange)
-                .with("weapon.delete.all");
-    }
-
-    /**
-     * 綁定武器存在檢查隊列到交換機
-     */
-    @Bean
-    public Binding weaponExistsBinding(Queue weaponExistsQueue, DirectExchange tymbExchange) {
-        return BindingBuilder.bind(weaponExistsQueue)
-                .to(tymbExchange)
-                .with("weapon.exists");
-    }
-
-    /**
-     * 創建 Deckofcards 隊列
-     */
-    @Bean
-    public Queue deckofcardsQueue() {
-        return QueueBuilder.durable(DECKOFCARDS_QUEUE)
-                .withArgument("x-message-ttl", MESSAGE_TTL) // 5分鐘 TTL
-                .build();
-    }
-
-    /**
-     * 綁定 Deckofcards 隊列到交換機
-     */
-    @Bean
-    public Binding deckofcardsBinding(Queue deckofcardsQueue, DirectExchange tymbExchange) {
-        return BindingBuilder.bind(deckofcardsQueue)
-                .to(tymbExchange)
-                .with("deckofcards");
-    }
-
-    /**
-     * 創建異步結果隊列
-     */
-    @Bean
-    public Queue asyncResultQueue() {
-        return QueueBuilder.durable(ASYNC_RESULT_QUEUE)
-                .withArgument("x-message-ttl", MESSAGE_TTL) // 5分鐘 TTL
-                .build();
-    }
-
-    /**
-     * 綁定異步結果隊列到交換機
-     */
-    @Bean
-    public Binding asyncResultBinding(Queue asyncResultQueue, DirectExchange tymbExchange) {
-        return BindingBuilder.bind(asyncResultQueue)
-                .to(tymbExchange)
-                .with("async.result");
-    }
-
-    /**
-     * 綁定角色批量傷害隊列到交換機
-     */
-    @Bean
-    public Binding peopleBatchDamageBinding(Queue peopleBatchDamageQueue, DirectExchange tymbExchange) {
-        return BindingBuilder.bind(peopleBatchDamageQueue)
-                .to(tymbExchange)
-                .with("people.batch.damage");
+    public static final long MESSAGE_TTL = 300000;
+
+    /**
+     * 依 {@link MessageRoute} 路由表創建所有隊列並綁定到交換機
+     *
+     * 未啟用 v2 遷移時以舊名稱與原本的參數（只有 TTL）宣告，與外部 Consumer 監聽的隊列相同。
+     * 啟用後改宣告 v2 隊列：互動通道的隊列宣告為優先隊列，批量通道維持一般隊列；
+     * 被拒絕或過期的消息保留原路由鍵轉送到死信交換機。
+     * 與 Gateway 共用的隊列一律維持原本的名稱與參數，避免兩邊宣告不一致造成 PRECONDITION_FAILED
+     */
+    @Bean
+    public Declarables tymbQueues(DirectExchange tymbExchange,
+            @Value("${" + QUEUES_V2_PROPERTY + ":false}") boolean queuesV2) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (MessageRoute route : MessageRoute.values()) {
+            QueueBuilder builder = QueueBuilder.durable(route.getDeclaredQueueName(queuesV2))
+                    .withArgument("x-message-ttl", MESSAGE_TTL); // 5分鐘 TTL
+            if (queuesV2 && !route.isSharedWithGateway()) {
+                builder.deadLetterExchange(DEAD_LETTER_EXCHANGE);
+                if (route.getLane() == MessageLane.INTERACTIVE) {
+                    builder.maxPriority(MessageLane.MAX_PRIORITY);
+                }
+            }
+            Queue queue = builder.build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue)
+                    .to(tymbExchange)
+                    .with(route.getRoutingKey()));
+        }
+        return new Declarables(declarables);
+    }
+
+    /**
+     * 創建延遲重試與死信拓撲
+     *
+     * 每個延遲層級一個隊列，以 x-message-ttl 延遲後死信回 tymb-exchange，
+     * 未設定死信路由鍵因此沿用原路由鍵回到原本的隊列；重試交換機依 {@link #RETRY_TIER_HEADER} 選擇層級。
+     * 等待中的消息留在 Broker，不佔用消費者或請求執行緒
+     */
+    @Bean
+    public Declarables retryTopology(
+            @Value("${app.messaging.retry.delays-ms:1000,5000,25000}") long[] retryDelaysMs,
+            @Value("${app.messaging.retry.parking-lot-max-length:10000}") int parkingLotMaxLength) {
+        List<Declarable> declarables = new ArrayList<>();
+        FanoutExchange deadLetterExchange = new FanoutExchange(DEAD_LETTER_EXCHANGE);
+        HeadersExchange retryExchange = new HeadersExchange(RETRY_EXCHANGE);
+        declarables.add(deadLetterExchange);
+        declarables.add(retryExchange);
+
+        Queue deadLetterQueue = QueueBuilder.durable(DEAD_LETTER_QUEUE).build();
+        declarables.add(deadLetterQueue);
+        declarables.add(BindingBuilder.bind(deadLetterQueue).to(deadLetterExchange));
+        // 超過上限時捨棄最舊的消息，避免持續失敗的路由塞滿 Broker
+        declarables.add(QueueBuilder.durable(PARKING_LOT_QUEUE).maxLength(parkingLotMaxLength).build());
+
+        for (long delayMs : retryDelaysMs) {
+            Queue tierQueue = QueueBuilder.durable(retryQueueName(delayMs))
+                    .ttl((int) delayMs)
+                    .deadLetterExchange(TYMB_EXCHANGE)
+                    .build();
+            declarables.add(tierQueue);
+            declarables.add(BindingBuilder.bind(tierQueue)
+                    .to(retryExchange)
+                    .where(RETRY_TIER_HEADER).matches(String.valueOf(delayMs)));
+        }
+        return new Declarables(declarables);
+    }
+
+    /**
+     * 延遲重試層級的隊列名稱
+     *
+     * @param delayMs 延遲毫秒數
+     * @return 隊列名稱，例如 tymb-retry-1000ms
+     */
+    public static String retryQueueName(long delayMs) {
+        return "tymb-retry-" + delayMs + "ms";
     }
 
     /**
      * 配置 JSON 消息轉換器
+     * 超過門檻的消息本文壓縮後發送，批量 payload 可選用 Smile 編碼
      */
     @Bean
-    public MessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public MessageConverter jsonMessageConverter(
+            @Value("${app.messaging.compression.algorithm:none}") String algorithm,
+            @Value("${app.messaging.compression.threshold-bytes:8192}") int thresholdBytes,
+            @Value("${app.messaging.compression.binary-payloads:false}") boolean binaryPayloads) {
+        return new CompactMessageConverter(new Jackson2JsonMessageConverter(), algorithm, thresholdBytes,
+                binaryPayloads);
     }
 
     /**
@@ -461,6 +215,8 @@ public class RabbitMQConfig {
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter jsonMessageConverter) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
         template.setMessageConverter(jsonMessageConverter);
+        // 無法路由的消息退回給發送端，讓發佈者確認能回報失敗而不是靜默丟棄
+        template.setMandatory(true);
         return template;
     }
 
@@ -475,10 +231,27 @@ public class RabbitMQConfig {
         factory.setConnectionFactory(connectionFactory);
         // 使用 Virtual Threads 作為任務執行器
         factory.setTaskExecutor(java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor());
-        // 資源受限下的保守並發配置
+        // 資源受限下的保守起始配置，執行期由 AdaptiveListenerScaler 在上下限內調整
+        factory.setConcurrentConsumers(LISTENER_INITIAL_CONSUMERS);
+        factory.setMaxConcurrentConsumers(LISTENER_INITIAL_CONSUMERS);
+        factory.setPrefetchCount(LISTENER_INITIAL_PREFETCH);
+        factory.setDefaultRequeueRejected(false);
+        factory.setAfterReceivePostProcessors(CompactMessageConverter.decompressor());
+        return factory;
+    }
+
+    /**
+     * 死信分派的 Listener Container Factory
+     * 不解壓消息本文，重試與停放時原樣轉發
+     */
+    @Bean(name = "deadLetterListenerContainerFactory")
+    public SimpleRabbitListenerContainerFactory deadLetterListenerContainerFactory(
+            ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
         factory.setConcurrentConsumers(1);
         factory.setMaxConcurrentConsumers(1);
-        factory.setPrefetchCount(1);
+        factory.setPrefetchCount(10);
         factory.setDefaultRequeueRejected(false);
         return factory;
     }
@@ -15,6 +15,8 @@ import java.util.function.Supplier;
  * RabbitMQ 連接重試包裝器
  *
  * 為 RabbitMQ 操作提供自動重試功能，處理臨時連接問題。
+ * 重試會在呼叫端執行緒上等待退避時間，只適合啟動檢查等背景操作；
+ * 請求路徑的發送由 BatchingMessagePublisher 處理，消息處理失敗則由 Broker 端的延遲重試隊列處理。
  *
  * @author TY Backend Team
  * @version 1.0
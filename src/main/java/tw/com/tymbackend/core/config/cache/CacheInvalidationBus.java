@@ -0,0 +1,182 @@
+package tw.com.tymbackend.core.config.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 跨實例快取失效通道
+ *
+ * <p>透過 Redis pub/sub 廣播失效訊息，讓各實例清除自己的本地快取（L1）。
+ * 訊息格式為「實例ID、快取名稱、鍵」以 {@code \u001F} 分隔，鍵為空表示清除整個快取；
+ * 來自自身實例的訊息會被忽略。</p>
+ *
+ * <p>廣播失敗只記錄警告，不影響寫入流程；本地快取的 TTL 會限制最長的不一致時間。</p>
+ *
+ * <p>清除 Redis 項目之前另外寫入短效的失效標記，讓 {@link RedisBatchCache} 得知
+ * 在它讀取資料庫期間發生過清除，不以可能已過期的資料覆蓋這次清除。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+public class CacheInvalidationBus implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    /** Redis pub/sub 頻道 */
+    public static final String CHANNEL = "tymb:cache:invalidation";
+
+    private static final char SEPARATOR = '\u001F';
+
+    private static final String EVICTED_MARKER_PREFIX = "tymb:cache:evicted:";
+    private static final String CLEARED_MARKER_PREFIX = "tymb:cache:cleared:";
+
+    /**
+     * 失效訊息的接收端
+     */
+    public interface Listener {
+
+        /**
+         * 清除本地的指定鍵
+         *
+         * @param key 快取鍵
+         */
+        void evictLocal(String key);
+
+        /**
+         * 清除本地的整個快取
+         */
+        void clearLocal();
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration evictionGuard;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, List<Listener>> listeners = new ConcurrentHashMap<>();
+
+    /**
+     * @param redisTemplate Redis 操作
+     * @param evictionGuard 失效標記的存活時間，需大於批次快取一次資料庫查詢的耗時
+     */
+    public CacheInvalidationBus(StringRedisTemplate redisTemplate, Duration evictionGuard) {
+        this.redisTemplate = redisTemplate;
+        this.evictionGuard = evictionGuard;
+    }
+
+    /**
+     * 註冊快取的失效接收端
+     *
+     * @param cacheName 快取名稱
+     * @param listener 接收端
+     */
+    public void subscribe(String cacheName, Listener listener) {
+        listeners.computeIfAbsent(cacheName, k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * 廣播單一鍵的失效
+     *
+     * @param cacheName 快取名稱
+     * @param key 快取鍵
+     */
+    public void publishEvict(String cacheName, String key) {
+        publish(cacheName, key);
+    }
+
+    /**
+     * 廣播整個快取的清除
+     *
+     * @param cacheName 快取名稱
+     */
+    public void publishClear(String cacheName) {
+        publish(cacheName, "");
+    }
+
+    /**
+     * 寫入單一鍵的失效標記，需在清除 Redis 項目之前呼叫
+     *
+     * @param cacheName 快取名稱
+     * @param key 快取鍵
+     */
+    public void markEvicted(String cacheName, String key) {
+        mark(evictedMarkerKey(cacheName, key), cacheName, key);
+    }
+
+    /**
+     * 寫入整個快取的清除標記，需在清除 Redis 項目之前呼叫
+     *
+     * @param cacheName 快取名稱
+     */
+    public void markCleared(String cacheName) {
+        mark(clearedMarkerKey(cacheName), cacheName, "");
+    }
+
+    /**
+     * @return 單一鍵的失效標記在 Redis 中的鍵
+     */
+    static String evictedMarkerKey(String cacheName, String key) {
+        return EVICTED_MARKER_PREFIX + RedisBatchCache.redisKey(cacheName, key);
+    }
+
+    /**
+     * @return 整個快取的清除標記在 Redis 中的鍵
+     */
+    static String clearedMarkerKey(String cacheName) {
+        return CLEARED_MARKER_PREFIX + cacheName;
+    }
+
+    private void mark(String markerKey, String cacheName, String key) {
+        try {
+            redisTemplate.opsForValue().set(markerKey, "1", evictionGuard);
+        } catch (Exception e) {
+            logger.warn("寫入快取失效標記失敗: cache={}, key={}, error={}", cacheName, key, e.getMessage());
+        }
+    }
+
+    private void publish(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, instanceId + SEPARATOR + cacheName + SEPARATOR + key);
+        } catch (Exception e) {
+            logger.warn("廣播快取失效失敗: cache={}, key={}, error={}", cacheName, key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int first = body.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : body.indexOf(SEPARATOR, first + 1);
+        if (second < 0) {
+            logger.warn("忽略格式錯誤的快取失效訊息: {}", body);
+            return;
+        }
+        if (body.regionMatches(0, instanceId, 0, first) && first == instanceId.length()) {
+            return;
+        }
+
+        String cacheName = body.substring(first + 1, second);
+        String key = body.substring(second + 1);
+        List<Listener> targets = listeners.get(cacheName);
+        if (targets == null) {
+            return;
+        }
+        for (Listener listener : targets) {
+            if (key.isEmpty()) {
+                listener.clearLocal();
+            } else {
+                listener.evictLocal(key);
+            }
+        }
+    }
+}
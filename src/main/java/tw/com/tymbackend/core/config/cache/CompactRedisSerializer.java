@@ -0,0 +1,257 @@
+package tw.com.tymbackend.core.config.cache;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+/**
+ * 精簡的 Redis 值序列化器
+ *
+ * <p>格式為固定標頭加上內容：</p>
+ * <pre>
+ * [magic 0xC7][version][codec][flags]([original length: int32] 若已壓縮)[payload]
+ * </pre>
+ * <ul>
+ *   <li>codec 1：Smile 二進位 JSON（快取與一般值），重複的欄位名稱以回參照編碼</li>
+ *   <li>codec 2：JDK 序列化（Spring Session 屬性，例如安全性上下文）</li>
+ *   <li>flags bit 0：內容超過門檻時以 LZ4 壓縮，壓縮無效益時保留原文</li>
+ * </ul>
+ *
+ * <p>讀取時若第一個位元組不是 magic，則視為升級前寫入的舊資料，
+ * 交由舊序列化器解析，讓滾動更新期間新舊資料可以共存。
+ * 升級前 RedisTemplate 使用 {@link #templateJson()}，Session 使用 JDK 序列化；
+ * 快取沒有設定序列化器，RedisCacheManager 預設以 JDK 序列化寫入，由 {@link #cacheLegacy(ObjectMapper, ClassLoader)} 讀取。</p>
+ *
+ * <p>{@link #legacyWrites()} 改以舊序列化器寫入、但仍可讀取精簡格式，
+ * 供切回舊格式時使用：RedisTemplate 與 Session 寫出的位元組與升級前相同，
+ * 已寫入的精簡格式資料也不會因切換而失效。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xC7;
+    static final byte VERSION = 1;
+    static final byte CODEC_SMILE = 1;
+    static final byte CODEC_JDK = 2;
+
+    private static final byte FLAG_LZ4 = 0x01;
+    private static final int HEADER_SIZE = 4;
+    private static final byte[] EMPTY = new byte[0];
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+
+    private final byte codec;
+    private final RedisSerializer<Object> codecSerializer;
+    private final RedisSerializer<Object> legacySerializer;
+    private final int compressionThreshold;
+    private final boolean legacyWrites;
+
+    private CompactRedisSerializer(byte codec, RedisSerializer<Object> codecSerializer,
+            RedisSerializer<Object> legacySerializer, int compressionThreshold, boolean legacyWrites) {
+        this.codec = codec;
+        this.codecSerializer = codecSerializer;
+        this.legacySerializer = legacySerializer;
+        this.compressionThreshold = compressionThreshold;
+        this.legacyWrites = legacyWrites;
+    }
+
+    /**
+     * 建立以 Smile 編碼的序列化器，舊資料以快取升級前的 JSON 格式讀取
+     *
+     * @param objectMapper 應用程式的 ObjectMapper，沿用其模組設定
+     * @param compressionThreshold 壓縮門檻（位元組），0 表示不壓縮
+     * @return 序列化器
+     */
+    public static CompactRedisSerializer smile(ObjectMapper objectMapper, int compressionThreshold) {
+        return smile(objectMapper, compressionThreshold, json(objectMapper));
+    }
+
+    /**
+     * 建立以 Smile 編碼的序列化器
+     *
+     * @param objectMapper 應用程式的 ObjectMapper，沿用其模組設定
+     * @param compressionThreshold 壓縮門檻（位元組），0 表示不壓縮
+     * @param legacySerializer 讀取升級前資料的序列化器
+     * @return 序列化器
+     */
+    public static CompactRedisSerializer smile(ObjectMapper objectMapper, int compressionThreshold,
+            RedisSerializer<Object> legacySerializer) {
+        ObjectMapper smileMapper = typed(objectMapper.copyWith(new SmileFactory()));
+        return new CompactRedisSerializer(CODEC_SMILE, new GenericJackson2JsonRedisSerializer(smileMapper),
+                legacySerializer, compressionThreshold, false);
+    }
+
+    /**
+     * 建立以 JDK 序列化編碼的序列化器，舊資料以 JDK 序列化讀取
+     *
+     * @param classLoader 反序列化使用的類別載入器
+     * @param compressionThreshold 壓縮門檻（位元組），0 表示不壓縮
+     * @return 序列化器
+     */
+    public static CompactRedisSerializer jdk(ClassLoader classLoader, int compressionThreshold) {
+        JdkSerializationRedisSerializer jdkSerializer = new JdkSerializationRedisSerializer(classLoader);
+        return new CompactRedisSerializer(CODEC_JDK, jdkSerializer, jdkSerializer, compressionThreshold, false);
+    }
+
+    /**
+     * 建立以舊序列化器寫入的副本，讀取時仍接受精簡格式
+     *
+     * @return 寫出舊格式的序列化器
+     */
+    public CompactRedisSerializer legacyWrites() {
+        return new CompactRedisSerializer(codec, codecSerializer, legacySerializer, compressionThreshold, true);
+    }
+
+    /**
+     * 建立快取舊資料的序列化器：以 {@link #json(ObjectMapper)} 寫入；
+     * 讀取時 JDK 序列化的資料（升級前 RedisCacheManager 的預設格式）交由 JDK 序列化解析，其餘視為 JSON
+     *
+     * @param objectMapper 應用程式的 ObjectMapper
+     * @param classLoader 反序列化 JDK 資料使用的類別載入器
+     * @return 快取舊資料的序列化器
+     */
+    public static RedisSerializer<Object> cacheLegacy(ObjectMapper objectMapper, ClassLoader classLoader) {
+        return new JdkAwareSerializer(json(objectMapper), new JdkSerializationRedisSerializer(classLoader));
+    }
+
+    /**
+     * 建立快取（RedisCacheManager）升級前的 JSON 序列化器：應用程式的 ObjectMapper 加上 NON_FINAL 型別資訊
+     *
+     * @param objectMapper 應用程式的 ObjectMapper
+     * @return JSON 序列化器
+     */
+    public static GenericJackson2JsonRedisSerializer json(ObjectMapper objectMapper) {
+        return new GenericJackson2JsonRedisSerializer(typed(objectMapper.copy()));
+    }
+
+    /**
+     * 建立 RedisTemplate 升級前的 JSON 序列化器：Spring Data Redis 預設的 ObjectMapper 與 EVERYTHING 型別資訊
+     *
+     * @return JSON 序列化器
+     */
+    public static GenericJackson2JsonRedisSerializer templateJson() {
+        return new GenericJackson2JsonRedisSerializer();
+    }
+
+    private static ObjectMapper typed(ObjectMapper mapper) {
+        // 加入型別資訊以便還原實體與集合
+        mapper.activateDefaultTyping(mapper.getPolymorphicTypeValidator(),
+                ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        GenericJackson2JsonRedisSerializer.registerNullValueSerializer(mapper, null);
+        return mapper;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return EMPTY;
+        }
+        if (legacyWrites) {
+            return legacySerializer.serialize(value);
+        }
+        byte[] payload = codecSerializer.serialize(value);
+
+        if (compressionThreshold > 0 && payload.length >= compressionThreshold) {
+            int maxLength = COMPRESSOR.maxCompressedLength(payload.length);
+            byte[] out = new byte[HEADER_SIZE + Integer.BYTES + maxLength];
+            int compressedLength = COMPRESSOR.compress(payload, 0, payload.length,
+                    out, HEADER_SIZE + Integer.BYTES, maxLength);
+            if (compressedLength < payload.length) {
+                writeHeader(out, FLAG_LZ4);
+                ByteBuffer.wrap(out, HEADER_SIZE, Integer.BYTES).putInt(payload.length);
+                return Arrays.copyOf(out, HEADER_SIZE + Integer.BYTES + compressedLength);
+            }
+        }
+
+        byte[] out = new byte[HEADER_SIZE + payload.length];
+        writeHeader(out, (byte) 0);
+        System.arraycopy(payload, 0, out, HEADER_SIZE, payload.length);
+        return out;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return legacySerializer.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_SIZE) {
+            throw new SerializationException("Truncated compact redis value");
+        }
+        if (bytes[1] != VERSION) {
+            throw new SerializationException("Unsupported compact redis value version: " + bytes[1]);
+        }
+        if (bytes[2] != codec) {
+            throw new SerializationException("Unexpected compact redis codec: " + bytes[2]);
+        }
+
+        byte[] payload;
+        if ((bytes[3] & FLAG_LZ4) != 0) {
+            int originalLength = ByteBuffer.wrap(bytes, HEADER_SIZE, Integer.BYTES).getInt();
+            payload = new byte[originalLength];
+            try {
+                DECOMPRESSOR.decompress(bytes, HEADER_SIZE + Integer.BYTES, payload, 0, originalLength);
+            } catch (RuntimeException e) {
+                throw new SerializationException("Corrupted compressed redis value", e);
+            }
+        } else {
+            payload = Arrays.copyOfRange(bytes, HEADER_SIZE, bytes.length);
+        }
+        return codecSerializer.deserialize(payload);
+    }
+
+    private void writeHeader(byte[] out, byte flags) {
+        out[0] = MAGIC;
+        out[1] = VERSION;
+        out[2] = codec;
+        out[3] = flags;
+    }
+
+    /**
+     * 以 JSON 寫入，讀取時依 JDK 序列化的串流標頭（0xACED）分派給 JDK 序列化
+     */
+    private static final class JdkAwareSerializer implements RedisSerializer<Object> {
+
+        private static final byte STREAM_MAGIC_HIGH = (byte) 0xAC;
+        private static final byte STREAM_MAGIC_LOW = (byte) 0xED;
+
+        private final RedisSerializer<Object> jsonSerializer;
+        private final RedisSerializer<Object> jdkSerializer;
+
+        private JdkAwareSerializer(RedisSerializer<Object> jsonSerializer, RedisSerializer<Object> jdkSerializer) {
+            this.jsonSerializer = jsonSerializer;
+            this.jdkSerializer = jdkSerializer;
+        }
+
+        @Override
+        public byte[] serialize(Object value) throws SerializationException {
+            return jsonSerializer.serialize(value);
+        }
+
+        @Override
+        public Object deserialize(byte[] bytes) throws SerializationException {
+            if (bytes != null && bytes.length >= 2 && bytes[0] == STREAM_MAGIC_HIGH && bytes[1] == STREAM_MAGIC_LOW) {
+                return jdkSerializer.deserialize(bytes);
+            }
+            return jsonSerializer.deserialize(bytes);
+        }
+    }
+}
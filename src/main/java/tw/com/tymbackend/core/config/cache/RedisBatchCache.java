@@ -0,0 +1,198 @@
+package tw.com.tymbackend.core.config.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.support.NullValue;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Redis 批次快取操作
+ *
+ * <p>為批次查詢提供多鍵讀寫：以一次 MGET 取回所有鍵，
+ * 未命中的鍵合併為一次資料庫查詢，再以一次 Lua 腳本寫回（含 TTL）。
+ * 500 個鍵的批次只需兩次 Redis 往返與一次資料庫查詢。</p>
+ *
+ * <p>寫回只在安全時生效：鍵已有值（其他請求已寫入較新的資料）時不覆蓋，
+ * 鍵或整個快取帶有 {@link CacheInvalidationBus} 的失效標記時略過。
+ * 資料庫查詢期間若有寫入並清除快取，查詢結果可能已過期，
+ * 直接寫回會讓過期資料留到 TTL 到期，因此以失效標記擋下；代價只是標記存活期間該鍵不回填。</p>
+ *
+ * <p>鍵格式與 {@code RedisCacheManager} 相同（{@code 快取名稱::鍵}），值也使用相同的序列化器，
+ * 因此與 {@code @Cacheable} 寫入的項目共用，{@code @CacheEvict} 與失效監聽器的清除對兩者都有效。
+ * 查無資料的鍵以 {@link NullValue} 記錄，避免重複查詢不存在的資料。</p>
+ *
+ * <p>Redis 無法使用時直接回退為資料庫查詢，不影響請求結果。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+public class RedisBatchCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisBatchCache.class);
+
+    private static final String KEY_SEPARATOR = "::";
+
+    /**
+     * 條件寫回：KEYS[1] 為整個快取的清除標記，其後每兩個為快取鍵與其失效標記；
+     * ARGV[1] 為 TTL 毫秒數，其後依序為各鍵序列化後的值
+     */
+    private static final RedisScript<Long> WRITE_BACK_SCRIPT = RedisScript.of(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end "
+            + "local written = 0 "
+            + "for i = 1, (#KEYS - 1) / 2 do "
+            + "  if redis.call('EXISTS', KEYS[2 * i + 1]) == 0 "
+            + "      and redis.call('SET', KEYS[2 * i], ARGV[i + 1], 'PX', ARGV[1], 'NX') then "
+            + "    written = written + 1 "
+            + "  end "
+            + "end "
+            + "return written", Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Duration ttl;
+
+    public RedisBatchCache(RedisTemplate<String, Object> redisTemplate, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+    }
+
+    /**
+     * 批次讀取快取，未命中的鍵透過載入器一次查詢並寫回
+     *
+     * @param cacheName 快取名稱
+     * @param keys 要查詢的鍵，重複與 null 會被忽略
+     * @param type 快取值類型，類型不符的項目視為未命中
+     * @param loader 以未命中的鍵清單查詢資料庫，回傳鍵到值的對應；查無資料的鍵不需出現在結果中
+     * @return 依輸入順序排列的鍵到值對應，不包含查無資料的鍵
+     */
+    public <T> Map<String, T> getAll(String cacheName, Collection<String> keys, Class<T> type,
+            Function<List<String>, Map<String, T>> loader) {
+        if (keys == null || keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<String> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        distinctKeys.remove(null);
+        if (distinctKeys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, T> result = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+        boolean redisAvailable = readCached(cacheName, distinctKeys, type, result, misses);
+
+        if (misses.isEmpty()) {
+            logger.debug("批次快取全部命中: cache={}, keys={}", cacheName, distinctKeys.size());
+            return orderByKeys(distinctKeys, result);
+        }
+
+        Map<String, T> loaded = loader.apply(misses);
+        if (loaded != null) {
+            result.putAll(loaded);
+        }
+        if (redisAvailable) {
+            writeLoaded(cacheName, misses, loaded == null ? Collections.emptyMap() : loaded);
+        }
+
+        logger.debug("批次快取查詢: cache={}, keys={}, misses={}", cacheName, distinctKeys.size(), misses.size());
+        return orderByKeys(distinctKeys, result);
+    }
+
+    /**
+     * 以一次 MGET 讀取所有鍵，命中的值放入結果，未命中的鍵放入 misses
+     *
+     * @return Redis 是否可用
+     */
+    private <T> boolean readCached(String cacheName, List<String> keys, Class<T> type,
+            Map<String, T> result, List<String> misses) {
+        List<Object> values;
+        try {
+            values = redisTemplate.opsForValue().multiGet(redisKeys(cacheName, keys));
+        } catch (DataAccessException e) {
+            logger.warn("批次讀取快取失敗，改為直接查詢資料庫: cache={}, error={}", cacheName, e.getMessage());
+            misses.addAll(keys);
+            return false;
+        }
+        if (values == null || values.size() != keys.size()) {
+            misses.addAll(keys);
+            return true;
+        }
+
+        for (int i = 0; i < keys.size(); i++) {
+            Object value = values.get(i);
+            if (value instanceof NullValue) {
+                // 已知不存在的鍵
+                continue;
+            }
+            if (type.isInstance(value)) {
+                result.put(keys.get(i), type.cast(value));
+            } else {
+                misses.add(keys.get(i));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 以單一腳本條件寫回載入結果，查無資料的鍵寫入 {@link NullValue}
+     */
+    @SuppressWarnings("unchecked")
+    private <T> void writeLoaded(String cacheName, List<String> misses, Map<String, T> loaded) {
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        List<String> scriptKeys = new ArrayList<>(misses.size() * 2 + 1);
+        Object[] args = new Object[misses.size() + 1];
+        scriptKeys.add(CacheInvalidationBus.clearedMarkerKey(cacheName));
+        args[0] = String.valueOf(ttl.toMillis()).getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < misses.size(); i++) {
+            String key = misses.get(i);
+            T value = loaded.get(key);
+            scriptKeys.add(redisKey(cacheName, key));
+            scriptKeys.add(CacheInvalidationBus.evictedMarkerKey(cacheName, key));
+            args[i + 1] = valueSerializer.serialize(value != null ? value : NullValue.INSTANCE);
+        }
+        try {
+            Long written = redisTemplate.execute(WRITE_BACK_SCRIPT, RedisSerializer.byteArray(),
+                    new GenericToStringSerializer<>(Long.class), scriptKeys, args);
+            logger.debug("批次寫入快取: cache={}, keys={}, written={}", cacheName, misses.size(), written);
+        } catch (DataAccessException e) {
+            logger.warn("批次寫入快取失敗: cache={}, keys={}, error={}", cacheName, misses.size(), e.getMessage());
+        }
+    }
+
+    private static <T> Map<String, T> orderByKeys(List<String> keys, Map<String, T> values) {
+        Map<String, T> ordered = new LinkedHashMap<>();
+        for (String key : keys) {
+            T value = values.get(key);
+            if (value != null) {
+                ordered.put(key, value);
+            }
+        }
+        return ordered;
+    }
+
+    private static List<String> redisKeys(String cacheName, List<String> keys) {
+        List<String> redisKeys = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            redisKeys.add(redisKey(cacheName, key));
+        }
+        return redisKeys;
+    }
+
+    static String redisKey(String cacheName, String key) {
+        return cacheName + KEY_SEPARATOR + key;
+    }
+}
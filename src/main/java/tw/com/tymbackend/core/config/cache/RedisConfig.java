@@ -1,5 +1,6 @@
 package tw.com.tymbackend.core.config.cache;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -8,9 +9,11 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 /**
  * Redis配置類 - 僅用於分布式鎖和工具類
  * Session 配置已移至 SessionConfig.java
@@ -32,6 +35,12 @@ public class RedisConfig {
     @Value("${spring.data.redis.database:0}")
     private int redisDatabase;
 
+    @Value("${app.redis.serializer.format:compact}")
+    private String serializerFormat;
+
+    @Value("${app.redis.serializer.compression-threshold:1024}")
+    private int compressionThreshold;
+
     /**
      * 配置Redis連接工廠
      */
@@ -49,19 +58,51 @@ public class RedisConfig {
         return new LettuceConnectionFactory(config);
     }
 
+    /**
+     * 配置 Redis 值序列化器 - 一般對象（RedisTemplate）
+     * - compact：Smile 二進位格式，超過門檻時 LZ4 壓縮，可讀取舊的 JSON 資料
+     * - json：寫入與升級前 RedisTemplate 相同的 JSON 格式，仍可讀取 compact 寫入的資料
+     */
+    @Bean
+    public RedisSerializer<Object> redisValueSerializer(ObjectMapper objectMapper) {
+        CompactRedisSerializer serializer = CompactRedisSerializer.smile(objectMapper, compressionThreshold,
+                CompactRedisSerializer.templateJson());
+        return isJsonFormat() ? serializer.legacyWrites() : serializer;
+    }
+
+    /**
+     * 配置 Redis 快取值序列化器 - RedisCacheManager 與批次快取
+     * - compact：Smile 二進位格式，超過門檻時 LZ4 壓縮
+     * - json：寫入帶型別資訊的 JSON，仍可讀取 compact 寫入的資料
+     *
+     * 升級前沒有設定快取序列化器，RedisCacheManager 以 JDK 序列化寫入；兩種格式都能讀取這些舊項目。
+     * 反之升級前的版本無法讀取 compact 或 json 寫入的項目，退回升級前版本時需先清除快取鍵（可由資料庫重建）。
+     */
+    @Bean
+    public RedisSerializer<Object> redisCacheValueSerializer(ObjectMapper objectMapper) {
+        CompactRedisSerializer serializer = CompactRedisSerializer.smile(objectMapper, compressionThreshold,
+                CompactRedisSerializer.cacheLegacy(objectMapper, getClass().getClassLoader()));
+        return isJsonFormat() ? serializer.legacyWrites() : serializer;
+    }
+
+    private boolean isJsonFormat() {
+        return "json".equalsIgnoreCase(serializerFormat);
+    }
+
     /**
      * 配置Redis模板 - 用於一般對象
      */
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory,
+            @Qualifier("redisValueSerializer") RedisSerializer<Object> redisValueSerializer) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         
         // 設置序列化器
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setValueSerializer(redisValueSerializer);
         template.setHashKeySerializer(new StringRedisSerializer());
-        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setHashValueSerializer(redisValueSerializer);
         
         template.afterPropertiesSet();
         return template;
@@ -0,0 +1,116 @@
+package tw.com.tymbackend.core.config.cache;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 兩層快取配置 - Caffeine（L1）+ Redis（L2）
+ *
+ * 熱門查詢（角色名稱、武器擁有者）在本地命中時不需要網路往返；
+ * 跨實例的一致性由 Redis pub/sub 失效通知維持，本地 TTL 則限制訊息遺失時的最長不一致時間。
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+@Configuration
+public class TieredCacheConfig {
+
+    /** 角色名稱查詢快取 */
+    public static final String PEOPLE_BY_NAME = "people-by-name";
+    /** 武器擁有者查詢快取 */
+    public static final String WEAPONS_BY_OWNER = "weapons-by-owner";
+    /** 角色頭像代碼名稱查詢快取 */
+    public static final String PEOPLE_IMAGES_BY_CODE_NAME = "people-images-by-code-name";
+    /** 傷害計算結果快取（僅用於跨實例失效通知） */
+    public static final String DAMAGE_CALCULATIONS = "damage-calculations";
+
+    @Value("${app.cache.local.max-size:10000}")
+    private long localMaxSize;
+
+    @Value("${app.cache.local.ttl:60s}")
+    private Duration localTtl;
+
+    @Value("${app.cache.remote.ttl:10m}")
+    private Duration remoteTtl;
+
+    @Value("${app.cache.remote.eviction-guard:30s}")
+    private Duration evictionGuard;
+
+    /**
+     * 跨實例快取失效通道
+     */
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(StringRedisTemplate stringRedisTemplate) {
+        return new CacheInvalidationBus(stringRedisTemplate, evictionGuard);
+    }
+
+    /**
+     * 訂閱快取失效頻道的監聽容器
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory, CacheInvalidationBus cacheInvalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheInvalidationBus, new ChannelTopic(CacheInvalidationBus.CHANNEL));
+        return container;
+    }
+
+    /**
+     * Redis 批次快取操作，與快取管理器共用鍵格式、序列化器與 TTL
+     */
+    @Bean
+    public RedisBatchCache redisBatchCache(RedisConnectionFactory connectionFactory,
+            @Qualifier("redisCacheValueSerializer") RedisSerializer<Object> redisCacheValueSerializer) {
+        RedisTemplate<String, Object> cacheTemplate = new RedisTemplate<>();
+        cacheTemplate.setConnectionFactory(connectionFactory);
+        cacheTemplate.setKeySerializer(RedisSerializer.string());
+        cacheTemplate.setValueSerializer(redisCacheValueSerializer);
+        cacheTemplate.afterPropertiesSet();
+        return new RedisBatchCache(cacheTemplate, remoteTtl);
+    }
+
+    /**
+     * 兩層快取管理器，取代預設的 Redis 快取管理器
+     */
+    @Bean
+    @Primary
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+            CacheInvalidationBus cacheInvalidationBus,
+            @Qualifier("redisCacheValueSerializer") RedisSerializer<Object> redisCacheValueSerializer,
+            MeterRegistry meterRegistry) {
+        RedisCacheConfiguration cacheConfiguration = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(remoteTtl)
+                .serializeValuesWith(RedisSerializationContext.SerializationPair
+                        .fromSerializer(redisCacheValueSerializer));
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(cacheConfiguration)
+                .build();
+        redisCacheManager.initializeCaches();
+
+        TieredCacheManager cacheManager = new TieredCacheManager(redisCacheManager, cacheInvalidationBus,
+                meterRegistry, localMaxSize, localTtl);
+        cacheManager.getCache(PEOPLE_BY_NAME);
+        cacheManager.getCache(WEAPONS_BY_OWNER);
+        cacheManager.getCache(PEOPLE_IMAGES_BY_CODE_NAME);
+        return cacheManager;
+    }
+}
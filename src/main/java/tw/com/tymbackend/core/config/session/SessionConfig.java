@@ -4,11 +4,14 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Conditional;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.session.data.redis.config.annotation.web.http.EnableRedisHttpSession;
 import org.springframework.session.web.context.AbstractHttpSessionApplicationInitializer;
 import org.springframework.session.web.http.CookieSerializer;
 import org.springframework.session.web.http.DefaultCookieSerializer;
 
+import tw.com.tymbackend.core.config.cache.CompactRedisSerializer;
+
 /**
  * Spring Session Redis 配置類
  * 
@@ -44,6 +47,12 @@ public class SessionConfig extends AbstractHttpSessionApplicationInitializer {
     @Value("${app.session.cookie.secure:false}")
     private boolean secure;
 
+    @Value("${app.redis.serializer.format:compact}")
+    private String serializerFormat;
+
+    @Value("${app.redis.serializer.compression-threshold:1024}")
+    private int compressionThreshold;
+
     /**
      * 配置 Cookie 序列化器
      * 
@@ -59,4 +68,19 @@ public class SessionConfig extends AbstractHttpSessionApplicationInitializer {
         serializer.setCookieMaxAge(sessionTimeout);
         return serializer;
     }
+
+    /**
+     * 配置 Session 屬性序列化器
+     * 
+     * 沿用 JDK 序列化以相容安全性上下文等屬性，兩種格式都可讀取升級前的 Session 與加上標頭的 Session：
+     * - compact：加上版本標頭與 LZ4 壓縮
+     * - json：與升級前相同的 JDK 序列化，切回時既有 Session 不會失效
+     * 
+     * @return Session 屬性序列化器
+     */
+    @Bean
+    public RedisSerializer<Object> springSessionDefaultRedisSerializer() {
+        CompactRedisSerializer serializer = CompactRedisSerializer.jdk(getClass().getClassLoader(), compressionThreshold);
+        return "json".equalsIgnoreCase(serializerFormat) ? serializer.legacyWrites() : serializer;
+    }
 }
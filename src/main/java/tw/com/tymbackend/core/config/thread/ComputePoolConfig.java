@@ -0,0 +1,39 @@
+package tw.com.tymbackend.core.config.thread;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * CPU 密集運算執行緒池配置
+ *
+ * 提供專用的 ForkJoinPool 給批量傷害計算等可切分的純運算工作，
+ * 與 common pool 及處理 I/O 的虛擬執行緒執行器隔離，避免互相搶占。
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+@Configuration
+public class ComputePoolConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ComputePoolConfig.class);
+
+    /**
+     * 批量傷害計算專用的 ForkJoinPool
+     * - parallelism 為 0 時使用可用的 CPU 核心數
+     *
+     * @param parallelism 平行度
+     * @return ForkJoinPool
+     */
+    @Bean(name = "damageComputePool", destroyMethod = "shutdown")
+    public ForkJoinPool damageComputePool(@Value("${app.damage.parallel.parallelism:0}") int parallelism) {
+        int effective = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        logger.info("批量傷害計算執行緒池已建立: parallelism={}", effective);
+        return new ForkJoinPool(effective);
+    }
+}
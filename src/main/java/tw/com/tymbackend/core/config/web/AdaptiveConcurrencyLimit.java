@@ -0,0 +1,132 @@
+package tw.com.tymbackend.core.config.web;
+
+/**
+ * 依延遲梯度自動調整的並發上限
+ *
+ * <p>每收集 windowSize 個成功請求的延遲計算一次：短期平均延遲與長期基準（指數移動平均）比較，
+ * 延遲上升時依比例縮小上限，延遲持平時每次增加約 √limit 的排隊空間。
+ * 新上限與舊上限平滑混合後限制在 [minLimit, maxLimit] 之間。</p>
+ *
+ * <p>失敗（5xx 或例外）立即將上限乘以 {@link #BACKOFF_RATIO}；
+ * 窗口內的最高並發不到上限一半時不再放大，避免低流量時上限無意義地膨脹。</p>
+ */
+final class AdaptiveConcurrencyLimit {
+
+    /** 失敗時的乘法遞減比例 */
+    static final double BACKOFF_RATIO = 0.9;
+
+    /** 長期基準延遲的平滑係數 */
+    private static final double LONG_RTT_ALPHA = 0.05;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final int windowSize;
+
+    private double limit;
+    private int inFlight;
+    private double longRttNanos;
+    private long windowRttNanos;
+    private int windowSamples;
+    private int windowMaxInFlight;
+
+    /**
+     * @param initialLimit 起始上限
+     * @param minLimit 上限的下界
+     * @param maxLimit 上限的上界
+     * @param tolerance 可容忍的延遲上升倍數，超過才縮小上限
+     * @param smoothing 新上限的權重（0~1）
+     * @param windowSize 每次調整所需的樣本數
+     */
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing,
+            int windowSize) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.tolerance = Math.max(1.0, tolerance);
+        this.smoothing = Math.min(1.0, Math.max(0.01, smoothing));
+        this.windowSize = Math.max(1, windowSize);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * 取得執行許可
+     *
+     * @return 未達上限時為 true，呼叫端必須在完成後呼叫 {@link #onSuccess} 或 {@link #onDropped}
+     */
+    synchronized boolean tryAcquire() {
+        if (inFlight >= getLimit()) {
+            return false;
+        }
+        inFlight++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+        return true;
+    }
+
+    /**
+     * 請求成功完成
+     *
+     * @param rttNanos 處理時間
+     */
+    synchronized void onSuccess(long rttNanos) {
+        inFlight--;
+        windowRttNanos += rttNanos;
+        windowSamples++;
+        if (windowSamples >= windowSize) {
+            update((double) windowRttNanos / windowSamples);
+            windowRttNanos = 0;
+            windowSamples = 0;
+            windowMaxInFlight = inFlight;
+        }
+    }
+
+    /**
+     * 請求失敗，立即縮小上限
+     */
+    synchronized void onDropped() {
+        inFlight--;
+        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+    }
+
+    /**
+     * 不列入延遲樣本的完成（例如轉為異步處理的請求）
+     */
+    synchronized void onIgnored() {
+        inFlight--;
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * 長期基準延遲，尚無樣本時為 0
+     */
+    synchronized long getEstimatedRttNanos() {
+        return (long) longRttNanos;
+    }
+
+    private void update(double shortRttNanos) {
+        if (longRttNanos == 0) {
+            longRttNanos = shortRttNanos;
+        } else {
+            longRttNanos = longRttNanos * (1 - LONG_RTT_ALPHA) + shortRttNanos * LONG_RTT_ALPHA;
+        }
+        // 延遲明顯改善時讓基準較快跟上，避免長期沿用過高的基準
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        if (target > limit && windowMaxInFlight < limit / 2) {
+            return;
+        }
+        double next = limit * (1 - smoothing) + target * smoothing;
+        limit = Math.min(maxLimit, Math.max(minLimit, next));
+    }
+}
@@ -0,0 +1,187 @@
+package tw.com.tymbackend.core.config.web;
+
+import java.util.Comparator;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 單一路由群組的隔離艙：自適應並發上限加上有界的優先權等待佇列
+ *
+ * <p>沒有空位時請求依優先權（高者先）、再依最晚可等待時間（早者先）排隊。
+ * 佇列已滿時，新請求比佇列中最差的請求更優先才會擠掉對方，否則直接拒絕。
+ * 釋放許可時先剔除已過期限、或剩餘時間不足以完成一次平均處理的請求，
+ * 已過期限的請求絕不會取得許可。</p>
+ */
+final class Bulkhead {
+
+    /** 未指定期限 */
+    static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private static final Comparator<Waiter> ORDER = Comparator
+            .comparingInt((Waiter waiter) -> -waiter.priority)
+            .thenComparingLong(waiter -> waiter.waitUntilNanos)
+            .thenComparingLong(waiter -> waiter.sequence);
+
+    /**
+     * 取得許可的結果
+     */
+    enum Outcome {
+        ADMITTED, QUEUE_FULL, SHED, TIMEOUT, DEADLINE_EXCEEDED;
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final String name;
+    private final AdaptiveConcurrencyLimit limit;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final TreeSet<Waiter> waiters = new TreeSet<>(ORDER);
+    private long sequence;
+
+    Bulkhead(String name, AdaptiveConcurrencyLimit limit, int maxQueue, long maxWaitMs) {
+        this.name = name;
+        this.limit = limit;
+        this.maxQueue = Math.max(0, maxQueue);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMs));
+    }
+
+    /**
+     * 取得執行許可，沒有空位時排隊等待
+     *
+     * @param priority 優先權，數字越大越優先
+     * @param deadlineNanos 呼叫端期限（{@link System#nanoTime()} 基準），未指定為 {@link #NO_DEADLINE}
+     * @return 取得結果，{@link Outcome#ADMITTED} 時必須在完成後呼叫 onSuccess、onDropped 或 onIgnored
+     * @throws InterruptedException 等待中被中斷
+     */
+    Outcome acquire(int priority, long deadlineNanos) throws InterruptedException {
+        long now = System.nanoTime();
+        boolean hasDeadline = deadlineNanos != NO_DEADLINE;
+        if (hasDeadline && deadlineNanos - now <= 0) {
+            return Outcome.DEADLINE_EXCEEDED;
+        }
+
+        Waiter waiter;
+        synchronized (this) {
+            if (waiters.isEmpty() && limit.tryAcquire()) {
+                return Outcome.ADMITTED;
+            }
+            if (maxQueue == 0 || maxWaitNanos == 0) {
+                return Outcome.QUEUE_FULL;
+            }
+            long waitUntil = now + maxWaitNanos;
+            if (hasDeadline && deadlineNanos - waitUntil < 0) {
+                waitUntil = deadlineNanos;
+            }
+            waiter = new Waiter(priority, deadlineNanos, waitUntil, sequence++);
+            if (waiters.size() >= maxQueue) {
+                Waiter worst = waiters.last();
+                if (ORDER.compare(waiter, worst) >= 0) {
+                    return Outcome.QUEUE_FULL;
+                }
+                waiters.pollLast();
+                worst.complete(Outcome.SHED);
+            }
+            waiters.add(waiter);
+        }
+
+        try {
+            waiter.signal.await(waiter.waitUntilNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            synchronized (this) {
+                if (waiter.outcome == Outcome.ADMITTED) {
+                    limit.onIgnored();
+                } else if (waiter.outcome == null) {
+                    waiters.remove(waiter);
+                    waiter.outcome = Outcome.TIMEOUT;
+                }
+            }
+            handOff();
+            throw e;
+        }
+        synchronized (this) {
+            if (waiter.outcome == null) {
+                waiters.remove(waiter);
+                waiter.outcome = hasDeadline && deadlineNanos - System.nanoTime() <= 0
+                        ? Outcome.DEADLINE_EXCEEDED
+                        : Outcome.TIMEOUT;
+            }
+            return waiter.outcome;
+        }
+    }
+
+    void onSuccess(long rttNanos) {
+        limit.onSuccess(rttNanos);
+        handOff();
+    }
+
+    void onDropped() {
+        limit.onDropped();
+        handOff();
+    }
+
+    void onIgnored() {
+        limit.onIgnored();
+        handOff();
+    }
+
+    String getName() {
+        return name;
+    }
+
+    AdaptiveConcurrencyLimit getLimit() {
+        return limit;
+    }
+
+    synchronized int getQueued() {
+        return waiters.size();
+    }
+
+    /**
+     * 將空出的許可依序交給等待中的請求，期限內無法完成的請求直接剔除
+     */
+    private synchronized void handOff() {
+        long now = System.nanoTime();
+        long estimatedRttNanos = limit.getEstimatedRttNanos();
+        while (!waiters.isEmpty()) {
+            Waiter next = waiters.first();
+            if (next.deadlineNanos != NO_DEADLINE) {
+                long remaining = next.deadlineNanos - now;
+                if (remaining <= 0 || remaining < estimatedRttNanos) {
+                    waiters.pollFirst();
+                    next.complete(Outcome.DEADLINE_EXCEEDED);
+                    continue;
+                }
+            }
+            if (!limit.tryAcquire()) {
+                return;
+            }
+            waiters.pollFirst();
+            next.complete(Outcome.ADMITTED);
+        }
+    }
+
+    private static final class Waiter {
+
+        private final int priority;
+        private final long deadlineNanos;
+        private final long waitUntilNanos;
+        private final long sequence;
+        private final CountDownLatch signal = new CountDownLatch(1);
+        private Outcome outcome;
+
+        private Waiter(int priority, long deadlineNanos, long waitUntilNanos, long sequence) {
+            this.priority = priority;
+            this.deadlineNanos = deadlineNanos;
+            this.waitUntilNanos = waitUntilNanos;
+            this.sequence = sequence;
+        }
+
+        private void complete(Outcome result) {
+            outcome = result;
+            signal.countDown();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package tw.com.tymbackend.core.config.web;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 請求並發隔離艙（bulkhead）設定
+ *
+ * 頂層數值為預設值，bulkheads 下每個隔離艙可個別覆寫；依宣告順序比對路由，
+ * 未命中的請求使用 default 隔離艙。
+ */
+@Component
+@ConfigurationProperties(prefix = "app.concurrency")
+public class ConcurrencyProperties {
+
+    private int initialLimit = 2;
+    private int minLimit = 1;
+    private int maxLimit = 20;
+    private double tolerance = 1.5;
+    private double smoothing = 0.2;
+    private int windowSize = 10;
+    private long retryAfterSeconds = 1;
+    private int maxQueue = 10;
+    private long maxWaitMs = 200;
+    private Map<String, Spec> bulkheads = new LinkedHashMap<>();
+
+    /** 與 Gateway 共用的密鑰，請求帶相同的 X-Internal-Token 時才採用優先權與期限標頭；未設定時一律不採用 */
+    private String trustedCallerToken;
+
+    /**
+     * 單一隔離艙設定，未設定的欄位沿用預設值
+     */
+    public static class Spec {
+
+        /** 路由樣式，例如 "/keycloak/**" 或 "POST /people/insert-multiple" */
+        private List<String> patterns = new ArrayList<>();
+        private Integer initialLimit;
+        private Integer minLimit;
+        private Integer maxLimit;
+        private Integer maxQueue;
+        private Long maxWaitMs;
+
+        public List<String> getPatterns() { return patterns; }
+        public void setPatterns(List<String> patterns) { this.patterns = patterns; }
+
+        public Integer getInitialLimit() { return initialLimit; }
+        public void setInitialLimit(Integer initialLimit) { this.initialLimit = initialLimit; }
+
+        public Integer getMinLimit() { return minLimit; }
+        public void setMinLimit(Integer minLimit) { this.minLimit = minLimit; }
+
+        public Integer getMaxLimit() { return maxLimit; }
+        public void setMaxLimit(Integer maxLimit) { this.maxLimit = maxLimit; }
+
+        public Integer getMaxQueue() { return maxQueue; }
+        public void setMaxQueue(Integer maxQueue) { this.maxQueue = maxQueue; }
+
+        public Long getMaxWaitMs() { return maxWaitMs; }
+        public void setMaxWaitMs(Long maxWaitMs) { this.maxWaitMs = maxWaitMs; }
+    }
+
+    // Getters and Setters
+    public int getInitialLimit() { return initialLimit; }
+    public void setInitialLimit(int initialLimit) { this.initialLimit = initialLimit; }
+
+    public int getMinLimit() { return minLimit; }
+    public void setMinLimit(int minLimit) { this.minLimit = minLimit; }
+
+    public int getMaxLimit() { return maxLimit; }
+    public void setMaxLimit(int maxLimit) { this.maxLimit = maxLimit; }
+
+    public double getTolerance() { return tolerance; }
+    public void setTolerance(double tolerance) { this.tolerance = tolerance; }
+
+    public double getSmoothing() { return smoothing; }
+    public void setSmoothing(double smoothing) { this.smoothing = smoothing; }
+
+    public int getWindowSize() { return windowSize; }
+    public void setWindowSize(int windowSize) { this.windowSize = windowSize; }
+
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+    public void setRetryAfterSeconds(long retryAfterSeconds) { this.retryAfterSeconds = retryAfterSeconds; }
+
+    public int getMaxQueue() { return maxQueue; }
+    public void setMaxQueue(int maxQueue) { this.maxQueue = maxQueue; }
+
+    public long getMaxWaitMs() { return maxWaitMs; }
+    public void setMaxWaitMs(long maxWaitMs) { this.maxWaitMs = maxWaitMs; }
+
+    public Map<String, Spec> getBulkheads() { return bulkheads; }
+    public void setBulkheads(Map<String, Spec> bulkheads) { this.bulkheads = bulkheads; }
+
+    public String getTrustedCallerToken() { return trustedCallerToken; }
+    public void setTrustedCallerToken(String trustedCallerToken) { this.trustedCallerToken = trustedCallerToken; }
+}
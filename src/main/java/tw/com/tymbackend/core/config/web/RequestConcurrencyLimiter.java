@@ -6,19 +6,44 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 
 import java.io.IOException;
-import java.util.concurrent.Semaphore;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
- * 基於信號量的全域並發請求限制器，避免在資源受限環境下 CPU 飆升。
- * 允許量與等待時間可透過環境變數調整。
+ * 依路由隔離艙（bulkhead）限制並發請求，避免在資源受限環境下 CPU 與連線池被塞滿。
+ *
+ * 每個隔離艙以設定的路由樣式比對請求，擁有獨立的自適應並發上限（{@link AdaptiveConcurrencyLimit}）
+ * 與有界的優先權等待佇列，因此大量上傳或批量寫入不會佔滿登入與一般查詢的名額。
+ * 未命中任何樣式的請求使用 default 隔離艙。
+ *
+ * 請求可帶 X-Request-Priority（0~9，預設 5）調整排隊順序，並以 X-Request-Deadline（epoch 毫秒）
+ * 或 X-Request-Timeout-Ms 指定期限；已過期限的請求不會被受理。
+ * 這些標頭只採信帶有正確 X-Internal-Token（app.concurrency.trusted-caller-token）的內部呼叫端，
+ * 例如 Gateway；其他請求一律使用預設優先權且不設期限，外部呼叫端無法藉此插隊。
+ * 排隊已滿或等待逾時回 429 並附上 Retry-After，期限已過回 503。
+ * 上限、處理中、排隊數量與拒絕次數以 http.concurrency.* 指標公開。
  */
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
@@ -26,45 +51,226 @@ public class RequestConcurrencyLimiter implements Filter {
 
     private static final Logger logger = LoggerFactory.getLogger(RequestConcurrencyLimiter.class);
 
-    private final Semaphore semaphore;
-    private final long tryAcquireTimeoutMs;
+    static final String DEFAULT_BULKHEAD = "default";
+    static final String PRIORITY_HEADER = "X-Request-Priority";
+    static final String DEADLINE_HEADER = "X-Request-Deadline";
+    static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+    static final String INTERNAL_TOKEN_HEADER = "X-Internal-Token";
+    static final int DEFAULT_PRIORITY = 5;
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final long retryAfterSeconds;
+    private final byte[] trustedCallerToken;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<Route> routes = new ArrayList<>();
+    private final Bulkhead defaultBulkhead;
+
+    public RequestConcurrencyLimiter(ConcurrencyProperties properties, MeterRegistry meterRegistry,
+            ObjectMapper objectMapper) {
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.retryAfterSeconds = Math.max(1, properties.getRetryAfterSeconds());
+        String token = properties.getTrustedCallerToken();
+        this.trustedCallerToken = token == null || token.isBlank() ? null : token.getBytes(StandardCharsets.UTF_8);
 
-    public RequestConcurrencyLimiter(
-            @Value("${app.concurrency.max-concurrent-requests:2}") int maxConcurrentRequests,
-            @Value("${app.concurrency.try-acquire-timeout-ms:200}") long tryAcquireTimeoutMs) {
-        int permits = Math.max(1, maxConcurrentRequests);
-        this.semaphore = new Semaphore(permits, true);
-        this.tryAcquireTimeoutMs = tryAcquireTimeoutMs;
-        logger.info("RequestConcurrencyLimiter initialized: permits={}, timeoutMs={}", permits, tryAcquireTimeoutMs);
+        Map<String, Bulkhead> bulkheads = new LinkedHashMap<>();
+        properties.getBulkheads().forEach((name, spec) -> {
+            Bulkhead bulkhead = register(createBulkhead(name, spec, properties));
+            bulkheads.put(name, bulkhead);
+            for (String pattern : spec.getPatterns()) {
+                routes.add(Route.parse(pattern, bulkhead));
+            }
+        });
+        this.defaultBulkhead = bulkheads.containsKey(DEFAULT_BULKHEAD)
+                ? bulkheads.get(DEFAULT_BULKHEAD)
+                : register(createBulkhead(DEFAULT_BULKHEAD, new ConcurrencyProperties.Spec(), properties));
+        logger.info("RequestConcurrencyLimiter initialized: bulkheads={}, routes={}",
+                bulkheads.keySet(), routes.size());
     }
 
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
-        boolean acquired = false;
+        if (!(request instanceof HttpServletRequest httpRequest)
+                || !(response instanceof HttpServletResponse httpResponse)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Bulkhead bulkhead = resolve(httpRequest);
+        Bulkhead.Outcome outcome;
         try {
-            // 盡量在設定的超時內取得許可，避免長時間阻塞導致堆積
-            if (tryAcquireTimeoutMs > 0) {
-                acquired = semaphore.tryAcquire(tryAcquireTimeoutMs, java.util.concurrent.TimeUnit.MILLISECONDS);
+            boolean trusted = isTrustedCaller(httpRequest);
+            outcome = bulkhead.acquire(trusted ? priority(httpRequest) : DEFAULT_PRIORITY,
+                    trusted ? deadline(httpRequest) : Bulkhead.NO_DEADLINE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted while waiting for concurrency permit", e);
+        }
+        if (outcome != Bulkhead.Outcome.ADMITTED) {
+            reject(httpRequest, httpResponse, bulkhead, outcome);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            chain.doFilter(request, response);
+            dropped = httpResponse.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            if (dropped) {
+                bulkhead.onDropped();
+            } else if (httpRequest.isAsyncStarted()) {
+                // 長輪詢與 SSE 只佔用起始的分派時間，不列入延遲樣本
+                bulkhead.onIgnored();
             } else {
-                acquired = semaphore.tryAcquire();
+                bulkhead.onSuccess(System.nanoTime() - start);
             }
-            if (!acquired) {
-                // 簡單丟擲 429，交由上層全域錯誤處理（Spring Boot 預設會處理）
-                logger.warn("Too many concurrent requests - path={}",
-                        (request instanceof HttpServletRequest r) ? r.getRequestURI() : "N/A");
-                throw new ServletException("Too many concurrent requests");
+        }
+    }
+
+    /**
+     * 依宣告順序找出請求所屬的隔離艙
+     *
+     * @param request HTTP 請求
+     * @return 第一個命中的隔離艙，未命中時為 default
+     */
+    Bulkhead resolve(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path == null) {
+            return defaultBulkhead;
+        }
+        String contextPath = request.getContextPath();
+        if (contextPath != null && !contextPath.isEmpty() && path.startsWith(contextPath)) {
+            path = path.substring(contextPath.length());
+        }
+        for (Route route : routes) {
+            if ((route.method() == null || route.method().equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(route.pattern(), path)) {
+                return route.bulkhead();
             }
-            chain.doFilter(request, response);
-        } catch (InterruptedException ie) {
-            Thread.currentThread().interrupt();
-            throw new ServletException("Interrupted while waiting for concurrency permit", ie);
-        } finally {
-            if (acquired) {
-                semaphore.release();
+        }
+        return defaultBulkhead;
+    }
+
+    /**
+     * 是否為可信任的內部呼叫端：X-Internal-Token 與設定的密鑰相同（固定時間比較）
+     */
+    boolean isTrustedCaller(HttpServletRequest request) {
+        String token = request.getHeader(INTERNAL_TOKEN_HEADER);
+        return trustedCallerToken != null && token != null
+                && MessageDigest.isEqual(trustedCallerToken, token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static int priority(HttpServletRequest request) {
+        String value = request.getHeader(PRIORITY_HEADER);
+        if (value == null) {
+            return DEFAULT_PRIORITY;
+        }
+        try {
+            return Math.max(0, Math.min(9, Integer.parseInt(value.trim())));
+        } catch (NumberFormatException e) {
+            return DEFAULT_PRIORITY;
+        }
+    }
+
+    /**
+     * 將期限標頭轉為 {@link System#nanoTime()} 基準，兩者皆有時取較早者
+     */
+    static long deadline(HttpServletRequest request) {
+        long now = System.nanoTime();
+        long deadline = Bulkhead.NO_DEADLINE;
+        Long epochMs = parseLong(request.getHeader(DEADLINE_HEADER));
+        if (epochMs != null) {
+            deadline = now + TimeUnit.MILLISECONDS.toNanos(epochMs - System.currentTimeMillis());
+        }
+        Long timeoutMs = parseLong(request.getHeader(TIMEOUT_HEADER));
+        if (timeoutMs != null) {
+            long byTimeout = now + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            if (deadline == Bulkhead.NO_DEADLINE || byTimeout - deadline < 0) {
+                deadline = byTimeout;
             }
         }
+        return deadline;
+    }
+
+    private static Long parseLong(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
-}
 
+    private void reject(HttpServletRequest request, HttpServletResponse response, Bulkhead bulkhead,
+            Bulkhead.Outcome outcome) throws IOException {
+        meterRegistry.counter("http.concurrency.rejected", "group", bulkhead.getName(), "reason", outcome.tag())
+                .increment();
+        logger.warn("Too many concurrent requests - bulkhead={}, reason={}, limit={}, queued={}, path={}",
+                bulkhead.getName(), outcome.tag(), bulkhead.getLimit().getLimit(), bulkhead.getQueued(),
+                request.getRequestURI());
 
+        boolean deadlineExceeded = outcome == Bulkhead.Outcome.DEADLINE_EXCEEDED;
+        HttpStatus status = deadlineExceeded ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS;
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", status.value());
+        body.put("message", deadlineExceeded
+                ? "請求期限內無法處理"
+                : "同時處理的請求過多，請於 " + retryAfterSeconds + " 秒後重試");
+        body.put("group", bulkhead.getName());
+        body.put("reason", outcome.tag());
+        response.setStatus(status.value());
+        if (!deadlineExceeded) {
+            body.put("retryAfterSeconds", retryAfterSeconds);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private static Bulkhead createBulkhead(String name, ConcurrencyProperties.Spec spec,
+            ConcurrencyProperties defaults) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(
+                spec.getInitialLimit() != null ? spec.getInitialLimit() : defaults.getInitialLimit(),
+                spec.getMinLimit() != null ? spec.getMinLimit() : defaults.getMinLimit(),
+                spec.getMaxLimit() != null ? spec.getMaxLimit() : defaults.getMaxLimit(),
+                defaults.getTolerance(), defaults.getSmoothing(), defaults.getWindowSize());
+        return new Bulkhead(name, limit,
+                spec.getMaxQueue() != null ? spec.getMaxQueue() : defaults.getMaxQueue(),
+                spec.getMaxWaitMs() != null ? spec.getMaxWaitMs() : defaults.getMaxWaitMs());
+    }
+
+    private Bulkhead register(Bulkhead bulkhead) {
+        String name = bulkhead.getName();
+        Gauge.builder("http.concurrency.limit", bulkhead.getLimit(), AdaptiveConcurrencyLimit::getLimit)
+                .tag("group", name).description("Adaptive concurrency limit of the bulkhead")
+                .register(meterRegistry);
+        Gauge.builder("http.concurrency.in-flight", bulkhead.getLimit(), AdaptiveConcurrencyLimit::getInFlight)
+                .tag("group", name).description("Requests currently executing in the bulkhead")
+                .register(meterRegistry);
+        Gauge.builder("http.concurrency.queued", bulkhead, Bulkhead::getQueued)
+                .tag("group", name).description("Requests waiting for a permit in the bulkhead")
+                .register(meterRegistry);
+        return bulkhead;
+    }
+
+    /**
+     * 路由樣式，可在路徑前加上 HTTP 方法，例如 "POST /people/insert-multiple"
+     */
+    record Route(String method, String pattern, Bulkhead bulkhead) {
+
+        static Route parse(String value, Bulkhead bulkhead) {
+            String trimmed = value.trim();
+            int space = trimmed.indexOf(' ');
+            if (space < 0) {
+                return new Route(null, trimmed, bulkhead);
+            }
+            return new Route(trimmed.substring(0, space).toUpperCase(), trimmed.substring(space + 1).trim(),
+                    bulkhead);
+        }
+    }
+}
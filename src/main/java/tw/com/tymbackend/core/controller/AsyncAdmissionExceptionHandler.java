@@ -0,0 +1,43 @@
+package tw.com.tymbackend.core.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import tw.com.tymbackend.core.service.AsyncAdmissionException;
+import tw.com.tymbackend.core.service.AsyncPublishException;
+
+/**
+ * 異步請求准入失敗的回應處理
+ *
+ * 隊列積壓時回 429 並附上 Retry-After，讓呼叫端稍後重試，而不是取得注定過期的 requestId。
+ * 請求未能確認送達 Broker 時回 503。
+ */
+@RestControllerAdvice
+public class AsyncAdmissionExceptionHandler {
+
+    @ExceptionHandler(AsyncAdmissionException.class)
+    public ResponseEntity<Map<String, Object>> handleAdmissionRejected(AsyncAdmissionException e) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("message", e.getMessage());
+        body.put("queue", e.getQueueName());
+        body.put("retryAfterSeconds", e.getRetryAfterSeconds());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(body);
+    }
+
+    @ExceptionHandler(AsyncPublishException.class)
+    public ResponseEntity<Map<String, Object>> handlePublishFailed(AsyncPublishException e) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        body.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(body);
+    }
+}
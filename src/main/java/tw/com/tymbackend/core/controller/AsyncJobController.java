@@ -0,0 +1,37 @@
+package tw.com.tymbackend.core.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import tw.com.tymbackend.core.service.ChunkedJobService;
+import tw.com.ty.common.response.BackendApiResponse;
+
+/**
+ * 分塊批量任務查詢控制器
+ *
+ * 以任務ID查詢分塊批量任務的進度：GET /api/async/jobs/{jobId}
+ * 回傳各區塊的狀態與彙整結果；等待整個任務完成可使用 /api/async/results/{jobId}。
+ */
+@RestController
+@RequestMapping("/api/async/jobs")
+public class AsyncJobController {
+
+    private final ChunkedJobService chunkedJobService;
+
+    public AsyncJobController(ChunkedJobService chunkedJobService) {
+        this.chunkedJobService = chunkedJobService;
+    }
+
+    /**
+     * 查詢任務進度
+     *
+     * @param jobId 任務ID
+     * @return 任務狀態，不存在或已過期時回 404
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getJobStatus(@PathVariable String jobId) {
+        return chunkedJobService.find(jobId)
+                .<ResponseEntity<?>>map(status -> ResponseEntity.ok(BackendApiResponse.success("批量任務狀態", status)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
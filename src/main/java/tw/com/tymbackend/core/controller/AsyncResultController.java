@@ -0,0 +1,97 @@
+package tw.com.tymbackend.core.controller;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import tw.com.tymbackend.core.message.AsyncResultMessage;
+import tw.com.tymbackend.core.service.AsyncResultStore;
+import tw.com.ty.common.response.BackendApiResponse;
+
+/**
+ * 異步結果查詢控制器
+ *
+ * 以 requestId 取得異步請求的處理結果，結果到達時立即回應：
+ * <ul>
+ *   <li>長輪詢：GET /api/async/results/{requestId}?timeoutMs=25000，逾時回 202 表示仍在處理</li>
+ *   <li>SSE：GET /api/async/results/{requestId}/stream，結果到達時送出 result 事件後結束</li>
+ * </ul>
+ * 兩者皆為非同步處理，等待期間不佔用請求執行緒。
+ */
+@RestController
+@RequestMapping("/api/async/results")
+public class AsyncResultController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncResultController.class);
+
+    private final AsyncResultStore asyncResultStore;
+    private final long defaultTimeoutMs;
+    private final long maxTimeoutMs;
+    private final long sseTimeoutMs;
+
+    public AsyncResultController(AsyncResultStore asyncResultStore,
+            @Value("${app.async-result.long-poll.default-timeout-ms:25000}") long defaultTimeoutMs,
+            @Value("${app.async-result.long-poll.max-timeout-ms:60000}") long maxTimeoutMs,
+            @Value("${app.async-result.sse.timeout-ms:300000}") long sseTimeoutMs) {
+        this.asyncResultStore = asyncResultStore;
+        this.defaultTimeoutMs = defaultTimeoutMs;
+        this.maxTimeoutMs = maxTimeoutMs;
+        this.sseTimeoutMs = sseTimeoutMs;
+    }
+
+    /**
+     * 長輪詢取得異步結果
+     *
+     * @param requestId 請求ID
+     * @param timeoutMs 最長等待時間（毫秒），超過上限時以上限計算
+     * @return 結果到達時回 200，逾時回 202
+     */
+    @GetMapping("/{requestId}")
+    public DeferredResult<ResponseEntity<?>> pollResult(@PathVariable String requestId,
+            @RequestParam(required = false) Long timeoutMs) {
+        long timeout = timeoutMs == null || timeoutMs <= 0 ? defaultTimeoutMs : Math.min(timeoutMs, maxTimeoutMs);
+
+        DeferredResult<ResponseEntity<?>> deferred = new DeferredResult<>(timeout,
+                () -> ResponseEntity.accepted().body(BackendApiResponse.accepted(requestId, "異步請求處理中")));
+        Runnable unsubscribe = asyncResultStore.subscribe(requestId,
+                result -> deferred.setResult(ResponseEntity.ok(BackendApiResponse.success("異步請求已完成", result))));
+        deferred.onCompletion(unsubscribe);
+        return deferred;
+    }
+
+    /**
+     * 以 Server-Sent Events 等待異步結果
+     *
+     * @param requestId 請求ID
+     * @return 結果到達時送出 result 事件並結束的 SSE 連線
+     */
+    @GetMapping(path = "/{requestId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamResult(@PathVariable String requestId) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        Runnable unsubscribe = asyncResultStore.subscribe(requestId, result -> sendResult(emitter, result));
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+        return emitter;
+    }
+
+    private void sendResult(SseEmitter emitter, AsyncResultMessage result) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(result.getRequestId())
+                    .name("result")
+                    .data(result, MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("SSE 連線已關閉，無法送出異步結果: requestId={}", result.getRequestId());
+            emitter.completeWithError(e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package tw.com.tymbackend.core.controller;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import tw.com.tymbackend.core.service.DeadLetterService;
+import tw.com.ty.common.response.BackendApiResponse;
+
+/**
+ * 死信停放隊列控制器
+ *
+ * 超過重試次數或過期的異步消息停放在 tymb-parking-lot：
+ * GET 檢視（不移除）、POST /replay 以原路由鍵重新投遞、DELETE 清除。
+ */
+@RestController
+@RequestMapping("/api/async/dead-letters")
+public class DeadLetterController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final DeadLetterService deadLetterService;
+
+    public DeadLetterController(DeadLetterService deadLetterService) {
+        this.deadLetterService = deadLetterService;
+    }
+
+    /**
+     * 檢視停放的消息
+     *
+     * @param limit 最多筆數
+     * @return 停放總數與最前面的消息摘要
+     */
+    @GetMapping
+    public ResponseEntity<?> peek(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(BackendApiResponse.success("死信消息", Map.of(
+                "total", deadLetterService.count(),
+                "messages", deadLetterService.peek(clamp(limit)))));
+    }
+
+    /**
+     * 重新投遞停放的消息
+     *
+     * @param limit 最多筆數
+     * @return 已重新投遞的筆數
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<?> replay(@RequestParam(defaultValue = "100") int limit) {
+        int replayed = deadLetterService.replay(clamp(limit));
+        return ResponseEntity.ok(BackendApiResponse.success("死信消息已重新投遞", Map.of("replayed", replayed)));
+    }
+
+    /**
+     * 清除停放的消息
+     *
+     * @return 清除的筆數
+     */
+    @DeleteMapping
+    public ResponseEntity<?> purge() {
+        int purged = deadLetterService.purge();
+        return ResponseEntity.ok(BackendApiResponse.success("死信消息已清除", Map.of("purged", purged)));
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
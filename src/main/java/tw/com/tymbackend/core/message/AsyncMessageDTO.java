@@ -29,6 +29,13 @@ public class AsyncMessageDTO {
     @JsonProperty("source")
     private String source;
 
+    // 發送時寫入，Consumer 可據此計算 Broker 等待時間
+    @JsonProperty("routingKey")
+    private String routingKey;
+
+    @JsonProperty("publishedAt")
+    private Long publishedAt;
+
     public AsyncMessageDTO() {
         this.timestamp = System.currentTimeMillis();
         this.source = "producer";
@@ -92,6 +99,22 @@ public class AsyncMessageDTO {
         this.source = source;
     }
 
+    public String getRoutingKey() {
+        return routingKey;
+    }
+
+    public void setRoutingKey(String routingKey) {
+        this.routingKey = routingKey;
+    }
+
+    public Long getPublishedAt() {
+        return publishedAt;
+    }
+
+    public void setPublishedAt(Long publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+
     @Override
     public String toString() {
         return "AsyncMessageDTO{" +
@@ -101,6 +124,8 @@ public class AsyncMessageDTO {
                 ", payload=" + payload +
                 ", timestamp=" + timestamp +
                 ", source='" + source + '\'' +
+                ", routingKey='" + routingKey + '\'' +
+                ", publishedAt=" + publishedAt +
                 '}';
     }
 }
@@ -36,6 +36,13 @@ public class AsyncResultMessage {
     @JsonProperty("source")
     private String source; // "consumer"
 
+    // Consumer 開始與完成處理的時間（epoch 毫秒），未提供時只記錄端到端延遲
+    @JsonProperty("consumedAt")
+    private Long consumedAt;
+
+    @JsonProperty("completedAt")
+    private Long completedAt;
+
     // 默認構造函數 - 用於 JSON 反序列化
     public AsyncResultMessage() {
         // 不設置默認值，讓 Jackson 使用 JSON 中的值
@@ -111,6 +118,22 @@ public class AsyncResultMessage {
         this.source = source;
     }
 
+    public Long getConsumedAt() {
+        return consumedAt;
+    }
+
+    public void setConsumedAt(Long consumedAt) {
+        this.consumedAt = consumedAt;
+    }
+
+    public Long getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Long completedAt) {
+        this.completedAt = completedAt;
+    }
+
     @Override
     public String toString() {
         return "AsyncResultMessage{" +
@@ -120,6 +143,8 @@ public class AsyncResultMessage {
                 ", error='" + error + '\'' +
                 ", timestamp='" + timestamp + '\'' +
                 ", source='" + source + '\'' +
+                ", consumedAt=" + consumedAt +
+                ", completedAt=" + completedAt +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package tw.com.tymbackend.core.repository;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 以主鍵為游標的分頁結果
+ *
+ * <p>客戶端將 nextCursor 帶回下一次查詢的 after 參數即可取得下一頁，
+ * hasMore 為 false 時表示已讀到最後一頁，此時 nextCursor 為 null。</p>
+ *
+ * @param items 本頁資料，依主鍵遞增排序
+ * @param nextCursor 下一頁的游標（本頁最後一筆的主鍵）
+ * @param hasMore 是否還有下一頁
+ * @param <T> 實體類型
+ * @param <ID> 主鍵類型
+ */
+public record KeysetPage<T, ID>(List<T> items, ID nextCursor, boolean hasMore) {
+
+    /**
+     * 由多查一筆的結果建立分頁：查詢時取 limit + 1 筆，多出的那筆只用來判斷是否還有下一頁
+     *
+     * @param fetched 查詢結果，最多 limit + 1 筆
+     * @param limit 每頁筆數
+     * @param idOf 取得實體主鍵的函數
+     * @return 分頁結果
+     */
+    public static <T, ID> KeysetPage<T, ID> of(List<T> fetched, int limit, Function<T, ID> idOf) {
+        boolean hasMore = fetched.size() > limit;
+        List<T> items = hasMore ? List.copyOf(fetched.subList(0, limit)) : fetched;
+        ID nextCursor = hasMore ? idOf.apply(items.get(items.size() - 1)) : null;
+        return new KeysetPage<>(items, nextCursor, hasMore);
+    }
+
+    /**
+     * 將請求的每頁筆數限制在 [1, maxLimit]，未指定時使用預設值
+     *
+     * @param requested 請求的筆數，可為 null
+     * @param defaultLimit 預設筆數
+     * @param maxLimit 筆數上限
+     * @return 實際使用的筆數
+     */
+    public static int clampLimit(Integer requested, int defaultLimit, int maxLimit) {
+        int limit = requested != null ? requested : defaultLimit;
+        return Math.max(1, Math.min(limit, Math.max(1, maxLimit)));
+    }
+}
@@ -5,9 +5,11 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.repository.NoRepositoryBean;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository implementation for entities that use String as their primary key.
@@ -68,4 +70,26 @@ public interface StringPkRepository<T> extends BaseRepository<T, String> {
      * @return Page of matching entities
      */
     @NonNull Page<T> findAll(@NonNull Specification<T> spec, @NonNull Pageable pageable);
-} 
\ No newline at end of file
+    
+    /**
+     * Keyset pagination ordered by the primary key
+     * 
+     * <p>只取主鍵大於游標的下一批資料，不使用 OFFSET，翻到多後面的頁數查詢成本都相同。</p>
+     * 
+     * @param after The last ID of the previous page, or null for the first page
+     * @param limit The maximum number of entities to return
+     * @return The page and the cursor of the next page
+     */
+    @NonNull KeysetPage<T, String> findPageAfter(@Nullable String after, int limit);
+    
+    /**
+     * Stream all entities ordered by the primary key from a database cursor
+     * 
+     * <p>以固定 fetch size 逐批從 JDBC 游標讀取，每筆實體讀出後即脫離持久化上下文，
+     * 記憶體用量不隨資料量成長。必須在交易內呼叫並在使用後關閉 Stream。</p>
+     * 
+     * @param fetchSize The number of rows fetched per round trip
+     * @return Stream of all entities
+     */
+    @NonNull Stream<T> streamAll(int fetchSize);
+}
@@ -1,15 +1,23 @@
 package tw.com.tymbackend.core.repository;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
 import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * StringPkRepository 的實現類別，用於處理以 String 為主鍵的實體
@@ -24,6 +32,9 @@ import java.util.Optional;
  */
 public class StringPkRepositoryImpl<T> extends SimpleJpaRepository<T, String> implements StringPkRepository<T> {
     
+    private final JpaEntityInformation<T, String> entityInformation;
+    private final EntityManager entityManager;
+    
     /**
      * 建構函數，使用實體資訊和實體管理器初始化
      * 
@@ -32,6 +43,8 @@ public class StringPkRepositoryImpl<T> extends SimpleJpaRepository<T, String> im
      */
     public StringPkRepositoryImpl(JpaEntityInformation<T, String> entityInformation, EntityManager entityManager) {
         super(entityInformation, entityManager);
+        this.entityInformation = entityInformation;
+        this.entityManager = entityManager;
     }
     
     /**
@@ -40,8 +53,10 @@ public class StringPkRepositoryImpl<T> extends SimpleJpaRepository<T, String> im
      * @param domainClass 實體類型
      * @param entityManager JPA 實體管理器
      */
+    @SuppressWarnings("unchecked")
     public StringPkRepositoryImpl(Class<T> domainClass, EntityManager entityManager) {
-        super(domainClass, entityManager);
+        this((JpaEntityInformation<T, String>) JpaEntityInformationSupport.getEntityInformation(domainClass, entityManager),
+                entityManager);
     }
     
     @Override
@@ -83,4 +98,40 @@ public class StringPkRepositoryImpl<T> extends SimpleJpaRepository<T, String> im
     public Page<T> findAll(@SuppressWarnings("null") @NonNull Specification<T> spec, @SuppressWarnings("null") @NonNull Pageable pageable) {
         return super.findAll(spec, pageable);
     }
-} 
\ No newline at end of file
+    
+    @Override
+    @NonNull
+    public KeysetPage<T, String> findPageAfter(@Nullable String after, int limit) {
+        int pageSize = Math.max(1, limit);
+        CriteriaQuery<T> query = orderedById(after);
+        // 多取一筆判斷是否還有下一頁
+        List<T> fetched = entityManager.createQuery(query)
+                .setMaxResults(pageSize + 1)
+                .getResultList();
+        return KeysetPage.of(fetched, pageSize, entityInformation::getId);
+    }
+    
+    @Override
+    @NonNull
+    public Stream<T> streamAll(int fetchSize) {
+        return entityManager.createQuery(orderedById(null))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+    
+    /**
+     * 建立依主鍵遞增排序的查詢，指定 after 時只取主鍵大於 after 的資料
+     */
+    private CriteriaQuery<T> orderedById(@Nullable String after) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = builder.createQuery(getDomainClass());
+        Root<T> root = query.from(getDomainClass());
+        Path<String> id = root.get(entityInformation.getRequiredIdAttribute().getName());
+        if (after != null) {
+            query.where(builder.greaterThan(id, after));
+        }
+        return query.select(root).orderBy(builder.asc(id));
+    }
+}
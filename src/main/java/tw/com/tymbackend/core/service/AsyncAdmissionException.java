@@ -0,0 +1,31 @@
+package tw.com.tymbackend.core.service;
+
+/**
+ * 隊列積壓導致異步請求被拒絕
+ *
+ * <p>預估等待時間超過消息 TTL 或 SLO 時拋出，呼叫端應回應 429 並附上 Retry-After，
+ * 而不是回傳注定過期的 requestId。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+public class AsyncAdmissionException extends RuntimeException {
+
+    private final String queueName;
+    private final long retryAfterSeconds;
+
+    public AsyncAdmissionException(String queueName, long retryAfterSeconds, String message) {
+        super(message);
+        this.queueName = queueName;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public String getQueueName() {
+        return queueName;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
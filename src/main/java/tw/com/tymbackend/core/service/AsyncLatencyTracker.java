@@ -0,0 +1,228 @@
+package tw.com.tymbackend.core.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import tw.com.tymbackend.core.config.RabbitMQConfig;
+import tw.com.tymbackend.core.message.AsyncMessageDTO;
+import tw.com.tymbackend.core.message.AsyncResultMessage;
+
+/**
+ * 異步請求的端到端延遲追蹤
+ *
+ * <p>發送時以 requestId 記錄路由鍵、endpoint 與發送時間，收到結果時計算：</p>
+ * <ul>
+ *   <li>{@code async.request.latency}：發送到收到結果的總時間，依 status 區分</li>
+ *   <li>{@code async.request.queue.wait}：發送到 Consumer 開始處理（結果帶有 consumedAt 時）</li>
+ *   <li>{@code async.request.processing}：Consumer 開始到完成處理（結果帶有 consumedAt 與 completedAt 時）</li>
+ * </ul>
+ *
+ * <p>所有指標以 {@code route}（路由鍵）與 {@code endpoint} 標記，並公開百分位直方圖。
+ * endpoint 含有角色或武器名稱等使用者輸入，標記前先轉為 {@link #ENDPOINT_TEMPLATES} 中的樣板，
+ * 未知的 endpoint 一律記為 {@value #OTHER_ENDPOINT}，避免指標數量與記憶體隨輸入無限成長。
+ * 處理中的請求數以 {@code async.request.in-flight} 公開，超過逾時仍未收到結果的請求
+ * 計入 {@code async.request.timeouts} 後移除。只追蹤本實例發送的請求；
+ * 分段時間依賴 Consumer 主機的時鐘，時鐘偏差造成的負值視為 0。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+public class AsyncLatencyTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncLatencyTracker.class);
+
+    private static final Duration MAX_EXPECTED = Duration.ofMillis(RabbitMQConfig.MESSAGE_TTL);
+
+    static final String OTHER_ENDPOINT = "other";
+
+    /**
+     * AsyncMessageService 發送的 endpoint 樣板，依序比對，固定路徑需排在同層的路徑變數之前
+     */
+    static final List<String> ENDPOINT_TEMPLATES = List.of(
+            "/tymb/people/damageWithWeapon",
+            "/tymb/people/get-all",
+            "/tymb/people/batchDamageWithWeapon",
+            "/tymb/people/get-by-name",
+            "/tymb/people/names",
+            "/tymb/people/insert",
+            "/tymb/people/update",
+            "/tymb/people/insert-multiple",
+            "/tymb/people/delete-all",
+            "/tymb/weapons",
+            "/tymb/weapons/delete-all",
+            "/tymb/weapons/owner/{owner}",
+            "/tymb/weapons/exists/{name}",
+            "/tymb/weapons/{name}");
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long timeoutMs;
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicInteger> inFlightCounts = new ConcurrentHashMap<>();
+
+    public AsyncLatencyTracker(MeterRegistry meterRegistry,
+            @Value("${app.messaging.latency.enabled:true}") boolean enabled,
+            @Value("${app.messaging.latency.timeout-ms:300000}") long timeoutMs) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * 為消息寫入路由鍵與發送時間並開始追蹤
+     *
+     * @param message 要發送的消息
+     * @param routingKey 路由鍵
+     */
+    public void published(AsyncMessageDTO message, String routingKey) {
+        long now = System.currentTimeMillis();
+        message.setRoutingKey(routingKey);
+        message.setPublishedAt(now);
+        if (!enabled || message.getRequestId() == null) {
+            return;
+        }
+        InFlight entry = new InFlight(routingKey, endpointOf(message), now);
+        if (inFlight.put(message.getRequestId(), entry) == null) {
+            inFlightCount(entry).incrementAndGet();
+        }
+    }
+
+    /**
+     * 發送失敗，停止追蹤
+     *
+     * @param requestId 請求ID
+     */
+    public void discard(String requestId) {
+        InFlight entry = inFlight.remove(requestId);
+        if (entry != null) {
+            inFlightCount(entry).decrementAndGet();
+        }
+    }
+
+    /**
+     * 收到結果時記錄延遲，非本實例發送的請求直接忽略
+     *
+     * @param result 異步結果
+     */
+    public void completed(AsyncResultMessage result) {
+        completed(result, System.currentTimeMillis());
+    }
+
+    void completed(AsyncResultMessage result, long receivedAt) {
+        InFlight entry = result.getRequestId() != null ? inFlight.remove(result.getRequestId()) : null;
+        if (entry == null) {
+            return;
+        }
+        inFlightCount(entry).decrementAndGet();
+        String status = result.getStatus() != null ? result.getStatus() : "unknown";
+
+        timer("async.request.latency", "Time from publish to result", entry, status)
+                .record(elapsed(entry.publishedAt(), receivedAt), TimeUnit.MILLISECONDS);
+        Long consumedAt = result.getConsumedAt();
+        if (consumedAt != null) {
+            timer("async.request.queue.wait", "Time from publish until a consumer picked the message up", entry, null)
+                    .record(elapsed(entry.publishedAt(), consumedAt), TimeUnit.MILLISECONDS);
+            if (result.getCompletedAt() != null) {
+                timer("async.request.processing", "Consumer processing time", entry, status)
+                        .record(elapsed(consumedAt, result.getCompletedAt()), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * 移除超過逾時仍未收到結果的請求
+     */
+    @Scheduled(fixedDelayString = "${app.messaging.latency.sweep-interval-ms:10000}")
+    public void sweep() {
+        sweep(System.currentTimeMillis());
+    }
+
+    void sweep(long now) {
+        inFlight.forEach((requestId, entry) -> {
+            if (now - entry.publishedAt() > timeoutMs && inFlight.remove(requestId, entry)) {
+                inFlightCount(entry).decrementAndGet();
+                meterRegistry.counter("async.request.timeouts",
+                        "route", entry.routingKey(), "endpoint", entry.endpoint()).increment();
+                logger.warn("異步請求逾時未收到結果: requestId={}, route={}, endpoint={}",
+                        requestId, entry.routingKey(), entry.endpoint());
+            }
+        });
+    }
+
+    int inFlight(String routingKey, String endpoint) {
+        AtomicInteger count = inFlightCounts.get(routingKey + "|" + endpoint);
+        return count != null ? count.get() : 0;
+    }
+
+    private Timer timer(String name, String description, InFlight entry, String status) {
+        Timer.Builder builder = Timer.builder(name)
+                .description(description)
+                .tag("route", entry.routingKey())
+                .tag("endpoint", entry.endpoint())
+                .publishPercentileHistogram()
+                .maximumExpectedValue(MAX_EXPECTED);
+        if (status != null) {
+            builder.tag("status", status);
+        }
+        return builder.register(meterRegistry);
+    }
+
+    private AtomicInteger inFlightCount(InFlight entry) {
+        return inFlightCounts.computeIfAbsent(entry.routingKey() + "|" + entry.endpoint(), key -> {
+            AtomicInteger count = new AtomicInteger();
+            Gauge.builder("async.request.in-flight", count, AtomicInteger::get)
+                    .tag("route", entry.routingKey())
+                    .tag("endpoint", entry.endpoint())
+                    .description("Published async requests still waiting for a result")
+                    .register(meterRegistry);
+            return count;
+        });
+    }
+
+    private static String endpointOf(AsyncMessageDTO message) {
+        return endpointTemplate(message.getEndpoint());
+    }
+
+    /**
+     * 將 endpoint 轉為不含使用者輸入的樣板
+     *
+     * @param endpoint 消息中的 endpoint
+     * @return 命中的樣板，未命中時為 {@value #OTHER_ENDPOINT}
+     */
+    static String endpointTemplate(String endpoint) {
+        if (endpoint == null) {
+            return OTHER_ENDPOINT;
+        }
+        for (String template : ENDPOINT_TEMPLATES) {
+            if (PATH_MATCHER.match(template, endpoint)) {
+                return template;
+            }
+        }
+        return OTHER_ENDPOINT;
+    }
+
+    private static long elapsed(long from, long to) {
+        return Math.max(0, to - from);
+    }
+
+    private record InFlight(String routingKey, String endpoint, long publishedAt) {
+    }
+}
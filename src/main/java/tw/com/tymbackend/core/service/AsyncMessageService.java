@@ -3,14 +3,23 @@ package tw.com.tymbackend.core.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import tw.com.tymbackend.core.config.MessageRoute;
 import tw.com.tymbackend.core.config.RabbitMQConfig;
 import tw.com.tymbackend.core.message.AsyncMessageDTO;
 import jakarta.annotation.PostConstruct;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 /**
  * 異步消息服務
@@ -29,8 +38,44 @@ public class AsyncMessageService {
 
     private static final Logger logger = LoggerFactory.getLogger(AsyncMessageService.class);
 
-    @Autowired(required = false)
-    private RabbitTemplate rabbitTemplate;
+    private final RabbitTemplate rabbitTemplate;
+    private final BatchingMessagePublisher messagePublisher;
+    private final RequestCoalescer requestCoalescer;
+    private final ChunkedJobService chunkedJobService;
+    private final QueueAdmissionControl admissionControl;
+    private final AsyncLatencyTracker latencyTracker;
+    private final ObjectMapper objectMapper;
+    private final long requestWaitMs;
+
+    /**
+     * 建構函數，除 ObjectMapper 外的協作者都可能未配置，未配置時對應的功能停用
+     *
+     * @param rabbitTemplate RabbitMQ 操作，未配置時無法發送消息
+     * @param messagePublisher 微批次發佈器，未配置時逐筆發送
+     * @param requestCoalescer 唯讀請求合併，未配置時每個請求各自發送
+     * @param chunkedJobService 大批量請求分塊，未配置時整批發送
+     * @param admissionControl 佇列准入控制，未配置時一律接受
+     * @param latencyTracker 端到端延遲追蹤，未配置時不記錄
+     * @param objectMapper JSON 序列化，用於建立合併鍵
+     * @param requestWaitMs 控制器等待 Broker 確認的上限，短於發佈者的確認逾時
+     */
+    public AsyncMessageService(ObjectProvider<RabbitTemplate> rabbitTemplate,
+            ObjectProvider<BatchingMessagePublisher> messagePublisher,
+            ObjectProvider<RequestCoalescer> requestCoalescer,
+            ObjectProvider<ChunkedJobService> chunkedJobService,
+            ObjectProvider<QueueAdmissionControl> admissionControl,
+            ObjectProvider<AsyncLatencyTracker> latencyTracker,
+            ObjectMapper objectMapper,
+            @Value("${app.messaging.publisher.request-wait-ms:1000}") long requestWaitMs) {
+        this.rabbitTemplate = rabbitTemplate.getIfAvailable();
+        this.messagePublisher = messagePublisher.getIfAvailable();
+        this.requestCoalescer = requestCoalescer.getIfAvailable();
+        this.chunkedJobService = chunkedJobService.getIfAvailable();
+        this.admissionControl = admissionControl.getIfAvailable();
+        this.latencyTracker = latencyTracker.getIfAvailable();
+        this.objectMapper = objectMapper;
+        this.requestWaitMs = requestWaitMs;
+    }
 
     @PostConstruct
     public void init() {
@@ -42,126 +87,133 @@ public class AsyncMessageService {
      * 發送傷害計算請求到 RabbitMQ
      * 
      * @param characterName 角色名稱
-     * @return 請求ID
+     * @return Broker 確認收到後完成的請求ID
      */
-    public String sendDamageCalculationRequest(String characterName) {
-        String requestId = UUID.randomUUID().toString();
+    public CompletableFuture<String> sendDamageCalculationRequest(String characterName) {
+        return sendReadOnly(RabbitMQConfig.DAMAGE_CALCULATION_QUEUE, characterName, () -> {
+            String requestId = UUID.randomUUID().toString();
 
-        AsyncMessageDTO message = new AsyncMessageDTO(
-                requestId,
-                "/tymb/people/damageWithWeapon",
-                "GET",
-                characterName);
+            AsyncMessageDTO message = new AsyncMessageDTO(
+                    requestId,
+                    "/tymb/people/damageWithWeapon",
+                    "GET",
+                    characterName);
 
-        sendMessage(RabbitMQConfig.DAMAGE_CALCULATION_QUEUE, message);
+            CompletableFuture<Void> sent = sendMessage(RabbitMQConfig.DAMAGE_CALCULATION_QUEUE, message);
 
-        logger.info("發送傷害計算請求到 RabbitMQ: characterName={}, requestId={}", characterName, requestId);
+            logger.info("發送傷害計算請求到 RabbitMQ: characterName={}, requestId={}", characterName, requestId);
 
-        return requestId;
+            return sent.thenApply(ignored -> requestId);
+        });
     }
 
     /**
      * 發送角色列表獲取請求到 RabbitMQ
      *
-     * @return 請求ID
+     * @return Broker 確認收到後完成的請求ID
      */
-    public String sendPeopleGetAllRequest() {
-        String requestId = UUID.randomUUID().toString();
+    public CompletableFuture<String> sendPeopleGetAllRequest() {
+        return sendReadOnly(RabbitMQConfig.PEOPLE_GET_ALL_QUEUE, null, () -> {
+            String requestId = UUID.randomUUID().toString();
 
-        AsyncMessageDTO message = new AsyncMessageDTO(
-                requestId,
-                "/tymb/people/get-all",
-                "POST",
-                null);
+            AsyncMessageDTO message = new AsyncMessageDTO(
+                    requestId,
+                    "/tymb/people/get-all",
+                    "POST",
+                    null);
 
-        sendMessage(RabbitMQConfig.PEOPLE_GET_ALL_QUEUE, message);
+            CompletableFuture<Void> sent = sendMessage(RabbitMQConfig.PEOPLE_GET_ALL_QUEUE, message);
 
-        logger.info("發送角色列表獲取請求到 RabbitMQ: requestId={}", requestId);
+            logger.info("發送角色列表獲取請求到 RabbitMQ: requestId={}", requestId);
 
-        return requestId;
+            return sent.thenApply(ignored -> requestId);
+        });
     }
 
     /**
      * 發送角色批量傷害計算請求到 RabbitMQ
      *
      * @param names 角色名稱列表
-     * @return 請求ID
+     * @return Broker 確認收到後完成的請求ID
      */
-    public String sendPeopleBatchDamageRequest(List<String> names) {
-        String requestId = UUID.randomUUID().toString();
+    public CompletableFuture<String> sendPeopleBatchDamageRequest(List<String> names) {
+        return sendReadOnly(RabbitMQConfig.PEOPLE_BATCH_DAMAGE_QUEUE, names, () -> {
+            String requestId = UUID.randomUUID().toString();
 
-        AsyncMessageDTO message = new AsyncMessageDTO(
-                requestId,
-                "/tymb/people/batchDamageWithWeapon",
-                "POST",
-                names);
+            AsyncMessageDTO message = new AsyncMessageDTO(
+                    requestId,
+                    "/tymb/people/batchDamageWithWeapon",
+                    "POST",
+                    names);
 
-        sendMessage(RabbitMQConfig.PEOPLE_BATCH_DAMAGE_QUEUE, message);
+            CompletableFuture<Void> sent = sendMessage(RabbitMQConfig.PEOPLE_BATCH_DAMAGE_QUEUE, message);
 
-        logger.info("發送角色批量傷害計算請求到 RabbitMQ: count={}, requestId={}", names.size(), requestId);
+            logger.info("發送角色批量傷害計算請求到 RabbitMQ: count={}, requestId={}", names.size(), requestId);
 
-        return requestId;
+            return sent.thenApply(ignored -> requestId);
+        });
     }
 
     /**
      * 發送角色按名稱獲取請求到 RabbitMQ
      *
      * @param name 角色名稱
-     * @return 請求ID
+     * @return Broker 確認收到後完成的請求ID
      */
-    public String sendPeopleGetByNameRequest(String name) {
-        String requestId = UUID.randomUUID().toString();
+    public CompletableFuture<String> sendPeopleGetByNameRequest(String name) {
+        return sendReadOnly(RabbitMQConfig.PEOPLE_GET_BY_NAME_QUEUE, name, () -> {
+            String requestId = UUID.randomUUID().toString();
 
-        AsyncMessageDTO message = new AsyncMessageDTO(
-                requestId,
-                "/tymb/people/get-by-name",
-                "POST",
-                name);
+            AsyncMessageDTO message = new AsyncMessageDTO(
+                    requestId,
+                    "/tymb/people/get-by-name",
+                    "POST",
+                    name);
 
-        sendMessage(RabbitMQConfig.PEOPLE_GET_BY_NAME_QUEUE, message);
+            CompletableFuture<Void> sent = sendMessage(RabbitMQConfig.PEOPLE_GET_BY_NAME_QUEUE, message);
 
-        logger.info("發送角色按名稱獲取請求到 RabbitMQ: name={}, requestId={}", name, requestId);
+            logger.info("發送角色按名稱獲取請求到 RabbitMQ: name={}, requestId={}", name, requestId);
 
-        return requestId;
+            return sent.thenApply(ignored -> requestId);
+        });
     }
 
-    /**
-     * 發送角色刪除全部請求到 RabbitMQ
-     *
-     * @return 請求ID
-     */
     /**
      * 發送獲取角色名稱列表請求到 RabbitMQ
      *
-     * @return 請求ID
+     * @return Broker 確認收到後完成的請求ID
      */
-    public String sendPeopleGetNamesRequest() {
+    public CompletableFuture<String> sendPeopleGetNamesRequest() {
         if (rabbitTemplate == null) {
             throw new IllegalStateException("RabbitTemplate is not available. Please check RabbitMQ configuration.");
         }
 
-        String requestId = UUID.randomUUID().toString();
+        return sendReadOnly(RabbitMQConfig.PEOPLE_GET_NAMES_QUEUE, null, () -> {
+            String requestId = UUID.randomUUID().toString();
 
-        AsyncMessageDTO message = new AsyncMessageDTO(
-                requestId,
-                "/tymb/people/names",
-                "GET",
-                null);
+            AsyncMessageDTO message = new AsyncMessageDTO(
+                    requestId,
+                    "/tymb/people/names",
+                    "GET",
+                    null);
 
-        sendMessage(RabbitMQConfig.PEOPLE_GET_NAMES_QUEUE, message);
+            CompletableFuture<Void> sent = sendMessage(RabbitMQConfig.PEOPLE_GET_NAMES_QUEUE, message);
 
-        logger.info("發送獲取角色名稱列表請求到 RabbitMQ: requestId={}", requestId);
+            logger.info("發送獲取角色名稱列表請求到 RabbitMQ: requestId={}", requestId);
 
-        return requestId;
+            return sent.thenApply(ignored -> requestId);
+        });
     }
 
     /**
      * 發送新增角色請求到 RabbitMQ
      *
      * @param people 要新增的角色數據
-     * @return 請求ID
+     * @return Broker 確認收到後完成的請求ID
      */
-    public String sendPeopleInsertRequest(Object people) {
+    public CompletableFuture<String> sendPeopleInsertRequest(Object people) {
+        admit(RabbitMQConfig.PEOPLE_INSERT_QUEUE);
+        invalidateCoalescedReads();
         String requestId = UUID.randomUUID().toString();
 
         AsyncMessageDTO message = new AsyncMessageDTO(
@@ -170,20 +222,22 @@ public class AsyncMessageService {
                 "POST",
                 people);
 
-        sendMessage(RabbitMQConfig.PEOPLE_INSERT_QUEUE, message);
+        CompletableFuture<Void> sent = sendMessage(RabbitMQConfig.PEOPLE_INSERT_QUEUE, message);
 
         logger.info("發送新增角色請求到 RabbitMQ: requestId={}, people={}", requestId, people);
 
-        return requestId;
+        return sent.thenApply(ignored -> requestId);
     }
 
     /**
      * 發送角色更新請求到 RabbitMQ
      *
      * @param people 要更新的角色數據
-     * @return 請求ID
+     * @return Broker 確認收到後完成的請求ID
      */
-    public String sendPeopleUpdateRequest(Object people) {
+    public CompletableFuture<String> sendPeopleUpdateRequest(Object people) {
+        admit(RabbitMQConfig.PEOPLE_UPDATE_QUEUE);
+        invalidateCoalescedReads();
         String requestId = UUID.randomUUID().toString();
 
         AsyncMessageDTO message = new AsyncMessageDTO(
@@ -192,20 +246,31 @@ public class AsyncMessageService {
                 "POST",
                 people);
 
-        sendMessage(RabbitMQConfig.PEOPLE_UPDATE_QUEUE, message);
+        CompletableFuture<Void> sent = sendMessage(RabbitMQConfig.PEOPLE_UPDATE_QUEUE, message);
 
         logger.info("發送角色更新請求到 RabbitMQ: requestId={}, people={}", requestId, people);
 
-        return requestId;
+        return sent.thenApply(ignored -> requestId);
     }
 
     /**
      * 發送批量新增角色請求到 RabbitMQ
      *
      * @param peopleList 要新增的角色列表
-     * @return 請求ID
+     * @return Broker 確認收到後完成的請求ID
      */
-    public String sendPeopleInsertMultipleRequest(Object peopleList) {
+    public CompletableFuture<String> sendPeopleInsertMultipleRequest(Object peopleList) {
+        admit(RabbitMQConfig.PEOPLE_INSERT_MULTIPLE_QUEUE);
+        invalidateCoalescedReads();
+        if (chunkedJobService != null && peopleList instanceof List<?> list && chunkedJobService.shouldSplit(list)) {
+            // 大量資料分塊發送，回傳任務ID，各區塊由多個 Consumer 並行處理
+            CompletableFuture<String> jobId = chunkedJobService.submit(list, (chunkRequestId, chunk) -> sendMessage(
+                    RabbitMQConfig.PEOPLE_INSERT_MULTIPLE_QUEUE,
+                    new AsyncMessageDTO(chunkRequestId, "/tymb/people/insert-multiple", "POST", chunk)));
+            logger.info("發送分塊批量新增角色請求到 RabbitMQ: count={}, chunkSize={}", list.size(),
+                    chunkedJobService.getChunkSize());
+            return jobId;
+        }
         String requestId = UUID.randomUUID().toString();
 
         AsyncMessageDTO message = new AsyncMessageDTO(
@@ -214,15 +279,22 @@ public class AsyncMessageService {
                 "POST",
                 peopleList);
 
-        sendMessage(RabbitMQConfig.PEOPLE_INSERT_MULTIPLE_QUEUE, message);
+        CompletableFuture<Void> sent = sendMessage(RabbitMQConfig.PEOPLE_INSERT_MULTIPLE_QUEUE, message);
 
         logger.info("發送批量新增角色請求到 RabbitMQ: requestId={}, count={}", requestId,
                 peopleList instanceof List ? ((List<?>) peopleList).size() : "unknown");
 
-        return requestId;
+        return sent.thenApply(ignored -> requestId);
     }
 
-    public String sendPeopleDeleteAllRequest() {
+    /**
+     * 發送角色刪除全部請求到 RabbitMQ
+     *
+     * @return Broker 確認收到後完成的請求ID
+     */
+    public CompletableFuture<String> sendPeopleDeleteAllRequest() {
+        admit(RabbitMQConfig.PEOPLE_DELETE_ALL_QUEUE);
+        invalidateCoalescedReads();
         String requestId = UUID.randomUUID().toString();
 
         AsyncMessageDTO message = new AsyncMessageDTO(
@@ -231,85 +303,93 @@ public class AsyncMessageService {
                 "POST",
                 null);
 
-        sendMessage(RabbitMQConfig.PEOPLE_DELETE_ALL_QUEUE, message);
+        CompletableFuture<Void> sent = sendMessage(RabbitMQConfig.PEOPLE_DELETE_ALL_QUEUE, message);
 
         logger.info("發送角色刪除全部請求到 RabbitMQ: requestId={}", requestId);
 
-        return requestId;
+        return sent.thenApply(ignored -> requestId);
     }
 
     /**
      * 發送武器列表獲取請求到 RabbitMQ
      *
-     * @return 請求ID
+     * @return Broker 確認收到後完成的請求ID
      */
-    public String sendWeaponGetAllRequest() {
-        String requestId = UUID.randomUUID().toString();
+    public CompletableFuture<String> sendWeaponGetAllRequest() {
+        return sendReadOnly(RabbitMQConfig.WEAPON_GET_ALL_QUEUE, null, () -> {
+            String requestId = UUID.randomUUID().toString();
 
-        AsyncMessageDTO message = new AsyncMessageDTO(
-                requestId,
-                "/tymb/weapons",
-                "GET",
-                null);
+            AsyncMessageDTO message = new AsyncMessageDTO(
+                    requestId,
+                    "/tymb/weapons",
+                    "GET",
+                    null);
 
-        sendMessage(RabbitMQConfig.WEAPON_GET_ALL_QUEUE, message);
+            CompletableFuture<Void> sent = sendMessage(RabbitMQConfig.WEAPON_GET_ALL_QUEUE, message);
 
-        logger.info("發送武器列表獲取請求到 RabbitMQ: requestId={}", requestId);
+            logger.info("發送武器列表獲取請求到 RabbitMQ: requestId={}", requestId);
 
-        return requestId;
+            return sent.thenApply(ignored -> requestId);
+        });
     }
 
     /**
      * 發送武器按名稱獲取請求到 RabbitMQ
      *
      * @param name 武器名稱
-     * @return 請求ID
+     * @return Broker 確認收到後完成的請求ID
      */
-    public String sendWeaponGetByNameRequest(String name) {
-        String requestId = UUID.randomUUID().toString();
+    public CompletableFuture<String> sendWeaponGetByNameRequest(String name) {
+        return sendReadOnly(RabbitMQConfig.WEAPON_GET_BY_NAME_QUEUE, name, () -> {
+            String requestId = UUID.randomUUID().toString();
 
-        AsyncMessageDTO message = new AsyncMessageDTO(
-                requestId,
-                "/tymb/weapons/" + name,
-                "GET",
-                name);
+            AsyncMessageDTO message = new AsyncMessageDTO(
+                    requestId,
+                    "/tymb/weapons/" + name,
+                    "GET",
+                    name);
 
-        sendMessage(RabbitMQConfig.WEAPON_GET_BY_NAME_QUEUE, message);
+            CompletableFuture<Void> sent = sendMessage(RabbitMQConfig.WEAPON_GET_BY_NAME_QUEUE, message);
 
-        logger.info("發送武器按名稱獲取請求到 RabbitMQ: name={}, requestId={}", name, requestId);
+            logger.info("發送武器按名稱獲取請求到 RabbitMQ: name={}, requestId={}", name, requestId);
 
-        return requestId;
+            return sent.thenApply(ignored -> requestId);
+        });
     }
 
     /**
      * 發送武器按擁有者獲取請求到 RabbitMQ
      *
      * @param owner 擁有者名稱
-     * @return 請求ID
+     * @return Broker 確認收到後完成的請求ID
      */
-    public String sendWeaponGetByOwnerRequest(String owner) {
-        String requestId = UUID.randomUUID().toString();
+    public CompletableFuture<String> sendWeaponGetByOwnerRequest(String owner) {
+        return sendReadOnly(RabbitMQConfig.WEAPON_GET_BY_OWNER_QUEUE, owner, () -> {
+            String requestId = UUID.randomUUID().toString();
 
-        AsyncMessageDTO message = new AsyncMessageDTO(
-                requestId,
-                "/tymb/weapons/owner/" + owner,
-                "GET",
-                owner);
+            AsyncMessageDTO message = new AsyncMessageDTO(
+                    requestId,
+                    "/tymb/weapons/owner/" + owner,
+                    "GET",
+                    owner);
 
-        sendMessage(RabbitMQConfig.WEAPON_GET_BY_OWNER_QUEUE, message);
+            CompletableFuture<Void> sent = sendMessage(RabbitMQConfig.WEAPON_GET_BY_OWNER_QUEUE, message);
 
-        logger.info("發送武器按擁有者獲取請求到 RabbitMQ: owner={}, requestId={}", owner, requestId);
+            logger.info("發送武器按擁有者獲取請求到 RabbitMQ: owner={}, requestId={}", owner, requestId);
 
-        return requestId;
+            return sent.thenApply(ignored -> requestId);
+        });
     }
 
     /**
      * 發送武器保存請求到 RabbitMQ
      *
      * @param weapon 武器對象
-     * @return 請求ID
+     * @return Broker 確認收到後完成的請求ID
      */
-    public String sendWeaponSaveRequest(Object weapon) {
+    public CompletableFuture<String> sendWeaponSaveRequest(Object weapon) {
+        admit(RabbitMQConfig.WEAPON_SAVE_QUEUE);
+        invalidateCoalescedReads();
         String requestId = UUID.randomUUID().toString();
 
         AsyncMessageDTO message = new AsyncMessageDTO(
@@ -318,20 +398,22 @@ public class AsyncMessageService {
                 "POST",
                 weapon);
 
-        sendMessage(RabbitMQConfig.WEAPON_SAVE_QUEUE, message);
+        CompletableFuture<Void> sent = sendMessage(RabbitMQConfig.WEAPON_SAVE_QUEUE, message);
 
         logger.info("發送武器保存請求到 RabbitMQ: requestId={}", requestId);
 
-        return requestId;
+        return sent.thenApply(ignored -> requestId);
     }
 
     /**
      * 發送武器刪除請求到 RabbitMQ
      *
      * @param name 武器名稱
-     * @return 請求ID
+     * @return Broker 確認收到後完成的請求ID
      */
-    public String sendWeaponDeleteRequest(String name) {
+    public CompletableFuture<String> sendWeaponDeleteRequest(String name) {
+        admit(RabbitMQConfig.WEAPON_DELETE_QUEUE);
+        invalidateCoalescedReads();
         String requestId = UUID.randomUUID().toString();
 
         AsyncMessageDTO message = new AsyncMessageDTO(
@@ -340,19 +422,21 @@ public class AsyncMessageService {
                 "DELETE",
                 name);
 
-        sendMessage(RabbitMQConfig.WEAPON_DELETE_QUEUE, message);
+        CompletableFuture<Void> sent = sendMessage(RabbitMQConfig.WEAPON_DELETE_QUEUE, message);
 
         logger.info("發送武器刪除請求到 RabbitMQ: name={}, requestId={}", name, requestId);
 
-        return requestId;
+        return sent.thenApply(ignored -> requestId);
     }
 
     /**
      * 發送武器刪除全部請求到 RabbitMQ
      *
-     * @return 請求ID
+     * @return Broker 確認收到後完成的請求ID
      */
-    public String sendWeaponDeleteAllRequest() {
+    public CompletableFuture<String> sendWeaponDeleteAllRequest() {
+        admit(RabbitMQConfig.WEAPON_DELETE_ALL_QUEUE);
+        invalidateCoalescedReads();
         String requestId = UUID.randomUUID().toString();
 
         AsyncMessageDTO message = new AsyncMessageDTO(
@@ -361,52 +445,184 @@ public class AsyncMessageService {
                 "DELETE",
                 null);
 
-        sendMessage(RabbitMQConfig.WEAPON_DELETE_ALL_QUEUE, message);
+        CompletableFuture<Void> sent = sendMessage(RabbitMQConfig.WEAPON_DELETE_ALL_QUEUE, message);
 
         logger.info("發送武器刪除全部請求到 RabbitMQ: requestId={}", requestId);
 
-        return requestId;
+        return sent.thenApply(ignored -> requestId);
     }
 
     /**
      * 發送武器存在檢查請求到 RabbitMQ
      *
      * @param name 武器名稱
+     * @return Broker 確認收到後完成的請求ID
+     */
+    public CompletableFuture<String> sendWeaponExistsRequest(String name) {
+        return sendReadOnly(RabbitMQConfig.WEAPON_EXISTS_QUEUE, name, () -> {
+            String requestId = UUID.randomUUID().toString();
+
+            AsyncMessageDTO message = new AsyncMessageDTO(
+                    requestId,
+                    "/tymb/weapons/exists/" + name,
+                    "GET",
+                    name);
+
+            CompletableFuture<Void> sent = sendMessage(RabbitMQConfig.WEAPON_EXISTS_QUEUE, message);
+
+            logger.info("發送武器存在檢查請求到 RabbitMQ: name={}, requestId={}", name, requestId);
+
+            return sent.thenApply(ignored -> requestId);
+        });
+    }
+
+    /**
+     * 發送唯讀請求，相同查詢處理中時合併為同一個 requestId
+     * 
+     * @param queueName 隊列名稱
+     * @param payload   查詢參數，與隊列名稱共同識別相同查詢
+     * @param sender    實際發送消息的動作
+     * @return Broker 確認收到後完成的請求ID
+     */
+    private CompletableFuture<String> sendReadOnly(String queueName, Object payload,
+            Supplier<CompletableFuture<String>> sender) {
+        admit(queueName);
+        if (requestCoalescer == null) {
+            return sender.get();
+        }
+        String key;
+        try {
+            key = coalescingKey(objectMapper, queueName, payload);
+        } catch (JsonProcessingException e) {
+            logger.warn("無法序列化查詢參數，不合併請求: queue={}, error={}", queueName, e.getMessage());
+            return sender.get();
+        }
+        return requestCoalescer.coalesce(key, sender);
+    }
+
+    /**
+     * 等待請求送達 Broker 並取得請求ID
+     *
+     * <p>控制器在併發上限內同步等待，只等待 request-wait-ms，
+     * 不讓每個請求都佔住名額直到發佈者的確認逾時。</p>
+     *
+     * @param sent send*Request 回傳的 Future
      * @return 請求ID
+     * @throws AsyncAdmissionException 隊列積壓
+     * @throws AsyncPublishException Broker 拒絕、退回或未在期限內確認
      */
-    public String sendWeaponExistsRequest(String name) {
-        String requestId = UUID.randomUUID().toString();
+    public String awaitRequestId(CompletableFuture<String> sent) {
+        return awaitRequestId(sent, requestWaitMs);
+    }
 
-        AsyncMessageDTO message = new AsyncMessageDTO(
-                requestId,
-                "/tymb/weapons/exists/" + name,
-                "GET",
-                name);
+    static String awaitRequestId(CompletableFuture<String> sent, long waitMs) {
+        try {
+            // 以 get 等待而非 orTimeout，合併中的 Future 由其他請求共用，不可被單一請求的期限結束
+            return sent.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new AsyncPublishException("Broker 未在 " + waitMs + " 毫秒內確認收到請求", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AsyncAdmissionException admission) {
+                throw admission;
+            }
+            throw new AsyncPublishException("異步請求發送失敗: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AsyncPublishException("等待 Broker 確認時被中斷", e);
+        }
+    }
 
-        sendMessage(RabbitMQConfig.WEAPON_EXISTS_QUEUE, message);
+    /**
+     * 合併請求的識別鍵：以查詢參數的 JSON 區分，避免 toString() 相同的不同參數
+     * （例如 ["a, b"] 與 ["a", "b"]）被合併為同一個請求
+     *
+     * @param objectMapper JSON 序列化
+     * @param queueName    隊列名稱
+     * @param payload      查詢參數
+     * @return 識別鍵
+     * @throws JsonProcessingException 查詢參數無法序列化
+     */
+    static String coalescingKey(ObjectMapper objectMapper, String queueName, Object payload)
+            throws JsonProcessingException {
+        return queueName + ":" + objectMapper.writeValueAsString(payload);
+    }
 
-        logger.info("發送武器存在檢查請求到 RabbitMQ: name={}, requestId={}", name, requestId);
+    /**
+     * 隊列積壓到新請求可能在 TTL 內無法處理時，直接拒絕而不發送
+     *
+     * @param queueName 隊列名稱
+     * @throws AsyncAdmissionException 預估等待超過 TTL 或 SLO
+     */
+    private void admit(String queueName) {
+        if (admissionControl != null) {
+            admissionControl.admit(queueName);
+        }
+    }
 
-        return requestId;
+    /**
+     * 寫入請求發送前結束所有合併中的唯讀請求，之後的查詢不會沿用寫入前發出的結果
+     */
+    private void invalidateCoalescedReads() {
+        if (requestCoalescer != null) {
+            requestCoalescer.invalidateAll();
+        }
     }
 
     /**
      * 發送消息到指定隊列
      * 
+     * 有批次發佈器時交由其組成微批次並等待發佈者確認；否則直接同步發送。
+     * 發送前寫入路由鍵與發送時間，供端到端延遲追蹤使用，並計入准入控制的發送數。
+     * 
      * @param queueName 隊列名稱
      * @param message   消息內容
+     * @return Broker 確認收到後完成的 Future
      */
-    private void sendMessage(String queueName, AsyncMessageDTO message) {
+    private CompletableFuture<Void> sendMessage(String queueName, AsyncMessageDTO message) {
+        String routingKey = getRoutingKey(queueName);
+        if (latencyTracker != null) {
+            latencyTracker.published(message, routingKey);
+        }
+        if (admissionControl != null) {
+            admissionControl.recordPublished(queueName);
+        }
+        if (messagePublisher != null) {
+            return messagePublisher.publish(RabbitMQConfig.TYMB_EXCHANGE, routingKey, message)
+                    .whenComplete((ignored, error) -> {
+                        if (error != null) {
+                            discardLatency(message);
+                            logger.error("發送消息到 RabbitMQ 失敗: queue={}, requestId={}, error={}",
+                                    queueName, message.getRequestId(), error.getMessage());
+                        } else {
+                            logger.debug("消息已確認送達隊列 {}: requestId={}, endpoint={}",
+                                    queueName, message.getRequestId(), message.getEndpoint());
+                        }
+                    });
+        }
+
         try {
             // 直接發送對象，RabbitTemplate 的 Jackson2JsonMessageConverter 會自動序列化
-            rabbitTemplate.convertAndSend(RabbitMQConfig.TYMB_EXCHANGE, getRoutingKey(queueName), message);
+            rabbitTemplate.convertAndSend(RabbitMQConfig.TYMB_EXCHANGE, routingKey, message,
+                    MessageRoute.laneOf(routingKey).withPriority());
 
             logger.debug("消息已發送到隊列 {}: requestId={}, endpoint={}",
                     queueName, message.getRequestId(), message.getEndpoint());
+            return CompletableFuture.completedFuture(null);
 
         } catch (Exception e) {
+            discardLatency(message);
             logger.error("發送消息到 RabbitMQ 失敗: {}", e.getMessage(), e);
-            throw new RuntimeException("消息發送失敗", e);
+            return CompletableFuture.failedFuture(new RuntimeException("消息發送失敗", e));
+        }
+    }
+
+    /**
+     * 發送失敗的消息不會有結果，停止延遲追蹤以免計入逾時
+     */
+    private void discardLatency(AsyncMessageDTO message) {
+        if (latencyTracker != null) {
+            latencyTracker.discard(message.getRequestId());
         }
     }
 
@@ -417,44 +633,6 @@ public class AsyncMessageService {
      * @return 路由鍵
      */
     private String getRoutingKey(String queueName) {
-        logger.debug("getRoutingKey called with queueName: '{}'", queueName);
-        switch (queueName) {
-            case RabbitMQConfig.DAMAGE_CALCULATION_QUEUE:
-                return "people.damage.calculation";
-            case RabbitMQConfig.PEOPLE_GET_ALL_QUEUE:
-                return "people.get.all";
-            case RabbitMQConfig.PEOPLE_GET_BY_NAME_QUEUE:
-                return "people.get.by.name";
-            case RabbitMQConfig.PEOPLE_GET_NAMES_QUEUE:
-                return "people.get.names";
-            case RabbitMQConfig.PEOPLE_INSERT_QUEUE:
-                return "people.insert";
-            case RabbitMQConfig.PEOPLE_INSERT_MULTIPLE_QUEUE:
-                return "people.insert.multiple";
-            case RabbitMQConfig.PEOPLE_UPDATE_QUEUE:
-                return "people.update";
-            case RabbitMQConfig.PEOPLE_DELETE_ALL_QUEUE:
-                return "people.delete.all";
-            case RabbitMQConfig.WEAPON_GET_ALL_QUEUE:
-                return "weapon.get.all";
-            case RabbitMQConfig.WEAPON_GET_BY_NAME_QUEUE:
-                return "weapon.get.by.name";
-            case RabbitMQConfig.WEAPON_GET_BY_OWNER_QUEUE:
-                return "weapon.get.by.owner";
-            case RabbitMQConfig.WEAPON_SAVE_QUEUE:
-                return "weapon.save";
-            case RabbitMQConfig.WEAPON_DELETE_QUEUE:
-                return "weapon.delete";
-            case RabbitMQConfig.WEAPON_DELETE_ALL_QUEUE:
-                return "weapon.delete.all";
-            case RabbitMQConfig.WEAPON_EXISTS_QUEUE:
-                return "weapon.exists";
-            case RabbitMQConfig.PEOPLE_BATCH_DAMAGE_QUEUE:
-                return "people.batch.damage";
-            case RabbitMQConfig.DECKOFCARDS_QUEUE:
-                return "deckofcards";
-            default:
-                throw new IllegalArgumentException("未知的隊列名稱: " + queueName);
-        }
+        return MessageRoute.forQueue(queueName).getRoutingKey();
     }
 }
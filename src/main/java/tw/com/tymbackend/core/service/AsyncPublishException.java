@@ -0,0 +1,19 @@
+package tw.com.tymbackend.core.service;
+
+/**
+ * 異步請求未能確認送達 Broker
+ *
+ * <p>Broker nack、無法路由退回、發佈佇列已滿，或未在控制器的等待期限內確認時拋出，
+ * 呼叫端應回應 503，而不是把發送失敗當成伺服器內部錯誤。
+ * 逾時的消息仍可能在之後送達，因此寫入請求不應改走同步處理。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+public class AsyncPublishException extends RuntimeException {
+
+    public AsyncPublishException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
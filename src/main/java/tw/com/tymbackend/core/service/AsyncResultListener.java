@@ -0,0 +1,75 @@
+package tw.com.tymbackend.core.service;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import tw.com.tymbackend.core.config.RabbitMQConfig;
+import tw.com.tymbackend.core.message.AsyncResultMessage;
+
+/**
+ * 異步結果監聽器
+ *
+ * <p>每個實例以匿名（獨佔、自動刪除）隊列綁定 {@code async.result} 路由鍵，
+ * 取得 Consumer 回傳結果的副本並寫入 {@link AsyncResultStore}。
+ * 直連交換機會將消息複製到每個綁定的隊列，因此不會搶走 Gateway 在
+ * {@link RabbitMQConfig#ASYNC_RESULT_QUEUE} 上消費的消息，且每個實例都能喚醒自己的長輪詢與 SSE 連線。
+ * 本實例發送的請求同時交由 {@link AsyncLatencyTracker} 記錄端到端延遲。</p>
+ *
+ * <p>與 {@link AsyncMessageService}、{@link RabbitMQConfig} 相同，不以 spring.rabbitmq.enabled 限制建立，
+ * 只要請求會被發送到隊列，結果就一定有人寫回 {@link AsyncResultStore}。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+public class AsyncResultListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncResultListener.class);
+
+    private final AsyncResultStore asyncResultStore;
+    private final AsyncLatencyTracker latencyTracker;
+    private final ObjectMapper objectMapper;
+
+    public AsyncResultListener(AsyncResultStore asyncResultStore, AsyncLatencyTracker latencyTracker,
+            ObjectMapper objectMapper) {
+        this.asyncResultStore = asyncResultStore;
+        this.latencyTracker = latencyTracker;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 接收異步結果
+     *
+     * @param message 原始消息，內容為 {@link AsyncResultMessage} 的 JSON
+     */
+    @RabbitListener(id = RabbitMQConfig.ASYNC_RESULT_LISTENER_ID, bindings = @QueueBinding(
+            value = @Queue,
+            exchange = @Exchange(value = RabbitMQConfig.TYMB_EXCHANGE, declare = "false"),
+            key = "async.result"))
+    public void onResult(Message message) {
+        AsyncResultMessage result;
+        try {
+            result = objectMapper.readValue(message.getBody(), AsyncResultMessage.class);
+        } catch (IOException e) {
+            logger.warn("忽略無法解析的異步結果消息: {}", e.getMessage());
+            return;
+        }
+        if (result.getRequestId() == null) {
+            logger.warn("忽略缺少 requestId 的異步結果消息");
+            return;
+        }
+        latencyTracker.completed(result);
+        asyncResultStore.put(result);
+    }
+}
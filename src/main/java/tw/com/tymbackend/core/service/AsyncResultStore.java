@@ -0,0 +1,161 @@
+package tw.com.tymbackend.core.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import tw.com.tymbackend.core.message.AsyncResultMessage;
+
+/**
+ * 異步結果儲存
+ *
+ * <p>以 requestId 為鍵保存 Consumer 回傳的 {@link AsyncResultMessage}：
+ * 本地為有上限與 TTL 的 Caffeine 快取，Redis 則以相同 TTL 保存一份，
+ * 讓其他實例或重啟後的查詢仍能取得結果。</p>
+ *
+ * <p>長輪詢與 SSE 透過 {@link #subscribe(String, Consumer)} 登記等待者，
+ * 結果寫入時立即喚醒，不需固定間隔輪詢。每個等待者最多被通知一次。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+public class AsyncResultStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncResultStore.class);
+
+    static final String KEY_PREFIX = "tymb:async-result:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Duration ttl;
+    private final Cache<String, AsyncResultMessage> local;
+    private final ConcurrentMap<String, Set<Consumer<AsyncResultMessage>>> waiters = new ConcurrentHashMap<>();
+
+    public AsyncResultStore(RedisTemplate<String, Object> redisTemplate,
+            @Value("${app.async-result.local.max-size:10000}") long maxSize,
+            @Value("${app.async-result.ttl:10m}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * 保存結果並喚醒等待中的請求
+     *
+     * @param result 異步處理結果
+     */
+    public void put(AsyncResultMessage result) {
+        if (result == null || result.getRequestId() == null) {
+            return;
+        }
+        String requestId = result.getRequestId();
+        local.put(requestId, result);
+        if (redisTemplate != null) {
+            try {
+                redisTemplate.opsForValue().set(KEY_PREFIX + requestId, result, ttl);
+            } catch (DataAccessException e) {
+                logger.warn("寫入異步結果到 Redis 失敗: requestId={}, error={}", requestId, e.getMessage());
+            }
+        }
+
+        Set<Consumer<AsyncResultMessage>> callbacks = waiters.remove(requestId);
+        if (callbacks != null) {
+            callbacks.forEach(callback -> notify(callback, result));
+        }
+        logger.debug("異步結果已保存: requestId={}, status={}, waiters={}",
+                requestId, result.getStatus(), callbacks == null ? 0 : callbacks.size());
+    }
+
+    /**
+     * 查詢結果，本地未命中時改查 Redis
+     *
+     * @param requestId 請求ID
+     * @return 結果，尚未完成或已過期時為空
+     */
+    public Optional<AsyncResultMessage> find(String requestId) {
+        AsyncResultMessage result = local.getIfPresent(requestId);
+        if (result != null) {
+            return Optional.of(result);
+        }
+        if (redisTemplate == null) {
+            return Optional.empty();
+        }
+        try {
+            Object value = redisTemplate.opsForValue().get(KEY_PREFIX + requestId);
+            if (value instanceof AsyncResultMessage remote) {
+                local.put(requestId, remote);
+                return Optional.of(remote);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("從 Redis 讀取異步結果失敗: requestId={}, error={}", requestId, e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 登記等待者，結果已存在時立即通知
+     *
+     * <p>先登記再查詢，確保與 {@link #put(AsyncResultMessage)} 並行時不會遺漏結果。</p>
+     *
+     * @param requestId 請求ID
+     * @param callback 取得結果時呼叫，最多一次
+     * @return 取消登記的動作，請求逾時或連線結束時呼叫
+     */
+    public Runnable subscribe(String requestId, Consumer<AsyncResultMessage> callback) {
+        waiters.compute(requestId, (key, callbacks) -> {
+            Set<Consumer<AsyncResultMessage>> set = callbacks != null ? callbacks : ConcurrentHashMap.newKeySet();
+            set.add(callback);
+            return set;
+        });
+
+        find(requestId).ifPresent(result -> {
+            if (detach(requestId, callback)) {
+                notify(callback, result);
+            }
+        });
+        return () -> detach(requestId, callback);
+    }
+
+    /**
+     * 目前等待中的請求數量
+     *
+     * @return 有等待者的 requestId 數量
+     */
+    public int waitingCount() {
+        return waiters.size();
+    }
+
+    private boolean detach(String requestId, Consumer<AsyncResultMessage> callback) {
+        boolean[] removed = {false};
+        waiters.computeIfPresent(requestId, (key, callbacks) -> {
+            removed[0] = callbacks.remove(callback);
+            return callbacks.isEmpty() ? null : callbacks;
+        });
+        return removed[0];
+    }
+
+    private void notify(Consumer<AsyncResultMessage> callback, AsyncResultMessage result) {
+        try {
+            callback.accept(result);
+        } catch (RuntimeException e) {
+            logger.warn("通知異步結果等待者失敗: requestId={}, error={}", result.getRequestId(), e.getMessage());
+        }
+    }
+}
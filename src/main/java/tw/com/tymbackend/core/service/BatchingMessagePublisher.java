@@ -0,0 +1,243 @@
+package tw.com.tymbackend.core.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import tw.com.tymbackend.core.config.MessageLane;
+import tw.com.tymbackend.core.config.MessageRoute;
+import tw.com.tymbackend.core.message.AsyncMessageDTO;
+
+/**
+ * 批次確認消息發佈器
+ *
+ * <p>將待發送的 {@link AsyncMessageDTO} 放入佇列，由單一發佈執行緒依數量上限或等待時間
+ * 組成微批次，在同一個通道上連續發送，減少突發請求下的通道取用與寫入次數。</p>
+ *
+ * <p>每則消息附帶以 requestId 為識別的 {@link CorrelationData}，透過非同步的發佈者確認
+ * 完成回傳的 {@link CompletableFuture}：Broker ack 時成功；nack、無法路由（mandatory 退回）、
+ * 發送失敗或超過確認逾時則以例外完成。呼叫端因此可以在 Broker 確實收到消息後才回應 202。</p>
+ *
+ * <p>互動與批量通道（{@link MessageLane}）各有獨立的佇列：組批時優先取互動消息，
+ * 每個批次中的批量消息不超過上限，大量匯入排隊時互動請求最多只需等待一個批次。
+ * 消息附帶所屬通道的優先權。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+public class BatchingMessagePublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchingMessagePublisher.class);
+
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long confirmTimeoutMs;
+    private final int bulkPerBatch;
+    private final BlockingQueue<PendingMessage> interactive;
+    private final BlockingQueue<PendingMessage> bulk;
+    /** 兩個佇列中的消息總數，讓發佈執行緒能同時等待兩個通道 */
+    private final Semaphore available = new Semaphore(0);
+
+    private volatile boolean running;
+    private Thread publisherThread;
+
+    public BatchingMessagePublisher(RabbitTemplate rabbitTemplate,
+            @Value("${app.messaging.publisher.batch-size:50}") int batchSize,
+            @Value("${app.messaging.publisher.linger-ms:5}") long lingerMs,
+            @Value("${app.messaging.publisher.confirm-timeout-ms:5000}") long confirmTimeoutMs,
+            @Value("${app.messaging.publisher.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.messaging.lanes.bulk.max-per-batch:5}") int bulkPerBatch) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, lingerMs));
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.bulkPerBatch = Math.max(1, bulkPerBatch);
+        this.interactive = new LinkedBlockingQueue<>(Math.max(1, queueCapacity));
+        this.bulk = new LinkedBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        publisherThread = Thread.ofPlatform().name("mq-batch-publisher").daemon(true).start(this::runLoop);
+        logger.info("批次消息發佈器已啟動: batchSize={}, lingerMs={}, confirmTimeoutMs={}",
+                batchSize, TimeUnit.NANOSECONDS.toMillis(lingerNanos), confirmTimeoutMs);
+    }
+
+    /**
+     * 停止接收新消息，送出佇列中剩餘的消息後結束
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (publisherThread != null) {
+            try {
+                publisherThread.join(confirmTimeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        PendingMessage pending;
+        while ((pending = take()) != null) {
+            pending.future().completeExceptionally(new AmqpException("Publisher is shutting down"));
+        }
+    }
+
+    /**
+     * 排入待發送消息
+     *
+     * @param exchange 交換機名稱
+     * @param routingKey 路由鍵
+     * @param message 消息內容
+     * @return Broker 確認後完成的 Future；逾時、nack 或退回時以例外完成
+     */
+    public CompletableFuture<Void> publish(String exchange, String routingKey, AsyncMessageDTO message) {
+        PendingMessage pending = new PendingMessage(exchange, routingKey, message, new CompletableFuture<>());
+        if (!running) {
+            pending.future().completeExceptionally(new AmqpException("Publisher is not running"));
+        } else if (!(pending.lane() == MessageLane.BULK ? bulk : interactive).offer(pending)) {
+            pending.future().completeExceptionally(new AmqpException("Publisher queue is full"));
+        } else {
+            available.release();
+        }
+        return pending.future().orTimeout(confirmTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 目前等待發送的消息數量
+     *
+     * @return 佇列中的消息數量
+     */
+    public int pendingCount() {
+        return interactive.size() + bulk.size();
+    }
+
+    private void runLoop() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running || pendingCount() > 0) {
+            try {
+                if (!available.tryAcquire(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                    continue;
+                }
+                batch.add(interactive.isEmpty() ? bulk.poll() : interactive.poll());
+                collectBatch(batch);
+                publishBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.future()
+                        .completeExceptionally(new AmqpException("Publisher interrupted")));
+                return;
+            } catch (RuntimeException e) {
+                logger.error("批次消息發佈器發生未預期錯誤", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 在等待時間內補滿批次：已排隊的消息直接取出，其餘等待到 linger 期限為止。
+     * 互動消息優先，批量消息達到每批上限且沒有互動消息時結束這個批次
+     */
+    private void collectBatch(List<PendingMessage> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + lingerNanos;
+        int bulkCount = batch.get(0).lane() == MessageLane.BULK ? 1 : 0;
+        while (batch.size() < batchSize) {
+            if (interactive.isEmpty() && bulkCount >= bulkPerBatch) {
+                return;
+            }
+            if (!available.tryAcquire()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !available.tryAcquire(remaining, TimeUnit.NANOSECONDS)) {
+                    return;
+                }
+            }
+            // 只有這個執行緒取出消息，取得許可後必定有消息；互動佇列只會增加，因此不會超過批量上限
+            PendingMessage next = interactive.isEmpty() ? bulk.poll() : interactive.poll();
+            if (next.lane() == MessageLane.BULK) {
+                bulkCount++;
+            }
+            batch.add(next);
+        }
+    }
+
+    private PendingMessage take() {
+        if (!available.tryAcquire()) {
+            return null;
+        }
+        return interactive.isEmpty() ? bulk.poll() : interactive.poll();
+    }
+
+    /**
+     * 在同一個通道上連續發送整個批次，確認結果由各自的 CorrelationData 非同步回報
+     */
+    void publishBatch(List<PendingMessage> batch) {
+        int[] sent = {0};
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (PendingMessage pending : batch) {
+                    CorrelationData correlation = new CorrelationData(pending.message().getRequestId());
+                    correlation.getFuture().whenComplete(
+                            (confirm, error) -> completeOnConfirm(pending, correlation, confirm, error));
+                    operations.convertAndSend(pending.exchange(), pending.routingKey(), pending.message(),
+                            pending.lane().withPriority(), correlation);
+                    sent[0]++;
+                }
+                return null;
+            });
+            logger.debug("已發送消息批次: size={}", batch.size());
+        } catch (RuntimeException e) {
+            // 已寫出的消息由確認結果決定成敗，只有尚未寫出的消息直接失敗
+            logger.error("發送消息批次失敗: size={}, sent={}, error={}", batch.size(), sent[0], e.getMessage());
+            for (int i = sent[0]; i < batch.size(); i++) {
+                batch.get(i).future().completeExceptionally(e);
+            }
+        }
+    }
+
+    private void completeOnConfirm(PendingMessage pending, CorrelationData correlation,
+            CorrelationData.Confirm confirm, Throwable error) {
+        if (error != null) {
+            pending.future().completeExceptionally(error);
+            return;
+        }
+        ReturnedMessage returned = correlation.getReturned();
+        if (returned != null) {
+            pending.future().completeExceptionally(new AmqpException("Message returned by broker: "
+                    + returned.getReplyText() + ", routingKey=" + returned.getRoutingKey()));
+        } else if (!confirm.isAck()) {
+            pending.future().completeExceptionally(new AmqpException("Message nacked by broker: "
+                    + confirm.getReason()));
+        } else {
+            pending.future().complete(null);
+        }
+    }
+
+    record PendingMessage(String exchange, String routingKey, AsyncMessageDTO message,
+            CompletableFuture<Void> future) {
+
+        MessageLane lane() {
+            return MessageRoute.laneOf(routingKey);
+        }
+    }
+}
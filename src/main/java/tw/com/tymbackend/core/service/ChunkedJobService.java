@@ -0,0 +1,309 @@
+package tw.com.tymbackend.core.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import tw.com.tymbackend.core.message.AsyncResultMessage;
+
+/**
+ * 分塊批量任務服務
+ *
+ * <p>將大量資料切成固定大小的區塊，每個區塊以獨立的 requestId 發送，
+ * 由多個 Consumer 並行處理，避免單一消息過大或單一交易逾時。
+ * 所有區塊隸屬同一個任務 ID，呼叫端以任務 ID 查詢進度或等待最終結果。</p>
+ *
+ * <p>區塊的處理結果透過 {@link AsyncResultStore} 接收：失敗或發送失敗的區塊以新的 requestId 重送，
+ * 超過重試次數後標記為失敗。所有區塊結束後，彙整結果以任務 ID 寫入 {@link AsyncResultStore}，
+ * 因此既有的長輪詢與 SSE 端點也能等待整個任務完成。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+public class ChunkedJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedJobService.class);
+
+    private final AsyncResultStore asyncResultStore;
+    private final int chunkSize;
+    private final int maxAttempts;
+    private final Cache<String, Job> jobs;
+
+    public ChunkedJobService(AsyncResultStore asyncResultStore,
+            @Value("${app.messaging.chunking.chunk-size:200}") int chunkSize,
+            @Value("${app.messaging.chunking.max-attempts:3}") int maxAttempts,
+            @Value("${app.messaging.chunking.job-ttl:30m}") Duration jobTtl) {
+        this.asyncResultStore = asyncResultStore;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(jobTtl)
+                .removalListener((String jobId, Job job, RemovalCause cause) -> {
+                    if (job != null) {
+                        job.release();
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * 發送單一區塊的動作
+     */
+    @FunctionalInterface
+    public interface ChunkSender {
+
+        /**
+         * @param requestId 區塊的請求ID
+         * @param chunk 區塊資料
+         * @return Broker 確認收到後完成的 Future
+         */
+        CompletableFuture<Void> send(String requestId, List<?> chunk);
+    }
+
+    /**
+     * 每個區塊的資料筆數
+     *
+     * @return 區塊大小
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * 判斷資料是否需要分塊
+     *
+     * @param items 資料列表
+     * @return 超過一個區塊時為 true
+     */
+    public boolean shouldSplit(List<?> items) {
+        return items != null && items.size() > chunkSize;
+    }
+
+    /**
+     * 分塊並發送
+     *
+     * @param items 資料列表
+     * @param sender 發送單一區塊的動作
+     * @return 區塊發送完成後的任務ID；所有區塊都無法發送時以例外完成
+     */
+    public CompletableFuture<String> submit(List<?> items, ChunkSender sender) {
+        Job job = new Job(UUID.randomUUID().toString(), items.size());
+        for (int from = 0, index = 0; from < items.size(); from += chunkSize, index++) {
+            int to = Math.min(from + chunkSize, items.size());
+            job.chunks.add(new Chunk(index, new ArrayList<>(items.subList(from, to))));
+        }
+        jobs.put(job.id, job);
+        logger.info("建立分塊批量任務: jobId={}, items={}, chunks={}", job.id, job.totalItems, job.chunks.size());
+
+        List<CompletableFuture<Boolean>> published = job.chunks.stream()
+                .map(chunk -> dispatch(job, chunk, sender))
+                .toList();
+        return CompletableFuture.allOf(published.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            if (published.stream().noneMatch(CompletableFuture::join)) {
+                jobs.invalidate(job.id);
+                throw new IllegalStateException("批量任務的所有區塊都發送失敗: jobId=" + job.id);
+            }
+            return job.id;
+        });
+    }
+
+    /**
+     * 查詢任務進度
+     *
+     * @param jobId 任務ID
+     * @return 任務狀態，不存在或已過期時為空
+     */
+    public Optional<JobStatus> find(String jobId) {
+        Job job = jobs.getIfPresent(jobId);
+        return job == null ? Optional.empty() : Optional.of(job.snapshot());
+    }
+
+    /**
+     * 發送區塊，發送失敗時依重試次數重送
+     *
+     * @return 最終是否成功發送
+     */
+    private CompletableFuture<Boolean> dispatch(Job job, Chunk chunk, ChunkSender sender) {
+        int attempt = chunk.attempts.incrementAndGet();
+        String requestId = job.id + ":" + chunk.index + ":" + attempt;
+        chunk.requestId = requestId;
+        chunk.status = ChunkState.PROCESSING;
+
+        CompletableFuture<Void> sent;
+        try {
+            sent = sender.send(requestId, chunk.items);
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        return sent.handle((ignored, error) -> {
+            if (error != null) {
+                return retryOrFail(job, chunk, "發送失敗: " + error.getMessage(), sender);
+            }
+            chunk.unsubscribe = asyncResultStore.subscribe(requestId,
+                    result -> onChunkResult(job, chunk, requestId, result, sender));
+            return CompletableFuture.completedFuture(true);
+        }).thenCompose(result -> result);
+    }
+
+    private void onChunkResult(Job job, Chunk chunk, String requestId, AsyncResultMessage result,
+            ChunkSender sender) {
+        if (!requestId.equals(chunk.requestId)) {
+            return;
+        }
+        if ("completed".equals(result.getStatus())) {
+            chunk.status = ChunkState.COMPLETED;
+            finishIfDone(job);
+        } else {
+            retryOrFail(job, chunk, result.getError(), sender);
+        }
+    }
+
+    private CompletableFuture<Boolean> retryOrFail(Job job, Chunk chunk, String error, ChunkSender sender) {
+        if (chunk.attempts.get() < maxAttempts) {
+            logger.warn("批量任務區塊失敗，重新發送: jobId={}, chunk={}, attempt={}, error={}",
+                    job.id, chunk.index, chunk.attempts.get(), error);
+            return dispatch(job, chunk, sender);
+        }
+        logger.error("批量任務區塊失敗且超過重試次數: jobId={}, chunk={}, error={}", job.id, chunk.index, error);
+        chunk.error = error;
+        chunk.status = ChunkState.FAILED;
+        finishIfDone(job);
+        return CompletableFuture.completedFuture(false);
+    }
+
+    private void finishIfDone(Job job) {
+        if (!job.isDone() || !job.finished.compareAndSet(false, true)) {
+            return;
+        }
+        JobStatus status = job.snapshot();
+        if (status.failedChunks() == 0) {
+            asyncResultStore.put(AsyncResultMessage.completed(job.id, status));
+        } else {
+            asyncResultStore.put(new AsyncResultMessage(job.id, "failed", status,
+                    status.failedChunks() + " / " + status.totalChunks() + " 個區塊處理失敗"));
+        }
+        logger.info("分塊批量任務結束: jobId={}, status={}, completed={}, failed={}",
+                job.id, status.status(), status.completedChunks(), status.failedChunks());
+    }
+
+    /**
+     * 任務狀態
+     *
+     * @param jobId 任務ID
+     * @param status processing、completed、partially_failed 或 failed
+     * @param totalChunks 區塊數
+     * @param completedChunks 已完成區塊數
+     * @param failedChunks 失敗區塊數
+     * @param totalItems 資料筆數
+     * @param completedItems 已完成的資料筆數
+     * @param chunks 各區塊狀態
+     */
+    public record JobStatus(String jobId, String status, int totalChunks, int completedChunks, int failedChunks,
+            int totalItems, int completedItems, List<ChunkStatus> chunks) {
+    }
+
+    /**
+     * 區塊狀態
+     *
+     * @param index 區塊序號
+     * @param size 區塊資料筆數
+     * @param status processing、completed 或 failed
+     * @param attempts 已發送次數
+     * @param requestId 最近一次發送的請求ID
+     * @param error 失敗原因
+     */
+    public record ChunkStatus(int index, int size, String status, int attempts, String requestId, String error) {
+    }
+
+    private enum ChunkState {
+        PROCESSING, COMPLETED, FAILED
+    }
+
+    private static final class Job {
+
+        private final String id;
+        private final int totalItems;
+        private final List<Chunk> chunks = new ArrayList<>();
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private Job(String id, int totalItems) {
+            this.id = id;
+            this.totalItems = totalItems;
+        }
+
+        private boolean isDone() {
+            return chunks.stream().allMatch(chunk -> chunk.status != ChunkState.PROCESSING);
+        }
+
+        private JobStatus snapshot() {
+            int completed = 0;
+            int failed = 0;
+            int completedItems = 0;
+            List<ChunkStatus> chunkStatuses = new ArrayList<>(chunks.size());
+            for (Chunk chunk : chunks) {
+                ChunkState state = chunk.status;
+                if (state == ChunkState.COMPLETED) {
+                    completed++;
+                    completedItems += chunk.items.size();
+                } else if (state == ChunkState.FAILED) {
+                    failed++;
+                }
+                chunkStatuses.add(new ChunkStatus(chunk.index, chunk.items.size(), state.name().toLowerCase(),
+                        chunk.attempts.get(), chunk.requestId, chunk.error));
+            }
+            String status;
+            if (completed + failed < chunks.size()) {
+                status = "processing";
+            } else if (failed == 0) {
+                status = "completed";
+            } else if (completed == 0) {
+                status = "failed";
+            } else {
+                status = "partially_failed";
+            }
+            return new JobStatus(id, status, chunks.size(), completed, failed, totalItems, completedItems,
+                    chunkStatuses);
+        }
+
+        private void release() {
+            chunks.forEach(chunk -> {
+                Runnable unsubscribe = chunk.unsubscribe;
+                if (unsubscribe != null) {
+                    unsubscribe.run();
+                }
+            });
+        }
+    }
+
+    private static final class Chunk {
+
+        private final int index;
+        private final List<?> items;
+        private final AtomicInteger attempts = new AtomicInteger();
+        private volatile ChunkState status = ChunkState.PROCESSING;
+        private volatile String requestId;
+        private volatile String error;
+        private volatile Runnable unsubscribe;
+
+        private Chunk(int index, List<?> items) {
+            this.index = index;
+            this.items = items;
+        }
+    }
+}
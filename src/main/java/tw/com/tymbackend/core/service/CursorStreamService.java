@@ -0,0 +1,121 @@
+package tw.com.tymbackend.core.service;
+
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import tw.com.tymbackend.core.util.NdjsonWriter;
+
+/**
+ * 將資料庫游標查詢以 NDJSON 串流回應
+ *
+ * <p>串流期間整個交易都佔用一條資料庫連線，而連線池只有少數連線，
+ * 因此同時進行的串流數量受 app.pagination.max-concurrent-streams 限制，
+ * 超過時回 429 並附上 Retry-After，不讓全表串流排擠一般查詢。</p>
+ *
+ * <p>許可在請求執行緒取得，串流本文結束時歸還；本文因逾時、錯誤或連線中斷而沒有執行時，
+ * 由非同步請求的完成回呼歸還，兩者只會生效一次。</p>
+ */
+@Component
+public class CursorStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CursorStreamService.class);
+
+    private final ObjectMapper objectMapper;
+    private final Semaphore streams;
+    private final long retryAfterSeconds;
+
+    public CursorStreamService(ObjectMapper objectMapper,
+            @Value("${app.pagination.max-concurrent-streams:1}") int maxConcurrentStreams,
+            @Value("${app.pagination.stream-retry-after-seconds:2}") long retryAfterSeconds) {
+        this.objectMapper = objectMapper;
+        this.streams = new Semaphore(Math.max(1, maxConcurrentStreams));
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+    }
+
+    /**
+     * 建立 NDJSON 串流回應
+     *
+     * @param name 串流名稱，用於日誌
+     * @param source 讀取資料的函數，需在交易內以游標逐筆交給傳入的 Consumer
+     * @return 串流回應，同時進行的串流已達上限時為 429
+     */
+    public <T> ResponseEntity<?> ndjson(String name, Consumer<Consumer<T>> source) {
+        if (!streams.tryAcquire()) {
+            logger.warn("串流查詢已達同時上限，拒絕請求: stream={}", name);
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+            body.put("message", "同時進行的串流查詢過多，請於 " + retryAfterSeconds + " 秒後重試");
+            body.put("retryAfterSeconds", retryAfterSeconds);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body(body);
+        }
+
+        Runnable release = releaseOnce();
+        releaseOnAsyncCompletion(release);
+        StreamingResponseBody body = outputStream -> {
+            try (NdjsonWriter<T> writer = new NdjsonWriter<>(objectMapper, outputStream)) {
+                try {
+                    source.accept(writer);
+                    logger.debug("串流查詢完成: stream={}, written={}", name, writer.getWritten());
+                } catch (UncheckedIOException e) {
+                    // 客戶端中斷連線，無法再寫出
+                    logger.warn("串流查詢中斷: stream={}, written={}, message={}",
+                            name, writer.getWritten(), e.getMessage());
+                    throw e.getCause();
+                }
+            } finally {
+                release.run();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(NdjsonWriter.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private Runnable releaseOnce() {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                streams.release();
+            }
+        };
+    }
+
+    /**
+     * 串流本文由非同步請求執行，完成（包含逾時與錯誤）時一律歸還許可
+     */
+    private static void releaseOnAsyncCompletion(Runnable release) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        WebAsyncUtils.getAsyncManager(attributes.getRequest()).registerCallableInterceptor(
+                CursorStreamService.class.getName(), new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                        release.run();
+                    }
+                });
+    }
+}
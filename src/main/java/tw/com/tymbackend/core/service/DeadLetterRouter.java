@@ -0,0 +1,159 @@
+package tw.com.tymbackend.core.service;
+
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import tw.com.tymbackend.core.config.MessageRoute;
+import tw.com.tymbackend.core.config.RabbitMQConfig;
+
+/**
+ * 死信分派器
+ *
+ * <p>工作隊列中被 Consumer 拒絕（requeue=false）或過期的消息會經由死信交換機進入
+ * {@link RabbitMQConfig#DEAD_LETTER_QUEUE}。這裡依 Broker 寫入的 {@code x-death} 標頭判斷：</p>
+ * <ul>
+ *   <li>被拒絕且失敗次數未超過延遲層級數：依次數選擇層級（1s、5s、25s…）送往重試交換機，
+ *       延遲到期後由 Broker 以原路由鍵送回原本的隊列</li>
+ *   <li>失敗次數用完、過期或無法判斷來源：停放到 {@link RabbitMQConfig#PARKING_LOT_QUEUE}，
+ *       等待透過 /api/async/dead-letters 檢視或重新投遞</li>
+ * </ul>
+ *
+ * <p>延遲期間消息留在 Broker，不佔用消費者或請求執行緒；停放後不再自動重試，毒消息不會無限循環。</p>
+ *
+ * <p>{@link RabbitMQConfig} 一律為工作隊列宣告死信交換機，因此這裡同樣不以 spring.rabbitmq.enabled 限制建立，
+ * 避免被拒絕的消息只進不出地堆積在死信隊列。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+public class DeadLetterRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterRouter.class);
+
+    /** 停放原因標頭 */
+    public static final String PARKED_REASON_HEADER = "x-parked-reason";
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
+    private final long[] retryDelaysMs;
+
+    public DeadLetterRouter(RabbitTemplate rabbitTemplate, MeterRegistry meterRegistry,
+            @Value("${app.messaging.retry.delays-ms:1000,5000,25000}") long[] retryDelaysMs) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.meterRegistry = meterRegistry;
+        this.retryDelaysMs = retryDelaysMs;
+    }
+
+    /**
+     * 分派死信消息，本文維持原樣（不解壓、不轉換）
+     *
+     * @param message 死信消息
+     */
+    @RabbitListener(queues = RabbitMQConfig.DEAD_LETTER_QUEUE, containerFactory = "deadLetterListenerContainerFactory")
+    public void onDeadLetter(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        Decision decision = decide(properties.getXDeathHeader(), retryDelaysMs);
+        try {
+            if (decision.retry()) {
+                properties.setHeader(RabbitMQConfig.RETRY_TIER_HEADER, String.valueOf(decision.delayMs()));
+                rabbitTemplate.send(RabbitMQConfig.RETRY_EXCHANGE, decision.death().routingKey(), message);
+            } else {
+                properties.getHeaders().remove(RabbitMQConfig.RETRY_TIER_HEADER);
+                properties.setHeader(PARKED_REASON_HEADER, decision.reason());
+                rabbitTemplate.send("", RabbitMQConfig.PARKING_LOT_QUEUE, message);
+            }
+        } catch (AmqpException e) {
+            // 轉送失敗時放回死信隊列，避免消息在這裡遺失
+            logger.warn("死信轉送失敗，稍後重新處理: queue={}, error={}", decision.death().queue(), e.getMessage());
+            throw new ImmediateRequeueAmqpException("死信轉送失敗", e);
+        }
+
+        String queue = decision.death().queue() != null ? decision.death().queue() : "unknown";
+        meterRegistry.counter("async.dead-letter.routed", "queue", queue,
+                "action", decision.retry() ? "retry" : "park", "reason", decision.reason()).increment();
+        if (decision.retry()) {
+            logger.info("消息處理失敗，延遲重試: queue={}, failures={}, delayMs={}, messageId={}",
+                    queue, decision.death().count(), decision.delayMs(), properties.getMessageId());
+        } else {
+            logger.warn("消息停放到死信隊列: queue={}, failures={}, reason={}, messageId={}",
+                    queue, decision.death().count(), decision.reason(), properties.getMessageId());
+        }
+    }
+
+    /**
+     * 依最近一次死信紀錄決定重試或停放
+     *
+     * @param deaths x-death 標頭，最近一次在最前面
+     * @param retryDelaysMs 各層級的延遲毫秒數，第 n 次失敗使用第 n 個層級
+     * @return 分派決策
+     */
+    static Decision decide(List<Map<String, ?>> deaths, long[] retryDelaysMs) {
+        Death death = lastDeath(deaths);
+        if (death.queue() == null) {
+            return new Decision(death, false, 0, "no_death_header");
+        }
+        if (death.routingKey() == null) {
+            return new Decision(death, false, 0, "unknown_route");
+        }
+        if (!"rejected".equals(death.reason())) {
+            return new Decision(death, false, 0, death.reason());
+        }
+        if (death.count() > retryDelaysMs.length) {
+            return new Decision(death, false, 0, "max_attempts");
+        }
+        return new Decision(death, true, retryDelaysMs[(int) Math.max(0, death.count() - 1)], "rejected");
+    }
+
+    /**
+     * 解析最近一次死信紀錄
+     *
+     * <p>同一隊列同一原因的紀錄由 Broker 累加 count，即該隊列拒絕這則消息的次數。
+     * 路由鍵優先取路由表的定義，未定義的隊列再使用紀錄中的原路由鍵。</p>
+     *
+     * @param deaths x-death 標頭
+     * @return 死信紀錄，沒有標頭時各欄位為空
+     */
+    static Death lastDeath(List<Map<String, ?>> deaths) {
+        if (deaths == null || deaths.isEmpty()) {
+            return new Death(null, null, 0, null);
+        }
+        Map<String, ?> death = deaths.get(0);
+        String queue = death.get("queue") != null ? death.get("queue").toString() : null;
+        String reason = death.get("reason") != null ? death.get("reason").toString() : null;
+        long count = death.get("count") instanceof Number number ? number.longValue() : 1;
+        String routingKey = MessageRoute.findByQueue(queue)
+                .map(MessageRoute::getRoutingKey)
+                .orElseGet(() -> death.get("routing-keys") instanceof List<?> keys && !keys.isEmpty()
+                        ? String.valueOf(keys.get(0))
+                        : null);
+        return new Death(queue, reason, count, routingKey);
+    }
+
+    /**
+     * 死信紀錄
+     *
+     * @param queue 原本的隊列
+     * @param reason rejected、expired、maxlen 等
+     * @param count 該隊列以相同原因送出死信的次數
+     * @param routingKey 送回原隊列使用的路由鍵
+     */
+    record Death(String queue, String reason, long count, String routingKey) {
+    }
+
+    record Decision(Death death, boolean retry, long delayMs, String reason) {
+    }
+}
@@ -0,0 +1,224 @@
+package tw.com.tymbackend.core.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.rabbitmq.client.GetResponse;
+
+import tw.com.tymbackend.core.config.CompactMessageConverter;
+import tw.com.tymbackend.core.config.RabbitMQConfig;
+
+/**
+ * 停放隊列的檢視與重新投遞
+ *
+ * <p>{@link DeadLetterRouter} 停放的消息不會自動重試，修正問題後由這裡重新投遞：
+ * 移除死信相關標頭後以原路由鍵送回 tymb-exchange，重新開始計算重試次數。
+ * 停放消息以手動確認取出，重新投遞取得發佈者確認後才自停放隊列移除，未確認的消息退回停放隊列。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+public class DeadLetterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterService.class);
+
+    /** 檢視時回傳的本文長度上限 */
+    static final int BODY_PREVIEW_LENGTH = 512;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final RabbitAdmin rabbitAdmin;
+    private final long confirmTimeoutMs;
+    private final MessagePropertiesConverter propertiesConverter = new DefaultMessagePropertiesConverter();
+
+    public DeadLetterService(RabbitTemplate rabbitTemplate, RabbitAdmin rabbitAdmin,
+            @Value("${app.messaging.publisher.confirm-timeout-ms:5000}") long confirmTimeoutMs) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.rabbitAdmin = rabbitAdmin;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+    }
+
+    /**
+     * 停放中的消息數量
+     *
+     * @return 消息數量，隊列不存在時為 0
+     */
+    public long count() {
+        QueueInformation info = rabbitAdmin.getQueueInfo(RabbitMQConfig.PARKING_LOT_QUEUE);
+        return info != null ? info.getMessageCount() : 0;
+    }
+
+    /**
+     * 檢視最前面的停放消息，取出後立即放回，不會移除
+     *
+     * @param limit 最多筆數
+     * @return 停放消息摘要
+     */
+    public List<DeadLetterMessage> peek(int limit) {
+        return rabbitTemplate.execute(channel -> {
+            List<DeadLetterMessage> messages = new ArrayList<>();
+            long lastDeliveryTag = -1;
+            try {
+                while (messages.size() < limit) {
+                    GetResponse response = channel.basicGet(RabbitMQConfig.PARKING_LOT_QUEUE, false);
+                    if (response == null) {
+                        break;
+                    }
+                    lastDeliveryTag = response.getEnvelope().getDeliveryTag();
+                    MessageProperties properties = propertiesConverter.toMessageProperties(response.getProps(),
+                            response.getEnvelope(), StandardCharsets.UTF_8.name());
+                    messages.add(summarize(new Message(response.getBody(), properties)));
+                }
+            } finally {
+                if (lastDeliveryTag >= 0) {
+                    channel.basicNack(lastDeliveryTag, true, true);
+                }
+            }
+            return messages;
+        });
+    }
+
+    /**
+     * 重新投遞停放的消息
+     *
+     * <p>以手動確認取出停放消息，重新發佈並取得 Broker 確認後才 ack；
+     * 缺少來源路由或未獲確認時 nack 並放回停放隊列，停止本次重新投遞，消息不會因中途失敗而遺失。</p>
+     *
+     * @param limit 最多筆數
+     * @return 已重新投遞的筆數
+     */
+    public int replay(int limit) {
+        Integer replayed = rabbitTemplate.execute(channel -> {
+            int count = 0;
+            while (count < limit) {
+                GetResponse response = channel.basicGet(RabbitMQConfig.PARKING_LOT_QUEUE, false);
+                if (response == null) {
+                    break;
+                }
+                long deliveryTag = response.getEnvelope().getDeliveryTag();
+                MessageProperties properties = propertiesConverter.toMessageProperties(response.getProps(),
+                        response.getEnvelope(), StandardCharsets.UTF_8.name());
+                DeadLetterRouter.Death death = DeadLetterRouter.lastDeath(properties.getXDeathHeader());
+                if (death.routingKey() == null) {
+                    logger.warn("停放消息缺少來源路由，保留於停放隊列: messageId={}", properties.getMessageId());
+                    channel.basicNack(deliveryTag, false, true);
+                    break;
+                }
+
+                clearDeathHeaders(properties);
+                CorrelationData correlation = new CorrelationData(UUID.randomUUID().toString());
+                boolean confirmed;
+                try {
+                    rabbitTemplate.send(RabbitMQConfig.TYMB_EXCHANGE, death.routingKey(),
+                            new Message(response.getBody(), properties), correlation);
+                    confirmed = isConfirmed(correlation);
+                } catch (AmqpException e) {
+                    logger.warn("重新投遞發送失敗: queue={}, messageId={}, error={}",
+                            death.queue(), properties.getMessageId(), e.getMessage());
+                    confirmed = false;
+                }
+                if (!confirmed) {
+                    logger.warn("重新投遞未獲確認，放回停放隊列: queue={}, messageId={}",
+                            death.queue(), properties.getMessageId());
+                    channel.basicNack(deliveryTag, false, true);
+                    break;
+                }
+                channel.basicAck(deliveryTag, false);
+                count++;
+            }
+            return count;
+        });
+        int count = replayed != null ? replayed : 0;
+        logger.info("已重新投遞停放消息: count={}", count);
+        return count;
+    }
+
+    /**
+     * 清除所有停放的消息
+     *
+     * @return 清除的筆數
+     */
+    public int purge() {
+        int purged = rabbitAdmin.purgeQueue(RabbitMQConfig.PARKING_LOT_QUEUE);
+        logger.warn("已清除停放消息: count={}", purged);
+        return purged;
+    }
+
+    private boolean isConfirmed(CorrelationData correlation) {
+        try {
+            CorrelationData.Confirm confirm = correlation.getFuture().get(confirmTimeoutMs, TimeUnit.MILLISECONDS);
+            return confirm.isAck() && correlation.getReturned() == null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 移除死信紀錄與重試標頭，讓消息以全新的重試次數重新開始
+     */
+    static void clearDeathHeaders(MessageProperties properties) {
+        properties.getHeaders().keySet().removeIf(name -> name.equals("x-death")
+                || name.startsWith("x-first-death-")
+                || name.startsWith("x-last-death-")
+                || name.equals(RabbitMQConfig.RETRY_TIER_HEADER)
+                || name.equals(DeadLetterRouter.PARKED_REASON_HEADER));
+    }
+
+    static DeadLetterMessage summarize(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        DeadLetterRouter.Death death = DeadLetterRouter.lastDeath(properties.getXDeathHeader());
+        Object parkedReason = properties.getHeaders().get(DeadLetterRouter.PARKED_REASON_HEADER);
+        return new DeadLetterMessage(properties.getMessageId(), death.queue(), death.routingKey(), death.reason(),
+                death.count(), parkedReason != null ? parkedReason.toString() : null, message.getBody().length,
+                preview(message));
+    }
+
+    private static String preview(Message message) {
+        try {
+            byte[] body = CompactMessageConverter.decompressor().postProcessMessage(message).getBody();
+            String text = new String(body, StandardCharsets.UTF_8);
+            return text.length() > BODY_PREVIEW_LENGTH ? text.substring(0, BODY_PREVIEW_LENGTH) + "…" : text;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 停放消息摘要
+     *
+     * @param messageId 消息ID
+     * @param queue 原本的隊列
+     * @param routingKey 重新投遞使用的路由鍵
+     * @param reason 最近一次死信原因
+     * @param failures 在原隊列以相同原因送出死信的次數
+     * @param parkedReason 停放原因
+     * @param size 本文位元組數（壓縮後）
+     * @param bodyPreview 解壓後的本文開頭
+     */
+    public record DeadLetterMessage(String messageId, String queue, String routingKey, String reason, long failures,
+            String parkedReason, int size, String bodyPreview) {
+    }
+}
@@ -0,0 +1,277 @@
+package tw.com.tymbackend.core.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import tw.com.tymbackend.core.config.MessageRoute;
+import tw.com.tymbackend.core.config.RabbitMQConfig;
+
+/**
+ * 依隊列積壓程度決定是否接受異步請求
+ *
+ * <p>只追蹤實際發送過的隊列：定期以 passive declare 取得 Broker 上的隊列深度與消費者數，
+ * 以「本服務在兩次取樣間發送的數量 − 深度增加量」得到這段期間被取走的消息數，
+ * 除以間隔時間並取指數移動平均作為消化速率，再以「深度 / 消化速率」預估新消息的等待時間。
+ * 消費者是外部服務，因此速率只依賴 Broker 端可觀察的訊號；其他實例同時發送時深度增加較多，
+ * 速率會被低估而偏向拒絕，消息過期或進入死信則會被計為已取走。</p>
+ *
+ * <p>若本服務也收到 {@code async.request.processing}（見 {@link AsyncLatencyTracker}），
+ * 以「消費者數 / 平均處理時間」得到的處理能力作為修正，取兩者較大者，避免消費者剛恢復時仍被低估。</p>
+ *
+ * <p>預估等待超過消息 TTL 或設定的 SLO（取較小者），或隊列有積壓卻沒有消費者、沒有被消化時，
+ * 拋出 {@link AsyncAdmissionException}，避免回傳注定過期的 requestId。
+ * 積壓低於下限、尚未累積兩次取樣，或取樣已超過一個取樣間隔未更新（例如取樣因閒置而暫停）時一律接受，
+ * 判斷本身不需要額外的 Broker 請求。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+public class QueueAdmissionControl {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueueAdmissionControl.class);
+
+    /** 處理時間的平滑係數 */
+    private static final double PROCESSING_ALPHA = 0.3;
+
+    /** Broker 端消化速率的平滑係數 */
+    private static final double DRAIN_ALPHA = 0.3;
+
+    /** 沒有消費者或無法估算速率時建議的重試間隔 */
+    private static final long DEFAULT_RETRY_AFTER_SECONDS = 30;
+
+    /** Consumer 處理時間的計時器名稱，見 {@link AsyncLatencyTracker} */
+    static final String PROCESSING_TIMER = "async.request.processing";
+
+    private final RabbitAdmin rabbitAdmin;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long maxWaitMs;
+    private final long minDepth;
+    private final long sampleIntervalNanos;
+    private final long activeWindowNanos;
+    private final boolean queuesV2;
+    private final ConcurrentMap<String, QueueStats> queues = new ConcurrentHashMap<>();
+
+    public QueueAdmissionControl(RabbitAdmin rabbitAdmin, MeterRegistry meterRegistry,
+            @Value("${app.messaging.admission.enabled:true}") boolean enabled,
+            @Value("${app.messaging.admission.slo-ms:60000}") long sloMs,
+            @Value("${app.messaging.admission.min-depth:50}") long minDepth,
+            @Value("${app.messaging.admission.sample-interval-ms:2000}") long sampleIntervalMs,
+            @Value("${app.messaging.admission.active-window-ms:60000}") long activeWindowMs,
+            @Value("${" + RabbitMQConfig.QUEUES_V2_PROPERTY + ":false}") boolean queuesV2) {
+        this.rabbitAdmin = rabbitAdmin;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxWaitMs = Math.min(sloMs, RabbitMQConfig.MESSAGE_TTL);
+        this.minDepth = minDepth;
+        this.sampleIntervalNanos = TimeUnit.MILLISECONDS.toNanos(sampleIntervalMs);
+        this.activeWindowNanos = TimeUnit.MILLISECONDS.toNanos(activeWindowMs);
+        this.queuesV2 = queuesV2;
+    }
+
+    /**
+     * 檢查隊列是否能在期限內處理新的請求
+     *
+     * @param queueName 隊列名稱
+     * @throws AsyncAdmissionException 預估等待超過 TTL 或 SLO
+     */
+    public void admit(String queueName) {
+        admit(queueName, System.nanoTime());
+    }
+
+    void admit(String queueName, long nowNanos) {
+        if (!enabled) {
+            return;
+        }
+        QueueStats stats = stats(queueName);
+        stats.lastUsedNanos = nowNanos;
+        if (stats.samples == 0 || nowNanos - stats.sampledAtNanos > sampleIntervalNanos
+                || stats.depth < minDepth) {
+            return;
+        }
+
+        long retryAfterSeconds;
+        double drainRate = stats.drainRate();
+        if (stats.consumers == 0) {
+            retryAfterSeconds = DEFAULT_RETRY_AFTER_SECONDS;
+        } else if (!stats.hasDrainEstimate()) {
+            // 只有一次取樣，尚無法比較深度變化
+            return;
+        } else if (drainRate <= 0) {
+            // 有消費者但積壓沒有被消化
+            retryAfterSeconds = DEFAULT_RETRY_AFTER_SECONDS;
+        } else {
+            double projectedWaitMs = stats.depth / drainRate * 1000;
+            if (projectedWaitMs <= maxWaitMs) {
+                return;
+            }
+            retryAfterSeconds = Math.max(1, (long) Math.ceil((projectedWaitMs - maxWaitMs) / 1000));
+        }
+        retryAfterSeconds = Math.min(retryAfterSeconds, TimeUnit.MILLISECONDS.toSeconds(RabbitMQConfig.MESSAGE_TTL));
+
+        meterRegistry.counter("async.admission.rejected", "queue", queueName).increment();
+        logger.warn("隊列積壓，拒絕異步請求: queue={}, depth={}, consumers={}, drainRate={}/s, retryAfter={}s",
+                queueName, stats.depth, stats.consumers, String.format("%.2f", drainRate), retryAfterSeconds);
+        throw new AsyncAdmissionException(queueName, retryAfterSeconds,
+                "隊列 " + queueName + " 處理中的請求過多，請於 " + retryAfterSeconds + " 秒後重試");
+    }
+
+    /**
+     * 記錄本服務發送到隊列的消息，供下次取樣時與深度變化比較
+     *
+     * @param queueName 隊列名稱
+     */
+    public void recordPublished(String queueName) {
+        QueueStats stats = queues.get(queueName);
+        if (stats != null) {
+            stats.published.increment();
+        }
+    }
+
+    /**
+     * 定期取樣最近使用過的隊列
+     */
+    @Scheduled(fixedDelayString = "${app.messaging.admission.sample-interval-ms:2000}")
+    public void sample() {
+        long now = System.nanoTime();
+        queues.forEach((queueName, stats) -> {
+            if (now - stats.lastUsedNanos > activeWindowNanos) {
+                return;
+            }
+            try {
+                QueueInformation info = rabbitAdmin.getQueueInfo(declaredQueueName(queueName));
+                if (info != null) {
+                    recordProcessing(stats, processingTimers(queueName));
+                    update(stats, info.getMessageCount(), info.getConsumerCount(), now);
+                }
+            } catch (AmqpException e) {
+                logger.debug("取樣隊列深度失敗: queue={}, error={}", queueName, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 以新的取樣更新深度與消費者數，並由上次取樣後的發送數與深度變化更新消化速率
+     */
+    void update(QueueStats stats, long depth, int consumers, long nowNanos) {
+        long published = stats.published.sumThenReset();
+        long elapsedNanos = nowNanos - stats.sampledAtNanos;
+        if (stats.samples > 0 && elapsedNanos > 0) {
+            long drained = Math.max(0, published - (depth - stats.depth));
+            double rate = drained * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+            stats.brokerDrainRate = stats.brokerSamples == 0
+                    ? rate
+                    : DRAIN_ALPHA * rate + (1 - DRAIN_ALPHA) * stats.brokerDrainRate;
+            stats.brokerSamples++;
+        }
+        stats.depth = depth;
+        stats.consumers = consumers;
+        stats.sampledAtNanos = nowNanos;
+        stats.samples++;
+    }
+
+    /**
+     * 以計時器的累計值更新平均處理時間：只計入上次取樣後新增的處理紀錄
+     *
+     * @param stats 隊列統計
+     * @param timers 該隊列路由鍵的處理時間計時器
+     */
+    void recordProcessing(QueueStats stats, Collection<Timer> timers) {
+        long count = 0;
+        double totalMs = 0;
+        for (Timer timer : timers) {
+            count += timer.count();
+            totalMs += timer.totalTime(TimeUnit.MILLISECONDS);
+        }
+        long newCount = count - stats.processedCount;
+        double newTotalMs = totalMs - stats.processedTotalMs;
+        stats.processedCount = count;
+        stats.processedTotalMs = totalMs;
+        if (newCount <= 0 || newTotalMs < 0) {
+            return;
+        }
+        double averageMs = Math.max(1, newTotalMs / newCount);
+        stats.processingMs = stats.processingMs <= 0
+                ? averageMs
+                : PROCESSING_ALPHA * averageMs + (1 - PROCESSING_ALPHA) * stats.processingMs;
+    }
+
+    private Collection<Timer> processingTimers(String queueName) {
+        return MessageRoute.findByQueue(queueName)
+                .map(route -> meterRegistry.find(PROCESSING_TIMER).tag("route", route.getRoutingKey()).timers())
+                .orElse(List.of());
+    }
+
+    /**
+     * Broker 上實際宣告的隊列名稱，依是否已啟用 v2 遷移而定
+     */
+    private String declaredQueueName(String queueName) {
+        return MessageRoute.findByQueue(queueName)
+                .map(route -> route.getDeclaredQueueName(queuesV2))
+                .orElse(queueName);
+    }
+
+    QueueStats stats(String queueName) {
+        return queues.computeIfAbsent(queueName, name -> {
+            QueueStats stats = new QueueStats();
+            Gauge.builder("async.queue.depth", stats, s -> s.depth)
+                    .tag("queue", name).description("Ready messages observed by admission control")
+                    .register(meterRegistry);
+            Gauge.builder("async.queue.drain-rate", stats, QueueStats::drainRate)
+                    .tag("queue", name).description("Estimated consumer drain rate in messages per second")
+                    .register(meterRegistry);
+            return stats;
+        });
+    }
+
+    static final class QueueStats {
+
+        private volatile long depth;
+        private volatile int consumers;
+        private volatile double processingMs;
+        private volatile long processedCount;
+        private volatile double processedTotalMs;
+        private volatile long sampledAtNanos;
+        private volatile long lastUsedNanos = System.nanoTime();
+        private volatile int samples;
+        private volatile double brokerDrainRate;
+        private volatile int brokerSamples;
+        private final LongAdder published = new LongAdder();
+
+        /**
+         * 是否已有消化速率的估計：至少比較過一次深度變化，或已有處理時間樣本
+         */
+        boolean hasDrainEstimate() {
+            return brokerSamples > 0 || processingMs > 0;
+        }
+
+        /**
+         * Broker 端觀察到的消化速率；有處理時間樣本時，與「消費者數 / 平均處理秒數」取較大者
+         *
+         * @return 每秒消化的消息數，尚無估計時為 0
+         */
+        double drainRate() {
+            double perMessageMs = processingMs;
+            double capacity = perMessageMs > 0 ? consumers * 1000.0 / perMessageMs : 0;
+            return Math.max(brokerDrainRate, capacity);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package tw.com.tymbackend.core.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 唯讀異步請求的 single-flight 合併器
+ *
+ * <p>相同查詢（隊列與參數相同）仍在處理中時，新的呼叫端直接取得既有的 requestId，
+ * 不再發送新的消息；結果到達 {@link AsyncResultStore} 後再保留一小段重用時間，
+ * 讓緊接著的相同查詢也能直接讀取已完成的結果。
+ * Broker 流量與 Consumer 的計算量因此只隨不同查詢的數量成長，而不是隨呼叫端數量成長。</p>
+ *
+ * <p>發送失敗時立即移除，讓下一個呼叫端重新發送；沒有收到結果的請求在處理逾時後失效。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+public class RequestCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestCoalescer.class);
+
+    private final AsyncResultStore asyncResultStore;
+    private final boolean enabled;
+    private final long inFlightTtlNanos;
+    private final long reuseWindowNanos;
+    private final int sweepThreshold;
+    private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<>();
+
+    private final Counter leaders;
+    private final Counter attached;
+
+    public RequestCoalescer(AsyncResultStore asyncResultStore, MeterRegistry meterRegistry,
+            @Value("${app.messaging.coalescing.enabled:true}") boolean enabled,
+            @Value("${app.messaging.coalescing.in-flight-ttl-ms:30000}") long inFlightTtlMs,
+            @Value("${app.messaging.coalescing.reuse-window-ms:2000}") long reuseWindowMs,
+            @Value("${app.messaging.coalescing.sweep-threshold:1000}") int sweepThreshold) {
+        this.asyncResultStore = asyncResultStore;
+        this.enabled = enabled;
+        this.inFlightTtlNanos = TimeUnit.MILLISECONDS.toNanos(inFlightTtlMs);
+        this.reuseWindowNanos = TimeUnit.MILLISECONDS.toNanos(reuseWindowMs);
+        this.sweepThreshold = sweepThreshold;
+        this.leaders = Counter.builder("async.coalescing.requests").tag("result", "published")
+                .description("Read-only async requests published to the broker").register(meterRegistry);
+        this.attached = Counter.builder("async.coalescing.requests").tag("result", "coalesced")
+                .description("Read-only async requests attached to an in-flight request").register(meterRegistry);
+        Gauge.builder("async.coalescing.in-flight", flights, ConcurrentMap::size)
+                .description("Distinct read-only async requests being tracked").register(meterRegistry);
+    }
+
+    /**
+     * 合併相同的唯讀請求
+     *
+     * @param key 查詢識別（隊列名稱與參數）
+     * @param publisher 實際發送消息的動作，只在沒有可重用的請求時呼叫
+     * @return Broker 確認後完成的 requestId；合併時與第一個呼叫端相同
+     */
+    public CompletableFuture<String> coalesce(String key, Supplier<CompletableFuture<String>> publisher) {
+        if (!enabled) {
+            return publisher.get();
+        }
+
+        long now = System.nanoTime();
+        Flight[] created = {null};
+        Flight[] replaced = {null};
+        Flight flight = flights.compute(key, (k, existing) -> {
+            if (existing != null && !existing.isExpired(now)) {
+                return existing;
+            }
+            replaced[0] = existing;
+            created[0] = new Flight(now + inFlightTtlNanos);
+            return created[0];
+        });
+        if (replaced[0] != null) {
+            replaced[0].release();
+        }
+
+        if (created[0] == null) {
+            attached.increment();
+            logger.debug("合併相同的異步請求: key={}", key);
+            return flight.requestId.copy();
+        }
+
+        leaders.increment();
+        sweepIfNeeded(now);
+        publish(key, flight, publisher);
+        return flight.requestId.copy();
+    }
+
+    /**
+     * 結束所有追蹤中的查詢，之後相同的查詢會重新發送
+     *
+     * <p>已取得 requestId 的呼叫端不受影響，仍可讀取原本的結果。</p>
+     */
+    public void invalidateAll() {
+        flights.forEach((key, flight) -> {
+            if (flights.remove(key, flight)) {
+                flight.release();
+            }
+        });
+    }
+
+    /**
+     * 目前追蹤中的查詢數量
+     *
+     * @return 追蹤中的查詢數量
+     */
+    public int inFlightCount() {
+        return flights.size();
+    }
+
+    private void publish(String key, Flight flight, Supplier<CompletableFuture<String>> publisher) {
+        CompletableFuture<String> sent;
+        try {
+            sent = publisher.get();
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        sent.whenComplete((requestId, error) -> {
+            if (error != null) {
+                flights.remove(key, flight);
+                flight.requestId.completeExceptionally(error);
+                return;
+            }
+            flight.requestId.complete(requestId);
+            // 結果到達後只保留短暫的重用時間
+            flight.unsubscribe = asyncResultStore.subscribe(requestId,
+                    result -> flight.expiresAtNanos = System.nanoTime() + reuseWindowNanos);
+            if (flights.get(key) != flight) {
+                // 確認前已被移除（寫入失效或逾時清理），不再需要等待結果
+                flight.release();
+            }
+        });
+    }
+
+    private void sweepIfNeeded(long now) {
+        if (flights.size() <= sweepThreshold) {
+            return;
+        }
+        flights.forEach((key, flight) -> {
+            if (flight.isExpired(now) && flights.remove(key, flight)) {
+                flight.release();
+            }
+        });
+    }
+
+    private static final class Flight {
+
+        private final CompletableFuture<String> requestId = new CompletableFuture<>();
+        private volatile long expiresAtNanos;
+        private volatile Runnable unsubscribe;
+
+        private Flight(long expiresAtNanos) {
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAtNanos > 0;
+        }
+
+        private void release() {
+            Runnable action = unsubscribe;
+            if (action != null) {
+                action.run();
+            }
+        }
+    }
+}
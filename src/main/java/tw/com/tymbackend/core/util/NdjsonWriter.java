@@ -0,0 +1,65 @@
+package tw.com.tymbackend.core.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 將物件逐筆寫成 NDJSON（每行一個 JSON 物件）
+ *
+ * <p>搭配 StreamingResponseBody 與資料庫游標使用，每筆資料寫出後即可被回收，
+ * 回應大小不再決定堆積記憶體的用量。寫出失敗（通常是客戶端中斷連線）時
+ * {@link #accept} 拋出 {@link UncheckedIOException}，讓呼叫端停止讀取游標。</p>
+ *
+ * @param <T> 寫出的物件類型
+ */
+public final class NdjsonWriter<T> implements Consumer<T>, Closeable {
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    /** 每寫出多少筆強制送出一次，讓客戶端盡早收到資料 */
+    private static final int FLUSH_INTERVAL = 256;
+
+    private final JsonGenerator generator;
+    private long written;
+
+    public NdjsonWriter(ObjectMapper objectMapper, OutputStream outputStream) throws IOException {
+        this.generator = objectMapper.createGenerator(outputStream, JsonEncoding.UTF8);
+        this.generator.setRootValueSeparator(null);
+        // 先送出標頭，第一批資料讀取期間客戶端即可開始接收
+        this.generator.flush();
+    }
+
+    @Override
+    public void accept(T value) {
+        try {
+            generator.writeObject(value);
+            generator.writeRaw('\n');
+            if (++written % FLUSH_INTERVAL == 0) {
+                generator.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return 已寫出的筆數
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -4,9 +4,12 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import tw.com.tymbackend.core.repository.KeysetPage;
+import tw.com.tymbackend.core.service.CursorStreamService;
 import tw.com.tymbackend.module.gallery.domain.dto.DeleteByIdRequestDTO;
 import tw.com.tymbackend.module.gallery.domain.dto.GalleryUpdateRequestDTO;
 import tw.com.tymbackend.module.gallery.domain.vo.Gallery;
@@ -20,6 +23,16 @@ public class GalleryController {
     @Autowired
     private GalleryService galleryService;
 
+    @Autowired
+    private CursorStreamService cursorStreamService;
+
+    /** 圖片含 Base64 內容，每頁預設筆數與上限都比其他模組小 */
+    @Value("${app.pagination.gallery-default-limit:10}")
+    private int defaultPageLimit;
+
+    @Value("${app.pagination.gallery-max-limit:50}")
+    private int maxPageLimit;
+
     @PostMapping("/getAll")
     public ResponseEntity<BackendApiResponse<List<Gallery>>> getAllImages() {
         try {
@@ -31,6 +44,25 @@ public class GalleryController {
         }
     }
 
+    @PostMapping("/getAll/page")
+    public ResponseEntity<BackendApiResponse<KeysetPage<Gallery, Integer>>> getImagesPage(
+            @RequestParam(value = "after", required = false) Integer after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            KeysetPage<Gallery, Integer> page = galleryService.getImagesPage(after,
+                KeysetPage.clampLimit(limit, defaultPageLimit, maxPageLimit));
+            return ResponseEntity.ok(BackendApiResponse.success("获取图片分页成功", page));
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                .body(BackendApiResponse.internalError("获取图片失败", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/getAll/stream")
+    public ResponseEntity<?> streamAllImages() {
+        return cursorStreamService.<Gallery>ndjson("gallery", galleryService::streamAllImages);
+    }
+
     @PostMapping("/getById")
     public ResponseEntity<Gallery> getImageById(@RequestBody Integer id) {
         try {
@@ -2,13 +2,18 @@ package tw.com.tymbackend.module.gallery.service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Recover;
 import org.springframework.retry.annotation.Retryable;
 
+import tw.com.tymbackend.core.repository.KeysetPage;
 import tw.com.tymbackend.module.gallery.dao.GalleryRepository;
 import tw.com.tymbackend.module.gallery.domain.vo.Gallery;
 
@@ -17,6 +22,10 @@ public class GalleryService {
 
     private final GalleryRepository galleryRepository;
 
+    /** 串流查詢每次從資料庫游標取回的筆數，圖片資料較大故低於其他模組 */
+    @Value("${app.pagination.gallery-stream-fetch-size:20}")
+    private int streamFetchSize = 20;
+
     public GalleryService(GalleryRepository galleryRepository) {
         this.galleryRepository = galleryRepository;
     }
@@ -25,6 +34,18 @@ public class GalleryService {
         return galleryRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public KeysetPage<Gallery, Integer> getImagesPage(Integer after, int limit) {
+        return galleryRepository.findPageAfter(after, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllImages(Consumer<Gallery> consumer) {
+        try (Stream<Gallery> images = galleryRepository.streamAll(streamFetchSize)) {
+            images.forEach(consumer);
+        }
+    }
+
     public Optional<Gallery> getImageById(Integer id) {
         return galleryRepository.findById(id);
     }
@@ -3,15 +3,25 @@ package tw.com.tymbackend.module.people.controller;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.TransactionTimedOutException;
 
+import tw.com.tymbackend.module.people.domain.dto.PeopleFieldSet;
 import tw.com.tymbackend.module.people.domain.dto.PeopleNameRequestDTO;
+import tw.com.tymbackend.module.people.domain.dto.PeopleResponseDTO;
 import tw.com.tymbackend.module.people.domain.vo.People;
 import tw.com.tymbackend.module.people.service.PeopleService;
+import tw.com.tymbackend.core.service.AsyncAdmissionException;
 import tw.com.tymbackend.core.service.AsyncMessageService;
+import tw.com.tymbackend.core.service.AsyncPublishException;
+import tw.com.tymbackend.core.service.ChunkedJobService;
+import tw.com.tymbackend.core.service.CursorStreamService;
+import tw.com.tymbackend.core.repository.KeysetPage;
 import tw.com.ty.common.response.BackendApiResponse;
 import tw.com.ty.common.response.ErrorCode;
 import tw.com.ty.common.response.MessageKey;
@@ -33,6 +43,21 @@ public class PeopleController {
     @Autowired(required = false)
     private AsyncMessageService asyncMessageService;
 
+    @Autowired
+    private ChunkedJobService chunkedJobService;
+
+    @Autowired
+    private CursorStreamService cursorStreamService;
+
+    @Value("${app.pagination.default-limit:50}")
+    private int defaultPageLimit;
+
+    @Value("${app.pagination.max-limit:500}")
+    private int maxPageLimit;
+
+    @Value("${app.upsert.max-rows:1000}")
+    private int maxUpsertRows;
+
     // 插入 1 個 (接收 JSON)
     @PostMapping("/insert")
     public ResponseEntity<?> insertPeople(@RequestBody People people) {
@@ -44,13 +69,17 @@ public class PeopleController {
         // 如果 RabbitMQ 啟用，使用異步處理
         if (asyncMessageService != null) {
             try {
-                String requestId = asyncMessageService.sendPeopleInsertRequest(people);
+                String requestId = asyncMessageService.awaitRequestId(asyncMessageService.sendPeopleInsertRequest(people));
                 Map<String, Object> data = new HashMap<>();
                 data.put("requestId", requestId);
                 data.put("status", "processing");
                 data.put("message", MessageKey.ASYNC_PEOPLE_INSERT_SUBMITTED.getMessage());
                 return ResponseEntity.accepted()
                     .body(BackendApiResponse.accepted(requestId, MessageKey.ASYNC_PEOPLE_INSERT_SUBMITTED));
+            } catch (AsyncAdmissionException | AsyncPublishException e) {
+                // 隊列積壓回 429、未確認送達回 503，不改走同步寫入：
+                // 避免與排隊中的寫入順序錯亂，未確認的消息也可能仍會送達
+                throw e;
             } catch (Exception e) {
                 logger.error("Failed to send async insert request", e);
                 // 如果異步發送失敗，回退到同步處理
@@ -84,13 +113,17 @@ public class PeopleController {
         // 如果 RabbitMQ 啟用，使用異步處理
         if (asyncMessageService != null) {
             try {
-                String requestId = asyncMessageService.sendPeopleUpdateRequest(people);
+                String requestId = asyncMessageService.awaitRequestId(asyncMessageService.sendPeopleUpdateRequest(people));
                 Map<String, Object> data = new HashMap<>();
                 data.put("requestId", requestId);
                 data.put("status", "processing");
                 data.put("message", MessageKey.ASYNC_PEOPLE_UPDATE_SUBMITTED.getMessage());
                 return ResponseEntity.accepted()
                     .body(BackendApiResponse.accepted(requestId, MessageKey.ASYNC_PEOPLE_UPDATE_SUBMITTED));
+            } catch (AsyncAdmissionException | AsyncPublishException e) {
+                // 隊列積壓回 429、未確認送達回 503，不改走同步寫入：
+                // 避免與排隊中的寫入順序錯亂，未確認的消息也可能仍會送達
+                throw e;
             } catch (Exception e) {
                 logger.error("Failed to send async update request", e);
                 // 如果異步發送失敗，回退到同步處理
@@ -133,21 +166,28 @@ public class PeopleController {
         // 如果 RabbitMQ 啟用，使用異步處理
         if (asyncMessageService != null) {
             try {
-                String requestId = asyncMessageService.sendPeopleInsertMultipleRequest(peopleList);
+                String requestId = asyncMessageService.awaitRequestId(asyncMessageService.sendPeopleInsertMultipleRequest(peopleList));
                 logger.info("批量新增角色請求已提交到 RabbitMQ: requestId={}, count={}", requestId, peopleList.size());
                 return ResponseEntity.accepted()
                     .body(BackendApiResponse.accepted(requestId, MessageKey.ASYNC_PEOPLE_INSERT_SUBMITTED));
+            } catch (AsyncAdmissionException | AsyncPublishException e) {
+                // 隊列積壓回 429、未確認送達回 503，不改走同步寫入：
+                // 避免與排隊中的寫入順序錯亂，未確認的消息也可能仍會送達
+                throw e;
             } catch (Exception e) {
                 logger.error("Failed to send async insert-multiple request", e);
                 // 如果異步發送失敗，回退到同步處理
             }
         }
 
-        // 本地環境或異步失敗時，使用同步處理
+        // 本地環境或異步失敗時，使用同步處理；分塊送出但共用一個交易，失敗或逾時時整批回滾
         try {
-            List<People> savedPeople = peopleService.saveAllPeople(peopleList);
+            List<People> savedPeople = peopleService.saveAllInChunks(peopleList, chunkedJobService.getChunkSize());
             logger.info("同步批量新增角色成功: count={}", savedPeople.size());
             return new ResponseEntity<>(BackendApiResponse.success(MessageKey.PEOPLE_INSERT_SUCCESS, savedPeople), HttpStatus.CREATED);
+        } catch (TransactionTimedOutException | QueryTimeoutException e) {
+            logger.error("Insert multiple people timed out and was rolled back: count={}", peopleList.size(), e);
+            return new ResponseEntity<>(BackendApiResponse.error(ErrorCode.PEOPLE_INSERT_FAILED, "批量新增逾時，整批已回滾，未寫入任何角色，請減少筆數後重試"), HttpStatus.SERVICE_UNAVAILABLE);
         } catch (IllegalArgumentException e) {
             logger.error("Invalid input while inserting multiple people", e);
             return new ResponseEntity<>(BackendApiResponse.error(ErrorCode.PEOPLE_INVALID_INPUT, e.getMessage()), HttpStatus.BAD_REQUEST);
@@ -160,18 +200,65 @@ public class PeopleController {
         }
     }
 
-    // 搜尋所有 (傳出 JSON)
+    // 批量新增或更新 (接收 JSON 陣列，已存在的角色只覆寫非 null 欄位)
+    @PostMapping("/upsert-batch")
+    public ResponseEntity<?> upsertPeopleBatch(@RequestBody List<People> peopleList) {
+        // 驗證輸入
+        if (peopleList == null || peopleList.isEmpty()) {
+            return new ResponseEntity<>(BackendApiResponse.error(ErrorCode.PEOPLE_INVALID_INPUT, "角色列表不能為空"), HttpStatus.BAD_REQUEST);
+        }
+        if (peopleList.size() > maxUpsertRows) {
+            return new ResponseEntity<>(BackendApiResponse.error(ErrorCode.PEOPLE_INVALID_INPUT, "單次最多寫入 " + maxUpsertRows + " 筆角色"), HttpStatus.BAD_REQUEST);
+        }
+
+        // 原生批次 UPSERT 只需少數幾次資料庫往返，直接同步處理
+        try {
+            List<People> savedPeople = peopleService.upsertBatch(peopleList);
+            return ResponseEntity.ok(BackendApiResponse.success(MessageKey.PEOPLE_UPDATE_SUCCESS, savedPeople));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(BackendApiResponse.error(ErrorCode.PEOPLE_INVALID_INPUT, e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            logger.error("Runtime exception during upsert batch people", e);
+            return new ResponseEntity<>(BackendApiResponse.error(ErrorCode.PEOPLE_INSERT_FAILED, e.getMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // 搜尋所有 (傳出 JSON，可用 fields 只取部分欄位，例如 fields=codeName,physicPower)
     @PostMapping("/get-all")
-    public ResponseEntity<?> getAllPeople() {
+    public ResponseEntity<?> getAllPeople(@RequestParam(value = "fields", required = false) String fields) {
+        // 指定欄位時只查詢所需欄位，結果小且不建立實體，直接同步處理
+        if (fields != null) {
+            PeopleFieldSet fieldSet;
+            try {
+                fieldSet = PeopleFieldSet.parse(fields);
+            } catch (IllegalArgumentException e) {
+                return new ResponseEntity<>(BackendApiResponse.error(ErrorCode.PEOPLE_INVALID_INPUT, e.getMessage()), HttpStatus.BAD_REQUEST);
+            }
+            try {
+                List<PeopleResponseDTO> people = peopleService.getAllPeopleProjected(fieldSet);
+                return ResponseEntity.ok(BackendApiResponse.success(MessageKey.PEOPLE_GET_ALL_SUCCESS, people));
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(500)
+                    .body(BackendApiResponse.error(ErrorCode.PEOPLE_LIST_FAILED, e.getMessage()));
+            }
+        }
+
         // 如果 RabbitMQ 啟用，使用異步處理
         if (asyncMessageService != null) {
-            String requestId = asyncMessageService.sendPeopleGetAllRequest();
-            Map<String, Object> data = new HashMap<>();
-            data.put("requestId", requestId);
-            data.put("status", "processing");
-            data.put("message", MessageKey.ASYNC_PEOPLE_LIST_SUBMITTED.getMessage());
-            return ResponseEntity.accepted()
-                .body(BackendApiResponse.accepted(requestId, MessageKey.ASYNC_PEOPLE_LIST_SUBMITTED));
+            try {
+                String requestId = asyncMessageService.awaitRequestId(asyncMessageService.sendPeopleGetAllRequest());
+                Map<String, Object> data = new HashMap<>();
+                data.put("requestId", requestId);
+                data.put("status", "processing");
+                data.put("message", MessageKey.ASYNC_PEOPLE_LIST_SUBMITTED.getMessage());
+                return ResponseEntity.accepted()
+                    .body(BackendApiResponse.accepted(requestId, MessageKey.ASYNC_PEOPLE_LIST_SUBMITTED));
+            } catch (AsyncAdmissionException e) {
+                // 唯讀查詢不受排隊順序影響，隊列積壓時改走同步查詢
+                logger.warn("隊列積壓，改用同步查詢: queue={}", e.getQueueName());
+            } catch (AsyncPublishException e) {
+                logger.warn("異步請求未確認送達，改用同步查詢: {}", e.getMessage());
+            }
         }
 
         // 本地環境，同步處理
@@ -188,18 +275,58 @@ public class PeopleController {
         }
     }
 
+    // 依名稱游標分頁搜尋 (傳出 JSON，將 nextCursor 帶入 after 取得下一頁，可用 fields 只取部分欄位)
+    @PostMapping("/get-all/page")
+    public ResponseEntity<?> getPeoplePage(@RequestParam(value = "after", required = false) String after,
+                                           @RequestParam(value = "limit", required = false) Integer limit,
+                                           @RequestParam(value = "fields", required = false) String fields) {
+        PeopleFieldSet fieldSet = null;
+        if (fields != null) {
+            try {
+                fieldSet = PeopleFieldSet.parse(fields);
+            } catch (IllegalArgumentException e) {
+                return new ResponseEntity<>(BackendApiResponse.error(ErrorCode.PEOPLE_INVALID_INPUT, e.getMessage()), HttpStatus.BAD_REQUEST);
+            }
+        }
+
+        // 分頁大小有上限，直接同步查詢，不經過 RabbitMQ
+        try {
+            int pageLimit = KeysetPage.clampLimit(limit, defaultPageLimit, maxPageLimit);
+            KeysetPage<?, String> page = fieldSet != null
+                ? peopleService.getPeopleProjectedPage(fieldSet, after, pageLimit)
+                : peopleService.getPeoplePage(after, pageLimit);
+            return ResponseEntity.ok(BackendApiResponse.success(MessageKey.PEOPLE_GET_ALL_SUCCESS, page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(500)
+                .body(BackendApiResponse.error(ErrorCode.PEOPLE_LIST_FAILED, e.getMessage()));
+        }
+    }
+
+    // 串流搜尋所有 (傳出 NDJSON，每行一個角色)
+    @PostMapping("/get-all/stream")
+    public ResponseEntity<?> streamAllPeople() {
+        return cursorStreamService.<People>ndjson("people", peopleService::streamAllPeople);
+    }
+
     // 搜尋 name (接收 name 傳出 JSON)
     @PostMapping("/get-by-name")
     public ResponseEntity<?> getPeopleByName(@RequestBody PeopleNameRequestDTO request) {
         // 如果 RabbitMQ 啟用，使用異步處理
         if (asyncMessageService != null) {
-            String requestId = asyncMessageService.sendPeopleGetByNameRequest(request.getName());
-            Map<String, Object> data = new HashMap<>();
-            data.put("requestId", requestId);
-            data.put("status", "processing");
-            data.put("message", MessageKey.ASYNC_PEOPLE_QUERY_SUBMITTED.getMessage());
-            return ResponseEntity.accepted()
-                .body(BackendApiResponse.accepted(requestId, MessageKey.ASYNC_PEOPLE_QUERY_SUBMITTED));
+            try {
+                String requestId = asyncMessageService.awaitRequestId(asyncMessageService.sendPeopleGetByNameRequest(request.getName()));
+                Map<String, Object> data = new HashMap<>();
+                data.put("requestId", requestId);
+                data.put("status", "processing");
+                data.put("message", MessageKey.ASYNC_PEOPLE_QUERY_SUBMITTED.getMessage());
+                return ResponseEntity.accepted()
+                    .body(BackendApiResponse.accepted(requestId, MessageKey.ASYNC_PEOPLE_QUERY_SUBMITTED));
+            } catch (AsyncAdmissionException e) {
+                // 唯讀查詢不受排隊順序影響，隊列積壓時改走同步查詢
+                logger.warn("隊列積壓，改用同步查詢: queue={}", e.getQueueName());
+            } catch (AsyncPublishException e) {
+                logger.warn("異步請求未確認送達，改用同步查詢: {}", e.getMessage());
+            }
         }
 
         // 本地環境，同步處理
@@ -225,7 +352,7 @@ public class PeopleController {
     public ResponseEntity<?> deleteAllPeople() {
         // 如果 RabbitMQ 啟用，使用異步處理
         if (asyncMessageService != null) {
-            String requestId = asyncMessageService.sendPeopleDeleteAllRequest();
+            String requestId = asyncMessageService.awaitRequestId(asyncMessageService.sendPeopleDeleteAllRequest());
             Map<String, Object> data = new HashMap<>();
             data.put("requestId", requestId);
             data.put("status", "processing");
@@ -256,10 +383,13 @@ public class PeopleController {
         if (asyncMessageService != null) {
             logger.info("使用異步處理模式");
             try {
-                String requestId = asyncMessageService.sendPeopleGetNamesRequest();
+                String requestId = asyncMessageService.awaitRequestId(asyncMessageService.sendPeopleGetNamesRequest());
                 logger.info("異步請求已發送，requestId: {}", requestId);
                 return ResponseEntity.accepted()
                     .body(BackendApiResponse.accepted(requestId, MessageKey.ASYNC_PEOPLE_LIST_SUBMITTED));
+            } catch (AsyncAdmissionException | AsyncPublishException e) {
+                // 沒有同步處理可退回，交由例外處理回 429 或 503
+                throw e;
             } catch (Exception e) {
                 logger.error("Failed to send async get names request", e);
                 return ResponseEntity.status(500)
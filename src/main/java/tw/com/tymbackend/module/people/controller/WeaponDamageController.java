@@ -1,5 +1,11 @@
 package tw.com.tymbackend.module.people.controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -7,6 +13,11 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import tw.com.tymbackend.module.people.service.WeaponDamageService;
 import tw.com.tymbackend.module.people.domain.dto.BatchDamageRequestDTO;
@@ -24,13 +35,19 @@ import org.slf4j.LoggerFactory;
 public class WeaponDamageController {
 
     private static final Logger logger = LoggerFactory.getLogger(WeaponDamageController.class);
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    /** 每寫出多少筆結果強制送出一次，讓客戶端盡早收到資料 */
+    private static final int STREAM_FLUSH_INTERVAL = 256;
+
     private final WeaponDamageService weaponDamageService;
+    private final ObjectMapper objectMapper;
 
     @Autowired(required = false)
     private AsyncMessageService asyncMessageService;
 
-    public WeaponDamageController(WeaponDamageService weaponDamageService) {
+    public WeaponDamageController(WeaponDamageService weaponDamageService, ObjectMapper objectMapper) {
         this.weaponDamageService = weaponDamageService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -69,7 +86,7 @@ public class WeaponDamageController {
         // 如果 AsyncMessageService 啟用，則使用異步處理（這是 Gateway 期望的流程）
         if (asyncMessageService != null) {
             try {
-                String requestId = asyncMessageService.sendPeopleBatchDamageRequest(request.getNames());
+                String requestId = asyncMessageService.awaitRequestId(asyncMessageService.sendPeopleBatchDamageRequest(request.getNames()));
                 logger.info("批量傷害計算請求已提交到 RabbitMQ: requestId={}, count={}", requestId, request.getNames().size());
                 return ResponseEntity.accepted()
                         .body(BackendApiResponse.accepted(requestId, MessageKey.ASYNC_PEOPLE_QUERY_SUBMITTED));
@@ -85,4 +102,102 @@ public class WeaponDamageController {
     }
 
     // Removed safeInt method as the computation is now inside the service
+
+    /**
+     * Stream batch damage results without holding the whole result set in memory.
+     * Example: POST /people/batchDamageWithWeapon/stream?topK=10&format=ndjson
+     *
+     * Each record is {"name": ..., "damage": ...}; characters that are not found are
+     * written as {"name": ..., "found": false}. With topK, damage records also carry
+     * "rank" and are written in rank order. Results are computed and written
+     * synchronously, without going through RabbitMQ.
+     *
+     * @param request batch request containing character names; empty or missing body means the full roster
+     * @param topK    only return the K highest damage results
+     * @param format  "ndjson" (one JSON object per line) or "json" (chunked JSON array)
+     * @return streamed damage results
+     */
+    @PostMapping("/batchDamageWithWeapon/stream")
+    public ResponseEntity<?> streamBatchDamageWithWeapon(
+            @RequestBody(required = false) BatchDamageRequestDTO request,
+            @RequestParam(value = "topK", required = false) Integer topK,
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        if (topK != null && topK < 1) {
+            return ResponseEntity.badRequest().body(BackendApiResponse.badRequest("topK must be positive"));
+        }
+        boolean jsonArray;
+        if ("json".equalsIgnoreCase(format)) {
+            jsonArray = true;
+        } else if ("ndjson".equalsIgnoreCase(format)) {
+            jsonArray = false;
+        } else {
+            return ResponseEntity.badRequest().body(BackendApiResponse.badRequest("Unsupported format: " + format));
+        }
+
+        List<String> names = request == null ? null : request.getNames();
+        StreamingResponseBody body = outputStream -> writeDamageStream(outputStream, names, topK, jsonArray);
+        return ResponseEntity.ok()
+                .contentType(jsonArray ? MediaType.APPLICATION_JSON : APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private void writeDamageStream(OutputStream outputStream, List<String> names, Integer topK, boolean jsonArray)
+            throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            if (jsonArray) {
+                generator.writeStartArray();
+            } else {
+                generator.setRootValueSeparator(null);
+            }
+            // 先送出標頭與開頭位元組，排名計算期間客戶端即可開始接收
+            generator.flush();
+
+            // [0] 已輸出的傷害結果數（即名次），[1] 已輸出的總筆數
+            int[] written = {0, 0};
+            try {
+                weaponDamageService.streamBatchDamageWithWeapon(names, topK,
+                        (name, damage) -> writeRecord(generator, written, name, damage,
+                                topK != null ? written[0] + 1 : 0, jsonArray),
+                        name -> writeRecord(generator, written, name, 0, -1, jsonArray));
+            } catch (UncheckedIOException e) {
+                // 客戶端中斷連線，無法再寫出
+                logger.warn("批量傷害串流中斷: written={}, message={}", written[1], e.getMessage());
+                throw e.getCause();
+            }
+
+            if (jsonArray) {
+                generator.writeEndArray();
+            }
+            logger.debug("批量傷害串流完成: written={}, topK={}", written[1], topK);
+        }
+    }
+
+    /**
+     * 寫出單筆結果；rank 為 -1 表示找不到角色，0 表示不輸出名次
+     */
+    private void writeRecord(JsonGenerator generator, int[] written, String name, int damage, int rank,
+            boolean jsonArray) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("name", name);
+            if (rank < 0) {
+                generator.writeBooleanField("found", false);
+            } else {
+                generator.writeNumberField("damage", damage);
+                if (rank > 0) {
+                    generator.writeNumberField("rank", rank);
+                }
+                written[0]++;
+            }
+            generator.writeEndObject();
+            if (!jsonArray) {
+                generator.writeRaw('\n');
+            }
+            if (++written[1] % STREAM_FLUSH_INTERVAL == 0) {
+                generator.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
\ No newline at end of file
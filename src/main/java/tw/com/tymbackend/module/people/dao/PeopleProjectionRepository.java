@@ -0,0 +1,27 @@
+package tw.com.tymbackend.module.people.dao;
+
+import java.util.List;
+
+import org.springframework.lang.Nullable;
+
+import tw.com.tymbackend.module.people.domain.dto.PeopleFieldSet;
+import tw.com.tymbackend.module.people.domain.dto.PeopleResponseDTO;
+
+/**
+ * 角色欄位投影查詢
+ *
+ * <p>只 SELECT 指定的欄位並直接組成 DTO，不建立受管理的實體，
+ * 沒有持久化上下文與 dirty checking 的成本。</p>
+ */
+public interface PeopleProjectionRepository {
+
+    /**
+     * 依名稱順序查詢指定欄位
+     *
+     * @param fields 選取的欄位
+     * @param after 只取名稱大於此值的角色，null 表示從頭開始
+     * @param maxResults 最多筆數，0 表示不限制
+     * @return 只有選取欄位有值的 DTO
+     */
+    List<PeopleResponseDTO> findProjected(PeopleFieldSet fields, @Nullable String after, int maxResults);
+}
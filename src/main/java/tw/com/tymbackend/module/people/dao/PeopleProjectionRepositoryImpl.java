@@ -0,0 +1,64 @@
+package tw.com.tymbackend.module.people.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.lang.Nullable;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import tw.com.tymbackend.module.people.domain.dto.PeopleFieldSet;
+import tw.com.tymbackend.module.people.domain.dto.PeopleResponseDTO;
+import tw.com.tymbackend.module.people.domain.vo.People;
+
+/**
+ * {@link PeopleProjectionRepository} 的實現，以 Criteria tuple 查詢只讀取選取的欄位
+ */
+public class PeopleProjectionRepositoryImpl implements PeopleProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<PeopleResponseDTO> findProjected(PeopleFieldSet fields, @Nullable String after, int maxResults) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<People> root = query.from(People.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.getFields().size());
+        for (String field : fields.getFields()) {
+            selections.add(root.get(field).alias(field));
+        }
+        Path<String> name = root.get(PeopleFieldSet.ID_FIELD);
+        query.multiselect(selections).orderBy(builder.asc(name));
+        if (after != null) {
+            query.where(builder.greaterThan(name, after));
+        }
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (maxResults > 0) {
+            typedQuery.setMaxResults(maxResults);
+        }
+
+        List<Tuple> tuples = typedQuery.getResultList();
+        List<PeopleResponseDTO> result = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            PeopleResponseDTO dto = new PeopleResponseDTO();
+            for (String field : fields.getFields()) {
+                PeopleFieldSet.apply(dto, field, tuple.get(field));
+            }
+            result.add(dto);
+        }
+        return result;
+    }
+}
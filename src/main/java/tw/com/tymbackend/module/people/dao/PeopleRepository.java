@@ -10,7 +10,8 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PeopleRepository extends StringPkRepository<People> {
+public interface PeopleRepository extends StringPkRepository<People>, PeopleProjectionRepository,
+        PeopleUpsertRepository {
     
     Optional<People> findByName(String name);
     
@@ -24,6 +25,10 @@ public interface PeopleRepository extends StringPkRepository<People> {
     @Query("SELECT p.name FROM People p")
     List<String> findAllNames();
     
+    // 新增：只查詢傷害計算所需欄位，供戰鬥數值快照載入
+    @Query("SELECT p.name, p.physicPower, p.magicPower, p.utilityPower, p.attributes, p.stateAttributes FROM People p")
+    List<Object[]> findCombatStats();
+    
     // 新增：根據單一屬性查詢
     @Query("SELECT p FROM People p WHERE p.attributes IS NOT NULL AND p.attributes LIKE %:attribute%")
     List<People> findByAttributeContaining(@Param("attribute") String attribute);
@@ -0,0 +1,25 @@
+package tw.com.tymbackend.module.people.dao;
+
+import java.util.List;
+
+import tw.com.tymbackend.module.people.domain.vo.People;
+
+/**
+ * 角色批量 UPSERT
+ *
+ * <p>以 PostgreSQL {@code INSERT ... ON CONFLICT DO UPDATE} 搭配 JDBC 批次送出，
+ * 不論筆數多寡都只需少數幾次資料庫往返，不經過 Hibernate merge。</p>
+ */
+public interface PeopleUpsertRepository {
+
+    /**
+     * 新增或更新角色
+     *
+     * <p>不存在的角色直接新增（version 為 0）；已存在的角色只覆寫非 null 的欄位，
+     * 並更新 updated_at、將 version 加一。必須在交易內呼叫。</p>
+     *
+     * @param people 要寫入的角色，name 不可為空
+     * @return 寫入的筆數
+     */
+    int upsertAll(List<People> people);
+}
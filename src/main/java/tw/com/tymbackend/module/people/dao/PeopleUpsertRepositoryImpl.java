@@ -0,0 +1,114 @@
+package tw.com.tymbackend.module.people.dao;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+
+import tw.com.tymbackend.module.people.domain.vo.People;
+
+/**
+ * {@link PeopleUpsertRepository} 的實現
+ *
+ * <p>資料欄位在衝突時以 {@code COALESCE(EXCLUDED.col, people.col)} 合併，
+ * 與 {@code PeopleService} 逐筆更新時「只覆寫非 null 欄位」的語意一致。</p>
+ */
+public class PeopleUpsertRepositoryImpl implements PeopleUpsertRepository {
+
+    /** 資料欄位與取值函數，依 INSERT 欄位順序排列（不含主鍵與時間戳、版本） */
+    private static final Map<String, Function<People, Object>> DATA_COLUMNS = dataColumns();
+
+    static final String UPSERT_SQL = upsertSql();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public PeopleUpsertRepositoryImpl(JdbcTemplate jdbcTemplate,
+            @Value("${app.upsert.batch-size:100}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public int upsertAll(List<People> people) {
+        if (people.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(UPSERT_SQL, people, batchSize, (ps, person) -> {
+            int index = 1;
+            StatementCreatorUtils.setParameterValue(ps, index++, SqlTypeValue.TYPE_UNKNOWN, person.getName());
+            for (Function<People, Object> getter : DATA_COLUMNS.values()) {
+                StatementCreatorUtils.setParameterValue(ps, index++, SqlTypeValue.TYPE_UNKNOWN, getter.apply(person));
+            }
+            LocalDateTime createdAt = person.getCreatedAt() != null ? person.getCreatedAt() : now;
+            StatementCreatorUtils.setParameterValue(ps, index++, SqlTypeValue.TYPE_UNKNOWN, createdAt);
+            StatementCreatorUtils.setParameterValue(ps, index, SqlTypeValue.TYPE_UNKNOWN, now);
+        });
+        return people.size();
+    }
+
+    private static Map<String, Function<People, Object>> dataColumns() {
+        Map<String, Function<People, Object>> columns = new LinkedHashMap<>();
+        columns.put("name_original", People::getNameOriginal);
+        columns.put("code_name", People::getCodeName);
+        columns.put("physic_power", People::getPhysicPower);
+        columns.put("magic_power", People::getMagicPower);
+        columns.put("utility_power", People::getUtilityPower);
+        columns.put("dob", People::getDob);
+        columns.put("race", People::getRace);
+        columns.put("attributes", People::getAttributes);
+        columns.put("gender", People::getGender);
+        columns.put("ass_size", People::getAssSize);
+        columns.put("boobs_size", People::getBoobsSize);
+        columns.put("height_cm", People::getHeightCm);
+        columns.put("weight_kg", People::getWeightKg);
+        columns.put("profession", People::getProfession);
+        columns.put("combat", People::getCombat);
+        columns.put("favorite_foods", People::getFavoriteFoods);
+        columns.put("job", People::getJob);
+        columns.put("physics", People::getPhysics);
+        columns.put("known_as", People::getKnownAs);
+        columns.put("personality", People::getPersonality);
+        columns.put("interest", People::getInterest);
+        columns.put("likes", People::getLikes);
+        columns.put("dislikes", People::getDislikes);
+        columns.put("concubine", People::getConcubine);
+        columns.put("faction", People::getFaction);
+        columns.put("army_id", People::getArmyId);
+        columns.put("army_name", People::getArmyName);
+        columns.put("dept_id", People::getDeptId);
+        columns.put("dept_name", People::getDeptName);
+        columns.put("origin_army_id", People::getOriginArmyId);
+        columns.put("origin_army_name", People::getOriginArmyName);
+        columns.put("gave_birth", People::getGaveBirth);
+        columns.put("email", People::getEmail);
+        columns.put("age", People::getAge);
+        columns.put("proxy", People::getProxy);
+        columns.put("base_attributes", People::getBaseAttributes);
+        columns.put("bonus_attributes", People::getBonusAttributes);
+        columns.put("state_attributes", People::getStateAttributes);
+        return columns;
+    }
+
+    private static String upsertSql() {
+        String dataColumns = String.join(", ", DATA_COLUMNS.keySet());
+        String placeholders = DATA_COLUMNS.keySet().stream().map(column -> "?").collect(Collectors.joining(", "));
+        String merges = DATA_COLUMNS.keySet().stream()
+                .map(column -> column + " = COALESCE(EXCLUDED." + column + ", people." + column + ")")
+                .collect(Collectors.joining(",\n    "));
+        return "INSERT INTO people (name, " + dataColumns + ", created_at, updated_at, version)\n"
+                + "VALUES (?, " + placeholders + ", ?, ?, 0)\n"
+                + "ON CONFLICT (name) DO UPDATE SET\n    "
+                + merges + ",\n"
+                + "    updated_at = EXCLUDED.updated_at,\n"
+                + "    version = COALESCE(people.version, 0) + 1";
+    }
+}
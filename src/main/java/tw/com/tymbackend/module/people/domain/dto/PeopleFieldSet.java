@@ -0,0 +1,109 @@
+package tw.com.tymbackend.module.people.domain.dto;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.BeanUtils;
+
+/**
+ * 角色回應的欄位選取（sparse fieldset）
+ *
+ * <p>由 fields 參數（以逗號分隔的欄位名稱，例如 "name,codeName,physicPower"）解析而來，
+ * 可選取的欄位為 {@link PeopleResponseDTO} 中對應資料表欄位的屬性。
+ * 主鍵 name 一律包含在內，作為分頁游標與結果的識別。</p>
+ */
+public final class PeopleFieldSet {
+
+    /** 主鍵欄位 */
+    public static final String ID_FIELD = "name";
+
+    /** 只存在於實體記憶體中、沒有資料表欄位的屬性 */
+    private static final Set<String> NON_COLUMN_FIELDS = Set.of("embedding");
+
+    /** 可選取的欄位與其在 {@link PeopleResponseDTO} 上的 setter */
+    private static final Map<String, Method> SETTERS = selectableSetters();
+
+    private final List<String> fields;
+
+    private PeopleFieldSet(List<String> fields) {
+        this.fields = Collections.unmodifiableList(fields);
+    }
+
+    /**
+     * 解析 fields 參數
+     *
+     * @param fields 以逗號分隔的欄位名稱
+     * @return 欄位選取，第一個欄位固定為 name
+     * @throws IllegalArgumentException 沒有指定欄位或包含無法選取的欄位
+     */
+    public static PeopleFieldSet parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            throw new IllegalArgumentException("fields must not be empty");
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add(ID_FIELD);
+        List<String> unknown = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String trimmed = field.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (SETTERS.containsKey(trimmed)) {
+                selected.add(trimmed);
+            } else {
+                unknown.add(trimmed);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Unknown fields: " + String.join(", ", unknown)
+                    + "; selectable fields: " + String.join(", ", SETTERS.keySet()));
+        }
+        return new PeopleFieldSet(new ArrayList<>(selected));
+    }
+
+    /**
+     * @return 選取的欄位（屬性名稱），第一個為 name
+     */
+    public List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * 將查詢出的欄位值寫入 DTO
+     *
+     * @param target 目標 DTO
+     * @param field 欄位名稱，必須是 {@link #getFields()} 之一
+     * @param value 欄位值
+     */
+    public static void apply(PeopleResponseDTO target, String field, Object value) {
+        try {
+            SETTERS.get(field).invoke(target, value);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot set PeopleResponseDTO." + field, e);
+        }
+    }
+
+    private static Map<String, Method> selectableSetters() {
+        Map<String, Method> setters = new LinkedHashMap<>();
+        for (PropertyDescriptor descriptor : BeanUtils.getPropertyDescriptors(PeopleResponseDTO.class)) {
+            Method setter = descriptor.getWriteMethod();
+            if (setter != null && !NON_COLUMN_FIELDS.contains(descriptor.getName())) {
+                setters.put(descriptor.getName(), setter);
+            }
+        }
+        return Collections.unmodifiableMap(setters);
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", fields);
+    }
+}
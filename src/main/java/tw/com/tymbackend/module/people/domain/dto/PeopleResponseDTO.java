@@ -1,7 +1,9 @@
 package tw.com.tymbackend.module.people.domain.dto;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.Data;
 
 /**
@@ -10,11 +12,15 @@ import lombok.Data;
  * <p>此類別用於封裝人物資訊的 API 回應資料，
  * 包含人物的所有基本資訊和屬性資料。</p>
  * 
+ * <p>欄位型別與 {@link tw.com.tymbackend.module.people.domain.vo.People} 一致，
+ * 供 fields 參數的投影查詢使用；未選取的欄位為 null，序列化時省略。</p>
+ * 
  * @author TY Backend Team
  * @version 1.0
  * @since 2024
  */
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PeopleResponseDTO {
     
     /**
@@ -50,22 +56,22 @@ public class PeopleResponseDTO {
     /**
      * 物理力量
      */
-    private int physicPower;
+    private Integer physicPower;
     
     /**
      * 魔法力量
      */
-    private int magicPower;
+    private Integer magicPower;
     
     /**
      * 實用能力
      */
-    private int utilityPower;
+    private Integer utilityPower;
     
     /**
      * 出生日期
      */
-    private LocalDate dob;
+    private String dob;
     
     /**
      * 種族
@@ -95,12 +101,12 @@ public class PeopleResponseDTO {
     /**
      * 身高（公分）
      */
-    private int heightCm;
+    private Integer heightCm;
     
     /**
      * 體重（公斤）
      */
-    private int weightKg;
+    private Integer weightKg;
     
     /**
      * 職業
@@ -165,7 +171,7 @@ public class PeopleResponseDTO {
     /**
      * 軍隊編號
      */
-    private int armyId;
+    private Integer armyId;
     
     /**
      * 軍隊名稱
@@ -175,7 +181,7 @@ public class PeopleResponseDTO {
     /**
      * 部門編號
      */
-    private int deptId;
+    private Integer deptId;
     
     /**
      * 部門名稱
@@ -185,7 +191,7 @@ public class PeopleResponseDTO {
     /**
      * 原始軍隊編號
      */
-    private int originArmyId;
+    private Integer originArmyId;
     
     /**
      * 原始軍隊名稱
@@ -195,7 +201,7 @@ public class PeopleResponseDTO {
     /**
      * 是否生育
      */
-    private boolean gaveBirth;
+    private Boolean gaveBirth;
     
     /**
      * 電子郵件
@@ -205,7 +211,7 @@ public class PeopleResponseDTO {
     /**
      * 年齡
      */
-    private int age;
+    private Integer age;
     
     /**
      * 代理
@@ -0,0 +1,75 @@
+package tw.com.tymbackend.module.people.event;
+
+import java.util.Collections;
+import java.util.List;
+
+import tw.com.tymbackend.module.people.domain.vo.People;
+
+/**
+ * 角色資料異動事件
+ *
+ * 由 {@code PeopleService} 在寫入操作後發佈，
+ * 監聽者應使用 {@code @TransactionalEventListener} 於交易提交後處理，
+ * 以維護記憶體快照或快取等衍生資料。
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+public class PeopleChangedEvent {
+
+    private final List<People> people;
+    private final boolean cleared;
+
+    private PeopleChangedEvent(List<People> people, boolean cleared) {
+        this.people = people;
+        this.cleared = cleared;
+    }
+
+    /**
+     * 建立角色新增或更新事件
+     *
+     * @param people 寫入後的角色
+     * @return 異動事件
+     */
+    public static PeopleChangedEvent saved(People people) {
+        return new PeopleChangedEvent(Collections.singletonList(people), false);
+    }
+
+    /**
+     * 建立批量新增或更新事件
+     *
+     * @param people 寫入後的角色列表
+     * @return 異動事件
+     */
+    public static PeopleChangedEvent saved(List<People> people) {
+        return new PeopleChangedEvent(people, false);
+    }
+
+    /**
+     * 建立刪除所有角色事件
+     *
+     * @return 異動事件
+     */
+    public static PeopleChangedEvent cleared() {
+        return new PeopleChangedEvent(Collections.emptyList(), true);
+    }
+
+    /**
+     * 取得寫入後的角色列表
+     *
+     * @return 角色列表，刪除全部時為空列表
+     */
+    public List<People> getPeople() {
+        return people;
+    }
+
+    /**
+     * 是否為刪除所有角色
+     *
+     * @return 刪除全部時返回 true
+     */
+    public boolean isCleared() {
+        return cleared;
+    }
+}
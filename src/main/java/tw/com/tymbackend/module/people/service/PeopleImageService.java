@@ -1,15 +1,22 @@
 package tw.com.tymbackend.module.people.service;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tw.com.tymbackend.core.config.cache.RedisBatchCache;
+import tw.com.tymbackend.core.config.cache.TieredCacheConfig;
 import tw.com.tymbackend.module.people.dao.PeopleImageRepository;
 import tw.com.tymbackend.module.people.domain.vo.PeopleImage;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 角色頭像服務類
@@ -20,14 +27,18 @@ import java.util.NoSuchElementException;
 @Transactional(readOnly = true)
 public class PeopleImageService {
     private final PeopleImageRepository peopleImageRepository;
+    private final ObjectProvider<RedisBatchCache> redisBatchCache;
 
     /**
      * 建構函數
      * 
      * @param peopleImageRepository 角色頭像資料庫操作介面
+     * @param redisBatchCache Redis 批次快取，未配置時批量查詢直接讀取資料庫
      */
-    public PeopleImageService(PeopleImageRepository peopleImageRepository) {
+    public PeopleImageService(PeopleImageRepository peopleImageRepository,
+            ObjectProvider<RedisBatchCache> redisBatchCache) {
         this.peopleImageRepository = peopleImageRepository;
+        this.redisBatchCache = redisBatchCache;
     }
 
     /**
@@ -71,6 +82,8 @@ public class PeopleImageService {
      * @return 保存後的角色頭像
      */
     @Transactional
+    @CacheEvict(value = TieredCacheConfig.PEOPLE_IMAGES_BY_CODE_NAME, key = "#peopleImage.codeName",
+            condition = "#peopleImage.codeName != null")
     public PeopleImage savePeopleImage(PeopleImage peopleImage) {
         return peopleImageRepository.save(peopleImage);
     }
@@ -82,6 +95,7 @@ public class PeopleImageService {
      * @throws NoSuchElementException 如果找不到對應的頭像
      */
     @Transactional
+    @CacheEvict(value = TieredCacheConfig.PEOPLE_IMAGES_BY_CODE_NAME, key = "#codeName")
     public void deletePeopleImage(String codeName) {
         PeopleImage peopleImage = getPeopleImageByCodeName(codeName);
         peopleImageRepository.delete(peopleImage);
@@ -138,7 +152,16 @@ public class PeopleImageService {
      * @return 符合條件的角色頭像列表
      */
     public List<PeopleImage> findByCodeNames(List<String> codeNames) {
-        // ✅ 優化：使用批量查詢，避免N+1問題
-        return peopleImageRepository.findByCodeNamesIn(codeNames);
+        RedisBatchCache batchCache = redisBatchCache.getIfAvailable();
+        if (batchCache == null) {
+            // ✅ 優化：使用批量查詢，避免N+1問題
+            return peopleImageRepository.findByCodeNamesIn(codeNames);
+        }
+        // 一次 MGET，未命中的代碼名稱合併為一次批量查詢後條件寫回
+        return new ArrayList<>(batchCache.getAll(TieredCacheConfig.PEOPLE_IMAGES_BY_CODE_NAME, codeNames,
+                PeopleImage.class,
+                missing -> peopleImageRepository.findByCodeNamesIn(missing).stream()
+                        .collect(Collectors.toMap(PeopleImage::getCodeName, Function.identity(), (a, b) -> a)))
+                .values());
     }
 }
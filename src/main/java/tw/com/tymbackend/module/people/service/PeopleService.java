@@ -1,5 +1,9 @@
 package tw.com.tymbackend.module.people.service;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -8,13 +12,25 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Sort;
 
+import tw.com.tymbackend.core.config.cache.RedisBatchCache;
+import tw.com.tymbackend.core.config.cache.TieredCacheConfig;
+import tw.com.tymbackend.core.repository.KeysetPage;
 import tw.com.tymbackend.module.people.dao.PeopleRepository;
+import tw.com.tymbackend.module.people.domain.dto.PeopleFieldSet;
+import tw.com.tymbackend.module.people.domain.dto.PeopleResponseDTO;
 import tw.com.tymbackend.module.people.domain.vo.People;
+import tw.com.tymbackend.module.people.event.PeopleChangedEvent;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * 角色服務類
@@ -26,14 +42,25 @@ import java.util.stream.Collectors;
 public class PeopleService {
 
     private final PeopleRepository peopleRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<RedisBatchCache> redisBatchCache;
+
+    /** 串流查詢每次從資料庫游標取回的筆數 */
+    @Value("${app.pagination.stream-fetch-size:200}")
+    private int streamFetchSize = 200;
 
     /**
      * 建構函數
      * 
      * @param peopleRepository 角色資料庫操作介面
+     * @param eventPublisher 事件發佈器，用於在寫入後通知快照與快取
+     * @param redisBatchCache Redis 批次快取，未配置時批量查詢直接讀取資料庫
      */
-    public PeopleService(PeopleRepository peopleRepository) {
+    public PeopleService(PeopleRepository peopleRepository, ApplicationEventPublisher eventPublisher,
+            ObjectProvider<RedisBatchCache> redisBatchCache) {
         this.peopleRepository = peopleRepository;
+        this.eventPublisher = eventPublisher;
+        this.redisBatchCache = redisBatchCache;
     }
 
     /**
@@ -65,6 +92,54 @@ public class PeopleService {
         return findAll();
     }
 
+    /**
+     * 依名稱（主鍵）順序分頁查詢角色
+     * 
+     * @param after 上一頁的游標，第一頁為 null
+     * @param limit 每頁筆數
+     * @return 本頁角色與下一頁游標
+     */
+    public KeysetPage<People, String> getPeoplePage(String after, int limit) {
+        return peopleRepository.findPageAfter(after, limit);
+    }
+
+    /**
+     * 只查詢指定欄位的所有角色
+     * 
+     * @param fields 選取的欄位
+     * @return 依名稱排序、只有選取欄位有值的角色列表
+     */
+    public List<PeopleResponseDTO> getAllPeopleProjected(PeopleFieldSet fields) {
+        return peopleRepository.findProjected(fields, null, 0);
+    }
+
+    /**
+     * 依名稱（主鍵）順序分頁查詢指定欄位
+     * 
+     * @param fields 選取的欄位
+     * @param after 上一頁的游標，第一頁為 null
+     * @param limit 每頁筆數
+     * @return 本頁角色與下一頁游標
+     */
+    public KeysetPage<PeopleResponseDTO, String> getPeopleProjectedPage(PeopleFieldSet fields, String after,
+            int limit) {
+        int pageSize = Math.max(1, limit);
+        // 多取一筆判斷是否還有下一頁
+        List<PeopleResponseDTO> rows = peopleRepository.findProjected(fields, after, pageSize + 1);
+        return KeysetPage.of(rows, pageSize, PeopleResponseDTO::getName);
+    }
+
+    /**
+     * 依名稱順序逐筆讀出所有角色，不在記憶體中累積整張表
+     * 
+     * @param consumer 每筆角色的處理函數，在交易內呼叫
+     */
+    public void streamAllPeople(Consumer<People> consumer) {
+        try (Stream<People> people = peopleRepository.streamAll(streamFetchSize)) {
+            people.forEach(consumer);
+        }
+    }
+
     /**
      * 根據名稱查詢角色
      * 
@@ -81,6 +156,7 @@ public class PeopleService {
      * @param name 角色名稱
      * @return 角色資訊，如果不存在則返回空
      */
+    @Cacheable(value = TieredCacheConfig.PEOPLE_BY_NAME, key = "#name")
     public Optional<People> getPeopleByName(String name) {
         return peopleRepository.findByName(name);
     }
@@ -103,7 +179,7 @@ public class PeopleService {
      */
     @Transactional(readOnly = false)
     public People save(People person) {
-        return peopleRepository.save(person);
+        return published(peopleRepository.save(person));
     }
     
     /**
@@ -125,7 +201,9 @@ public class PeopleService {
      */
     @Transactional(readOnly = false)
     public List<People> saveAll(List<People> peopleList) {
-        return peopleRepository.saveAll(peopleList);
+        List<People> saved = peopleRepository.saveAll(peopleList);
+        eventPublisher.publishEvent(PeopleChangedEvent.saved(saved));
+        return saved;
     }
     
     /**
@@ -139,12 +217,37 @@ public class PeopleService {
         return saveAll(peopleList);
     }
 
+    /**
+     * 在同一個交易內分塊保存角色
+     *
+     * <p>每個區塊保存後立即 flush，讓 INSERT 以區塊大小分批送出；
+     * 任一區塊失敗時整批回滾，不會留下部分寫入的資料。
+     * 整批共用一個交易，因此交易逾時以 {@code app.bulk-insert.timeout-seconds} 另行設定，
+     * 不受交易管理器預設的 30 秒限制；逾時同樣整批回滾。</p>
+     *
+     * @param peopleList 要保存的角色列表
+     * @param chunkSize 每個區塊的筆數
+     * @return 保存後的角色列表
+     */
+    @Transactional(readOnly = false, timeoutString = "${app.bulk-insert.timeout-seconds:120}")
+    public List<People> saveAllInChunks(List<People> peopleList, int chunkSize) {
+        int size = Math.max(1, chunkSize);
+        List<People> saved = new ArrayList<>(peopleList.size());
+        for (int from = 0; from < peopleList.size(); from += size) {
+            int to = Math.min(from + size, peopleList.size());
+            saved.addAll(peopleRepository.saveAllAndFlush(peopleList.subList(from, to)));
+        }
+        eventPublisher.publishEvent(PeopleChangedEvent.saved(saved));
+        return saved;
+    }
+
     /**
      * 刪除所有角色
      */
     @Transactional(readOnly = false)
     public void deleteAll() {
         peopleRepository.deleteAll();
+        eventPublisher.publishEvent(PeopleChangedEvent.cleared());
     }
     
     /**
@@ -174,7 +277,7 @@ public class PeopleService {
             if (existing.getVersion() == null) {
                 existing.setVersion(0L);
             }
-            return peopleRepository.save(existing);
+            return published(peopleRepository.save(existing));
         } else {
             // 如果不存在，插入新實體（UPSERT 行為）
             person.setName(name);
@@ -185,7 +288,7 @@ public class PeopleService {
                 person.setCreatedAt(LocalDateTime.now());
             }
             person.setUpdatedAt(LocalDateTime.now());
-            return peopleRepository.save(person);
+            return published(peopleRepository.save(person));
         }
     }
 
@@ -213,7 +316,7 @@ public class PeopleService {
                     existing.setVersion(0L);
                 }
                 // 呼叫 save 可確保 flush 並使用正確的 TransactionManager
-                return peopleRepository.save(existing);
+                return published(peopleRepository.save(existing));
             } else {
                 // 若不存在，改為插入（UPSERT 行為）
                 if (person.getVersion() == null) {
@@ -223,7 +326,7 @@ public class PeopleService {
                     person.setCreatedAt(LocalDateTime.now());
                 }
                 person.setUpdatedAt(LocalDateTime.now());
-                return peopleRepository.save(person);
+                return published(peopleRepository.save(person));
             }
         } else {
             throw new RuntimeException("Character name is required for update");
@@ -281,6 +384,36 @@ public class PeopleService {
         existing.setUpdatedAt(LocalDateTime.now());
     }
 
+    /**
+     * 批量新增或更新角色（UPSERT）
+     * 
+     * <p>以原生 {@code INSERT ... ON CONFLICT DO UPDATE} 批次寫入，取代逐筆 findById + save；
+     * 已存在的角色與 {@link #updatePerson(People)} 相同，只覆寫非 null 欄位並遞增版本。
+     * 寫入後以一次批量查詢讀回最新資料並發佈異動事件。</p>
+     * 
+     * @param peopleList 要寫入的角色列表
+     * @return 寫入後的角色列表
+     * @throws IllegalArgumentException 任一角色缺少名稱
+     */
+    @Transactional(readOnly = false)
+    public List<People> upsertBatch(List<People> peopleList) {
+        Set<String> names = new LinkedHashSet<>();
+        for (People person : peopleList) {
+            if (person == null || person.getName() == null || person.getName().trim().isEmpty()) {
+                throw new IllegalArgumentException("Character name is required for upsert");
+            }
+            names.add(person.getName());
+        }
+        if (names.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        peopleRepository.upsertAll(peopleList);
+        List<People> saved = peopleRepository.findByNamesIn(new ArrayList<>(names));
+        eventPublisher.publishEvent(PeopleChangedEvent.saved(saved));
+        return saved;
+    }
+
     /**
      * 更新角色屬性
      * 
@@ -303,7 +436,7 @@ public class PeopleService {
             if (existing.getVersion() == null) {
                 existing.setVersion(0L);
             }
-            return peopleRepository.save(existing);
+            return published(peopleRepository.save(existing));
         } else {
             // 如果不存在，建立新實體並設定屬性（UPSERT 行為）
             People newPerson = new People();
@@ -314,12 +447,25 @@ public class PeopleService {
             newPerson.setVersion(0L);
             newPerson.setCreatedAt(LocalDateTime.now());
             newPerson.setUpdatedAt(LocalDateTime.now());
-            return peopleRepository.save(newPerson);
+            return published(peopleRepository.save(newPerson));
         }
     }
 
 
 
+    /**
+     * 發佈角色異動事件，交易提交後由監聽者刷新衍生資料
+     *
+     * @param saved 寫入後的角色
+     * @return 寫入後的角色
+     */
+    private People published(People saved) {
+        if (saved != null) {
+            eventPublisher.publishEvent(PeopleChangedEvent.saved(saved));
+        }
+        return saved;
+    }
+
     /**
      * 根據規格查詢角色
      * 
@@ -391,8 +537,16 @@ public class PeopleService {
      * @return 符合條件的角色列表
      */
     public List<People> findByNames(List<String> names) {
-        // ✅ 優化：使用批量查詢，避免N+1問題
-        return peopleRepository.findByNamesIn(names);
+        RedisBatchCache batchCache = redisBatchCache.getIfAvailable();
+        if (batchCache == null) {
+            // ✅ 優化：使用批量查詢，避免N+1問題
+            return peopleRepository.findByNamesIn(names);
+        }
+        // 與 getPeopleByName 共用快取：一次 MGET，未命中的名稱合併為一次批量查詢
+        return new ArrayList<>(batchCache.getAll(TieredCacheConfig.PEOPLE_BY_NAME, names, People.class,
+                missing -> peopleRepository.findByNamesIn(missing).stream()
+                        .collect(Collectors.toMap(People::getName, Function.identity(), (a, b) -> a)))
+                .values());
     }
 
     /**
@@ -1,6 +1,8 @@
 package tw.com.tymbackend.module.people.service;
 
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import tw.com.tymbackend.module.people.domain.vo.People;
@@ -8,11 +10,26 @@ import tw.com.tymbackend.module.weapon.domain.vo.Weapon;
 import tw.com.tymbackend.module.weapon.service.WeaponService;
 import tw.com.tymbackend.module.people.domain.dto.BatchDamageRequestDTO;
 import tw.com.tymbackend.module.people.domain.dto.BatchDamageResponseDTO;
+import tw.com.tymbackend.module.people.service.cache.DamageResultCache;
+import tw.com.tymbackend.module.people.service.ranking.TopKDamageRanking;
+import tw.com.tymbackend.module.people.service.snapshot.PeopleCombatSnapshot;
+import tw.com.tymbackend.module.people.service.strategy.CompiledDamageStrategy;
 
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -23,39 +40,82 @@ import java.util.stream.Collectors;
 @Service
 public class WeaponDamageService {
 
+    /** 預設每批處理的角色數量（串流輸出與分批查詢共用） */
+    static final int DEFAULT_CHUNK_SIZE = 500;
+    /** 平行計算時每個子任務至少處理的角色數量，避免切分過細 */
+    private static final int MIN_PARALLEL_CHUNK = 256;
+
     private final WeaponService weaponService;
     private final PeopleService peopleService;
     private final tw.com.tymbackend.module.people.service.strategy.DamageStrategy damageStrategy;
+    private final PeopleCombatSnapshot combatSnapshot;
+    private final DamageResultCache damageResultCache;
+    private final ForkJoinPool damageComputePool;
+    private final Executor fetchExecutor;
+
+    /** 名稱數量達到此門檻時改用平行計算 */
+    @Value("${app.damage.parallel.threshold:2000}")
+    private int parallelThreshold = 2000;
+
+    /** 分批查詢時每批的角色數量，避免送出過大的 IN 清單 */
+    @Value("${app.damage.fetch.chunk-size:500}")
+    private int fetchChunkSize = DEFAULT_CHUNK_SIZE;
+
+    /** 同時進行中的分批查詢上限，每批最多佔用一條資料庫連線 */
+    @Value("${app.damage.fetch.max-in-flight:1}")
+    private int maxInFlightChunks = 1;
 
     /**
      * 建構函數
      * 
      * @param weaponService 武器服務
      * @param peopleService 角色服務
+     * @param damageStrategy 傷害計算策略
+     * @param combatSnapshot 角色戰鬥數值快照，未配置時批量計算直接查詢資料庫
+     * @param damageResultCache 單一角色傷害結果快取，未配置時每次重新計算
+     * @param damageComputePool 平行計算使用的 ForkJoinPool，未配置時一律循序計算
+     * @param fetchExecutor 分批查詢使用的執行器，未配置時在呼叫執行緒依序查詢
      */
     public WeaponDamageService(WeaponService weaponService, PeopleService peopleService,
-            tw.com.tymbackend.module.people.service.strategy.DamageStrategy damageStrategy) {
+            tw.com.tymbackend.module.people.service.strategy.DamageStrategy damageStrategy,
+            ObjectProvider<PeopleCombatSnapshot> combatSnapshot,
+            ObjectProvider<DamageResultCache> damageResultCache,
+            @Qualifier("damageComputePool") ObjectProvider<ForkJoinPool> damageComputePool,
+            @Qualifier("threadPoolTaskExecutor") ObjectProvider<Executor> fetchExecutor) {
         this.weaponService = weaponService;
         this.peopleService = peopleService;
         this.damageStrategy = damageStrategy;
+        this.combatSnapshot = combatSnapshot.getIfAvailable();
+        this.damageResultCache = damageResultCache.getIfAvailable();
+        this.damageComputePool = damageComputePool.getIfAvailable();
+        this.fetchExecutor = fetchExecutor.getIfAvailable();
     }
 
     /**
      * 計算角色使用武器的傷害值
      * 當輸入無效時（找不到角色或武器）返回 -1
-     * 使用快取機制避免重複查詢
+     * 使用依賴追蹤快取避免重複查詢，角色或武器寫入後只失效受影響的角色
      *
      * @param name 角色名稱（擁有者）
      * @return 計算出的傷害值，錯誤時返回 -1
      */
-    @SuppressWarnings("null")
-    @Cacheable(value = "damage-calculations", key = "#name")
     public int calculateDamageWithWeapon(String name) {
+        if (damageResultCache == null) {
+            return loadDamageWithWeapon(name, weaponName -> { });
+        }
+        return damageResultCache.get(name, this::loadDamageWithWeapon);
+    }
+
+    @SuppressWarnings("null")
+    private int loadDamageWithWeapon(String name, Consumer<String> dependencies) {
         People person = peopleService.getPeopleByName(name).orElse(null);
         if (person == null) {
             return -1;
         }
         List<Weapon> weapons = weaponService.getWeaponsByOwner(name);
+        for (Weapon weapon : weapons) {
+            dependencies.accept(weapon.getName());
+        }
         return damageStrategy.calculateDamage(person, weapons);
     }
 
@@ -73,6 +133,23 @@ public class WeaponDamageService {
 
         List<String> names = request.getNames();
 
+        // 快照可用時直接以欄位式記憶體資料計算，不經過資料庫與實體載入
+        if (damageStrategy instanceof CompiledDamageStrategy compiled && compiled.isCompiled()
+                && combatSnapshot != null && combatSnapshot.ensureLoaded()) {
+            if (shouldParallelize(names.size())) {
+                return calculateInParallel(names, (nameArray, from, to, damages, found) ->
+                        combatSnapshot.calculateDamage(nameArray, from, to, compiled, damages, found));
+            }
+            Map<String, Integer> damageResults = new HashMap<>();
+            List<String> notFoundNames = new ArrayList<>();
+            combatSnapshot.calculateDamage(names, compiled, damageResults::put, notFoundNames::add);
+            return new BatchDamageResponseDTO(sortByDamage(damageResults), notFoundNames);
+        }
+
+        if (names.size() > fetchChunkSize) {
+            return calculatePipelined(names);
+        }
+
         // 批量查詢所有角色，避免N+1問題
         List<People> people = peopleService.findByNames(names);
         Map<String, People> peopleMap = people.stream()
@@ -83,6 +160,11 @@ public class WeaponDamageService {
         Map<String, List<Weapon>> weaponsMap = allWeapons.stream()
                 .collect(Collectors.groupingBy(Weapon::getOwner));
 
+        if (shouldParallelize(names.size())) {
+            // 查詢結果只讀，各子任務可安全共用
+            return calculateInParallel(names, databaseCalculator(peopleMap, weaponsMap));
+        }
+
         Map<String, Integer> damageResults = new HashMap<>();
         List<String> notFoundNames = new ArrayList<>();
 
@@ -98,7 +180,291 @@ public class WeaponDamageService {
             damageResults.put(name, damage);
         }
 
-        Map<String, Integer> sortedDamageResults = damageResults.entrySet()
+        return new BatchDamageResponseDTO(sortByDamage(damageResults), notFoundNames);
+    }
+
+    /**
+     * 分批查詢並計算傷害：計算第 N 批的同時預先查詢第 N+1 批
+     *
+     * <p>達到平行門檻時，每批的計算提交到專用 ForkJoinPool，
+     * 與後續批次的查詢重疊執行；否則在呼叫執行緒上依序計算。</p>
+     *
+     * @param names 角色名稱列表
+     * @return 批量傷害計算結果
+     */
+    private BatchDamageResponseDTO calculatePipelined(List<String> names) {
+        String[] nameArray = names.toArray(new String[0]);
+        int[] damages = new int[nameArray.length];
+        boolean[] found = new boolean[nameArray.length];
+        boolean parallel = shouldParallelize(nameArray.length);
+        int leafSize = parallel
+                ? Math.max(MIN_PARALLEL_CHUNK, fetchChunkSize / damageComputePool.getParallelism())
+                : fetchChunkSize;
+        List<ForkJoinTask<?>> computeTasks = new ArrayList<>();
+
+        forEachFetchedChunk(nameArray, chunk -> {
+            RangeCalculator calculator = databaseCalculator(chunk.people(), chunk.weapons());
+            if (parallel) {
+                computeTasks.add(damageComputePool.submit(new DamageRangeTask(calculator, nameArray, damages, found,
+                        chunk.from(), chunk.to(), leafSize)));
+            } else {
+                calculator.calculate(nameArray, chunk.from(), chunk.to(), damages, found);
+            }
+        });
+        computeTasks.forEach(ForkJoinTask::join);
+
+        return mergeResults(nameArray, damages, found);
+    }
+
+    /**
+     * 依序取得每批的查詢結果
+     *
+     * <p>有執行器時以管線方式預先查詢後續批次，同時進行中的查詢不超過
+     * {@code app.damage.fetch.max-in-flight}，避免耗盡連線池；
+     * 回呼一律在呼叫執行緒上依批次順序執行。</p>
+     *
+     * @param nameArray 角色名稱陣列
+     * @param consumer 每批查詢結果的回呼
+     */
+    private void forEachFetchedChunk(String[] nameArray, Consumer<FetchedChunk> consumer) {
+        int chunkSize = Math.max(1, fetchChunkSize);
+        if (fetchExecutor == null || nameArray.length <= chunkSize) {
+            for (int from = 0; from < nameArray.length; from += chunkSize) {
+                consumer.accept(fetchChunk(nameArray, from, Math.min(from + chunkSize, nameArray.length)));
+            }
+            return;
+        }
+
+        int inFlightLimit = Math.max(1, maxInFlightChunks);
+        Deque<CompletableFuture<FetchedChunk>> inFlight = new ArrayDeque<>();
+        int next = 0;
+        try {
+            while (next < nameArray.length || !inFlight.isEmpty()) {
+                next = submitFetches(nameArray, next, chunkSize, inFlightLimit, inFlight);
+                FetchedChunk fetched = inFlight.poll().join();
+                // 先送出下一批查詢再計算本批，讓查詢與計算重疊
+                next = submitFetches(nameArray, next, chunkSize, inFlightLimit, inFlight);
+                consumer.accept(fetched);
+            }
+        } catch (CompletionException e) {
+            inFlight.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            inFlight.forEach(future -> future.cancel(true));
+            throw e;
+        }
+    }
+
+    private int submitFetches(String[] nameArray, int next, int chunkSize, int inFlightLimit,
+            Deque<CompletableFuture<FetchedChunk>> inFlight) {
+        while (inFlight.size() < inFlightLimit && next < nameArray.length) {
+            int from = next;
+            int to = Math.min(from + chunkSize, nameArray.length);
+            inFlight.add(CompletableFuture.supplyAsync(() -> fetchChunk(nameArray, from, to), fetchExecutor));
+            next = to;
+        }
+        return next;
+    }
+
+    private FetchedChunk fetchChunk(String[] nameArray, int from, int to) {
+        List<String> chunk = Arrays.asList(nameArray).subList(from, to);
+        Map<String, People> peopleMap = peopleService.findByNames(chunk).stream()
+                .collect(Collectors.toMap(People::getName, p -> p, (p1, p2) -> p1));
+        Map<String, List<Weapon>> weaponsMap = weaponService.getWeaponsByOwners(chunk).stream()
+                .collect(Collectors.groupingBy(Weapon::getOwner));
+        return new FetchedChunk(from, to, peopleMap, weaponsMap);
+    }
+
+    private RangeCalculator databaseCalculator(Map<String, People> peopleMap, Map<String, List<Weapon>> weaponsMap) {
+        return (nameArray, from, to, damages, found) -> {
+            for (int i = from; i < to; i++) {
+                People person = peopleMap.get(nameArray[i]);
+                if (person != null) {
+                    damages[i] = damageStrategy.calculateDamage(person,
+                            weaponsMap.getOrDefault(nameArray[i], new ArrayList<>()));
+                    found[i] = true;
+                }
+            }
+        };
+    }
+
+    /**
+     * 單批查詢結果，名稱範圍為 [from, to)
+     */
+    private record FetchedChunk(int from, int to, Map<String, People> people, Map<String, List<Weapon>> weapons) {
+    }
+
+    private boolean shouldParallelize(int size) {
+        return damageComputePool != null && parallelThreshold > 0 && size >= parallelThreshold;
+    }
+
+    /**
+     * 在專用 ForkJoinPool 上平行計算傷害
+     *
+     * <p>名稱陣列被遞迴切分為不相交的區間，各子任務直接寫入以索引對應的結果陣列，
+     * 不需要同步；全部完成後再依原始順序合併，結果與循序計算一致。</p>
+     *
+     * @param names 角色名稱列表
+     * @param calculator 區間計算邏輯
+     * @return 批量傷害計算結果
+     */
+    private BatchDamageResponseDTO calculateInParallel(List<String> names, RangeCalculator calculator) {
+        String[] nameArray = names.toArray(new String[0]);
+        int[] damages = new int[nameArray.length];
+        boolean[] found = new boolean[nameArray.length];
+        int leafSize = Math.max(MIN_PARALLEL_CHUNK, nameArray.length / (damageComputePool.getParallelism() * 4));
+
+        damageComputePool.invoke(new DamageRangeTask(calculator, nameArray, damages, found,
+                0, nameArray.length, leafSize));
+
+        return mergeResults(nameArray, damages, found);
+    }
+
+    /**
+     * 依原始順序合併以索引對應的計算結果
+     */
+    private BatchDamageResponseDTO mergeResults(String[] nameArray, int[] damages, boolean[] found) {
+        Map<String, Integer> damageResults = new HashMap<>();
+        List<String> notFoundNames = new ArrayList<>();
+        for (int i = 0; i < nameArray.length; i++) {
+            if (found[i]) {
+                damageResults.put(nameArray[i], damages[i]);
+            } else {
+                notFoundNames.add(nameArray[i]);
+            }
+        }
+        return new BatchDamageResponseDTO(sortByDamage(damageResults), notFoundNames);
+    }
+
+    /**
+     * 計算名稱陣列中 [from, to) 區間的傷害，結果依索引寫入輸出陣列
+     */
+    @FunctionalInterface
+    private interface RangeCalculator {
+        void calculate(String[] names, int from, int to, int[] damages, boolean[] found);
+    }
+
+    /**
+     * 二分切分名稱區間的 ForkJoin 任務
+     */
+    private static final class DamageRangeTask extends RecursiveAction {
+
+        private final RangeCalculator calculator;
+        private final String[] names;
+        private final int[] damages;
+        private final boolean[] found;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        DamageRangeTask(RangeCalculator calculator, String[] names, int[] damages, boolean[] found,
+                int from, int to, int leafSize) {
+            this.calculator = calculator;
+            this.names = names;
+            this.damages = damages;
+            this.found = found;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                calculator.calculate(names, from, to, damages, found);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new DamageRangeTask(calculator, names, damages, found, from, mid, leafSize),
+                    new DamageRangeTask(calculator, names, damages, found, mid, to, leafSize));
+        }
+    }
+
+    /**
+     * 串流批量計算角色的武器傷害值
+     *
+     * <p>角色以每批 {@value #DEFAULT_CHUNK_SIZE} 筆計算並立即回呼，不會保留整份結果。
+     * 指定 {@code topK} 時以有界堆積排名，記憶體用量為 O(K)，
+     * 排名結果在全部處理完成後依名次由高到低回呼；找不到的角色則隨處理進度回呼。</p>
+     *
+     * @param names 角色名稱列表，為空時計算整個名冊
+     * @param topK 只回傳傷害最高的前 K 名，null 表示回傳全部（依處理順序）
+     * @param found 傷害結果回呼（名稱、傷害）
+     * @param notFound 找不到角色時的回呼
+     * @throws IllegalArgumentException 若 topK 小於 1
+     */
+    public void streamBatchDamageWithWeapon(List<String> names, Integer topK,
+            ObjIntConsumer<String> found, Consumer<String> notFound) {
+        TopKDamageRanking ranking = topK == null ? null : new TopKDamageRanking(topK);
+        ObjIntConsumer<String> sink = ranking == null ? found : ranking;
+
+        CompiledDamageStrategy compiled = damageStrategy instanceof CompiledDamageStrategy c && c.isCompiled()
+                ? c : null;
+        boolean useSnapshot = compiled != null && combatSnapshot != null && combatSnapshot.ensureLoaded();
+
+        if (names == null || names.isEmpty()) {
+            if (useSnapshot && ranking != null) {
+                // 排名只寫入記憶體中的堆積，可直接在快照讀鎖內走訪整個名冊
+                combatSnapshot.forEachDamage(compiled, ranking);
+                ranking.drainTo(found);
+                return;
+            }
+            names = useSnapshot ? combatSnapshot.names() : peopleService.getAllPeopleNames();
+        }
+
+        if (!useSnapshot) {
+            // 資料庫模式：分批管線查詢，回呼在呼叫執行緒上執行，寫出本批時下一批已在查詢中
+            String[] nameArray = names.toArray(new String[0]);
+            forEachFetchedChunk(nameArray, chunk -> {
+                for (int i = chunk.from(); i < chunk.to(); i++) {
+                    People person = chunk.people().get(nameArray[i]);
+                    if (person == null) {
+                        notFound.accept(nameArray[i]);
+                    } else {
+                        sink.accept(nameArray[i], damageStrategy.calculateDamage(person,
+                                chunk.weapons().getOrDefault(nameArray[i], new ArrayList<>())));
+                    }
+                }
+            });
+        } else {
+            String[] chunkNames = new String[DEFAULT_CHUNK_SIZE];
+            int[] chunkDamages = new int[DEFAULT_CHUNK_SIZE];
+            for (int from = 0; from < names.size(); from += DEFAULT_CHUNK_SIZE) {
+                List<String> chunk = names.subList(from, Math.min(from + DEFAULT_CHUNK_SIZE, names.size()));
+                int[] count = {0};
+                ObjIntConsumer<String> buffer = (name, damage) -> {
+                    chunkNames[count[0]] = name;
+                    chunkDamages[count[0]++] = damage;
+                };
+
+                // 先計算到緩衝區再回呼，避免在快照讀鎖期間寫出回應
+                List<String> missing = new ArrayList<>();
+                combatSnapshot.calculateDamage(chunk, compiled, buffer, missing::add);
+
+                for (int i = 0; i < count[0]; i++) {
+                    sink.accept(chunkNames[i], chunkDamages[i]);
+                    chunkNames[i] = null;
+                }
+                missing.forEach(notFound);
+            }
+        }
+
+        if (ranking != null) {
+            ranking.drainTo(found);
+        }
+    }
+
+    /**
+     * 依傷害值由高到低排序
+     *
+     * @param damageResults 角色名稱與傷害值
+     * @return 保留排序的傷害結果
+     */
+    private Map<String, Integer> sortByDamage(Map<String, Integer> damageResults) {
+        return damageResults.entrySet()
                 .stream()
                 .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
                 .collect(Collectors.toMap(
@@ -106,8 +472,6 @@ public class WeaponDamageService {
                         Map.Entry::getValue,
                         (e1, e2) -> e1,
                         java.util.LinkedHashMap::new));
-
-        return new BatchDamageResponseDTO(sortedDamageResults, notFoundNames);
     }
 
     /**
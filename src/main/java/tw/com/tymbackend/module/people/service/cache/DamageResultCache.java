@@ -0,0 +1,300 @@
+package tw.com.tymbackend.module.people.service.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import tw.com.tymbackend.core.config.cache.CacheInvalidationBus;
+import tw.com.tymbackend.core.config.cache.TieredCacheConfig;
+import tw.com.tymbackend.module.people.domain.vo.People;
+import tw.com.tymbackend.module.people.event.PeopleChangedEvent;
+import tw.com.tymbackend.module.weapon.domain.vo.Weapon;
+import tw.com.tymbackend.module.weapon.event.WeaponChangedEvent;
+
+/**
+ * 具依賴追蹤的角色傷害結果快取
+ *
+ * <p>每筆結果記錄計算時使用的武器，形成「角色 → 持有武器」的依賴關係。
+ * 角色或武器寫入提交後只失效受影響的角色，包含武器轉移時的新舊擁有者，
+ * 其餘結果維持有效。</p>
+ *
+ * <p>計算期間若發生失效，計算結果會被捨棄而不寫入快取，
+ * 避免在寫入與計算交錯時保存舊資料。</p>
+ *
+ * <p>結果存放在有上限與存活時間的 Caffeine 快取：超過 app.damage.cache.max-entries 時淘汰較少使用的角色，
+ * 超過 app.damage.cache.ttl 的結果重新計算，限制失效通知遺失時的最長不一致時間。
+ * 角色被淘汰時一併移除它在依賴索引中的武器，索引大小隨快取內容而定。</p>
+ *
+ * <p>結果只保存在本地；失效會透過 {@link CacheInvalidationBus} 廣播，
+ * 其他實例據此清除自己的結果。武器刪除以武器名稱廣播，由各實例以自己的依賴索引找出擁有者。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+public class DamageResultCache {
+
+    /** 以武器名稱廣播的失效通知 */
+    private static final String WEAPON_CHANNEL = TieredCacheConfig.DAMAGE_CALCULATIONS + ":weapon";
+
+    /**
+     * 傷害計算邏輯
+     */
+    @FunctionalInterface
+    public interface DamageLoader {
+
+        /**
+         * 計算角色傷害
+         *
+         * @param name 角色名稱
+         * @param dependencies 登記計算時使用的武器名稱
+         * @return 傷害值
+         */
+        int load(String name, Consumer<String> dependencies);
+    }
+
+    /**
+     * 快取槽位；物件本身作為本次計算的識別，失效時整個槽位被移除
+     */
+    private static final class Slot {
+        private final Set<String> weapons = ConcurrentHashMap.newKeySet();
+        private volatile int damage;
+        private volatile boolean ready;
+    }
+
+    private final Cache<String, Slot> slots;
+    /** 依賴索引：武器名稱 → 擁有者 */
+    private final Map<String, String> weaponOwners = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter stale;
+    private final Counter invalidations;
+
+    private final CacheInvalidationBus invalidationBus;
+
+    public DamageResultCache(MeterRegistry meterRegistry, ObjectProvider<CacheInvalidationBus> invalidationBus,
+            @Value("${app.damage.cache.enabled:true}") boolean enabled,
+            @Value("${app.damage.cache.max-entries:10000}") int maxEntries,
+            @Value("${app.damage.cache.ttl:10m}") Duration ttl) {
+        this.enabled = enabled;
+        this.slots = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, maxEntries))
+                .expireAfterWrite(ttl)
+                .evictionListener((String name, Slot slot, RemovalCause cause) -> forgetWeapons(name, slot))
+                .build();
+        this.hits = Counter.builder("damage.cache.requests").tag("result", "hit")
+                .description("Damage result cache hits").register(meterRegistry);
+        this.misses = Counter.builder("damage.cache.requests").tag("result", "miss")
+                .description("Damage result cache misses").register(meterRegistry);
+        this.stale = Counter.builder("damage.cache.stale")
+                .description("Damage results discarded because inputs changed during calculation")
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("damage.cache.invalidations")
+                .description("Damage result cache entries invalidated by writes").register(meterRegistry);
+        Gauge.builder("damage.cache.size", this, DamageResultCache::size)
+                .description("Damage result cache entries").register(meterRegistry);
+
+        this.invalidationBus = invalidationBus.getIfAvailable();
+        if (this.invalidationBus != null) {
+            subscribe(this.invalidationBus);
+        }
+    }
+
+    /**
+     * 註冊跨實例失效通知
+     *
+     * @param invalidationBus 快取失效通道
+     */
+    private void subscribe(CacheInvalidationBus invalidationBus) {
+        invalidationBus.subscribe(TieredCacheConfig.DAMAGE_CALCULATIONS, new CacheInvalidationBus.Listener() {
+            @Override
+            public void evictLocal(String name) {
+                invalidate(name);
+            }
+
+            @Override
+            public void clearLocal() {
+                invalidateAll();
+            }
+        });
+        invalidationBus.subscribe(WEAPON_CHANNEL, new CacheInvalidationBus.Listener() {
+            @Override
+            public void evictLocal(String weaponName) {
+                invalidate(weaponOwners.remove(weaponName));
+            }
+
+            @Override
+            public void clearLocal() {
+                invalidateAll();
+            }
+        });
+    }
+
+    /**
+     * 取得角色傷害，未命中時計算並快取
+     *
+     * @param name 角色名稱
+     * @param loader 傷害計算邏輯
+     * @return 傷害值
+     */
+    public int get(String name, DamageLoader loader) {
+        if (!enabled || name == null) {
+            return loader.load(name, weaponName -> { });
+        }
+
+        Slot slot = slots.getIfPresent(name);
+        if (slot != null && slot.ready) {
+            hits.increment();
+            return slot.damage;
+        }
+        misses.increment();
+
+        Slot reserved = slot != null ? slot : slots.asMap().computeIfAbsent(name, k -> new Slot());
+        int damage = loader.load(name, weaponName -> {
+            if (weaponName != null) {
+                reserved.weapons.add(weaponName);
+                weaponOwners.put(weaponName, name);
+            }
+        });
+
+        boolean[] stored = {false};
+        slots.asMap().computeIfPresent(name, (k, current) -> {
+            // 槽位仍是計算開始時的同一個物件，代表期間沒有發生失效
+            if (current == reserved) {
+                current.damage = damage;
+                current.ready = true;
+                stored[0] = true;
+            }
+            return current;
+        });
+        if (!stored[0]) {
+            stale.increment();
+        }
+        return damage;
+    }
+
+    /**
+     * 失效指定角色的快取結果
+     *
+     * @param name 角色名稱
+     */
+    public void invalidate(String name) {
+        if (name != null && slots.asMap().remove(name) != null) {
+            invalidations.increment();
+        }
+    }
+
+    /**
+     * 清除所有快取結果
+     */
+    public void invalidateAll() {
+        int size = size();
+        slots.invalidateAll();
+        weaponOwners.clear();
+        invalidations.increment(size);
+    }
+
+    /**
+     * 取得目前快取的角色數量
+     *
+     * @return 角色數量
+     */
+    public int size() {
+        slots.cleanUp();
+        return (int) slots.estimatedSize();
+    }
+
+    /**
+     * 角色寫入提交後失效對應結果
+     *
+     * @param event 角色異動事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPeopleChanged(PeopleChangedEvent event) {
+        if (event.isCleared()) {
+            invalidateAll();
+            broadcastClear();
+            return;
+        }
+        for (People people : event.getPeople()) {
+            if (people != null) {
+                invalidate(people.getName());
+                broadcast(TieredCacheConfig.DAMAGE_CALCULATIONS, people.getName());
+            }
+        }
+    }
+
+    /**
+     * 武器寫入提交後失效新舊擁有者的結果
+     *
+     * @param event 武器異動事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWeaponChanged(WeaponChangedEvent event) {
+        if (event.isCleared()) {
+            invalidateAll();
+            broadcastClear();
+            return;
+        }
+        if (event.isDeleted()) {
+            invalidate(weaponOwners.remove(event.getWeaponName()));
+            broadcast(WEAPON_CHANNEL, event.getWeaponName());
+            return;
+        }
+
+        Weapon weapon = event.getWeapon();
+        invalidate(event.getPreviousOwner());
+        invalidate(weapon.getOwner());
+        broadcast(TieredCacheConfig.DAMAGE_CALCULATIONS, event.getPreviousOwner());
+        broadcast(TieredCacheConfig.DAMAGE_CALCULATIONS, weapon.getOwner());
+        if (weapon.getName() != null) {
+            String indexedOwner = weapon.getOwner() == null
+                    ? weaponOwners.remove(weapon.getName())
+                    : weaponOwners.put(weapon.getName(), weapon.getOwner());
+            invalidate(indexedOwner);
+            broadcast(WEAPON_CHANNEL, weapon.getName());
+        }
+    }
+
+    /**
+     * 角色因容量或存活時間被淘汰時，移除仍指向它的依賴索引
+     */
+    private void forgetWeapons(String name, Slot slot) {
+        if (name == null || slot == null) {
+            return;
+        }
+        for (String weaponName : slot.weapons) {
+            weaponOwners.remove(weaponName, name);
+        }
+    }
+
+    private void broadcast(String channel, String key) {
+        if (invalidationBus != null && key != null) {
+            invalidationBus.publishEvict(channel, key);
+        }
+    }
+
+    private void broadcastClear() {
+        if (invalidationBus != null) {
+            invalidationBus.publishClear(TieredCacheConfig.DAMAGE_CALCULATIONS);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package tw.com.tymbackend.module.people.service.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import tw.com.tymbackend.core.config.cache.TieredCacheConfig;
+import tw.com.tymbackend.module.people.domain.vo.People;
+import tw.com.tymbackend.module.people.event.PeopleChangedEvent;
+
+/**
+ * 角色寫入提交後清除角色查詢快取
+ *
+ * <p>優先於傷害結果快取執行，確保重新計算傷害時不會讀到舊的角色資料。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+public class PeopleCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    public PeopleCacheInvalidator(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * 清除異動角色的查詢快取
+     *
+     * @param event 角色異動事件
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPeopleChanged(PeopleChangedEvent event) {
+        Cache cache = cacheManager.getCache(TieredCacheConfig.PEOPLE_BY_NAME);
+        if (cache == null) {
+            return;
+        }
+        if (event.isCleared()) {
+            cache.clear();
+            return;
+        }
+        for (People people : event.getPeople()) {
+            if (people != null && people.getName() != null) {
+                cache.evict(people.getName());
+            }
+        }
+    }
+}
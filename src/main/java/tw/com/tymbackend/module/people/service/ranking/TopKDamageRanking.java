@@ -0,0 +1,134 @@
+package tw.com.tymbackend.module.people.service.ranking;
+
+import java.util.function.ObjIntConsumer;
+
+/**
+ * 有界的傷害排行榜
+ *
+ * <p>以陣列實作的最小堆積只保留傷害最高的 K 個角色，
+ * 記憶體用量為 O(K)，不受名冊大小影響。傷害相同時依名稱字典序排列，
+ * 使排行結果具有確定性。</p>
+ *
+ * <p>此類別非執行緒安全。</p>
+ */
+public class TopKDamageRanking implements ObjIntConsumer<String> {
+
+    private final String[] names;
+    private final int[] damages;
+    private int size;
+
+    /**
+     * 建構函數
+     *
+     * @param k 保留的名次數量
+     * @throws IllegalArgumentException 若 k 小於 1
+     */
+    public TopKDamageRanking(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("topK must be positive: " + k);
+        }
+        this.names = new String[k];
+        this.damages = new int[k];
+    }
+
+    /**
+     * 提交一筆傷害結果，若未進入前 K 名則直接捨棄
+     *
+     * @param name 角色名稱
+     * @param damage 傷害值
+     */
+    @Override
+    public void accept(String name, int damage) {
+        if (size < names.length) {
+            names[size] = name;
+            damages[size] = damage;
+            siftUp(size++);
+            return;
+        }
+        // 堆頂為目前第 K 名，只有排在它之前的結果才需要替換
+        if (ranksBefore(name, damage, names[0], damages[0])) {
+            names[0] = name;
+            damages[0] = damage;
+            siftDown(0, size);
+        }
+    }
+
+    /**
+     * 目前保留的結果數量
+     *
+     * @return 結果數量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 依名次由高到低輸出結果，輸出後排行榜會被清空
+     *
+     * @param consumer 結果回呼（名稱、傷害）
+     */
+    public void drainTo(ObjIntConsumer<String> consumer) {
+        // 原地堆積排序：每次把堆頂（最後一名）移到尾端，結束後陣列即為由高到低
+        int count = size;
+        for (int end = count - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+        for (int i = 0; i < count; i++) {
+            consumer.accept(names[i], damages[i]);
+            names[i] = null;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksBefore(names[parent], damages[parent], names[index], damages[index])) {
+                break;
+            }
+            swap(parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index, int limit) {
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= limit) {
+                return;
+            }
+            int right = child + 1;
+            if (right < limit && ranksBefore(names[child], damages[child], names[right], damages[right])) {
+                child = right;
+            }
+            if (!ranksBefore(names[index], damages[index], names[child], damages[child])) {
+                return;
+            }
+            swap(index, child);
+            index = child;
+        }
+    }
+
+    private void swap(int i, int j) {
+        String name = names[i];
+        names[i] = names[j];
+        names[j] = name;
+        int damage = damages[i];
+        damages[i] = damages[j];
+        damages[j] = damage;
+    }
+
+    /**
+     * a 的名次是否高於 b：傷害較高者在前，相同時名稱字典序較小者在前
+     */
+    private static boolean ranksBefore(String nameA, int damageA, String nameB, int damageB) {
+        if (damageA != damageB) {
+            return damageA > damageB;
+        }
+        if (nameA == null || nameB == null) {
+            return nameA != null;
+        }
+        return nameA.compareTo(nameB) < 0;
+    }
+}
@@ -0,0 +1,534 @@
+package tw.com.tymbackend.module.people.service.snapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import tw.com.tymbackend.module.people.dao.PeopleRepository;
+import tw.com.tymbackend.module.people.domain.vo.People;
+import tw.com.tymbackend.module.people.event.PeopleChangedEvent;
+import tw.com.tymbackend.module.people.service.strategy.CompiledDamageStrategy;
+import tw.com.tymbackend.module.people.service.strategy.DamageAccumulator;
+import tw.com.tymbackend.module.weapon.dao.WeaponRepository;
+import tw.com.tymbackend.module.weapon.domain.vo.Weapon;
+import tw.com.tymbackend.module.weapon.event.WeaponChangedEvent;
+
+/**
+ * 角色戰鬥數值的欄位式記憶體快照
+ *
+ * <p>只保存傷害計算需要的欄位：能力值以 {@code int[]} 欄位儲存，
+ * 角色屬性、狀態與武器屬性清單以字典編碼為整數 id，
+ * 角色名稱透過名稱索引對應到列號。每個角色的武器以陣列鏈結串列串接，
+ * 因此整個名冊的批量傷害計算不需要存取 Hibernate，也不會為每個角色配置物件。</p>
+ *
+ * <p>快照在第一次使用時以投影查詢載入，之後於 {@code PeopleService} 與
+ * {@code WeaponService} 的交易提交後增量更新；其他實例（例如 Consumer）
+ * 的寫入則由定期全量重載補齊。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+public class PeopleCombatSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(PeopleCombatSnapshot.class);
+
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int[] NO_IDS = new int[0];
+
+    private final PeopleRepository peopleRepository;
+    private final WeaponRepository weaponRepository;
+    private final boolean enabled;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** 屬性字典：屬性字串 → id，角色屬性、狀態與武器屬性共用 */
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    /** 名稱索引：角色名稱（含尚未建立角色的武器擁有者）→ 列號 */
+    private final Map<String, Integer> nameIndex = new HashMap<>();
+    /** 武器索引：武器名稱 → 武器列號 */
+    private final Map<String, Integer> weaponIndex = new HashMap<>();
+
+    // 角色欄位
+    private String[] names;
+    private boolean[] present;
+    private int[] physicPower;
+    private int[] magicPower;
+    private int[] utilityPower;
+    private int[] attributeId;
+    private int[] stateId;
+    private int[] weaponHead;
+    private int[] weaponCount;
+    private int rows;
+
+    // 武器欄位
+    private int[] weaponOwner;
+    private int[] weaponBase;
+    private int[] weaponBonus;
+    private int[] weaponStateSize;
+    private int[] weaponNext;
+    private int[][] weaponBonusIds;
+    private int[][] weaponStateIds;
+    private int weaponRows;
+
+    private volatile boolean loaded;
+
+    public PeopleCombatSnapshot(PeopleRepository peopleRepository, WeaponRepository weaponRepository,
+            @Value("${app.damage.snapshot.enabled:true}") boolean enabled) {
+        this.peopleRepository = peopleRepository;
+        this.weaponRepository = weaponRepository;
+        this.enabled = enabled;
+        reset(INITIAL_CAPACITY, INITIAL_CAPACITY);
+    }
+
+    /**
+     * 快照是否啟用
+     *
+     * @return 啟用時返回 true
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 確保快照已載入，第一次呼叫時會執行全量載入
+     *
+     * @return 快照可用時返回 true；停用或載入失敗時返回 false
+     */
+    public boolean ensureLoaded() {
+        if (!enabled) {
+            return false;
+        }
+        if (loaded) {
+            return true;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                reloadLocked();
+            }
+            return true;
+        } catch (RuntimeException e) {
+            logger.warn("載入角色戰鬥數值快照失敗，改用資料庫查詢: {}", e.getMessage());
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 定期全量重載，補齊其他實例寫入造成的差異並回收已刪除武器的列
+     */
+    @Scheduled(fixedDelayString = "${app.damage.snapshot.reload-interval-ms:300000}",
+            initialDelayString = "${app.damage.snapshot.reload-interval-ms:300000}")
+    public void reload() {
+        if (!enabled || !loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            reloadLocked();
+        } catch (RuntimeException e) {
+            logger.warn("重載角色戰鬥數值快照失敗，保留現有快照: {}", e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 角色寫入提交後增量更新快照
+     *
+     * @param event 角色異動事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPeopleChanged(PeopleChangedEvent event) {
+        if (!loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (event.isCleared()) {
+                Arrays.fill(present, 0, rows, false);
+                return;
+            }
+            for (People people : event.getPeople()) {
+                if (people != null && people.getName() != null) {
+                    upsertPerson(people.getName(), people.getPhysicPower(), people.getMagicPower(),
+                            people.getUtilityPower(), people.getAttributes(), people.getStateAttributes());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 武器寫入提交後增量更新快照
+     *
+     * @param event 武器異動事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWeaponChanged(WeaponChangedEvent event) {
+        if (!loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (event.isCleared()) {
+                clearWeapons();
+            } else if (event.isDeleted()) {
+                Integer row = weaponIndex.remove(event.getWeaponName());
+                if (row != null) {
+                    unlinkWeapon(row);
+                }
+            } else {
+                upsertWeapon(event.getWeapon());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 依名稱列表計算傷害
+     *
+     * @param requestedNames 角色名稱列表
+     * @param strategy 已編譯的傷害計算策略
+     * @param found 找到角色時的回呼（名稱、傷害）
+     * @param notFound 找不到角色時的回呼
+     */
+    public void calculateDamage(List<String> requestedNames, CompiledDamageStrategy strategy,
+            ObjIntConsumer<String> found, Consumer<String> notFound) {
+        lock.readLock().lock();
+        try {
+            for (String name : requestedNames) {
+                Integer row = name == null ? null : nameIndex.get(name);
+                if (row == null || !present[row]) {
+                    notFound.accept(name);
+                } else {
+                    found.accept(name, damageAt(row, strategy));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 計算名稱陣列中指定區間的傷害，結果依索引寫入輸出陣列
+     *
+     * <p>不同執行緒可同時處理不相交的區間，供平行批量計算使用。</p>
+     *
+     * @param requestedNames 角色名稱陣列
+     * @param from 起始索引（含）
+     * @param to 結束索引（不含）
+     * @param strategy 已編譯的傷害計算策略
+     * @param damages 傷害輸出陣列
+     * @param found 是否找到角色的輸出陣列
+     */
+    public void calculateDamage(String[] requestedNames, int from, int to, CompiledDamageStrategy strategy,
+            int[] damages, boolean[] found) {
+        lock.readLock().lock();
+        try {
+            for (int i = from; i < to; i++) {
+                String name = requestedNames[i];
+                Integer row = name == null ? null : nameIndex.get(name);
+                if (row != null && present[row]) {
+                    damages[i] = damageAt(row, strategy);
+                    found[i] = true;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 計算整個名冊的傷害
+     *
+     * @param strategy 已編譯的傷害計算策略
+     * @param consumer 每個角色的回呼（名稱、傷害）
+     */
+    public void forEachDamage(CompiledDamageStrategy strategy, ObjIntConsumer<String> consumer) {
+        lock.readLock().lock();
+        try {
+            for (int row = 0; row < rows; row++) {
+                if (present[row]) {
+                    consumer.accept(names[row], damageAt(row, strategy));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 取得快照中所有角色名稱
+     *
+     * @return 角色名稱列表（複本）
+     */
+    public List<String> names() {
+        lock.readLock().lock();
+        try {
+            List<String> result = new ArrayList<>(rows);
+            for (int row = 0; row < rows; row++) {
+                if (present[row]) {
+                    result.add(names[row]);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 取得快照中的角色數量
+     *
+     * @return 角色數量
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            int count = 0;
+            for (int row = 0; row < rows; row++) {
+                if (present[row]) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int damageAt(int row, CompiledDamageStrategy strategy) {
+        int power = physicPower[row] + magicPower[row] + utilityPower[row];
+        int attribute = attributeId[row];
+        int state = stateId[row];
+
+        DamageAccumulator accumulator = new DamageAccumulator();
+        for (int w = weaponHead[row]; w != NONE; w = weaponNext[w]) {
+            int base = weaponBase[w];
+            accumulator.addWeapon(base);
+            if (attribute != NONE && contains(weaponBonusIds[w], attribute)) {
+                accumulator.addBonus(weaponBonus[w]);
+            }
+            if (state != NONE && contains(weaponStateIds[w], state)) {
+                accumulator.addStateEffect(base, weaponStateSize[w]);
+            }
+        }
+
+        return strategy.combine(power, weaponCount[row], accumulator, state != NONE);
+    }
+
+    private void reloadLocked() {
+        long start = System.currentTimeMillis();
+        List<Object[]> stats = peopleRepository.findCombatStats();
+        List<Weapon> weapons = weaponRepository.findAll();
+
+        reset(Math.max(INITIAL_CAPACITY, stats.size()), Math.max(INITIAL_CAPACITY, weapons.size()));
+        for (Object[] stat : stats) {
+            upsertPerson((String) stat[0], (Integer) stat[1], (Integer) stat[2], (Integer) stat[3],
+                    (String) stat[4], (String) stat[5]);
+        }
+        for (Weapon weapon : weapons) {
+            upsertWeapon(weapon);
+        }
+        loaded = true;
+        logger.info("角色戰鬥數值快照已載入: people={}, weapons={}, dictionary={}, elapsedMs={}",
+                stats.size(), weapons.size(), dictionary.size(), System.currentTimeMillis() - start);
+    }
+
+    private void reset(int characterCapacity, int weaponCapacity) {
+        dictionary.clear();
+        nameIndex.clear();
+        rows = 0;
+        names = new String[characterCapacity];
+        present = new boolean[characterCapacity];
+        physicPower = new int[characterCapacity];
+        magicPower = new int[characterCapacity];
+        utilityPower = new int[characterCapacity];
+        attributeId = new int[characterCapacity];
+        stateId = new int[characterCapacity];
+        weaponHead = new int[characterCapacity];
+        weaponCount = new int[characterCapacity];
+
+        weaponIndex.clear();
+        weaponRows = 0;
+        weaponOwner = new int[weaponCapacity];
+        weaponBase = new int[weaponCapacity];
+        weaponBonus = new int[weaponCapacity];
+        weaponStateSize = new int[weaponCapacity];
+        weaponNext = new int[weaponCapacity];
+        weaponBonusIds = new int[weaponCapacity][];
+        weaponStateIds = new int[weaponCapacity][];
+    }
+
+    private void clearWeapons() {
+        weaponIndex.clear();
+        weaponRows = 0;
+        Arrays.fill(weaponHead, 0, rows, NONE);
+        Arrays.fill(weaponCount, 0, rows, 0);
+    }
+
+    private void upsertPerson(String name, Integer physic, Integer magic, Integer utility,
+            String attributes, String stateAttributes) {
+        int row = rowFor(name);
+        physicPower[row] = safeInt(physic);
+        magicPower[row] = safeInt(magic);
+        utilityPower[row] = safeInt(utility);
+        attributeId[row] = encode(attributes);
+        stateId[row] = encode(stateAttributes);
+        present[row] = true;
+    }
+
+    private void upsertWeapon(Weapon weapon) {
+        if (weapon == null || weapon.getName() == null) {
+            return;
+        }
+        Integer existing = weaponIndex.get(weapon.getName());
+        int w;
+        if (existing != null) {
+            w = existing;
+            unlinkWeapon(w);
+        } else {
+            w = weaponRows++;
+            ensureWeaponCapacity(weaponRows);
+            weaponIndex.put(weapon.getName(), w);
+        }
+
+        weaponBase[w] = safeInt(weapon.getBaseDamage());
+        weaponBonus[w] = safeInt(weapon.getBonusDamage());
+        weaponBonusIds[w] = encodeAll(weapon.getBonusAttributes());
+        weaponStateIds[w] = encodeAll(weapon.getStateAttributes());
+        weaponStateSize[w] = weapon.getStateAttributes() == null ? 0 : weapon.getStateAttributes().size();
+
+        if (weapon.getOwner() == null) {
+            weaponOwner[w] = NONE;
+            weaponNext[w] = NONE;
+            return;
+        }
+        int owner = rowFor(weapon.getOwner());
+        weaponOwner[w] = owner;
+        weaponNext[w] = weaponHead[owner];
+        weaponHead[owner] = w;
+        weaponCount[owner]++;
+    }
+
+    private void unlinkWeapon(int w) {
+        int owner = weaponOwner[w];
+        if (owner == NONE) {
+            return;
+        }
+        int previous = NONE;
+        for (int current = weaponHead[owner]; current != NONE; current = weaponNext[current]) {
+            if (current == w) {
+                if (previous == NONE) {
+                    weaponHead[owner] = weaponNext[current];
+                } else {
+                    weaponNext[previous] = weaponNext[current];
+                }
+                weaponCount[owner]--;
+                break;
+            }
+            previous = current;
+        }
+        weaponOwner[w] = NONE;
+        weaponNext[w] = NONE;
+    }
+
+    private int rowFor(String name) {
+        Integer existing = nameIndex.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        int row = rows++;
+        ensureCharacterCapacity(rows);
+        names[row] = name;
+        present[row] = false;
+        attributeId[row] = NONE;
+        stateId[row] = NONE;
+        weaponHead[row] = NONE;
+        weaponCount[row] = 0;
+        nameIndex.put(name, row);
+        return row;
+    }
+
+    private int encode(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        return dictionary.computeIfAbsent(value, k -> dictionary.size());
+    }
+
+    private int[] encodeAll(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return NO_IDS;
+        }
+        int[] ids = new int[values.size()];
+        int count = 0;
+        for (String value : values) {
+            if (value != null) {
+                ids[count++] = encode(value);
+            }
+        }
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    private static boolean contains(int[] ids, int id) {
+        for (int value : ids) {
+            if (value == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void ensureCharacterCapacity(int required) {
+        if (required <= names.length) {
+            return;
+        }
+        int capacity = Math.max(required, names.length * 2);
+        names = Arrays.copyOf(names, capacity);
+        present = Arrays.copyOf(present, capacity);
+        physicPower = Arrays.copyOf(physicPower, capacity);
+        magicPower = Arrays.copyOf(magicPower, capacity);
+        utilityPower = Arrays.copyOf(utilityPower, capacity);
+        attributeId = Arrays.copyOf(attributeId, capacity);
+        stateId = Arrays.copyOf(stateId, capacity);
+        weaponHead = Arrays.copyOf(weaponHead, capacity);
+        weaponCount = Arrays.copyOf(weaponCount, capacity);
+    }
+
+    private void ensureWeaponCapacity(int required) {
+        if (required <= weaponOwner.length) {
+            return;
+        }
+        int capacity = Math.max(required, weaponOwner.length * 2);
+        weaponOwner = Arrays.copyOf(weaponOwner, capacity);
+        weaponBase = Arrays.copyOf(weaponBase, capacity);
+        weaponBonus = Arrays.copyOf(weaponBonus, capacity);
+        weaponStateSize = Arrays.copyOf(weaponStateSize, capacity);
+        weaponNext = Arrays.copyOf(weaponNext, capacity);
+        weaponBonusIds = Arrays.copyOf(weaponBonusIds, capacity);
+        weaponStateIds = Arrays.copyOf(weaponStateIds, capacity);
+    }
+
+    private static int safeInt(Integer value) {
+        return value == null ? 0 : value;
+    }
+}
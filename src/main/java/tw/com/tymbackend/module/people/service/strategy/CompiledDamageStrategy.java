@@ -0,0 +1,176 @@
+package tw.com.tymbackend.module.people.service.strategy;
+
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import tw.com.tymbackend.module.people.domain.vo.People;
+import tw.com.tymbackend.module.weapon.domain.vo.Weapon;
+
+/**
+ * 編譯後的單次走訪傷害計算策略。
+ * <p>
+ * 啟動時分析已配置的裝飾器鏈（{@link StateEffectDamageDecorator} →
+ * {@link BonusAttributeDamageDecorator} → {@link DefaultDamageStrategy}），
+ * 將基礎、加成屬性與狀態效果三項傷害合併為一次武器迴圈，
+ * 避免每層裝飾器各自建立 Stream 並重複走訪武器清單。
+ * </p>
+ * <p>
+ * 計算結果與原裝飾器鏈完全一致：各層的整數捨入順序被保留，
+ * 狀態效果的浮點加總亦採用與 {@code DoubleStream.sum()} 相同的補償加總。
+ * 若鏈中出現無法辨識的裝飾器，則直接委派給原鏈計算。
+ * </p>
+ */
+@Component
+@Primary
+public class CompiledDamageStrategy implements DamageStrategy {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompiledDamageStrategy.class);
+
+    private final DamageStrategy chain;
+    private final boolean compiled;
+    private final boolean bonusTerm;
+    private final boolean stateTerm;
+
+    public CompiledDamageStrategy(StateEffectDamageDecorator chain) {
+        this.chain = chain;
+
+        boolean bonus = false;
+        boolean state = false;
+        boolean supported = true;
+
+        DamageStrategy current = chain;
+        while (current instanceof DamageStrategyDecorator decorator) {
+            if (decorator.getClass() == StateEffectDamageDecorator.class && !state) {
+                state = true;
+            } else if (decorator.getClass() == BonusAttributeDamageDecorator.class && !bonus) {
+                bonus = true;
+            } else {
+                supported = false;
+                break;
+            }
+            current = decorator.delegate;
+        }
+        supported = supported && current != null && current.getClass() == DefaultDamageStrategy.class;
+
+        this.compiled = supported;
+        this.bonusTerm = bonus;
+        this.stateTerm = state;
+
+        if (supported) {
+            logger.info("傷害計算管線已編譯: bonusTerm={}, stateTerm={}", bonus, state);
+        } else {
+            logger.warn("傷害計算鏈包含無法編譯的策略，改為委派原裝飾器鏈計算");
+        }
+    }
+
+    @Override
+    public int calculateDamage(People people, List<Weapon> weapons) {
+        if (!compiled) {
+            return chain.calculateDamage(people, weapons);
+        }
+        if (people == null) {
+            return -1;
+        }
+
+        int damage = safeInt(people.getPhysicPower())
+                + safeInt(people.getMagicPower())
+                + safeInt(people.getUtilityPower());
+
+        if (weapons == null || weapons.isEmpty()) {
+            return damage;
+        }
+
+        String personState = people.getStateAttributes();
+        String bonusAttribute = bonusTerm ? people.getAttributes() : null;
+        String stateAttribute = stateTerm ? personState : null;
+
+        DamageAccumulator accumulator = new DamageAccumulator();
+        if (weapons instanceof RandomAccess) {
+            for (int i = 0, size = weapons.size(); i < size; i++) {
+                accumulate(accumulator, weapons.get(i), bonusAttribute, stateAttribute);
+            }
+        } else {
+            for (Weapon weapon : weapons) {
+                accumulate(accumulator, weapon, bonusAttribute, stateAttribute);
+            }
+        }
+
+        return combine(damage, weapons.size(), accumulator, personState != null);
+    }
+
+    /**
+     * 累加單把武器的三項傷害
+     *
+     * @param accumulator 累加器
+     * @param weapon 武器
+     * @param bonusAttribute 角色屬性，不計加成時為 null
+     * @param stateAttribute 角色狀態屬性，不計狀態效果時為 null
+     */
+    private void accumulate(DamageAccumulator accumulator, Weapon weapon, String bonusAttribute,
+            String stateAttribute) {
+        int baseDamage = safeInt(weapon.getBaseDamage());
+        accumulator.addWeapon(baseDamage);
+
+        if (bonusAttribute != null) {
+            List<String> bonusAttributes = weapon.getBonusAttributes();
+            if (bonusAttributes != null && bonusAttributes.contains(bonusAttribute)) {
+                accumulator.addBonus(safeInt(weapon.getBonusDamage()));
+            }
+        }
+        if (stateAttribute != null) {
+            List<String> stateAttributes = weapon.getStateAttributes();
+            if (stateAttributes != null && stateAttributes.contains(stateAttribute)) {
+                accumulator.addStateEffect(baseDamage, stateAttributes.size());
+            }
+        }
+    }
+
+    /**
+     * 以累加器彙總的武器數值組合最終傷害。
+     * <p>
+     * 亦供欄位式快照等不持有實體的呼叫端使用，
+     * 保留原裝飾器鏈逐層捨入為 int 的語意。
+     * </p>
+     *
+     * @param power 角色物理、魔法與實用能力總和
+     * @param weaponCount 武器數量
+     * @param accumulator 已累加所有武器的累加器
+     * @param hasState 角色是否具有狀態屬性
+     * @return 計算後的整數傷害值
+     * @throws IllegalStateException 若裝飾器鏈未能編譯
+     */
+    public int combine(int power, int weaponCount, DamageAccumulator accumulator, boolean hasState) {
+        if (!compiled) {
+            throw new IllegalStateException("Damage strategy chain is not compiled");
+        }
+        if (weaponCount == 0) {
+            return power;
+        }
+        int result = (int) (power + accumulator.getWeaponDamage());
+        if (bonusTerm) {
+            result = (int) (result + accumulator.getBonusDamage());
+        }
+        if (stateTerm && hasState) {
+            result = (int) Math.round(result + accumulator.getStateExtra());
+        }
+        return result;
+    }
+
+    /**
+     * 是否已成功編譯為單次走訪管線
+     *
+     * @return 編譯成功時返回 true，委派原裝飾器鏈時返回 false
+     */
+    public boolean isCompiled() {
+        return compiled;
+    }
+
+    private int safeInt(Integer value) {
+        return value == null ? 0 : value;
+    }
+}
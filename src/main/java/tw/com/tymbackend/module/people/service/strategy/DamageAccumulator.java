@@ -0,0 +1,70 @@
+package tw.com.tymbackend.module.people.service.strategy;
+
+/**
+ * 單一角色的武器傷害累加器。
+ * <p>
+ * {@link CompiledDamageStrategy} 與欄位式快照共用的逐把武器累加：
+ * 基礎與加成傷害以整數累加，狀態效果則採用與 {@code DoubleStream.sum()} 相同的 Kahan 補償加總，
+ * 確保結果與原裝飾器鏈逐位元一致。每次計算使用新的實例，不可跨執行緒共用。
+ * </p>
+ */
+public final class DamageAccumulator {
+
+    private long weaponDamage;
+    private long bonusDamage;
+    private double stateSum;
+    private double stateCompensation;
+
+    /**
+     * 累加一把武器的基礎傷害
+     *
+     * @param baseDamage 武器基礎傷害
+     */
+    public void addWeapon(int baseDamage) {
+        weaponDamage += baseDamage;
+    }
+
+    /**
+     * 累加加成屬性匹配時的武器加成傷害
+     *
+     * @param bonus 武器加成傷害
+     */
+    public void addBonus(int bonus) {
+        bonusDamage += bonus;
+    }
+
+    /**
+     * 累加狀態屬性匹配時的額外傷害：每個狀態屬性增加 5% 基礎傷害
+     *
+     * @param baseDamage 武器基礎傷害
+     * @param stateAttributeCount 武器的狀態屬性數量
+     */
+    public void addStateEffect(int baseDamage, int stateAttributeCount) {
+        double value = baseDamage * 0.05 * stateAttributeCount;
+        double corrected = value - stateCompensation;
+        double sum = stateSum + corrected;
+        stateCompensation = (sum - stateSum) - corrected;
+        stateSum = sum;
+    }
+
+    /**
+     * @return 武器基礎傷害總和
+     */
+    public long getWeaponDamage() {
+        return weaponDamage;
+    }
+
+    /**
+     * @return 加成屬性匹配的武器加成傷害總和
+     */
+    public long getBonusDamage() {
+        return bonusDamage;
+    }
+
+    /**
+     * @return 補償加總後的狀態效果額外傷害
+     */
+    public double getStateExtra() {
+        return stateSum - stateCompensation;
+    }
+}
@@ -2,7 +2,6 @@ package tw.com.tymbackend.module.people.service.strategy;
 
 import java.util.List;
 
-import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
 
 import tw.com.tymbackend.module.people.domain.vo.People;
@@ -14,9 +13,12 @@ import tw.com.tymbackend.module.weapon.domain.vo.Weapon;
  * 若武器的 {@code stateAttributes} 含有角色對應的狀態，
  * 會按照狀態數量及基礎傷害加成額外傷害。
  * </p>
+ * <p>
+ * 此裝飾器為傷害計算鏈的最外層，實際注入的策略為
+ * 由本鏈編譯而成的 {@link CompiledDamageStrategy}。
+ * </p>
  */
 @Component
-@Primary
 public class StateEffectDamageDecorator extends DamageStrategyDecorator {
 
     public StateEffectDamageDecorator(BonusAttributeDamageDecorator delegate) {
@@ -3,6 +3,7 @@ package tw.com.tymbackend.module.weapon.controller;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import tw.com.tymbackend.module.weapon.service.WeaponService;
@@ -10,7 +11,11 @@ import tw.com.tymbackend.module.weapon.domain.vo.Weapon;
 import tw.com.ty.common.response.BackendApiResponse;
 import tw.com.ty.common.response.ErrorCode;
 import tw.com.ty.common.response.MessageKey;
+import tw.com.tymbackend.core.service.AsyncAdmissionException;
 import tw.com.tymbackend.core.service.AsyncMessageService;
+import tw.com.tymbackend.core.service.AsyncPublishException;
+import tw.com.tymbackend.core.service.CursorStreamService;
+import tw.com.tymbackend.core.repository.KeysetPage;
 
 import java.util.List;
 import java.util.Map;
@@ -28,6 +33,18 @@ public class WeaponController {
     @Autowired(required = false)
     private AsyncMessageService asyncMessageService;
 
+    @Autowired
+    private CursorStreamService cursorStreamService;
+
+    @Value("${app.pagination.default-limit:50}")
+    private int defaultPageLimit;
+
+    @Value("${app.pagination.max-limit:500}")
+    private int maxPageLimit;
+
+    @Value("${app.upsert.max-rows:1000}")
+    private int maxUpsertRows;
+
     /**
      * Get all weapons
      */
@@ -40,14 +57,21 @@ public class WeaponController {
 
         // 如果 RabbitMQ 啟用，使用異步處理
         if (asyncMessageService != null) {
-            logger.info("使用異步處理");
-            String requestId = asyncMessageService.sendWeaponGetAllRequest();
-            Map<String, Object> data = new HashMap<>();
-            data.put("requestId", requestId);
-            data.put("status", "processing");
-            data.put("message", MessageKey.ASYNC_WEAPON_LIST_SUBMITTED.getMessage());
-            return ResponseEntity.accepted()
-                .body(BackendApiResponse.accepted(requestId, MessageKey.ASYNC_WEAPON_LIST_SUBMITTED));
+            try {
+                logger.info("使用異步處理");
+                String requestId = asyncMessageService.awaitRequestId(asyncMessageService.sendWeaponGetAllRequest());
+                Map<String, Object> data = new HashMap<>();
+                data.put("requestId", requestId);
+                data.put("status", "processing");
+                data.put("message", MessageKey.ASYNC_WEAPON_LIST_SUBMITTED.getMessage());
+                return ResponseEntity.accepted()
+                    .body(BackendApiResponse.accepted(requestId, MessageKey.ASYNC_WEAPON_LIST_SUBMITTED));
+            } catch (AsyncAdmissionException e) {
+                // 唯讀查詢不受排隊順序影響，隊列積壓時改走同步查詢
+                logger.warn("隊列積壓，改用同步查詢: queue={}", e.getQueueName());
+            } catch (AsyncPublishException e) {
+                logger.warn("異步請求未確認送達，改用同步查詢: {}", e.getMessage());
+            }
         }
 
         // 本地環境，同步處理
@@ -61,6 +85,33 @@ public class WeaponController {
         }
     }
 
+    /**
+     * Get weapons page by page, ordered by name.
+     * Example: GET /weapons/page?after=Excalibur&limit=50
+     *
+     * 回應的 nextCursor 帶入 after 即可取得下一頁；分頁大小有上限，直接同步查詢
+     */
+    @GetMapping("/page")
+    public ResponseEntity<?> getWeaponsPage(@RequestParam(value = "after", required = false) String after,
+                                            @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            KeysetPage<Weapon, String> page = weaponService.getWeaponsPage(after,
+                KeysetPage.clampLimit(limit, defaultPageLimit, maxPageLimit));
+            return ResponseEntity.ok(BackendApiResponse.success(MessageKey.WEAPON_GET_ALL_SUCCESS, page));
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                .body(BackendApiResponse.error(ErrorCode.WEAPON_LIST_FAILED, e.getMessage()));
+        }
+    }
+
+    /**
+     * Stream all weapons as NDJSON (one weapon per line), ordered by name
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<?> streamAllWeapons() {
+        return cursorStreamService.<Weapon>ndjson("weapons", weaponService::streamAllWeapons);
+    }
+
     /**
      * Get weapon by name (ID)
      */
@@ -68,13 +119,20 @@ public class WeaponController {
     public ResponseEntity<?> getWeaponById(@PathVariable String name) {
         // 如果 RabbitMQ 啟用，使用異步處理
         if (asyncMessageService != null) {
-            String requestId = asyncMessageService.sendWeaponGetByNameRequest(name);
-            Map<String, Object> data = new HashMap<>();
-            data.put("requestId", requestId);
-            data.put("status", "processing");
-            data.put("message", MessageKey.ASYNC_WEAPON_QUERY_SUBMITTED.getMessage());
-            return ResponseEntity.accepted()
-                .body(BackendApiResponse.accepted(requestId, MessageKey.ASYNC_WEAPON_QUERY_SUBMITTED));
+            try {
+                String requestId = asyncMessageService.awaitRequestId(asyncMessageService.sendWeaponGetByNameRequest(name));
+                Map<String, Object> data = new HashMap<>();
+                data.put("requestId", requestId);
+                data.put("status", "processing");
+                data.put("message", MessageKey.ASYNC_WEAPON_QUERY_SUBMITTED.getMessage());
+                return ResponseEntity.accepted()
+                    .body(BackendApiResponse.accepted(requestId, MessageKey.ASYNC_WEAPON_QUERY_SUBMITTED));
+            } catch (AsyncAdmissionException e) {
+                // 唯讀查詢不受排隊順序影響，隊列積壓時改走同步查詢
+                logger.warn("隊列積壓，改用同步查詢: queue={}", e.getQueueName());
+            } catch (AsyncPublishException e) {
+                logger.warn("異步請求未確認送達，改用同步查詢: {}", e.getMessage());
+            }
         }
 
         // 本地環境，同步處理
@@ -96,13 +154,20 @@ public class WeaponController {
     public ResponseEntity<?> getWeaponsByOwner(@PathVariable String owner) {
         // 如果 RabbitMQ 啟用，使用異步處理
         if (asyncMessageService != null) {
-            String requestId = asyncMessageService.sendWeaponGetByOwnerRequest(owner);
-            Map<String, Object> data = new HashMap<>();
-            data.put("requestId", requestId);
-            data.put("status", "processing");
-            data.put("message", "武器按擁有者查詢請求已提交，請稍後查詢結果");
-            return ResponseEntity.accepted()
-                .body(BackendApiResponse.accepted(requestId, "武器按擁有者查詢請求已提交"));
+            try {
+                String requestId = asyncMessageService.awaitRequestId(asyncMessageService.sendWeaponGetByOwnerRequest(owner));
+                Map<String, Object> data = new HashMap<>();
+                data.put("requestId", requestId);
+                data.put("status", "processing");
+                data.put("message", "武器按擁有者查詢請求已提交，請稍後查詢結果");
+                return ResponseEntity.accepted()
+                    .body(BackendApiResponse.accepted(requestId, "武器按擁有者查詢請求已提交"));
+            } catch (AsyncAdmissionException e) {
+                // 唯讀查詢不受排隊順序影響，隊列積壓時改走同步查詢
+                logger.warn("隊列積壓，改用同步查詢: queue={}", e.getQueueName());
+            } catch (AsyncPublishException e) {
+                logger.warn("異步請求未確認送達，改用同步查詢: {}", e.getMessage());
+            }
         }
 
         // 本地環境，同步處理
@@ -122,7 +187,7 @@ public class WeaponController {
     public ResponseEntity<?> saveWeapon(@RequestBody Weapon weapon) {
         // 如果 RabbitMQ 啟用，使用異步處理
         if (asyncMessageService != null) {
-            String requestId = asyncMessageService.sendWeaponSaveRequest(weapon);
+            String requestId = asyncMessageService.awaitRequestId(asyncMessageService.sendWeaponSaveRequest(weapon));
             Map<String, Object> data = new HashMap<>();
             data.put("requestId", requestId);
             data.put("status", "processing");
@@ -141,6 +206,34 @@ public class WeaponController {
         }
     }
 
+    /**
+     * Create or update weapons in one batch.
+     * Existing weapons only take non-null numbers, non-blank strings and non-empty arrays.
+     *
+     * 原生批次 UPSERT 只需少數幾次資料庫往返，直接同步處理
+     */
+    @PostMapping("/upsert-batch")
+    public ResponseEntity<?> upsertWeaponsBatch(@RequestBody List<Weapon> weapons) {
+        if (weapons == null || weapons.isEmpty()) {
+            return ResponseEntity.badRequest()
+                .body(BackendApiResponse.badRequest("Weapon list must not be empty"));
+        }
+        if (weapons.size() > maxUpsertRows) {
+            return ResponseEntity.badRequest()
+                .body(BackendApiResponse.badRequest("At most " + maxUpsertRows + " weapons per request"));
+        }
+
+        try {
+            List<Weapon> savedWeapons = weaponService.upsertBatch(weapons);
+            return ResponseEntity.ok(BackendApiResponse.success(MessageKey.WEAPON_SAVE_SUCCESS, savedWeapons));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(BackendApiResponse.badRequest(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                .body(BackendApiResponse.error(ErrorCode.WEAPON_SAVE_FAILED, e.getMessage()));
+        }
+    }
+
     /**
      * Delete a weapon by name (ID)
      */
@@ -148,7 +241,7 @@ public class WeaponController {
     public ResponseEntity<?> deleteWeapon(@PathVariable String name) {
         // 如果 RabbitMQ 啟用，使用異步處理
         if (asyncMessageService != null) {
-            String requestId = asyncMessageService.sendWeaponDeleteRequest(name);
+            String requestId = asyncMessageService.awaitRequestId(asyncMessageService.sendWeaponDeleteRequest(name));
             Map<String, Object> data = new HashMap<>();
             data.put("requestId", requestId);
             data.put("status", "processing");
@@ -174,7 +267,7 @@ public class WeaponController {
     public ResponseEntity<?> deleteAllWeapons() {
         // 如果 RabbitMQ 啟用，使用異步處理
         if (asyncMessageService != null) {
-            String requestId = asyncMessageService.sendWeaponDeleteAllRequest();
+            String requestId = asyncMessageService.awaitRequestId(asyncMessageService.sendWeaponDeleteAllRequest());
             Map<String, Object> data = new HashMap<>();
             data.put("requestId", requestId);
             data.put("status", "processing");
@@ -200,13 +293,20 @@ public class WeaponController {
     public ResponseEntity<?> checkWeaponExists(@PathVariable String name) {
         // 如果 RabbitMQ 啟用，使用異步處理
         if (asyncMessageService != null) {
-            String requestId = asyncMessageService.sendWeaponExistsRequest(name);
-            Map<String, Object> data = new HashMap<>();
-            data.put("requestId", requestId);
-            data.put("status", "processing");
-            data.put("message", "武器存在檢查請求已提交，請稍後查詢結果");
-            return ResponseEntity.accepted()
-                .body(BackendApiResponse.accepted(requestId, "武器存在檢查請求已提交"));
+            try {
+                String requestId = asyncMessageService.awaitRequestId(asyncMessageService.sendWeaponExistsRequest(name));
+                Map<String, Object> data = new HashMap<>();
+                data.put("requestId", requestId);
+                data.put("status", "processing");
+                data.put("message", "武器存在檢查請求已提交，請稍後查詢結果");
+                return ResponseEntity.accepted()
+                    .body(BackendApiResponse.accepted(requestId, "武器存在檢查請求已提交"));
+            } catch (AsyncAdmissionException e) {
+                // 唯讀查詢不受排隊順序影響，隊列積壓時改走同步查詢
+                logger.warn("隊列積壓，改用同步查詢: queue={}", e.getQueueName());
+            } catch (AsyncPublishException e) {
+                logger.warn("異步請求未確認送達，改用同步查詢: {}", e.getMessage());
+            }
         }
 
         // 本地環境，同步處理
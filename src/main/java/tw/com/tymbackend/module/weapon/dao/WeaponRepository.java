@@ -1,8 +1,7 @@
 package tw.com.tymbackend.module.weapon.dao;
 
+import tw.com.tymbackend.core.repository.StringPkRepository;
 import tw.com.tymbackend.module.weapon.domain.vo.Weapon;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -10,7 +9,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface WeaponRepository extends JpaRepository<Weapon, String>, JpaSpecificationExecutor<Weapon> {
+public interface WeaponRepository extends StringPkRepository<Weapon>, WeaponUpsertRepository {
     
     Optional<Weapon> findByName(String name);
     
@@ -22,6 +21,10 @@ public interface WeaponRepository extends JpaRepository<Weapon, String>, JpaSpec
     @Query("SELECT w FROM Weapon w WHERE w.owner IN :owners")
     List<Weapon> findByOwnersIn(@Param("owners") List<String> owners);
     
+    // 只查詢武器名稱與擁有者，供批量寫入前記錄原擁有者
+    @Query("SELECT w.name, w.owner FROM Weapon w WHERE w.name IN :names")
+    List<Object[]> findOwnersByNames(@Param("names") List<String> names);
+    
     List<Weapon> findByBaseDamageBetween(Integer minDamage, Integer maxDamage);
     
     List<Weapon> findByAttributes(String attributes);
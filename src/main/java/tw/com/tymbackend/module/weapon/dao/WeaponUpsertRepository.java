@@ -0,0 +1,25 @@
+package tw.com.tymbackend.module.weapon.dao;
+
+import java.util.List;
+
+import tw.com.tymbackend.module.weapon.domain.vo.Weapon;
+
+/**
+ * Batch UPSERT for weapons
+ *
+ * <p>以 PostgreSQL {@code INSERT ... ON CONFLICT DO UPDATE} 搭配 JDBC 批次送出，
+ * 不論筆數多寡都只需少數幾次資料庫往返，不經過 Hibernate merge。</p>
+ */
+public interface WeaponUpsertRepository {
+
+    /**
+     * Insert new weapons and merge existing ones
+     *
+     * <p>已存在的武器只覆寫非 null 的數值、非空白的字串與非空的陣列，
+     * 並更新 updated_at、將 version 加一；embedding 不寫入。必須在交易內呼叫。</p>
+     *
+     * @param weapons weapons to write, name must not be empty
+     * @return number of weapons written
+     */
+    int upsertAll(List<Weapon> weapons);
+}
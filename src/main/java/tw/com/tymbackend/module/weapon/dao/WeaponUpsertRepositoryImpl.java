@@ -0,0 +1,82 @@
+package tw.com.tymbackend.module.weapon.dao;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+
+import tw.com.tymbackend.module.weapon.domain.vo.Weapon;
+
+/**
+ * {@link WeaponUpsertRepository} 的實現
+ *
+ * <p>衝突時的合併規則與 {@code WeaponService.updateWeaponSmart} 一致：
+ * 字串需非空白、陣列需非空、數值需非 null 才會覆寫。</p>
+ */
+public class WeaponUpsertRepositoryImpl implements WeaponUpsertRepository {
+
+    static final String UPSERT_SQL = """
+            INSERT INTO weapon (weapon, owner, attributes, base_damage, bonus_damage,
+                                bonus_attributes, state_attributes, created_at, updated_at, version)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)
+            ON CONFLICT (weapon) DO UPDATE SET
+                owner = CASE WHEN BTRIM(EXCLUDED.owner) <> '' THEN EXCLUDED.owner ELSE weapon.owner END,
+                attributes = CASE WHEN BTRIM(EXCLUDED.attributes) <> '' THEN EXCLUDED.attributes ELSE weapon.attributes END,
+                base_damage = COALESCE(EXCLUDED.base_damage, weapon.base_damage),
+                bonus_damage = COALESCE(EXCLUDED.bonus_damage, weapon.bonus_damage),
+                bonus_attributes = CASE WHEN CARDINALITY(EXCLUDED.bonus_attributes) > 0
+                    THEN EXCLUDED.bonus_attributes ELSE weapon.bonus_attributes END,
+                state_attributes = CASE WHEN CARDINALITY(EXCLUDED.state_attributes) > 0
+                    THEN EXCLUDED.state_attributes ELSE weapon.state_attributes END,
+                updated_at = EXCLUDED.updated_at,
+                version = COALESCE(weapon.version, 0) + 1
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public WeaponUpsertRepositoryImpl(JdbcTemplate jdbcTemplate,
+            @Value("${app.upsert.batch-size:100}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public int upsertAll(List<Weapon> weapons) {
+        if (weapons.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(UPSERT_SQL, weapons, batchSize, (ps, weapon) -> {
+            StatementCreatorUtils.setParameterValue(ps, 1, SqlTypeValue.TYPE_UNKNOWN, weapon.getName());
+            StatementCreatorUtils.setParameterValue(ps, 2, SqlTypeValue.TYPE_UNKNOWN, weapon.getOwner());
+            StatementCreatorUtils.setParameterValue(ps, 3, SqlTypeValue.TYPE_UNKNOWN, weapon.getAttributes());
+            StatementCreatorUtils.setParameterValue(ps, 4, Types.INTEGER, weapon.getBaseDamage());
+            StatementCreatorUtils.setParameterValue(ps, 5, Types.INTEGER, weapon.getBonusDamage());
+            setTextArray(ps, 6, weapon.getBonusAttributes());
+            setTextArray(ps, 7, weapon.getStateAttributes());
+            LocalDateTime createdAt = weapon.getCreatedAt() != null ? weapon.getCreatedAt() : now;
+            StatementCreatorUtils.setParameterValue(ps, 8, SqlTypeValue.TYPE_UNKNOWN, createdAt);
+            StatementCreatorUtils.setParameterValue(ps, 9, SqlTypeValue.TYPE_UNKNOWN, now);
+        });
+        return weapons.size();
+    }
+
+    private static void setTextArray(PreparedStatement ps, int index, List<String> values) throws SQLException {
+        if (values == null) {
+            ps.setNull(index, Types.ARRAY);
+            return;
+        }
+        Connection connection = ps.getConnection();
+        Array array = connection.createArrayOf("text", values.toArray());
+        ps.setArray(index, array);
+    }
+}
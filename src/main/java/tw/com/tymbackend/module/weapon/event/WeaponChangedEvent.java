@@ -0,0 +1,83 @@
+package tw.com.tymbackend.module.weapon.event;
+
+import tw.com.tymbackend.module.weapon.domain.vo.Weapon;
+
+/**
+ * 武器資料異動事件
+ *
+ * 由 {@code WeaponService} 在寫入操作後發佈，
+ * 監聽者應使用 {@code @TransactionalEventListener} 於交易提交後處理。
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+public class WeaponChangedEvent {
+
+    private final String weaponName;
+    private final Weapon weapon;
+    private final String previousOwner;
+    private final boolean cleared;
+
+    private WeaponChangedEvent(String weaponName, Weapon weapon, String previousOwner, boolean cleared) {
+        this.weaponName = weaponName;
+        this.weapon = weapon;
+        this.previousOwner = previousOwner;
+        this.cleared = cleared;
+    }
+
+    /**
+     * 建立武器新增或更新事件
+     *
+     * @param weapon 寫入後的武器
+     * @param previousOwner 寫入前的擁有者，新武器或未知時為 null
+     * @return 異動事件
+     */
+    public static WeaponChangedEvent saved(Weapon weapon, String previousOwner) {
+        return new WeaponChangedEvent(weapon.getName(), weapon, previousOwner, false);
+    }
+
+    /**
+     * 建立武器刪除事件
+     *
+     * @param weaponName 被刪除的武器名稱
+     * @return 異動事件
+     */
+    public static WeaponChangedEvent deleted(String weaponName) {
+        return new WeaponChangedEvent(weaponName, null, null, false);
+    }
+
+    /**
+     * 建立刪除所有武器事件
+     *
+     * @return 異動事件
+     */
+    public static WeaponChangedEvent cleared() {
+        return new WeaponChangedEvent(null, null, null, true);
+    }
+
+    public String getWeaponName() {
+        return weaponName;
+    }
+
+    /**
+     * 取得寫入後的武器
+     *
+     * @return 武器，刪除時為 null
+     */
+    public Weapon getWeapon() {
+        return weapon;
+    }
+
+    public String getPreviousOwner() {
+        return previousOwner;
+    }
+
+    public boolean isDeleted() {
+        return !cleared && weapon == null;
+    }
+
+    public boolean isCleared() {
+        return cleared;
+    }
+}
@@ -1,5 +1,8 @@
 package tw.com.tymbackend.module.weapon.service;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -10,20 +13,35 @@ import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Recover;
 import org.springframework.retry.annotation.Retryable;
 
+import tw.com.tymbackend.core.config.cache.TieredCacheConfig;
+import tw.com.tymbackend.core.repository.KeysetPage;
 import tw.com.tymbackend.module.weapon.dao.WeaponRepository;
 import tw.com.tymbackend.module.weapon.domain.vo.Weapon;
+import tw.com.tymbackend.module.weapon.event.WeaponChangedEvent;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class WeaponService {
     
     private final WeaponRepository weaponRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
-    public WeaponService(WeaponRepository weaponRepository) {
+    /** 串流查詢每次從資料庫游標取回的筆數 */
+    @Value("${app.pagination.stream-fetch-size:200}")
+    private int streamFetchSize = 200;
+    
+    public WeaponService(WeaponRepository weaponRepository, ApplicationEventPublisher eventPublisher) {
         this.weaponRepository = weaponRepository;
+        this.eventPublisher = eventPublisher;
     }
     
     /**
@@ -35,12 +53,37 @@ public class WeaponService {
         return weaponRepository.findAll();
     }
     
+    /**
+     * Get weapons page by page, ordered by name
+     * 
+     * @param after cursor of the previous page, null for the first page
+     * @param limit page size
+     * @return weapons of this page and the cursor of the next page
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Weapon, String> getWeaponsPage(String after, int limit) {
+        return weaponRepository.findPageAfter(after, limit);
+    }
+    
+    /**
+     * Read all weapons one by one from a database cursor, ordered by name
+     * 
+     * @param consumer callback for each weapon, invoked inside the transaction
+     */
+    @Transactional(readOnly = true)
+    public void streamAllWeapons(Consumer<Weapon> consumer) {
+        try (Stream<Weapon> weapons = weaponRepository.streamAll(streamFetchSize)) {
+            weapons.forEach(consumer);
+        }
+    }
+    
     /**
      * Get weapons by owner
      * 
      * @param owner the weapon owner
      * @return list of weapons belonging to the specified owner
      */
+    @Cacheable(value = TieredCacheConfig.WEAPONS_BY_OWNER, key = "#owner")
     public List<Weapon> getWeaponsByOwner(String owner) {
         return weaponRepository.findByOwner(owner);
     }
@@ -67,7 +110,7 @@ public class WeaponService {
      */
     @Transactional
     public Weapon saveWeapon(Weapon weapon) {
-        return weaponRepository.save(weapon);
+        return published(weaponRepository.save(weapon), null);
     }
     
     /**
@@ -87,7 +130,7 @@ public class WeaponService {
         
         // 如果是新武器，確保不處理 embedding 欄位
         weapon.setEmbedding(null);
-        return weaponRepository.save(weapon);
+        return published(weaponRepository.save(weapon), null);
     }
     
     /**
@@ -95,6 +138,8 @@ public class WeaponService {
      */
     @Transactional
     public Weapon updateWeaponSmart(Weapon existing, Weapon updateData) {
+        String previousOwner = existing.getOwner();
+
         // 只更新非空且非空字串的欄位
         if (isValidString(updateData.getOwner())) {
             existing.setOwner(updateData.getOwner());
@@ -125,7 +170,55 @@ public class WeaponService {
         // 更新時間戳
         existing.setUpdatedAt(java.time.LocalDateTime.now());
         
-        return weaponRepository.save(existing);
+        return published(weaponRepository.save(existing), previousOwner);
+    }
+    
+    /**
+     * Insert or merge weapons in one native batch
+     * 
+     * <p>以原生 {@code INSERT ... ON CONFLICT DO UPDATE} 批次寫入，取代逐筆 findById + save；
+     * 已存在的武器與 {@link #updateWeaponSmart(Weapon, Weapon)} 相同，只覆寫有效欄位並遞增版本。
+     * 寫入前一次查出原擁有者、寫入後一次讀回最新資料，讓快取依新舊擁有者失效。</p>
+     * 
+     * @param weapons weapons to write
+     * @return weapons after the write
+     * @throws IllegalArgumentException if any weapon has no name
+     */
+    @Transactional
+    public List<Weapon> upsertBatch(List<Weapon> weapons) {
+        Set<String> names = new LinkedHashSet<>();
+        for (Weapon weapon : weapons) {
+            if (weapon == null || !isValidString(weapon.getName())) {
+                throw new IllegalArgumentException("Weapon name is required for upsert");
+            }
+            names.add(weapon.getName());
+        }
+        if (names.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<String> nameList = new ArrayList<>(names);
+        Map<String, String> previousOwners = new HashMap<>();
+        for (Object[] row : weaponRepository.findOwnersByNames(nameList)) {
+            previousOwners.put((String) row[0], (String) row[1]);
+        }
+
+        weaponRepository.upsertAll(weapons);
+        List<Weapon> saved = weaponRepository.findAllById(nameList);
+        for (Weapon weapon : saved) {
+            published(weapon, previousOwners.get(weapon.getName()));
+        }
+        return saved;
+    }
+    
+    /**
+     * Publish a weapon change so snapshots and caches refresh after commit
+     */
+    private Weapon published(Weapon saved, String previousOwner) {
+        if (saved != null) {
+            eventPublisher.publishEvent(WeaponChangedEvent.saved(saved, previousOwner));
+        }
+        return saved;
     }
     
     /**
@@ -141,6 +234,7 @@ public class WeaponService {
     @Transactional
     public void deleteWeapon(String name) {
         weaponRepository.deleteById(name);
+        eventPublisher.publishEvent(WeaponChangedEvent.deleted(name));
     }
     
     /**
@@ -149,6 +243,7 @@ public class WeaponService {
     @Transactional
     public void deleteAllWeapons() {
         weaponRepository.deleteAll();
+        eventPublisher.publishEvent(WeaponChangedEvent.cleared());
     }
     
     /**
@@ -168,7 +263,7 @@ public class WeaponService {
             .map(existing -> {
                 existing.setBaseDamage(newWeapon.getBaseDamage());
                 existing.setAttributes(newWeapon.getAttributes());
-                return weaponRepository.save(existing);
+                return published(weaponRepository.save(existing), existing.getOwner());
             })
             .orElse(null);
     }
@@ -182,7 +277,7 @@ public class WeaponService {
         return weaponRepository.findById(name)
             .map(existing -> {
                 existing.setBaseDamage(baseDamage);
-                return weaponRepository.save(existing);
+                return published(weaponRepository.save(existing), existing.getOwner());
             })
             .orElse(null);
     }
@@ -196,7 +291,7 @@ public class WeaponService {
         return weaponRepository.findById(name)
             .map(existing -> {
                 existing.setBonusDamage(bonusDamage);
-                return weaponRepository.save(existing);
+                return published(weaponRepository.save(existing), existing.getOwner());
             })
             .orElse(null);
     }
@@ -210,7 +305,7 @@ public class WeaponService {
         return weaponRepository.findById(name)
             .map(existing -> {
                 existing.setBonusAttributes(bonusAttributes);
-                return weaponRepository.save(existing);
+                return published(weaponRepository.save(existing), existing.getOwner());
             })
             .orElse(null);
     }
@@ -224,7 +319,7 @@ public class WeaponService {
         return weaponRepository.findById(name)
             .map(existing -> {
                 existing.setStateAttributes(stateAttributes);
-                return weaponRepository.save(existing);
+                return published(weaponRepository.save(existing), existing.getOwner());
             })
             .orElse(null);
     }
@@ -0,0 +1,54 @@
+package tw.com.tymbackend.module.weapon.service.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import tw.com.tymbackend.core.config.cache.TieredCacheConfig;
+import tw.com.tymbackend.module.weapon.event.WeaponChangedEvent;
+
+/**
+ * 武器寫入提交後清除武器擁有者查詢快取
+ *
+ * <p>儲存時清除新舊擁有者；刪除事件不帶擁有者，因此清除整個快取。</p>
+ *
+ * @author TY Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+public class WeaponCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    public WeaponCacheInvalidator(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * 清除受影響擁有者的武器查詢快取
+     *
+     * @param event 武器異動事件
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWeaponChanged(WeaponChangedEvent event) {
+        Cache cache = cacheManager.getCache(TieredCacheConfig.WEAPONS_BY_OWNER);
+        if (cache == null) {
+            return;
+        }
+        if (event.isCleared() || event.isDeleted()) {
+            cache.clear();
+            return;
+        }
+        if (event.getPreviousOwner() != null) {
+            cache.evict(event.getPreviousOwner());
+        }
+        if (event.getWeapon().getOwner() != null) {
+            cache.evict(event.getWeapon().getOwner());
+        }
+    }
+}
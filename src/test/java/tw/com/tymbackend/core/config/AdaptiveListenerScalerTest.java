@@ -0,0 +1,70 @@
+package tw.com.tymbackend.core.config;
+
+import org.junit.jupiter.api.Test;
+import tw.com.tymbackend.core.config.AdaptiveListenerScaler.Decision;
+import tw.com.tymbackend.core.config.AdaptiveListenerScaler.Sample;
+import tw.com.tymbackend.core.config.AdaptiveListenerScaler.Settings;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveListenerScalerTest {
+
+    private final Settings settings = new Settings(1, 4, 1, 20, 10, 500);
+
+    @Test
+    void decide_BacklogWithLowLatencyScalesUp() {
+        Decision decision = AdaptiveListenerScaler.decide(1, 1, new Sample(50, 20), settings);
+
+        assertEquals("scale_up", decision.action());
+        assertEquals(2, decision.consumers());
+        assertEquals(2, decision.prefetch());
+    }
+
+    @Test
+    void decide_ScaleUpStaysWithinBounds() {
+        Decision decision = AdaptiveListenerScaler.decide(4, 16, new Sample(500, 20), settings);
+        assertEquals(4, decision.consumers());
+        assertEquals(20, decision.prefetch());
+
+        Decision atMax = AdaptiveListenerScaler.decide(4, 20, new Sample(500, 20), settings);
+        assertEquals("hold", atMax.action());
+        assertEquals("at_max", atMax.reason());
+    }
+
+    @Test
+    void decide_HighLatencyBacksOffEvenWithBacklog() {
+        Decision decision = AdaptiveListenerScaler.decide(3, 8, new Sample(500, 800), settings);
+
+        assertEquals("scale_down", decision.action());
+        assertEquals("latency", decision.reason());
+        assertEquals(2, decision.consumers());
+        assertEquals(4, decision.prefetch());
+    }
+
+    @Test
+    void decide_HighLatencyScalesDown() {
+        Decision decision = AdaptiveListenerScaler.decide(2, 4, new Sample(50, 800), settings);
+
+        assertEquals("scale_down", decision.action());
+        assertEquals("latency", decision.reason());
+        assertEquals(1, decision.consumers());
+        assertEquals(2, decision.prefetch());
+    }
+
+    @Test
+    void decide_IdleQueueReturnsToMinimum() {
+        Decision decision = AdaptiveListenerScaler.decide(1, 1, new Sample(0, 0), settings);
+
+        assertEquals("hold", decision.action());
+        assertEquals(1, decision.consumers());
+        assertEquals(1, decision.prefetch());
+    }
+
+    @Test
+    void decide_ModerateBacklogHolds() {
+        Decision decision = AdaptiveListenerScaler.decide(2, 4, new Sample(15, 100), settings);
+
+        assertEquals("hold", decision.action());
+        assertEquals("steady", decision.reason());
+    }
+}
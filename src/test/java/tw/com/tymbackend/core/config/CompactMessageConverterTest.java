@@ -0,0 +1,84 @@
+package tw.com.tymbackend.core.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import tw.com.tymbackend.core.message.AsyncMessageDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactMessageConverterTest {
+
+    @Test
+    void toMessage_SmallBodyStaysPlainJson() {
+        CompactMessageConverter converter = converter("gzip", false);
+
+        Message message = converter.toMessage(new AsyncMessageDTO("r1", "/tymb/people/insert", "POST", "Draeny"),
+                new MessageProperties());
+
+        assertEquals(MessageProperties.CONTENT_TYPE_JSON, message.getMessageProperties().getContentType());
+        assertFalse(message.getMessageProperties().getContentEncoding().startsWith("gzip"));
+        assertEquals("r1", ((AsyncMessageDTO) converter.fromMessage(message)).getRequestId());
+    }
+
+    @Test
+    void toMessage_LargeBodyIsGzipCompressed() {
+        CompactMessageConverter converter = converter("gzip", false);
+        AsyncMessageDTO dto = new AsyncMessageDTO("r1", "/tymb/people/insert-multiple", "POST", people(200));
+        int plainSize = new Jackson2JsonMessageConverter().toMessage(dto, new MessageProperties()).getBody().length;
+
+        Message message = converter.toMessage(dto, new MessageProperties());
+
+        assertTrue(message.getMessageProperties().getContentEncoding().startsWith("gzip"));
+        assertTrue(message.getBody().length < plainSize);
+        AsyncMessageDTO decoded = (AsyncMessageDTO) converter.fromMessage(message);
+        assertEquals(200, ((List<?>) decoded.getPayload()).size());
+    }
+
+    @Test
+    void toMessage_Lz4RoundTrip() {
+        CompactMessageConverter converter = converter("lz4", false);
+        AsyncMessageDTO dto = new AsyncMessageDTO("r1", "/tymb/people/insert-multiple", "POST", people(200));
+
+        Message message = converter.toMessage(dto, new MessageProperties());
+
+        assertTrue(message.getMessageProperties().getContentEncoding().startsWith("lz4"));
+        Message decompressed = CompactMessageConverter.decompressor().postProcessMessage(message);
+        assertEquals(MessageProperties.CONTENT_TYPE_JSON, decompressed.getMessageProperties().getContentType());
+    }
+
+    @Test
+    void toMessage_BulkPayloadUsesSmileWhenEnabled() {
+        CompactMessageConverter converter = converter("none", true);
+        AsyncMessageDTO dto = new AsyncMessageDTO("r1", "/tymb/people/insert-multiple", "POST", people(10));
+
+        Message message = converter.toMessage(dto, new MessageProperties());
+
+        assertEquals(CompactMessageConverter.SMILE_CONTENT_TYPE, message.getMessageProperties().getContentType());
+        AsyncMessageDTO decoded = (AsyncMessageDTO) converter.fromMessage(message);
+        assertEquals("r1", decoded.getRequestId());
+        assertEquals(10, ((List<?>) decoded.getPayload()).size());
+    }
+
+    @Test
+    void constructor_RejectsUnknownAlgorithm() {
+        assertThrows(IllegalArgumentException.class, () -> converter("brotli", false));
+    }
+
+    private static CompactMessageConverter converter(String algorithm, boolean binaryPayloads) {
+        return new CompactMessageConverter(new Jackson2JsonMessageConverter("*"), algorithm, 1024, binaryPayloads);
+    }
+
+    private static List<Map<String, Object>> people(int count) {
+        List<Map<String, Object>> people = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            people.add(Map.of("name", "person-" + i, "baseAttributes", "human", "bonusAttributes", "none"));
+        }
+        return people;
+    }
+}
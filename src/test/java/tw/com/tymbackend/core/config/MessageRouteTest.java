@@ -0,0 +1,57 @@
+package tw.com.tymbackend.core.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageRouteTest {
+
+    @Test
+    void forQueue_ReturnsRoutingKeyBoundToQueue() {
+        assertEquals("damage.calculation", MessageRoute.forQueue(RabbitMQConfig.DAMAGE_CALCULATION_QUEUE).getRoutingKey());
+        assertEquals("people.insert.multiple",
+                MessageRoute.forQueue(RabbitMQConfig.PEOPLE_INSERT_MULTIPLE_QUEUE).getRoutingKey());
+    }
+
+    @Test
+    void forQueue_UnknownQueueThrows() {
+        assertThrows(IllegalArgumentException.class, () -> MessageRoute.forQueue("unknown"));
+    }
+
+    @Test
+    void laneOf_BulkWritesUseBulkLane() {
+        assertEquals(MessageLane.BULK, MessageRoute.laneOf("people.insert.multiple"));
+        assertEquals(MessageLane.BULK, MessageRoute.laneOf("weapon.delete.all"));
+        assertEquals(MessageLane.INTERACTIVE, MessageRoute.laneOf("people.get.by.name"));
+        assertEquals(MessageLane.INTERACTIVE, MessageRoute.laneOf("unknown.key"));
+    }
+
+    @Test
+    void isBulkQueue_OnlyForDeclaredBulkQueues() {
+        assertTrue(MessageRoute.isBulkQueue(RabbitMQConfig.PEOPLE_DELETE_ALL_QUEUE));
+        assertFalse(MessageRoute.isBulkQueue(RabbitMQConfig.PEOPLE_GET_ALL_QUEUE));
+        assertFalse(MessageRoute.isBulkQueue("amq.gen-anonymous"));
+    }
+
+    @Test
+    void getDeclaredQueueName_KeepsLegacyNamesUntilMigration() {
+        // 未啟用 v2 遷移時宣告外部 Consumer 正在監聽的舊名稱
+        assertEquals("people-get-all", MessageRoute.PEOPLE_GET_ALL.getDeclaredQueueName(false));
+        assertEquals("people-get-all.v2", MessageRoute.PEOPLE_GET_ALL.getDeclaredQueueName(true));
+    }
+
+    @Test
+    void isSharedWithGateway_KeepsGatewayQueuesUnversioned() {
+        for (MessageRoute route : MessageRoute.values()) {
+            assertEquals(route.isSharedWithGateway(),
+                    route.getQueueName().equals(route.getDeclaredQueueName(true)), route.name());
+        }
+    }
+
+    @Test
+    void findByQueue_ResolvesBothNames() {
+        assertEquals(MessageRoute.PEOPLE_GET_ALL, MessageRoute.findByQueue("people-get-all").orElseThrow());
+        assertEquals(MessageRoute.PEOPLE_GET_ALL, MessageRoute.findByQueue("people-get-all.v2").orElseThrow());
+        assertTrue(MessageRoute.isBulkQueue("people-delete-all.v2"));
+    }
+}
@@ -0,0 +1,164 @@
+package tw.com.tymbackend.core.config.cache;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactRedisSerializerTest {
+
+    private ObjectMapper objectMapper;
+    private CompactRedisSerializer serializer;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        serializer = CompactRedisSerializer.smile(objectMapper, 256);
+    }
+
+    @Test
+    void smile_RoundTrip() {
+        Map<String, Object> value = new HashMap<>();
+        value.put("name", "Alice");
+        value.put("damage", 305);
+
+        byte[] bytes = serializer.serialize(value);
+
+        assertEquals(CompactRedisSerializer.MAGIC, bytes[0]);
+        assertEquals(CompactRedisSerializer.CODEC_SMILE, bytes[2]);
+        assertEquals(0, bytes[3]);
+        assertEquals(value, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void smile_CompressesAboveThreshold() {
+        List<String> value = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            value.add("Character-" + (i % 10));
+        }
+
+        byte[] plain = CompactRedisSerializer.smile(objectMapper, 0).serialize(value);
+        byte[] compressed = serializer.serialize(value);
+
+        assertEquals(1, compressed[3] & 0x01);
+        assertTrue(compressed.length < plain.length);
+        assertEquals(value, serializer.deserialize(compressed));
+    }
+
+    @Test
+    void smile_ReadsLegacyJson() {
+        Map<String, Object> value = new HashMap<>();
+        value.put("name", "Bob");
+
+        byte[] legacy = CompactRedisSerializer.json(objectMapper).serialize(value);
+
+        assertEquals(value, serializer.deserialize(legacy));
+    }
+
+    @Test
+    void smile_ReadsLegacyTemplateJson() {
+        Map<String, Object> value = new HashMap<>();
+        value.put("name", "Carol");
+        value.put("damage", 42L);
+        CompactRedisSerializer templateSerializer = CompactRedisSerializer.smile(objectMapper, 256,
+                CompactRedisSerializer.templateJson());
+
+        byte[] legacy = new GenericJackson2JsonRedisSerializer().serialize(value);
+
+        assertEquals(value, templateSerializer.deserialize(legacy));
+    }
+
+    @Test
+    void templateJson_MatchesPreUpgradeTemplateFormat() {
+        Map<String, Object> value = new HashMap<>();
+        value.put("name", "Dave");
+        value.put("tags", new ArrayList<>(List.of("a", "b")));
+
+        assertArrayEquals(new GenericJackson2JsonRedisSerializer().serialize(value),
+                CompactRedisSerializer.templateJson().serialize(value));
+    }
+
+    @Test
+    void json_UsesApplicationMapperWithNonFinalTyping() {
+        Map<String, Object> value = new HashMap<>();
+        value.put("name", "Dave");
+        value.put("tags", new ArrayList<>(List.of("a", "b")));
+
+        ObjectMapper cacheMapper = objectMapper.copy();
+        cacheMapper.activateDefaultTyping(cacheMapper.getPolymorphicTypeValidator(),
+                ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        GenericJackson2JsonRedisSerializer.registerNullValueSerializer(cacheMapper, null);
+        assertArrayEquals(new GenericJackson2JsonRedisSerializer(cacheMapper).serialize(value),
+                CompactRedisSerializer.json(objectMapper).serialize(value));
+    }
+
+    @Test
+    void jdk_RoundTripAndReadsLegacy() {
+        CompactRedisSerializer jdk = CompactRedisSerializer.jdk(getClass().getClassLoader(), 64);
+        ArrayList<String> value = new ArrayList<>(List.of("ROLE_USER", "ROLE_ADMIN"));
+
+        byte[] bytes = jdk.serialize(value);
+        assertEquals(CompactRedisSerializer.CODEC_JDK, bytes[2]);
+        assertEquals(value, jdk.deserialize(bytes));
+
+        byte[] legacy = new JdkSerializationRedisSerializer().serialize(value);
+        assertEquals(value, jdk.deserialize(legacy));
+    }
+
+    @Test
+    void legacyWrites_WritesLegacyFormatAndReadsCompact() {
+        CompactRedisSerializer compact = CompactRedisSerializer.jdk(getClass().getClassLoader(), 0);
+        CompactRedisSerializer legacy = compact.legacyWrites();
+        ArrayList<String> value = new ArrayList<>(List.of("ROLE_USER"));
+
+        assertArrayEquals(new JdkSerializationRedisSerializer().serialize(value), legacy.serialize(value));
+        assertEquals(value, legacy.deserialize(compact.serialize(value)));
+    }
+
+    @Test
+    void cacheLegacy_ReadsJdkSerializedCacheEntries() {
+        CompactRedisSerializer cacheSerializer = CompactRedisSerializer.smile(objectMapper, 256,
+                CompactRedisSerializer.cacheLegacy(objectMapper, getClass().getClassLoader()));
+        HashMap<String, Object> value = new HashMap<>();
+        value.put("name", "Erin");
+
+        byte[] preUpgrade = new JdkSerializationRedisSerializer().serialize(value);
+        byte[] jsonMode = cacheSerializer.legacyWrites().serialize(value);
+
+        assertEquals(value, cacheSerializer.deserialize(preUpgrade));
+        assertEquals(value, cacheSerializer.deserialize(jsonMode));
+        assertArrayEquals(CompactRedisSerializer.json(objectMapper).serialize(value), jsonMode);
+    }
+
+    @Test
+    void deserialize_NullAndEmpty() {
+        assertEquals(0, serializer.serialize(null).length);
+        assertNull(serializer.deserialize(null));
+        assertNull(serializer.deserialize(new byte[0]));
+    }
+
+    @Test
+    void deserialize_UnsupportedVersion() {
+        byte[] bytes = serializer.serialize("value");
+        bytes[1] = 99;
+
+        assertThrows(SerializationException.class, () -> serializer.deserialize(bytes));
+    }
+
+    @Test
+    void deserialize_CodecMismatch() {
+        byte[] bytes = CompactRedisSerializer.jdk(getClass().getClassLoader(), 0).serialize("value");
+
+        assertThrows(SerializationException.class, () -> serializer.deserialize(bytes));
+    }
+}
@@ -0,0 +1,148 @@
+package tw.com.tymbackend.core.config.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.verification.VerificationMode;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisBatchCacheTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private RedisBatchCache batchCache;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().doReturn(RedisSerializer.java()).when(redisTemplate).getValueSerializer();
+        batchCache = new RedisBatchCache(redisTemplate, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void getAll_AllHitsSkipLoader() {
+        when(valueOperations.multiGet(List.of("people-by-name::Alice", "people-by-name::Bob")))
+                .thenReturn(Arrays.<Object>asList("A", "B"));
+
+        Map<String, String> result = batchCache.getAll("people-by-name", List.of("Alice", "Bob", "Alice"),
+                String.class, missing -> fail("loader should not be called"));
+
+        assertEquals(List.of("Alice", "Bob"), new ArrayList<>(result.keySet()));
+        assertEquals("B", result.get("Bob"));
+        verifyWriteBack(never());
+    }
+
+    @Test
+    void getAll_MissesCoalescedIntoSingleLoadAndGuardedWrite() {
+        when(valueOperations.multiGet(anyList()))
+                .thenReturn(Arrays.<Object>asList("A", null, NullValue.INSTANCE, null));
+        List<List<String>> loaderCalls = new ArrayList<>();
+
+        Map<String, String> result = batchCache.getAll("people-by-name", List.of("Alice", "Bob", "Ghost", "Carol"),
+                String.class, missing -> {
+                    loaderCalls.add(missing);
+                    Map<String, String> loaded = new HashMap<>();
+                    loaded.put("Carol", "C");
+                    loaded.put("Bob", "B");
+                    return loaded;
+                });
+
+        assertEquals(List.of(List.of("Bob", "Carol")), loaderCalls);
+        assertEquals(List.of("Alice", "Bob", "Carol"), new ArrayList<>(result.keySet()));
+        verify(valueOperations, times(1)).multiGet(anyList());
+        verifyWriteBack(times(1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getAll_WriteBackCarriesEvictionMarkers() {
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.<Object>asList(null, null));
+
+        batchCache.getAll("people-by-name", List.of("Alice", "Ghost"), String.class,
+                missing -> Map.of("Alice", "A"));
+
+        // 清除標記在前，其後每個鍵都帶著自己的失效標記，讓腳本在讀取期間有清除時略過寫回
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate).execute(any(RedisScript.class), any(RedisSerializer.class),
+                any(RedisSerializer.class), keys.capture(), args.capture());
+        assertEquals(List.of(
+                CacheInvalidationBus.clearedMarkerKey("people-by-name"),
+                "people-by-name::Alice", CacheInvalidationBus.evictedMarkerKey("people-by-name", "Alice"),
+                "people-by-name::Ghost", CacheInvalidationBus.evictedMarkerKey("people-by-name", "Ghost")),
+                keys.getValue());
+        Object[] written = args.getValue();
+        assertEquals(3, written.length);
+        assertEquals(NullValue.INSTANCE, RedisSerializer.java().deserialize((byte[]) written[2]));
+    }
+
+    @Test
+    void getAll_WriteBackFailureStillReturnsLoaded() {
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.<Object>asList((Object) null));
+        when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                anyList(), any(Object[].class))).thenThrow(new RedisConnectionFailureException("down"));
+
+        Map<String, String> result = batchCache.getAll("people-by-name", List.of("Alice"), String.class,
+                missing -> Map.of("Alice", "A"));
+
+        assertEquals("A", result.get("Alice"));
+    }
+
+    @Test
+    void getAll_TypeMismatchTreatedAsMiss() {
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.<Object>asList(42));
+
+        Map<String, String> result = batchCache.getAll("people-by-name", List.of("Alice"), String.class,
+                missing -> Map.of("Alice", "A"));
+
+        assertEquals("A", result.get("Alice"));
+    }
+
+    @Test
+    void getAll_RedisUnavailableFallsBackToLoader() {
+        when(valueOperations.multiGet(anyList())).thenThrow(new RedisConnectionFailureException("down"));
+
+        Map<String, String> result = batchCache.getAll("people-by-name", List.of("Alice"), String.class,
+                missing -> Map.of("Alice", "A"));
+
+        assertEquals("A", result.get("Alice"));
+        verifyWriteBack(never());
+    }
+
+    @Test
+    void getAll_EmptyKeys() {
+        assertTrue(batchCache.getAll("people-by-name", List.of(), String.class,
+                missing -> fail("loader should not be called")).isEmpty());
+        verifyNoInteractions(valueOperations);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void verifyWriteBack(VerificationMode mode) {
+        verify(redisTemplate, mode).execute(any(RedisScript.class), any(RedisSerializer.class),
+                any(RedisSerializer.class), anyList(), any(Object[].class));
+    }
+}
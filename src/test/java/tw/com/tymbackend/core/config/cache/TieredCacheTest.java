@@ -0,0 +1,109 @@
+package tw.com.tymbackend.core.config.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TieredCacheTest {
+
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+
+    private Cache remote;
+    private com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private TieredCache cache;
+
+    @BeforeEach
+    void setUp() {
+        remote = spy(new ConcurrentMapCache("people-by-name"));
+        local = Caffeine.newBuilder().maximumSize(100).build();
+        cache = new TieredCache("people-by-name", local, remote, invalidationBus);
+    }
+
+    @Test
+    void get_LocalHitSkipsRemote() {
+        cache.put("Alice", "value");
+        clearInvocations(remote);
+
+        assertEquals("value", cache.get("Alice").get());
+        verify(remote, never()).get(any());
+    }
+
+    @Test
+    void get_RemoteHitPopulatesLocal() {
+        remote.put("Alice", "value");
+
+        assertEquals("value", cache.get("Alice").get());
+        assertEquals("value", local.getIfPresent("Alice"));
+    }
+
+    @Test
+    void get_NullValueIsCached() {
+        cache.put("Nobody", null);
+
+        Cache.ValueWrapper wrapper = cache.get("Nobody");
+        assertNotNull(wrapper);
+        assertNull(wrapper.get());
+    }
+
+    @Test
+    void evict_ClearsBothTiersAndBroadcasts() {
+        cache.put("Alice", "value");
+
+        cache.evict("Alice");
+
+        assertNull(cache.get("Alice"));
+        assertNull(remote.get("Alice"));
+        verify(invalidationBus).publishEvict("people-by-name", "Alice");
+    }
+
+    @Test
+    void evictLocal_KeepsRemote() {
+        cache.put("Alice", "value");
+
+        // 其他實例的失效通知只清除本地，下次讀取由 Redis 回填
+        cache.evictLocal("Alice");
+
+        assertNull(local.getIfPresent("Alice"));
+        assertEquals("value", cache.get("Alice").get());
+    }
+
+    @Test
+    void clear_BroadcastsClear() {
+        cache.put("Alice", "value");
+
+        cache.clear();
+
+        assertNull(cache.get("Alice"));
+        verify(invalidationBus).publishClear("people-by-name");
+    }
+
+    @Test
+    void evict_MarksBeforeRemoteEvict() {
+        cache.evict("Alice");
+
+        // 標記必須先於 Redis 清除，批次快取才不會在兩者之間以舊資料回填
+        InOrder inOrder = inOrder(invalidationBus, remote);
+        inOrder.verify(invalidationBus).markEvicted("people-by-name", "Alice");
+        inOrder.verify(remote).evict("Alice");
+    }
+
+    @Test
+    void clear_MarksBeforeRemoteClear() {
+        cache.clear();
+
+        InOrder inOrder = inOrder(invalidationBus, remote);
+        inOrder.verify(invalidationBus).markCleared("people-by-name");
+        inOrder.verify(remote).clear();
+    }
+}
@@ -0,0 +1,89 @@
+package tw.com.tymbackend.core.config.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+
+    @Test
+    void tryAcquire_RejectsAtLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 1.5, 0.2, 10);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+
+        limit.onSuccess(FAST);
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    void onSuccess_GrowsLimitWhileLatencyStable() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 1.5, 0.5, 2);
+
+        for (int i = 0; i < 20; i++) {
+            saturate(limit, FAST);
+        }
+
+        assertTrue(limit.getLimit() > 2, "limit=" + limit.getLimit());
+        assertTrue(limit.getLimit() <= 10);
+    }
+
+    @Test
+    void onSuccess_ShrinksLimitWhenLatencyRises() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 10, 1.5, 0.5, 2);
+        for (int i = 0; i < 5; i++) {
+            saturate(limit, FAST);
+        }
+        int before = limit.getLimit();
+
+        for (int i = 0; i < 5; i++) {
+            saturate(limit, SLOW);
+        }
+
+        assertTrue(limit.getLimit() < before, "before=" + before + ", after=" + limit.getLimit());
+        assertTrue(limit.getLimit() >= 1);
+    }
+
+    @Test
+    void onSuccess_DoesNotGrowWhenUnderutilised() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 20, 1.5, 0.5, 2);
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.onSuccess(FAST);
+        }
+
+        assertEquals(8, limit.getLimit());
+    }
+
+    @Test
+    void onDropped_BacksOffMultiplicatively() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 20, 1.5, 0.2, 10);
+
+        assertTrue(limit.tryAcquire());
+        limit.onDropped();
+
+        assertEquals(9, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    /**
+     * 以目前上限的並發完成一輪請求
+     */
+    private static void saturate(AdaptiveConcurrencyLimit limit, long rttNanos) {
+        int acquired = 0;
+        while (limit.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limit.onSuccess(rttNanos);
+        }
+    }
+}
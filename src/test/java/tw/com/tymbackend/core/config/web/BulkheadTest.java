@@ -0,0 +1,136 @@
+package tw.com.tymbackend.core.config.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadTest {
+
+    @Test
+    void acquire_AdmitsImmediatelyWhenPermitFree() throws Exception {
+        Bulkhead bulkhead = bulkhead(1, 5, 1000);
+
+        assertEquals(Bulkhead.Outcome.ADMITTED, bulkhead.acquire(5, Bulkhead.NO_DEADLINE));
+        assertEquals(1, bulkhead.getLimit().getInFlight());
+    }
+
+    @Test
+    void acquire_RejectsExpiredDeadlineWithoutTakingPermit() throws Exception {
+        Bulkhead bulkhead = bulkhead(1, 5, 1000);
+
+        assertEquals(Bulkhead.Outcome.DEADLINE_EXCEEDED, bulkhead.acquire(5, System.nanoTime() - 1));
+        assertEquals(0, bulkhead.getLimit().getInFlight());
+    }
+
+    @Test
+    void release_HandsPermitToHighestPriorityWaiter() throws Exception {
+        Bulkhead bulkhead = bulkhead(1, 5, 5000);
+        assertEquals(Bulkhead.Outcome.ADMITTED, bulkhead.acquire(5, Bulkhead.NO_DEADLINE));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            AtomicReference<String> firstAdmitted = new AtomicReference<>();
+            CompletableFuture<Bulkhead.Outcome> low = CompletableFuture.supplyAsync(
+                    () -> acquireAndRecord(bulkhead, 1, "low", firstAdmitted), executor);
+            awaitQueued(bulkhead, 1);
+            CompletableFuture<Bulkhead.Outcome> high = CompletableFuture.supplyAsync(
+                    () -> acquireAndRecord(bulkhead, 9, "high", firstAdmitted), executor);
+            awaitQueued(bulkhead, 2);
+
+            bulkhead.onSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+
+            assertEquals(Bulkhead.Outcome.ADMITTED, high.get(2, TimeUnit.SECONDS));
+            assertEquals("high", firstAdmitted.get());
+            assertFalse(low.isDone());
+
+            bulkhead.onSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+            assertEquals(Bulkhead.Outcome.ADMITTED, low.get(2, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void acquire_QueueFullShedsLowerPriorityWaiter() throws Exception {
+        Bulkhead bulkhead = bulkhead(1, 1, 5000);
+        assertEquals(Bulkhead.Outcome.ADMITTED, bulkhead.acquire(5, Bulkhead.NO_DEADLINE));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CompletableFuture<Bulkhead.Outcome> low = CompletableFuture.supplyAsync(
+                    () -> acquire(bulkhead, 1, Bulkhead.NO_DEADLINE), executor);
+            awaitQueued(bulkhead, 1);
+
+            // 同等或更低優先權的新請求直接拒絕
+            assertEquals(Bulkhead.Outcome.QUEUE_FULL, bulkhead.acquire(1, Bulkhead.NO_DEADLINE));
+
+            CompletableFuture<Bulkhead.Outcome> high = CompletableFuture.supplyAsync(
+                    () -> acquire(bulkhead, 9, Bulkhead.NO_DEADLINE), executor);
+            assertEquals(Bulkhead.Outcome.SHED, low.get(2, TimeUnit.SECONDS));
+
+            bulkhead.onSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+            assertEquals(Bulkhead.Outcome.ADMITTED, high.get(2, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void acquire_TimesOutAfterMaxWait() throws Exception {
+        Bulkhead bulkhead = bulkhead(1, 5, 50);
+        assertEquals(Bulkhead.Outcome.ADMITTED, bulkhead.acquire(5, Bulkhead.NO_DEADLINE));
+
+        assertEquals(Bulkhead.Outcome.TIMEOUT, bulkhead.acquire(5, Bulkhead.NO_DEADLINE));
+        assertEquals(0, bulkhead.getQueued());
+    }
+
+    @Test
+    void acquire_WaitEndsAtCallerDeadline() throws Exception {
+        Bulkhead bulkhead = bulkhead(1, 5, 5000);
+        assertEquals(Bulkhead.Outcome.ADMITTED, bulkhead.acquire(5, Bulkhead.NO_DEADLINE));
+
+        long start = System.nanoTime();
+        Bulkhead.Outcome outcome = bulkhead.acquire(5, start + TimeUnit.MILLISECONDS.toNanos(50));
+
+        assertEquals(Bulkhead.Outcome.DEADLINE_EXCEEDED, outcome);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        assertEquals(1, bulkhead.getLimit().getInFlight());
+    }
+
+    private static Bulkhead bulkhead(int limit, int maxQueue, long maxWaitMs) {
+        return new Bulkhead("test", new AdaptiveConcurrencyLimit(limit, limit, limit, 1.5, 0.2, 10),
+                maxQueue, maxWaitMs);
+    }
+
+    private static Bulkhead.Outcome acquire(Bulkhead bulkhead, int priority, long deadline) {
+        try {
+            return bulkhead.acquire(priority, deadline);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Bulkhead.Outcome acquireAndRecord(Bulkhead bulkhead, int priority, String name,
+            AtomicReference<String> firstAdmitted) {
+        Bulkhead.Outcome outcome = acquire(bulkhead, priority, Bulkhead.NO_DEADLINE);
+        if (outcome == Bulkhead.Outcome.ADMITTED) {
+            firstAdmitted.compareAndSet(null, name);
+        }
+        return outcome;
+    }
+
+    private static void awaitQueued(Bulkhead bulkhead, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (bulkhead.getQueued() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, bulkhead.getQueued());
+    }
+}
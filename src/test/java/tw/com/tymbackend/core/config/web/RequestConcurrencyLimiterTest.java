@@ -0,0 +1,43 @@
+package tw.com.tymbackend.core.config.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestConcurrencyLimiterTest {
+
+    @Test
+    void isTrustedCaller_RequiresMatchingInternalToken() {
+        RequestConcurrencyLimiter limiter = limiter("gateway-secret");
+
+        assertTrue(limiter.isTrustedCaller(request("gateway-secret")));
+        assertFalse(limiter.isTrustedCaller(request("guess")));
+        assertFalse(limiter.isTrustedCaller(request(null)));
+    }
+
+    @Test
+    void isTrustedCaller_NoTokenConfiguredTrustsNobody() {
+        RequestConcurrencyLimiter limiter = limiter(" ");
+
+        assertFalse(limiter.isTrustedCaller(request(" ")));
+        assertFalse(limiter.isTrustedCaller(request(null)));
+    }
+
+    private static RequestConcurrencyLimiter limiter(String token) {
+        ConcurrencyProperties properties = new ConcurrencyProperties();
+        properties.setTrustedCallerToken(token);
+        return new RequestConcurrencyLimiter(properties, new SimpleMeterRegistry(), new ObjectMapper());
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tymb/people/names");
+        request.addHeader(RequestConcurrencyLimiter.PRIORITY_HEADER, "9");
+        if (token != null) {
+            request.addHeader(RequestConcurrencyLimiter.INTERNAL_TOKEN_HEADER, token);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,47 @@
+package tw.com.tymbackend.core.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetPageTest {
+
+    @Test
+    void of_ExtraRowMeansMorePages() {
+        KeysetPage<String, String> page = KeysetPage.of(List.of("a", "b", "c"), 2, Function.identity());
+
+        assertEquals(List.of("a", "b"), page.items());
+        assertEquals("b", page.nextCursor());
+        assertTrue(page.hasMore());
+    }
+
+    @Test
+    void of_LastPageHasNoCursor() {
+        KeysetPage<String, String> page = KeysetPage.of(List.of("a", "b"), 2, Function.identity());
+
+        assertEquals(List.of("a", "b"), page.items());
+        assertNull(page.nextCursor());
+        assertFalse(page.hasMore());
+    }
+
+    @Test
+    void of_EmptyResult() {
+        KeysetPage<String, String> page = KeysetPage.of(List.of(), 10, Function.identity());
+
+        assertTrue(page.items().isEmpty());
+        assertNull(page.nextCursor());
+        assertFalse(page.hasMore());
+    }
+
+    @Test
+    void clampLimit_UsesDefaultAndBounds() {
+        assertEquals(50, KeysetPage.clampLimit(null, 50, 500));
+        assertEquals(20, KeysetPage.clampLimit(20, 50, 500));
+        assertEquals(500, KeysetPage.clampLimit(10_000, 50, 500));
+        assertEquals(1, KeysetPage.clampLimit(0, 50, 500));
+        assertEquals(1, KeysetPage.clampLimit(-5, 50, 500));
+    }
+}
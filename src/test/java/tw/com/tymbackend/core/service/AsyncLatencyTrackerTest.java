@@ -0,0 +1,131 @@
+package tw.com.tymbackend.core.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import tw.com.tymbackend.core.message.AsyncMessageDTO;
+import tw.com.tymbackend.core.message.AsyncResultMessage;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncLatencyTrackerTest {
+
+    private static final String ROUTE = "people.insert";
+    private static final String ENDPOINT = "/tymb/people/insert";
+
+    private SimpleMeterRegistry meterRegistry;
+    private AsyncLatencyTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tracker = new AsyncLatencyTracker(meterRegistry, true, 1000);
+    }
+
+    @Test
+    void published_StampsRouteAndPublishTime() {
+        AsyncMessageDTO message = message("r1");
+
+        tracker.published(message, ROUTE);
+
+        assertEquals(ROUTE, message.getRoutingKey());
+        assertNotNull(message.getPublishedAt());
+        assertEquals(1, tracker.inFlight(ROUTE, ENDPOINT));
+    }
+
+    @Test
+    void completed_RecordsEndToEndAndStageLatencies() {
+        AsyncMessageDTO message = message("r1");
+        tracker.published(message, ROUTE);
+        long publishedAt = message.getPublishedAt();
+        AsyncResultMessage result = AsyncResultMessage.completed("r1", null);
+        result.setConsumedAt(publishedAt + 40);
+        result.setCompletedAt(publishedAt + 100);
+
+        tracker.completed(result, publishedAt + 120);
+
+        assertEquals(120, timer("async.request.latency", "completed").totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(40, meterRegistry.get("async.request.queue.wait").tag("route", ROUTE).timer()
+                .totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(60, timer("async.request.processing", "completed").totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(0, tracker.inFlight(ROUTE, ENDPOINT));
+    }
+
+    @Test
+    void completed_WithoutConsumerTimestampsOnlyRecordsEndToEnd() {
+        AsyncMessageDTO message = message("r1");
+        tracker.published(message, ROUTE);
+
+        tracker.completed(AsyncResultMessage.failed("r1", "boom"), message.getPublishedAt() + 10);
+
+        assertEquals(1, timer("async.request.latency", "failed").count());
+        assertNull(meterRegistry.find("async.request.queue.wait").timer());
+    }
+
+    @Test
+    void completed_IgnoresRequestsPublishedElsewhere() {
+        tracker.completed(AsyncResultMessage.completed("unknown", null));
+
+        assertNull(meterRegistry.find("async.request.latency").timer());
+    }
+
+    @Test
+    void sweep_CountsTimedOutRequests() {
+        AsyncMessageDTO message = message("r1");
+        tracker.published(message, ROUTE);
+
+        tracker.sweep(message.getPublishedAt() + 500);
+        assertEquals(1, tracker.inFlight(ROUTE, ENDPOINT));
+
+        tracker.sweep(message.getPublishedAt() + 1001);
+        assertEquals(0, tracker.inFlight(ROUTE, ENDPOINT));
+        assertEquals(1, meterRegistry.get("async.request.timeouts").tag("route", ROUTE).counter().count());
+
+        // 逾時後才到的結果不再記錄
+        tracker.completed(AsyncResultMessage.completed("r1", null));
+        assertNull(meterRegistry.find("async.request.latency").timer());
+    }
+
+    @Test
+    void discard_StopsTrackingFailedPublish() {
+        AsyncMessageDTO message = message("r1");
+        tracker.published(message, ROUTE);
+
+        tracker.discard("r1");
+
+        assertEquals(0, tracker.inFlight(ROUTE, ENDPOINT));
+        tracker.sweep(message.getPublishedAt() + 2000);
+        assertNull(meterRegistry.find("async.request.timeouts").counter());
+    }
+
+    @Test
+    void published_TagsEndpointTemplateInsteadOfUserInput() {
+        tracker.published(new AsyncMessageDTO("r1", "/tymb/weapons/Excalibur", "GET", null), "weapon.get");
+        tracker.published(new AsyncMessageDTO("r2", "/tymb/weapons/Masamune", "GET", null), "weapon.get");
+        tracker.published(new AsyncMessageDTO("r3", "/tymb/weapons/owner/Draeny", "GET", null), "weapon.owner");
+
+        assertEquals(2, tracker.inFlight("weapon.get", "/tymb/weapons/{name}"));
+        assertEquals(1, tracker.inFlight("weapon.owner", "/tymb/weapons/owner/{owner}"));
+        assertEquals(2, meterRegistry.find("async.request.in-flight").gauges().size());
+    }
+
+    @Test
+    void endpointTemplate_KeepsFixedPathsAndCollapsesUnknown() {
+        assertEquals("/tymb/weapons/delete-all", AsyncLatencyTracker.endpointTemplate("/tymb/weapons/delete-all"));
+        assertEquals("/tymb/weapons/exists/{name}", AsyncLatencyTracker.endpointTemplate("/tymb/weapons/exists/Axe"));
+        assertEquals(AsyncLatencyTracker.OTHER_ENDPOINT, AsyncLatencyTracker.endpointTemplate("/tymb/weapons/a/b/c"));
+        assertEquals(AsyncLatencyTracker.OTHER_ENDPOINT, AsyncLatencyTracker.endpointTemplate(null));
+    }
+
+    private Timer timer(String name, String status) {
+        return meterRegistry.get(name).tag("route", ROUTE).tag("endpoint", ENDPOINT).tag("status", status).timer();
+    }
+
+    private static AsyncMessageDTO message(String requestId) {
+        return new AsyncMessageDTO(requestId, ENDPOINT, "POST", null);
+    }
+}
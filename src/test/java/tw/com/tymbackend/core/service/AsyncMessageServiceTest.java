@@ -0,0 +1,54 @@
+package tw.com.tymbackend.core.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncMessageServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void coalescingKey_DistinguishesPayloadsWithSameToString() throws Exception {
+        String joined = AsyncMessageService.coalescingKey(objectMapper, "people-batch-damage", List.of("a, b"));
+        String separate = AsyncMessageService.coalescingKey(objectMapper, "people-batch-damage", List.of("a", "b"));
+
+        assertNotEquals(joined, separate);
+    }
+
+    @Test
+    void coalescingKey_SamePayloadSameKey() throws Exception {
+        assertEquals(AsyncMessageService.coalescingKey(objectMapper, "weapon-get-by-name", "Excalibur"),
+                AsyncMessageService.coalescingKey(objectMapper, "weapon-get-by-name", "Excalibur"));
+        assertEquals(AsyncMessageService.coalescingKey(objectMapper, "people-get-all", null),
+                AsyncMessageService.coalescingKey(objectMapper, "people-get-all", null));
+    }
+
+    @Test
+    void awaitRequestId_ReturnsConfirmedRequestId() {
+        assertEquals("request-1",
+                AsyncMessageService.awaitRequestId(CompletableFuture.completedFuture("request-1"), 100));
+    }
+
+    @Test
+    void awaitRequestId_UnwrapsNackAsPublishFailure() {
+        AmqpException nack = new AmqpException("Message nacked by broker");
+
+        AsyncPublishException error = assertThrows(AsyncPublishException.class,
+                () -> AsyncMessageService.awaitRequestId(CompletableFuture.failedFuture(nack), 100));
+        assertSame(nack, error.getCause());
+    }
+
+    @Test
+    void awaitRequestId_TimesOutWithoutCompletingSharedFuture() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        assertThrows(AsyncPublishException.class, () -> AsyncMessageService.awaitRequestId(pending, 10));
+        assertFalse(pending.isDone());
+    }
+}
@@ -0,0 +1,97 @@
+package tw.com.tymbackend.core.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import tw.com.tymbackend.core.message.AsyncResultMessage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncResultStoreTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private AsyncResultStore store;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        store = new AsyncResultStore(redisTemplate, 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void subscribe_WakesOnPutExactlyOnce() {
+        List<AsyncResultMessage> received = new ArrayList<>();
+        store.subscribe("r1", received::add);
+
+        AsyncResultMessage result = AsyncResultMessage.completed("r1", "data");
+        store.put(result);
+        store.put(result);
+
+        assertEquals(List.of(result), received);
+        assertEquals(0, store.waitingCount());
+        verify(valueOperations, times(2)).set(eq(AsyncResultStore.KEY_PREFIX + "r1"), eq(result), any(Duration.class));
+    }
+
+    @Test
+    void subscribe_ExistingResultNotifiesImmediately() {
+        AsyncResultMessage result = AsyncResultMessage.failed("r1", "boom");
+        store.put(result);
+
+        List<AsyncResultMessage> received = new ArrayList<>();
+        store.subscribe("r1", received::add);
+
+        assertEquals(List.of(result), received);
+        assertEquals(0, store.waitingCount());
+    }
+
+    @Test
+    void subscribe_UnsubscribedWaiterIsNotNotified() {
+        List<AsyncResultMessage> received = new ArrayList<>();
+        Runnable unsubscribe = store.subscribe("r1", received::add);
+        unsubscribe.run();
+
+        store.put(AsyncResultMessage.completed("r1", "data"));
+
+        assertTrue(received.isEmpty());
+        assertEquals(0, store.waitingCount());
+    }
+
+    @Test
+    void find_FallsBackToRedis() {
+        AsyncResultMessage result = AsyncResultMessage.completed("r2", "data");
+        when(valueOperations.get(AsyncResultStore.KEY_PREFIX + "r2")).thenReturn(result);
+
+        assertSame(result, store.find("r2").orElseThrow());
+        assertSame(result, store.find("r2").orElseThrow());
+        verify(valueOperations, times(1)).get(anyString());
+    }
+
+    @Test
+    void put_RedisFailureStillWakesWaiters() {
+        doThrow(new RedisConnectionFailureException("down"))
+                .when(valueOperations).set(anyString(), any(), any(Duration.class));
+        List<AsyncResultMessage> received = new ArrayList<>();
+        store.subscribe("r3", received::add);
+
+        store.put(AsyncResultMessage.completed("r3", "data"));
+
+        assertEquals(1, received.size());
+    }
+}
@@ -0,0 +1,165 @@
+package tw.com.tymbackend.core.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import tw.com.tymbackend.core.message.AsyncMessageDTO;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchingMessagePublisherTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private BatchingMessagePublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(rabbitTemplate.invoke(any())).thenAnswer(invocation -> {
+            RabbitOperations.OperationsCallback<?> callback = invocation.getArgument(0);
+            return callback.doInRabbit(rabbitTemplate);
+        });
+        publisher = new BatchingMessagePublisher(rabbitTemplate, 3, 500, 5000, 100, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.stop();
+    }
+
+    @Test
+    void publish_GroupsMessagesIntoSingleChannelInvocation() {
+        publisher.start();
+
+        publisher.publish("tymb-exchange", "people.insert", message("r1"));
+        publisher.publish("tymb-exchange", "people.insert", message("r2"));
+        publisher.publish("tymb-exchange", "people.insert", message("r3"));
+
+        verify(rabbitTemplate, timeout(2000).times(3))
+                .convertAndSend(eq("tymb-exchange"), eq("people.insert"), any(Object.class),
+                        any(MessagePostProcessor.class), any(CorrelationData.class));
+        verify(rabbitTemplate, times(1)).invoke(any());
+    }
+
+    @Test
+    void publish_InteractiveMessagesOvertakeQueuedBulkMessages() throws Exception {
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation -> {
+            if (firstBatchStarted.getCount() > 0) {
+                firstBatchStarted.countDown();
+                releaseFirstBatch.await(2, TimeUnit.SECONDS);
+            }
+            RabbitOperations.OperationsCallback<?> callback = invocation.getArgument(0);
+            return callback.doInRabbit(rabbitTemplate);
+        });
+        BatchingMessagePublisher lanePublisher = new BatchingMessagePublisher(rabbitTemplate, 3, 0, 5000, 100, 1);
+        lanePublisher.start();
+        try {
+            lanePublisher.publish("tymb-exchange", "people.insert.multiple", message("b0"));
+            assertTrue(firstBatchStarted.await(2, TimeUnit.SECONDS));
+            lanePublisher.publish("tymb-exchange", "people.insert.multiple", message("b1"));
+            lanePublisher.publish("tymb-exchange", "people.insert.multiple", message("b2"));
+            lanePublisher.publish("tymb-exchange", "people.get.by.name", message("i1"));
+            releaseFirstBatch.countDown();
+
+            ArgumentCaptor<AsyncMessageDTO> captor = ArgumentCaptor.forClass(AsyncMessageDTO.class);
+            verify(rabbitTemplate, timeout(2000).times(4)).convertAndSend(eq("tymb-exchange"), anyString(),
+                    captor.capture(), any(MessagePostProcessor.class), any(CorrelationData.class));
+            assertEquals(List.of("b0", "i1", "b1", "b2"),
+                    captor.getAllValues().stream().map(AsyncMessageDTO::getRequestId).toList());
+            // 每批最多一則批量消息：b0、[i1, b1]、b2
+            verify(rabbitTemplate, times(3)).invoke(any());
+        } finally {
+            lanePublisher.stop();
+        }
+    }
+
+    @Test
+    void publish_RejectedWhenNotRunning() {
+        CompletableFuture<Void> future = publisher.publish("tymb-exchange", "people.insert", message("r1"));
+
+        CompletionException error = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(AmqpException.class, error.getCause());
+    }
+
+    @Test
+    void publishBatch_CompletesOnBrokerConfirm() {
+        BatchingMessagePublisher.PendingMessage acked = pending("r1");
+        BatchingMessagePublisher.PendingMessage nacked = pending("r2");
+        BatchingMessagePublisher.PendingMessage returned = pending("r3");
+
+        publisher.publishBatch(List.of(acked, nacked, returned));
+
+        List<CorrelationData> correlations = captureCorrelations(3);
+        assertEquals("r1", correlations.get(0).getId());
+        assertFalse(acked.future().isDone());
+
+        correlations.get(0).getFuture().complete(new CorrelationData.Confirm(true, null));
+        correlations.get(1).getFuture().complete(new CorrelationData.Confirm(false, "overflow"));
+        correlations.get(2).setReturned(new ReturnedMessage(new Message(new byte[0], new MessageProperties()),
+                312, "NO_ROUTE", "tymb-exchange", "people.insert"));
+        correlations.get(2).getFuture().complete(new CorrelationData.Confirm(true, null));
+
+        assertDoesNotThrow(() -> acked.future().join());
+        assertThrows(CompletionException.class, () -> nacked.future().join());
+        assertThrows(CompletionException.class, () -> returned.future().join());
+    }
+
+    @Test
+    void publishBatch_SendFailureOnlyFailsUnsentMessages() {
+        doNothing()
+                .doThrow(new AmqpException("channel closed"))
+                .when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class),
+                        any(MessagePostProcessor.class), any(CorrelationData.class));
+        BatchingMessagePublisher.PendingMessage first = pending("r1");
+        BatchingMessagePublisher.PendingMessage second = pending("r2");
+        BatchingMessagePublisher.PendingMessage third = pending("r3");
+
+        publisher.publishBatch(List.of(first, second, third));
+
+        // 已寫出的消息等待 Broker 確認
+        assertFalse(first.future().isDone());
+        assertTrue(second.future().isCompletedExceptionally());
+        assertTrue(third.future().isCompletedExceptionally());
+    }
+
+    private List<CorrelationData> captureCorrelations(int count) {
+        ArgumentCaptor<CorrelationData> captor = ArgumentCaptor.forClass(CorrelationData.class);
+        verify(rabbitTemplate, times(count))
+                .convertAndSend(anyString(), anyString(), any(Object.class), any(MessagePostProcessor.class),
+                        captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static BatchingMessagePublisher.PendingMessage pending(String requestId) {
+        return new BatchingMessagePublisher.PendingMessage("tymb-exchange", "people.insert", message(requestId),
+                new CompletableFuture<>());
+    }
+
+    private static AsyncMessageDTO message(String requestId) {
+        return new AsyncMessageDTO(requestId, "/tymb/people/insert", "POST", null);
+    }
+}
@@ -0,0 +1,84 @@
+package tw.com.tymbackend.core.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tw.com.tymbackend.core.message.AsyncResultMessage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedJobServiceTest {
+
+    private AsyncResultStore resultStore;
+    private ChunkedJobService jobService;
+    private Map<String, List<?>> sent;
+
+    @BeforeEach
+    void setUp() {
+        resultStore = new AsyncResultStore(null, 100, Duration.ofMinutes(1));
+        jobService = new ChunkedJobService(resultStore, 2, 2, Duration.ofMinutes(1));
+        sent = new ConcurrentHashMap<>();
+    }
+
+    @Test
+    void submit_SplitsItemsIntoChunksAndAggregatesResults() {
+        String jobId = jobService.submit(List.of("a", "b", "c", "d", "e"), this::accept).join();
+
+        assertEquals(3, sent.size());
+        assertEquals(List.of("e"), sent.get(jobId + ":2:1"));
+        assertEquals("processing", jobService.find(jobId).orElseThrow().status());
+
+        new ArrayList<>(sent.keySet()).forEach(requestId ->
+                resultStore.put(AsyncResultMessage.completed(requestId, null)));
+
+        ChunkedJobService.JobStatus status = jobService.find(jobId).orElseThrow();
+        assertEquals("completed", status.status());
+        assertEquals(5, status.completedItems());
+        assertEquals("completed", resultStore.find(jobId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void chunkFailure_RetriedThenMarkedFailed() {
+        String jobId = jobService.submit(List.of("a", "b", "c"), this::accept).join();
+
+        resultStore.put(AsyncResultMessage.completed(jobId + ":0:1", null));
+        resultStore.put(AsyncResultMessage.failed(jobId + ":1:1", "db timeout"));
+        assertTrue(sent.containsKey(jobId + ":1:2"));
+        assertEquals("processing", jobService.find(jobId).orElseThrow().status());
+
+        resultStore.put(AsyncResultMessage.failed(jobId + ":1:2", "db timeout"));
+
+        ChunkedJobService.JobStatus status = jobService.find(jobId).orElseThrow();
+        assertEquals("partially_failed", status.status());
+        assertEquals(1, status.failedChunks());
+        assertEquals(2, status.chunks().get(1).attempts());
+        AsyncResultMessage result = resultStore.find(jobId).orElseThrow();
+        assertEquals("failed", result.getStatus());
+    }
+
+    @Test
+    void submit_FailsWhenNoChunkCanBePublished() {
+        CompletableFuture<String> jobId = jobService.submit(List.of("a", "b", "c"),
+                (requestId, chunk) -> CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        assertThrows(CompletionException.class, jobId::join);
+    }
+
+    @Test
+    void shouldSplit_OnlyWhenLargerThanOneChunk() {
+        assertFalse(jobService.shouldSplit(List.of("a", "b")));
+        assertTrue(jobService.shouldSplit(List.of("a", "b", "c")));
+    }
+
+    private CompletableFuture<Void> accept(String requestId, List<?> chunk) {
+        sent.put(requestId, chunk);
+        return CompletableFuture.completedFuture(null);
+    }
+}
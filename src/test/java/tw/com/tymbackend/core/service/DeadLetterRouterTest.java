@@ -0,0 +1,129 @@
+package tw.com.tymbackend.core.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import tw.com.tymbackend.core.config.RabbitMQConfig;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadLetterRouterTest {
+
+    private static final long[] DELAYS = {1000, 5000, 25000};
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DeadLetterRouter router;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        router = new DeadLetterRouter(rabbitTemplate, meterRegistry, DELAYS);
+    }
+
+    @Test
+    void decide_RejectedMessageUsesTierMatchingFailureCount() {
+        DeadLetterRouter.Decision first = DeadLetterRouter.decide(
+                List.of(death(RabbitMQConfig.PEOPLE_INSERT_QUEUE, "rejected", 1)), DELAYS);
+        DeadLetterRouter.Decision third = DeadLetterRouter.decide(
+                List.of(death(RabbitMQConfig.PEOPLE_INSERT_QUEUE, "rejected", 3)), DELAYS);
+
+        assertTrue(first.retry());
+        assertEquals(1000, first.delayMs());
+        assertEquals("people.insert", first.death().routingKey());
+        assertTrue(third.retry());
+        assertEquals(25000, third.delayMs());
+    }
+
+    @Test
+    void decide_ParksWhenAttemptsExhausted() {
+        DeadLetterRouter.Decision decision = DeadLetterRouter.decide(
+                List.of(death(RabbitMQConfig.PEOPLE_INSERT_QUEUE, "rejected", 4)), DELAYS);
+
+        assertFalse(decision.retry());
+        assertEquals("max_attempts", decision.reason());
+    }
+
+    @Test
+    void decide_ParksExpiredAndUnknownMessages() {
+        assertEquals("expired", DeadLetterRouter.decide(
+                List.of(death(RabbitMQConfig.WEAPON_SAVE_QUEUE, "expired", 1)), DELAYS).reason());
+        assertEquals("no_death_header", DeadLetterRouter.decide(null, DELAYS).reason());
+        assertEquals("unknown_route", DeadLetterRouter.decide(List.of(death("other", "rejected", 1)), DELAYS).reason());
+    }
+
+    @Test
+    void lastDeath_FallsBackToRecordedRoutingKey() {
+        Map<String, Object> death = death("legacy-queue", "rejected", 2);
+        death.put("routing-keys", List.of("legacy.key"));
+
+        DeadLetterRouter.Death parsed = DeadLetterRouter.lastDeath(List.of(death));
+
+        assertEquals("legacy.key", parsed.routingKey());
+        assertEquals(2, parsed.count());
+    }
+
+    @Test
+    void onDeadLetter_RetriesThroughRetryExchangeWithTierHeader() {
+        router.onDeadLetter(message(death(RabbitMQConfig.PEOPLE_UPDATE_QUEUE, "rejected", 2)));
+
+        ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq(RabbitMQConfig.RETRY_EXCHANGE), eq("people.update"), captor.capture());
+        assertEquals("5000", captor.getValue().getMessageProperties().getHeader(RabbitMQConfig.RETRY_TIER_HEADER));
+        assertEquals(1, meterRegistry.counter("async.dead-letter.routed", "queue", RabbitMQConfig.PEOPLE_UPDATE_QUEUE,
+                "action", "retry", "reason", "rejected").count());
+    }
+
+    @Test
+    void onDeadLetter_ParksPoisonMessage() {
+        Message message = message(death(RabbitMQConfig.PEOPLE_UPDATE_QUEUE, "rejected", 4));
+        message.getMessageProperties().setHeader(RabbitMQConfig.RETRY_TIER_HEADER, "25000");
+
+        router.onDeadLetter(message);
+
+        ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq(""), eq(RabbitMQConfig.PARKING_LOT_QUEUE), captor.capture());
+        MessageProperties properties = captor.getValue().getMessageProperties();
+        assertEquals("max_attempts", properties.getHeader(DeadLetterRouter.PARKED_REASON_HEADER));
+        assertNull(properties.getHeader(RabbitMQConfig.RETRY_TIER_HEADER));
+    }
+
+    @Test
+    void onDeadLetter_RequeuesWhenForwardingFails() {
+        doThrow(new AmqpException("channel closed"))
+                .when(rabbitTemplate).send(anyString(), anyString(), any(Message.class));
+
+        assertThrows(ImmediateRequeueAmqpException.class,
+                () -> router.onDeadLetter(message(death(RabbitMQConfig.PEOPLE_UPDATE_QUEUE, "rejected", 1))));
+    }
+
+    private static Message message(Map<String, Object> death) {
+        MessageProperties properties = new MessageProperties();
+        properties.setHeader("x-death", List.of(death));
+        return new Message("{}".getBytes(), properties);
+    }
+
+    private static Map<String, Object> death(String queue, String reason, long count) {
+        return new HashMap<>(Map.of("queue", queue, "reason", reason, "count", count,
+                "exchange", RabbitMQConfig.TYMB_EXCHANGE));
+    }
+}
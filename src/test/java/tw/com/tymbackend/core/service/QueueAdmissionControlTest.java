@@ -0,0 +1,142 @@
+package tw.com.tymbackend.core.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import tw.com.tymbackend.core.config.RabbitMQConfig;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class QueueAdmissionControlTest {
+
+    private static final String QUEUE = RabbitMQConfig.PEOPLE_GET_ALL_QUEUE;
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private SimpleMeterRegistry meterRegistry;
+    private Timer processing;
+    private QueueAdmissionControl admissionControl;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        processing = meterRegistry.timer(QueueAdmissionControl.PROCESSING_TIMER, "route", "people.get.all");
+        admissionControl = new QueueAdmissionControl(mock(RabbitAdmin.class), meterRegistry,
+                true, 60000, 50, 2000, 60000, false);
+    }
+
+    @Test
+    void admit_AcceptsBeforeFirstDrainEstimate() {
+        QueueAdmissionControl.QueueStats stats = admissionControl.stats(QUEUE);
+        admissionControl.update(stats, 10000, 2, 0);
+
+        assertDoesNotThrow(() -> admissionControl.admit(QUEUE, 0));
+    }
+
+    @Test
+    void admit_RejectsGrowingBacklogWithoutProcessingSamples() {
+        QueueAdmissionControl.QueueStats stats = admissionControl.stats(QUEUE);
+        admissionControl.update(stats, 100, 2, 0);
+        // 兩秒內發送 200 則，深度也增加 200：沒有被消化
+        for (int i = 0; i < 200; i++) {
+            admissionControl.recordPublished(QUEUE);
+        }
+        admissionControl.update(stats, 300, 2, 2 * SECOND);
+
+        AsyncAdmissionException error = assertThrows(AsyncAdmissionException.class,
+                () -> admissionControl.admit(QUEUE, 2 * SECOND));
+        assertEquals(QUEUE, error.getQueueName());
+        assertTrue(error.getRetryAfterSeconds() > 0);
+    }
+
+    @Test
+    void admit_AcceptsBacklogDrainedWithinSloWithoutProcessingSamples() {
+        QueueAdmissionControl.QueueStats stats = admissionControl.stats(QUEUE);
+        admissionControl.update(stats, 1000, 2, 0);
+        // 兩秒內發送 100 則，深度減少 100：每秒取走 100 則，剩下 900 則約需 9 秒
+        for (int i = 0; i < 100; i++) {
+            admissionControl.recordPublished(QUEUE);
+        }
+        admissionControl.update(stats, 900, 2, 2 * SECOND);
+
+        assertEquals(100.0, stats.drainRate(), 0.001);
+        assertDoesNotThrow(() -> admissionControl.admit(QUEUE, 2 * SECOND));
+    }
+
+    @Test
+    void recordPublished_IgnoresUntrackedQueue() {
+        admissionControl.recordPublished(QUEUE);
+
+        assertNull(meterRegistry.find("async.queue.depth").tag("queue", QUEUE).gauge());
+    }
+
+    @Test
+    void admit_AcceptsWhenProjectedWaitWithinSlo() {
+        QueueAdmissionControl.QueueStats stats = admissionControl.stats(QUEUE);
+        // 每則 20ms、2 個消費者：100/s，1000 則約需 10 秒
+        processing.record(20, TimeUnit.MILLISECONDS);
+        admissionControl.recordProcessing(stats, List.of(processing));
+        admissionControl.update(stats, 1000, 2, 0);
+
+        assertDoesNotThrow(() -> admissionControl.admit(QUEUE, SECOND));
+    }
+
+    @Test
+    void admit_RejectsWhenProjectedWaitExceedsSlo() {
+        QueueAdmissionControl.QueueStats stats = admissionControl.stats(QUEUE);
+        // 每則 1 秒、1 個消費者：1/s，1000 則約需 1000 秒
+        processing.record(1, TimeUnit.SECONDS);
+        admissionControl.recordProcessing(stats, List.of(processing));
+        admissionControl.update(stats, 1000, 1, 0);
+
+        AsyncAdmissionException error = assertThrows(AsyncAdmissionException.class,
+                () -> admissionControl.admit(QUEUE, SECOND));
+        assertEquals(QUEUE, error.getQueueName());
+        assertTrue(error.getRetryAfterSeconds() > 0);
+        assertTrue(error.getRetryAfterSeconds() <= 300);
+    }
+
+    @Test
+    void admit_IgnoresStatsOlderThanOneSampleInterval() {
+        QueueAdmissionControl.QueueStats stats = admissionControl.stats(QUEUE);
+        processing.record(1, TimeUnit.SECONDS);
+        admissionControl.recordProcessing(stats, List.of(processing));
+        admissionControl.update(stats, 1000, 1, 0);
+
+        assertDoesNotThrow(() -> admissionControl.admit(QUEUE, 3 * SECOND));
+    }
+
+    @Test
+    void admit_RejectsBacklogWithoutConsumers() {
+        QueueAdmissionControl.QueueStats stats = admissionControl.stats(QUEUE);
+        admissionControl.update(stats, 200, 0, 0);
+
+        assertThrows(AsyncAdmissionException.class, () -> admissionControl.admit(QUEUE, SECOND));
+    }
+
+    @Test
+    void admit_AcceptsSmallBacklog() {
+        QueueAdmissionControl.QueueStats stats = admissionControl.stats(QUEUE);
+        admissionControl.update(stats, 10, 0, 0);
+
+        assertDoesNotThrow(() -> admissionControl.admit(QUEUE, SECOND));
+    }
+
+    @Test
+    void recordProcessing_OnlyCountsNewSamples() {
+        QueueAdmissionControl.QueueStats stats = admissionControl.stats(QUEUE);
+        processing.record(100, TimeUnit.MILLISECONDS);
+        admissionControl.recordProcessing(stats, List.of(processing));
+        admissionControl.update(stats, 0, 1, 0);
+        assertEquals(10.0, stats.drainRate(), 0.001);
+
+        // 沒有新的處理紀錄時維持原本的估計
+        admissionControl.recordProcessing(stats, List.of(processing));
+        assertEquals(10.0, stats.drainRate(), 0.001);
+    }
+}
@@ -0,0 +1,103 @@
+package tw.com.tymbackend.core.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tw.com.tymbackend.core.message.AsyncResultMessage;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescerTest {
+
+    private AsyncResultStore resultStore;
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger published;
+
+    @BeforeEach
+    void setUp() {
+        resultStore = new AsyncResultStore(null, 100, Duration.ofMinutes(1));
+        meterRegistry = new SimpleMeterRegistry();
+        published = new AtomicInteger();
+    }
+
+    @Test
+    void coalesce_IdenticalRequestsShareRequestId() {
+        RequestCoalescer coalescer = coalescer(30000, 60000);
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> first = coalescer.coalesce("people-get-all:null", () -> publish(pending));
+        CompletableFuture<String> second = coalescer.coalesce("people-get-all:null", () -> publish(pending));
+        pending.complete("r1");
+
+        assertEquals("r1", first.join());
+        assertEquals("r1", second.join());
+        assertEquals(1, published.get());
+        assertEquals(1.0, meterRegistry.get("async.coalescing.requests").tag("result", "coalesced").counter().count());
+    }
+
+    @Test
+    void coalesce_DistinctQueriesPublishSeparately() {
+        RequestCoalescer coalescer = coalescer(30000, 60000);
+
+        coalescer.coalesce("people-get-by-name:Alice", () -> publish(CompletableFuture.completedFuture("r1")));
+        coalescer.coalesce("people-get-by-name:Bob", () -> publish(CompletableFuture.completedFuture("r2")));
+
+        assertEquals(2, published.get());
+    }
+
+    @Test
+    void coalesce_ResultStartsReuseWindow() throws InterruptedException {
+        RequestCoalescer coalescer = coalescer(30000, 1);
+
+        coalescer.coalesce("weapon-get-all:null", () -> publish(CompletableFuture.completedFuture("r1")));
+        resultStore.put(AsyncResultMessage.completed("r1", "weapons"));
+        Thread.sleep(10);
+        CompletableFuture<String> next = coalescer.coalesce("weapon-get-all:null",
+                () -> publish(CompletableFuture.completedFuture("r2")));
+
+        assertEquals("r2", next.join());
+        assertEquals(2, published.get());
+    }
+
+    @Test
+    void coalesce_FailedPublishIsNotReused() {
+        RequestCoalescer coalescer = coalescer(30000, 60000);
+
+        CompletableFuture<String> failed = coalescer.coalesce("people-get-all:null",
+                () -> publish(CompletableFuture.failedFuture(new IllegalStateException("nack"))));
+        CompletableFuture<String> retried = coalescer.coalesce("people-get-all:null",
+                () -> publish(CompletableFuture.completedFuture("r2")));
+
+        assertThrows(CompletionException.class, failed::join);
+        assertEquals("r2", retried.join());
+        assertEquals(2, published.get());
+    }
+
+    @Test
+    void invalidateAll_NextRequestPublishesAgain() {
+        RequestCoalescer coalescer = coalescer(30000, 60000);
+
+        coalescer.coalesce("people-get-all:null", () -> publish(CompletableFuture.completedFuture("r1")));
+        coalescer.invalidateAll();
+        CompletableFuture<String> next = coalescer.coalesce("people-get-all:null",
+                () -> publish(CompletableFuture.completedFuture("r2")));
+
+        assertEquals("r2", next.join());
+        // 只剩新請求在等待結果
+        assertEquals(1, resultStore.waitingCount());
+    }
+
+    private RequestCoalescer coalescer(long inFlightTtlMs, long reuseWindowMs) {
+        return new RequestCoalescer(resultStore, meterRegistry, true, inFlightTtlMs, reuseWindowMs, 1000);
+    }
+
+    private CompletableFuture<String> publish(CompletableFuture<String> result) {
+        published.incrementAndGet();
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+package tw.com.tymbackend.core.util;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NdjsonWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void accept_WritesOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (NdjsonWriter<Map<String, Object>> writer = new NdjsonWriter<>(objectMapper, output)) {
+            writer.accept(Map.of("name", "Draeny"));
+            writer.accept(Map.of("name", "維克多"));
+            assertEquals(2, writer.getWritten());
+        }
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Draeny", objectMapper.readTree(lines[0]).get("name").asText());
+        assertEquals("維克多", objectMapper.readTree(lines[1]).get("name").asText());
+    }
+
+    @Test
+    void accept_WriteFailureIsUnchecked() throws Exception {
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        NdjsonWriter<String> writer = new NdjsonWriter<>(objectMapper, broken);
+        UncheckedIOException error = assertThrows(UncheckedIOException.class, () -> {
+            for (int i = 0; i < 1000; i++) {
+                writer.accept("x".repeat(100));
+            }
+        });
+        assertEquals("Broken pipe", error.getCause().getMessage());
+    }
+}
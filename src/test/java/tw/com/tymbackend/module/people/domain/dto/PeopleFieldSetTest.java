@@ -0,0 +1,51 @@
+package tw.com.tymbackend.module.people.domain.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PeopleFieldSetTest {
+
+    @Test
+    void parse_AlwaysStartsWithName() {
+        PeopleFieldSet fields = PeopleFieldSet.parse("codeName, physicPower");
+
+        assertEquals(List.of("name", "codeName", "physicPower"), fields.getFields());
+    }
+
+    @Test
+    void parse_IgnoresDuplicatesAndBlanks() {
+        PeopleFieldSet fields = PeopleFieldSet.parse("codeName,,name, codeName ,age");
+
+        assertEquals(List.of("name", "codeName", "age"), fields.getFields());
+    }
+
+    @Test
+    void parse_RejectsUnknownAndNonColumnFields() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> PeopleFieldSet.parse("codeName,password,embedding"));
+
+        assertTrue(error.getMessage().contains("password"));
+        assertTrue(error.getMessage().contains("embedding"));
+    }
+
+    @Test
+    void parse_RejectsEmpty() {
+        assertThrows(IllegalArgumentException.class, () -> PeopleFieldSet.parse(" "));
+        assertThrows(IllegalArgumentException.class, () -> PeopleFieldSet.parse(null));
+    }
+
+    @Test
+    void apply_SetsOnlySelectedProperty() {
+        PeopleResponseDTO dto = new PeopleResponseDTO();
+
+        PeopleFieldSet.apply(dto, "physicPower", 120);
+        PeopleFieldSet.apply(dto, "gaveBirth", null);
+
+        assertEquals(120, dto.getPhysicPower());
+        assertNull(dto.getGaveBirth());
+        assertNull(dto.getCodeName());
+    }
+}
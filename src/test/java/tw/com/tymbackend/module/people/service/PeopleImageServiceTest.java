@@ -6,6 +6,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import tw.com.tymbackend.core.config.cache.RedisBatchCache;
 import tw.com.tymbackend.module.people.dao.PeopleImageRepository;
 import tw.com.tymbackend.module.people.domain.vo.PeopleImage;
 
@@ -23,6 +25,9 @@ class PeopleImageServiceTest {
     @Mock
     private PeopleImageRepository peopleImageRepository;
 
+    @Mock
+    private ObjectProvider<RedisBatchCache> redisBatchCache;
+
     @InjectMocks
     private PeopleImageService peopleImageService;
 
@@ -6,13 +6,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import tw.com.tymbackend.core.config.cache.RedisBatchCache;
+import tw.com.tymbackend.core.repository.KeysetPage;
 import tw.com.tymbackend.module.people.dao.PeopleRepository;
+import tw.com.tymbackend.module.people.domain.dto.PeopleFieldSet;
+import tw.com.tymbackend.module.people.domain.dto.PeopleResponseDTO;
 import tw.com.tymbackend.module.people.domain.vo.People;
+import tw.com.tymbackend.module.people.event.PeopleChangedEvent;
 
 import java.util.Arrays;
 import java.util.List;
@@ -28,6 +35,12 @@ class PeopleServiceTest {
     @Mock
     private PeopleRepository peopleRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ObjectProvider<RedisBatchCache> redisBatchCache;
+
     @InjectMocks
     private PeopleService peopleService;
 
@@ -154,4 +167,77 @@ class PeopleServiceTest {
         assertEquals(testPeople, result.getContent().get(0));
         verify(peopleRepository, times(1)).findAll(spec, pageable);
     }
-} 
\ No newline at end of file
+
+    @Test
+    void getPeopleProjectedPage_FetchesOneExtraRowForCursor() {
+        // Arrange
+        PeopleFieldSet fields = PeopleFieldSet.parse("codeName");
+        PeopleResponseDTO first = new PeopleResponseDTO();
+        first.setName("A");
+        PeopleResponseDTO second = new PeopleResponseDTO();
+        second.setName("B");
+        PeopleResponseDTO extra = new PeopleResponseDTO();
+        extra.setName("C");
+        when(peopleRepository.findProjected(fields, "0", 3)).thenReturn(Arrays.asList(first, second, extra));
+
+        // Act
+        KeysetPage<PeopleResponseDTO, String> result = peopleService.getPeopleProjectedPage(fields, "0", 2);
+
+        // Assert
+        assertEquals(2, result.items().size());
+        assertEquals("B", result.nextCursor());
+        assertTrue(result.hasMore());
+        verify(peopleRepository, never()).findAll();
+    }
+
+    @Test
+    void upsertBatch_ReadsBackOnceAfterNativeUpsert() {
+        // Arrange
+        People duplicate = new People();
+        duplicate.setName("Test Character");
+        duplicate.setCodeName("TEST002");
+        List<People> batch = Arrays.asList(testPeople, duplicate);
+        when(peopleRepository.findByNamesIn(List.of("Test Character"))).thenReturn(testPeopleList);
+
+        // Act
+        List<People> result = peopleService.upsertBatch(batch);
+
+        // Assert
+        assertEquals(testPeopleList, result);
+        verify(peopleRepository).upsertAll(batch);
+        verify(peopleRepository, never()).findById(anyString());
+        verify(peopleRepository, never()).save(any(People.class));
+        verify(eventPublisher, times(1)).publishEvent(any(PeopleChangedEvent.class));
+    }
+
+    @Test
+    void upsertBatch_RejectsMissingName() {
+        // Arrange
+        People unnamed = new People();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> peopleService.upsertBatch(Arrays.asList(testPeople, unnamed)));
+        verify(peopleRepository, never()).upsertAll(anyList());
+    }
+
+    @Test
+    void saveAllInChunks_FlushesEachChunkAndPublishesOnce() {
+        // Arrange
+        People second = new People();
+        second.setName("Second");
+        People third = new People();
+        third.setName("Third");
+        List<People> batch = Arrays.asList(testPeople, second, third);
+        when(peopleRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        List<People> result = peopleService.saveAllInChunks(batch, 2);
+
+        // Assert
+        assertEquals(batch, result);
+        verify(peopleRepository).saveAllAndFlush(List.of(testPeople, second));
+        verify(peopleRepository).saveAllAndFlush(List.of(third));
+        verify(eventPublisher, times(1)).publishEvent(any(PeopleChangedEvent.class));
+    }
+}
@@ -5,6 +5,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
 import tw.com.tymbackend.module.people.domain.dto.BatchDamageRequestDTO;
 import tw.com.tymbackend.module.people.domain.dto.BatchDamageResponseDTO;
 import tw.com.tymbackend.module.people.domain.vo.People;
@@ -12,12 +14,24 @@ import tw.com.tymbackend.module.people.service.strategy.DamageStrategy;
 import tw.com.tymbackend.module.weapon.domain.vo.Weapon;
 import tw.com.tymbackend.module.weapon.service.WeaponService;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -39,7 +53,7 @@ class WeaponDamageServiceBatchTest {
 
     @BeforeEach
     void setUp() {
-        weaponDamageService = new WeaponDamageService(weaponService, peopleService, damageStrategy);
+        weaponDamageService = newService(null, null);
     }
 
     @Test
@@ -143,4 +157,156 @@ class WeaponDamageServiceBatchTest {
         assertTrue(result.getDamageResults().isEmpty());
         assertTrue(result.getNotFoundNames().isEmpty());
     }
+
+    @Test
+    void testCalculateBatchDamageWithWeapon_ParallelMatchesSequential() {
+        // Arrange
+        List<String> names = new ArrayList<>();
+        List<People> people = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            names.add("角色" + i);
+            if (i % 7 != 0) {
+                people.add(people("角色" + i, i % 97));
+            }
+        }
+        BatchDamageRequestDTO request = new BatchDamageRequestDTO(names);
+
+        when(peopleService.findByNames(anyList())).thenAnswer(invocation -> people.stream()
+                .filter(p -> invocation.<List<String>>getArgument(0).contains(p.getName())).toList());
+        when(weaponService.getWeaponsByOwners(anyList())).thenReturn(new ArrayList<>());
+        when(damageStrategy.calculateDamage(any(People.class), anyList()))
+                .thenAnswer(invocation -> invocation.<People>getArgument(0).getPhysicPower());
+
+        BatchDamageResponseDTO sequential = weaponDamageService.calculateBatchDamageWithWeapon(request);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            weaponDamageService = newService(pool, null);
+            ReflectionTestUtils.setField(weaponDamageService, "parallelThreshold", 1000);
+
+            // Act
+            BatchDamageResponseDTO parallel = weaponDamageService.calculateBatchDamageWithWeapon(request);
+
+            // Assert
+            assertEquals(sequential.getDamageResults(), parallel.getDamageResults());
+            assertEquals(new ArrayList<>(sequential.getDamageResults().values()),
+                    new ArrayList<>(parallel.getDamageResults().values()));
+            assertEquals(sequential.getNotFoundNames(), parallel.getNotFoundNames());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testCalculateBatchDamageWithWeapon_PipelinedFetchRespectsInFlightLimit() {
+        // Arrange
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            names.add("角色" + i);
+        }
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(peopleService.findByNames(anyList())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+                return invocation.<List<String>>getArgument(0).stream().map(name -> people(name, 1)).toList();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        when(weaponService.getWeaponsByOwners(anyList())).thenReturn(new ArrayList<>());
+        when(damageStrategy.calculateDamage(any(People.class), anyList())).thenReturn(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            weaponDamageService = newService(null, executor);
+            ReflectionTestUtils.setField(weaponDamageService, "fetchChunkSize", 300);
+            ReflectionTestUtils.setField(weaponDamageService, "maxInFlightChunks", 2);
+
+            // Act
+            BatchDamageResponseDTO result = weaponDamageService.calculateBatchDamageWithWeapon(
+                    new BatchDamageRequestDTO(names));
+
+            // Assert：2000 筆分為 7 批，同時進行的查詢不超過上限
+            assertEquals(2000, result.getDamageResults().size());
+            assertTrue(result.getNotFoundNames().isEmpty());
+            verify(peopleService, times(7)).findByNames(anyList());
+            assertTrue(maxInFlight.get() <= 2, "maxInFlight=" + maxInFlight.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testStreamBatchDamageWithWeapon_TopK() {
+        // Arrange
+        List<String> names = Arrays.asList("角色1", "角色2", "不存在角色", "角色3");
+        People person1 = people("角色1", 150);
+        People person2 = people("角色2", 200);
+        People person3 = people("角色3", 200);
+
+        when(peopleService.findByNames(names)).thenReturn(Arrays.asList(person1, person2, person3));
+        when(weaponService.getWeaponsByOwners(names)).thenReturn(new ArrayList<>());
+        when(damageStrategy.calculateDamage(any(People.class), anyList()))
+                .thenAnswer(invocation -> invocation.<People>getArgument(0).getPhysicPower());
+
+        // Act
+        Map<String, Integer> results = new LinkedHashMap<>();
+        List<String> notFound = new ArrayList<>();
+        weaponDamageService.streamBatchDamageWithWeapon(names, 2, results::put, notFound::add);
+
+        // Assert：同分時依名稱排序
+        assertEquals(Arrays.asList("角色2", "角色3"), new ArrayList<>(results.keySet()));
+        assertEquals(Arrays.asList(200, 200), new ArrayList<>(results.values()));
+        assertEquals(List.of("不存在角色"), notFound);
+    }
+
+    @Test
+    void testStreamBatchDamageWithWeapon_FullRosterInChunks() {
+        // Arrange
+        List<String> roster = new ArrayList<>();
+        for (int i = 0; i < WeaponDamageService.DEFAULT_CHUNK_SIZE + 1; i++) {
+            roster.add("角色" + i);
+        }
+        when(peopleService.getAllPeopleNames()).thenReturn(roster);
+        when(peopleService.findByNames(anyList())).thenAnswer(invocation -> invocation.<List<String>>getArgument(0)
+                .stream().map(name -> people(name, 1)).toList());
+        when(weaponService.getWeaponsByOwners(anyList())).thenReturn(new ArrayList<>());
+        when(damageStrategy.calculateDamage(any(People.class), anyList())).thenReturn(1);
+
+        // Act
+        List<String> results = new ArrayList<>();
+        weaponDamageService.streamBatchDamageWithWeapon(null, null, (name, damage) -> results.add(name),
+                name -> fail(name + " not found"));
+
+        // Assert：未指定 topK 時依名冊順序分批輸出
+        assertEquals(roster, results);
+        verify(peopleService, times(2)).findByNames(anyList());
+    }
+
+    @Test
+    void testStreamBatchDamageWithWeapon_InvalidTopK() {
+        assertThrows(IllegalArgumentException.class,
+                () -> weaponDamageService.streamBatchDamageWithWeapon(List.of("角色1"), 0, (n, d) -> { }, n -> { }));
+    }
+
+    private static People people(String name, int physicPower) {
+        People person = new People();
+        person.setName(name);
+        person.setPhysicPower(physicPower);
+        return person;
+    }
+
+    private WeaponDamageService newService(ForkJoinPool pool, Executor executor) {
+        return new WeaponDamageService(weaponService, peopleService, damageStrategy,
+                provider(null), provider(null), provider(pool), provider(executor));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ObjectProvider<T> provider(T value) {
+        ObjectProvider<T> provider = mock(ObjectProvider.class);
+        lenient().when(provider.getIfAvailable()).thenReturn(value);
+        return provider;
+    }
 }
@@ -3,16 +3,20 @@ package tw.com.tymbackend.module.people.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 import tw.com.tymbackend.module.people.domain.vo.People;
+import tw.com.tymbackend.module.people.service.cache.DamageResultCache;
+import tw.com.tymbackend.module.people.service.snapshot.PeopleCombatSnapshot;
 import tw.com.tymbackend.module.people.service.strategy.DamageStrategy;
 import tw.com.tymbackend.module.weapon.domain.vo.Weapon;
 import tw.com.tymbackend.module.weapon.service.WeaponService;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -30,7 +34,18 @@ class WeaponDamageServiceTest {
     @Mock
     private DamageStrategy damageStrategy;
 
-    @InjectMocks
+    @Mock
+    private ObjectProvider<PeopleCombatSnapshot> combatSnapshot;
+
+    @Mock
+    private ObjectProvider<DamageResultCache> damageResultCache;
+
+    @Mock
+    private ObjectProvider<ForkJoinPool> damageComputePool;
+
+    @Mock
+    private ObjectProvider<Executor> fetchExecutor;
+
     private WeaponDamageService weaponDamageService;
 
     private People testPeople;
@@ -38,6 +53,9 @@ class WeaponDamageServiceTest {
 
     @BeforeEach
     void setUp() {
+        weaponDamageService = new WeaponDamageService(weaponService, peopleService, damageStrategy,
+                combatSnapshot, damageResultCache, damageComputePool, fetchExecutor);
+
         testPeople = new People();
         testPeople.setName("Test Character");
         testPeople.setAttributes("Strength");
@@ -0,0 +1,153 @@
+package tw.com.tymbackend.module.people.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import tw.com.tymbackend.core.config.cache.CacheInvalidationBus;
+import tw.com.tymbackend.module.people.domain.vo.People;
+import tw.com.tymbackend.module.people.event.PeopleChangedEvent;
+import tw.com.tymbackend.module.weapon.domain.vo.Weapon;
+import tw.com.tymbackend.module.weapon.event.WeaponChangedEvent;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 依賴追蹤傷害快取測試
+ */
+class DamageResultCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DamageResultCache cache;
+    private Map<String, List<String>> ownedWeapons;
+    private Map<String, Integer> damages;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = newCache(true, 100);
+        ownedWeapons = new HashMap<>();
+        ownedWeapons.put("Alice", List.of("Sword"));
+        ownedWeapons.put("Bob", List.of("Bow"));
+        damages = new HashMap<>(Map.of("Alice", 100, "Bob", 200));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_HitAfterMiss() {
+        assertEquals(100, cache.get("Alice", this::load));
+        assertEquals(100, cache.get("Alice", this::load));
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("damage.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("damage.cache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void onPeopleChanged_InvalidatesOnlyAffectedCharacter() {
+        cache.get("Alice", this::load);
+        cache.get("Bob", this::load);
+
+        damages.put("Alice", 150);
+        cache.onPeopleChanged(PeopleChangedEvent.saved(people("Alice")));
+
+        assertEquals(150, cache.get("Alice", this::load));
+        assertEquals(200, cache.get("Bob", this::load));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void onWeaponChanged_OwnerReassignmentInvalidatesBothOwners() {
+        cache.get("Alice", this::load);
+        cache.get("Bob", this::load);
+
+        // Sword 從 Alice 轉移給 Bob，事件未帶舊擁有者時由依賴索引找出
+        cache.onWeaponChanged(WeaponChangedEvent.saved(weapon("Sword", "Bob"), null));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void onWeaponChanged_DeleteInvalidatesIndexedOwner() {
+        cache.get("Alice", this::load);
+        cache.get("Bob", this::load);
+
+        cache.onWeaponChanged(WeaponChangedEvent.deleted("Bow"));
+
+        assertEquals(1, cache.size());
+        cache.get("Alice", this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_InvalidationDuringLoadDiscardsResult() {
+        int result = cache.get("Alice", (name, dependencies) -> {
+            // 計算期間發生寫入
+            cache.onPeopleChanged(PeopleChangedEvent.saved(people("Alice")));
+            return 999;
+        });
+
+        assertEquals(999, result);
+        assertEquals(0, cache.size());
+        assertEquals(1.0, meterRegistry.get("damage.cache.stale").counter().count());
+        assertEquals(100, cache.get("Alice", this::load));
+    }
+
+    @Test
+    void get_Disabled() {
+        DamageResultCache disabled = newCache(false, 100);
+
+        disabled.get("Alice", this::load);
+        disabled.get("Alice", this::load);
+
+        assertEquals(2, loads.get());
+        assertEquals(0, disabled.size());
+    }
+
+    @Test
+    void get_BoundedByMaxEntries() {
+        DamageResultCache bounded = newCache(true, 2);
+        damages.put("Carol", 300);
+        damages.put("Dave", 400);
+
+        // 超過上限時淘汰舊項目，而不是停止接受新角色
+        for (String name : List.of("Alice", "Bob", "Carol", "Dave")) {
+            assertEquals(damages.get(name), bounded.get(name, this::load));
+        }
+
+        assertTrue(bounded.size() <= 2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private DamageResultCache newCache(boolean enabled, int maxEntries) {
+        ObjectProvider<CacheInvalidationBus> noBus = mock(ObjectProvider.class);
+        return new DamageResultCache(meterRegistry, noBus, enabled, maxEntries, Duration.ofMinutes(10));
+    }
+
+    private int load(String name, java.util.function.Consumer<String> dependencies) {
+        loads.incrementAndGet();
+        ownedWeapons.getOrDefault(name, List.of()).forEach(dependencies);
+        return damages.getOrDefault(name, -1);
+    }
+
+    private static People people(String name) {
+        People people = new People();
+        people.setName(name);
+        return people;
+    }
+
+    private static Weapon weapon(String name, String owner) {
+        Weapon weapon = new Weapon();
+        weapon.setName(name);
+        weapon.setOwner(owner);
+        return weapon;
+    }
+}
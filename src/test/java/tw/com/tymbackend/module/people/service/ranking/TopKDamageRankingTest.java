@@ -0,0 +1,59 @@
+package tw.com.tymbackend.module.people.service.ranking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 有界傷害排行榜測試：結果必須與完整排序後取前 K 名一致
+ */
+class TopKDamageRankingTest {
+
+    @Test
+    void drainTo_MatchesFullSort() {
+        Random random = new Random(11);
+        for (int k : new int[] {1, 3, 10, 50}) {
+            List<Map.Entry<String, Integer>> all = new ArrayList<>();
+            TopKDamageRanking ranking = new TopKDamageRanking(k);
+            for (int i = 0; i < 200; i++) {
+                String name = "角色" + i;
+                int damage = random.nextInt(40);
+                all.add(Map.entry(name, damage));
+                ranking.accept(name, damage);
+            }
+
+            List<Map.Entry<String, Integer>> expected = all.stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(k)
+                    .toList();
+            List<Map.Entry<String, Integer>> actual = new ArrayList<>();
+            ranking.drainTo((name, damage) -> actual.add(Map.entry(name, damage)));
+
+            assertEquals(expected, actual, "k=" + k);
+            assertEquals(0, ranking.size());
+        }
+    }
+
+    @Test
+    void drainTo_FewerThanK() {
+        TopKDamageRanking ranking = new TopKDamageRanking(5);
+        ranking.accept("B", 10);
+        ranking.accept("A", 20);
+
+        List<String> names = new ArrayList<>();
+        ranking.drainTo((name, damage) -> names.add(name));
+
+        assertEquals(List.of("A", "B"), names);
+    }
+
+    @Test
+    void constructor_InvalidK() {
+        assertThrows(IllegalArgumentException.class, () -> new TopKDamageRanking(0));
+    }
+}
@@ -0,0 +1,201 @@
+package tw.com.tymbackend.module.people.service.snapshot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tw.com.tymbackend.module.people.dao.PeopleRepository;
+import tw.com.tymbackend.module.people.domain.vo.People;
+import tw.com.tymbackend.module.people.event.PeopleChangedEvent;
+import tw.com.tymbackend.module.people.service.strategy.BonusAttributeDamageDecorator;
+import tw.com.tymbackend.module.people.service.strategy.CompiledDamageStrategy;
+import tw.com.tymbackend.module.people.service.strategy.DefaultDamageStrategy;
+import tw.com.tymbackend.module.people.service.strategy.StateEffectDamageDecorator;
+import tw.com.tymbackend.module.weapon.dao.WeaponRepository;
+import tw.com.tymbackend.module.weapon.domain.vo.Weapon;
+import tw.com.tymbackend.module.weapon.event.WeaponChangedEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PeopleCombatSnapshotTest {
+
+    @Mock
+    private PeopleRepository peopleRepository;
+
+    @Mock
+    private WeaponRepository weaponRepository;
+
+    private StateEffectDamageDecorator chain;
+    private CompiledDamageStrategy strategy;
+    private PeopleCombatSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        chain = new StateEffectDamageDecorator(new BonusAttributeDamageDecorator(new DefaultDamageStrategy()));
+        strategy = new CompiledDamageStrategy(chain);
+        snapshot = new PeopleCombatSnapshot(peopleRepository, weaponRepository, true);
+    }
+
+    @Test
+    void ensureLoaded_Disabled() {
+        PeopleCombatSnapshot disabled = new PeopleCombatSnapshot(peopleRepository, weaponRepository, false);
+
+        assertFalse(disabled.ensureLoaded());
+        verifyNoInteractions(peopleRepository, weaponRepository);
+    }
+
+    @Test
+    void ensureLoaded_RepositoryFailure() {
+        when(peopleRepository.findCombatStats()).thenThrow(new RuntimeException("db down"));
+
+        assertFalse(snapshot.ensureLoaded());
+    }
+
+    @Test
+    void calculateDamage_MatchesChainOnRandomFixtures() {
+        Random random = new Random(7);
+        List<String> attributes = Arrays.asList("Strength", "Agility", "Fire", "Ice");
+        List<String> states = Arrays.asList("Normal", "Burn", "Freeze");
+
+        List<People> people = new ArrayList<>();
+        List<Weapon> weapons = new ArrayList<>();
+        Map<String, List<Weapon>> weaponsByOwner = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            People p = people("P" + i,
+                    random.nextInt(5) == 0 ? null : attributes.get(random.nextInt(attributes.size())),
+                    random.nextInt(5) == 0 ? null : states.get(random.nextInt(states.size())),
+                    random.nextInt(500), random.nextInt(500), random.nextInt(10) == 0 ? null : random.nextInt(500));
+            people.add(p);
+            for (int j = random.nextInt(5); j > 0; j--) {
+                Weapon w = weapon("W" + i + "-" + j, p.getName(), random.nextInt(999), random.nextInt(200),
+                        sample(random, attributes), sample(random, states));
+                weapons.add(w);
+                weaponsByOwner.computeIfAbsent(p.getName(), k -> new ArrayList<>()).add(w);
+            }
+        }
+        stubLoad(people, weapons);
+
+        assertTrue(snapshot.ensureLoaded());
+        Map<String, Integer> results = new HashMap<>();
+        snapshot.forEachDamage(strategy, results::put);
+
+        assertEquals(people.size(), results.size());
+        for (People p : people) {
+            int expected = chain.calculateDamage(p, weaponsByOwner.getOrDefault(p.getName(), new ArrayList<>()));
+            assertEquals(expected, results.get(p.getName()), p.getName());
+        }
+    }
+
+    @Test
+    void calculateDamage_NotFound() {
+        stubLoad(List.of(people("Alice", "Fire", "Burn", 10, 20, 30)), List.of());
+
+        assertTrue(snapshot.ensureLoaded());
+        Map<String, Integer> found = new HashMap<>();
+        List<String> notFound = new ArrayList<>();
+        snapshot.calculateDamage(Arrays.asList("Alice", "Bob"), strategy, found::put, notFound::add);
+
+        assertEquals(Map.of("Alice", 60), found);
+        assertEquals(List.of("Bob"), notFound);
+    }
+
+    @Test
+    void onWeaponChanged_MoveAndDelete() {
+        Weapon sword = weapon("Sword", "Alice", 100, 0, null, null);
+        stubLoad(List.of(people("Alice", null, null, 10, 0, 0), people("Bob", null, null, 20, 0, 0)),
+                List.of(sword));
+        assertTrue(snapshot.ensureLoaded());
+        assertEquals(110, damageOf("Alice"));
+
+        // 武器轉移給 Bob
+        Weapon moved = weapon("Sword", "Bob", 100, 0, null, null);
+        snapshot.onWeaponChanged(WeaponChangedEvent.saved(moved, "Alice"));
+        assertEquals(10, damageOf("Alice"));
+        assertEquals(120, damageOf("Bob"));
+
+        snapshot.onWeaponChanged(WeaponChangedEvent.deleted("Sword"));
+        assertEquals(20, damageOf("Bob"));
+    }
+
+    @Test
+    void onPeopleChanged_UpsertAndClear() {
+        stubLoad(List.of(people("Alice", null, null, 10, 0, 0)), List.of(weapon("Sword", "Carol", 50, 0, null, null)));
+        assertTrue(snapshot.ensureLoaded());
+
+        // 武器擁有者後來才建立角色
+        snapshot.onPeopleChanged(PeopleChangedEvent.saved(people("Carol", null, null, 5, 5, 5)));
+        assertEquals(65, damageOf("Carol"));
+        assertEquals(2, snapshot.size());
+
+        snapshot.onPeopleChanged(PeopleChangedEvent.cleared());
+        assertEquals(0, snapshot.size());
+    }
+
+    @Test
+    void onPeopleChanged_IgnoredBeforeLoad() {
+        snapshot.onPeopleChanged(PeopleChangedEvent.saved(people("Alice", null, null, 10, 0, 0)));
+
+        assertEquals(0, snapshot.size());
+        verifyNoInteractions(peopleRepository, weaponRepository);
+    }
+
+    private int damageOf(String name) {
+        int[] damage = {Integer.MIN_VALUE};
+        snapshot.calculateDamage(List.of(name), strategy, (n, d) -> damage[0] = d, n -> fail(n + " not found"));
+        return damage[0];
+    }
+
+    private void stubLoad(List<People> people, List<Weapon> weapons) {
+        List<Object[]> stats = new ArrayList<>();
+        for (People p : people) {
+            stats.add(new Object[] {p.getName(), p.getPhysicPower(), p.getMagicPower(), p.getUtilityPower(),
+                    p.getAttributes(), p.getStateAttributes()});
+        }
+        when(peopleRepository.findCombatStats()).thenReturn(stats);
+        when(weaponRepository.findAll()).thenReturn(weapons);
+    }
+
+    private static List<String> sample(Random random, List<String> values) {
+        List<String> result = new ArrayList<>();
+        for (String value : values) {
+            if (random.nextBoolean()) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    private static People people(String name, String attributes, String state, Integer physic, Integer magic,
+            Integer utility) {
+        People people = new People();
+        people.setName(name);
+        people.setAttributes(attributes);
+        people.setStateAttributes(state);
+        people.setPhysicPower(physic);
+        people.setMagicPower(magic);
+        people.setUtilityPower(utility);
+        return people;
+    }
+
+    private static Weapon weapon(String name, String owner, Integer baseDamage, Integer bonusDamage,
+            List<String> bonusAttributes, List<String> stateAttributes) {
+        Weapon weapon = new Weapon();
+        weapon.setName(name);
+        weapon.setOwner(owner);
+        weapon.setBaseDamage(baseDamage);
+        weapon.setBonusDamage(bonusDamage);
+        weapon.setBonusAttributes(bonusAttributes);
+        weapon.setStateAttributes(stateAttributes);
+        return weapon;
+    }
+}
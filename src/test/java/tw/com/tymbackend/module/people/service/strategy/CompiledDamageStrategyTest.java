@@ -0,0 +1,142 @@
+package tw.com.tymbackend.module.people.service.strategy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tw.com.tymbackend.module.people.domain.vo.People;
+import tw.com.tymbackend.module.weapon.domain.vo.Weapon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 編譯傷害管線測試：結果必須與原裝飾器鏈完全一致
+ */
+class CompiledDamageStrategyTest {
+
+    private StateEffectDamageDecorator chain;
+    private CompiledDamageStrategy compiled;
+
+    @BeforeEach
+    void setUp() {
+        chain = new StateEffectDamageDecorator(new BonusAttributeDamageDecorator(new DefaultDamageStrategy()));
+        compiled = new CompiledDamageStrategy(chain);
+    }
+
+    @Test
+    void compile_DefaultChain() {
+        assertTrue(compiled.isCompiled());
+    }
+
+    @Test
+    void calculateDamage_NullPeople() {
+        assertEquals(-1, compiled.calculateDamage(null, List.of()));
+        assertEquals(chain.calculateDamage(null, null), compiled.calculateDamage(null, null));
+    }
+
+    @Test
+    void calculateDamage_NoWeapons() {
+        People people = people("Strength", "Normal", 100, 50, 75);
+
+        assertEquals(225, compiled.calculateDamage(people, null));
+        assertEquals(225, compiled.calculateDamage(people, new ArrayList<>()));
+    }
+
+    @Test
+    void calculateDamage_AllTermsMatch() {
+        People people = people("Strength", "Normal", 100, 50, 75);
+        Weapon weapon = weapon(50, 25, Arrays.asList("Strength"), Arrays.asList("Normal", "Burn"));
+
+        // 225 + 50 + 25 + 50 * 0.05 * 2 = 305
+        assertEquals(305, compiled.calculateDamage(people, List.of(weapon)));
+        assertEquals(chain.calculateDamage(people, List.of(weapon)), compiled.calculateDamage(people, List.of(weapon)));
+    }
+
+    @Test
+    void calculateDamage_NullFields() {
+        People people = people(null, null, null, 10, null);
+        Weapon weapon = weapon(null, null, null, null);
+
+        assertEquals(chain.calculateDamage(people, List.of(weapon)), compiled.calculateDamage(people, List.of(weapon)));
+    }
+
+    @Test
+    void calculateDamage_MatchesChainOnRandomFixtures() {
+        Random random = new Random(42);
+        List<String> attributes = Arrays.asList("Strength", "Agility", "Fire", "Ice", "Dark");
+        List<String> states = Arrays.asList("Normal", "Burn", "Freeze", "Poison");
+
+        for (int i = 0; i < 2000; i++) {
+            People people = people(
+                    random.nextInt(6) == 0 ? null : attributes.get(random.nextInt(attributes.size())),
+                    random.nextInt(6) == 0 ? null : states.get(random.nextInt(states.size())),
+                    random.nextInt(500), random.nextInt(500), random.nextInt(500));
+
+            int weaponCount = random.nextInt(8);
+            List<Weapon> weapons = random.nextBoolean() ? new ArrayList<>() : new LinkedList<>();
+            for (int j = 0; j < weaponCount; j++) {
+                weapons.add(weapon(
+                        random.nextInt(10) == 0 ? null : random.nextInt(999),
+                        random.nextInt(10) == 0 ? null : random.nextInt(200),
+                        random.nextInt(5) == 0 ? null : sample(random, attributes),
+                        random.nextInt(5) == 0 ? null : sample(random, states)));
+            }
+
+            assertEquals(chain.calculateDamage(people, weapons), compiled.calculateDamage(people, weapons),
+                    "fixture " + i);
+        }
+    }
+
+    @Test
+    void compile_UnknownDecoratorFallsBackToChain() {
+        StateEffectDamageDecorator customChain = new StateEffectDamageDecorator(
+                new BonusAttributeDamageDecorator(new DefaultDamageStrategy()) {
+                    @Override
+                    public int calculateDamage(People people, List<Weapon> weapons) {
+                        return super.calculateDamage(people, weapons) * 2;
+                    }
+                });
+        CompiledDamageStrategy strategy = new CompiledDamageStrategy(customChain);
+
+        assertFalse(strategy.isCompiled());
+        People people = people("Strength", "Normal", 1, 2, 3);
+        assertEquals(12, strategy.calculateDamage(people, List.of()));
+    }
+
+    private static List<String> sample(Random random, List<String> values) {
+        List<String> result = new ArrayList<>();
+        for (String value : values) {
+            if (random.nextBoolean()) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    private static People people(String attributes, String state, Integer physic, Integer magic, Integer utility) {
+        People people = new People();
+        people.setName("Test Character");
+        people.setAttributes(attributes);
+        people.setStateAttributes(state);
+        people.setPhysicPower(physic);
+        people.setMagicPower(magic);
+        people.setUtilityPower(utility);
+        return people;
+    }
+
+    private static Weapon weapon(Integer baseDamage, Integer bonusDamage, List<String> bonusAttributes,
+            List<String> stateAttributes) {
+        Weapon weapon = new Weapon();
+        weapon.setName("Test Sword");
+        weapon.setOwner("Test Character");
+        weapon.setBaseDamage(baseDamage);
+        weapon.setBonusDamage(bonusDamage);
+        weapon.setBonusAttributes(bonusAttributes);
+        weapon.setStateAttributes(stateAttributes);
+        return weapon;
+    }
+}
@@ -0,0 +1,42 @@
+package tw.com.tymbackend.module.people.service.strategy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.DoubleStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 傷害累加器測試：狀態效果加總必須與 DoubleStream.sum() 逐位元一致
+ */
+class DamageAccumulatorTest {
+
+    @Test
+    void addStateEffect_MatchesDoubleStreamSum() {
+        Random random = new Random(42);
+        DamageAccumulator accumulator = new DamageAccumulator();
+        double[] values = new double[1000];
+        for (int i = 0; i < values.length; i++) {
+            int base = random.nextInt(1000);
+            int stateCount = 1 + random.nextInt(4);
+            values[i] = base * 0.05 * stateCount;
+            accumulator.addStateEffect(base, stateCount);
+        }
+
+        assertEquals(Double.doubleToLongBits(DoubleStream.of(values).sum()),
+                Double.doubleToLongBits(accumulator.getStateExtra()));
+    }
+
+    @Test
+    void addWeaponAndBonus_SumAsLongs() {
+        DamageAccumulator accumulator = new DamageAccumulator();
+        accumulator.addWeapon(Integer.MAX_VALUE);
+        accumulator.addWeapon(Integer.MAX_VALUE);
+        accumulator.addBonus(7);
+
+        assertEquals(2L * Integer.MAX_VALUE, accumulator.getWeaponDamage());
+        assertEquals(7L, accumulator.getBonusDamage());
+        assertEquals(0.0, accumulator.getStateExtra());
+    }
+}
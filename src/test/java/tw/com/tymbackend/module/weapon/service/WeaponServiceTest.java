@@ -3,13 +3,17 @@ package tw.com.tymbackend.module.weapon.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import tw.com.tymbackend.module.weapon.dao.WeaponRepository;
 import tw.com.tymbackend.module.weapon.domain.vo.Weapon;
+import tw.com.tymbackend.module.weapon.event.WeaponChangedEvent;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +27,9 @@ class WeaponServiceTest {
     @Mock
     private WeaponRepository weaponRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private WeaponService weaponService;
 
@@ -170,4 +177,36 @@ class WeaponServiceTest {
         // Assert
         verify(weaponRepository, times(1)).deleteById("Test Sword");
     }
-} 
\ No newline at end of file
+
+    @Test
+    void upsertBatch_WritesOnceAndPublishesPreviousOwner() {
+        // Arrange
+        List<String> names = Collections.singletonList("Test Sword");
+        List<Object[]> owners = Collections.singletonList(new Object[] {"Test Sword", "Old Owner"});
+        when(weaponRepository.findOwnersByNames(names)).thenReturn(owners);
+        when(weaponRepository.findAllById(names)).thenReturn(testWeaponList);
+
+        // Act
+        List<Weapon> result = weaponService.upsertBatch(testWeaponList);
+
+        // Assert
+        assertEquals(testWeaponList, result);
+        verify(weaponRepository).upsertAll(testWeaponList);
+        verify(weaponRepository, never()).save(any(Weapon.class));
+        ArgumentCaptor<WeaponChangedEvent> event = ArgumentCaptor.forClass(WeaponChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals("Old Owner", event.getValue().getPreviousOwner());
+    }
+
+    @Test
+    void upsertBatch_RejectsMissingName() {
+        // Arrange
+        Weapon unnamed = new Weapon();
+        unnamed.setName(" ");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> weaponService.upsertBatch(Arrays.asList(testWeapon, unnamed)));
+        verify(weaponRepository, never()).upsertAll(anyList());
+    }
+}